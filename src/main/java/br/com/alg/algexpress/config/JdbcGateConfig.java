@@ -0,0 +1,54 @@
+package br.com.alg.algexpress.config;
+
+import br.com.alg.algexpress.infra.support.GatedDataSource;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "algexpress.jdbc-gate", name = "enabled", havingValue = "true")
+public class JdbcGateConfig {
+
+    @Bean
+    public JdbcGate jdbcGate(@Value("${algexpress.jdbc-gate.quota.reads:6}") int reads,
+                             @Value("${algexpress.jdbc-gate.quota.writes:4}") int writes,
+                             @Value("${algexpress.jdbc-gate.quota.reports:4}") int reports,
+                             @Value("${algexpress.jdbc-gate.acquire-timeout:10s}") Duration acquireTimeout) {
+        return new JdbcGate(Map.of(
+                JdbcGate.WorkloadClass.READ, reads,
+                JdbcGate.WorkloadClass.WRITE, writes,
+                JdbcGate.WorkloadClass.REPORT, reports), acquireTimeout);
+    }
+
+    // Picked up by the auto-configured applicationTaskExecutor, which runs async MVC work such as
+    // the StreamingResponseBody of order exports, so that work keeps the request's class
+    @Bean
+    public TaskDecorator jdbcGateTaskDecorator() {
+        return JdbcGate::propagate;
+    }
+
+    @Bean
+    public static BeanPostProcessor gatedDataSourcePostProcessor(ObjectProvider<JdbcGate> jdbcGate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the data source the application uses; with replica routing enabled the
+                // per-database pools behind it are beans too and must not take a second permit
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof GatedDataSource)) {
+                    return new GatedDataSource(dataSource, jdbcGate.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.alg.algexpress.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduled jobs run on Boot's task scheduler, sized by {@code spring.task.scheduling.pool.size}:
+ * the nightly partition maintenance and archiving can run for minutes, and must not hold up the
+ * relay, dispatcher and health checks that poll every few seconds.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -19,6 +19,9 @@ public class Customer {
     @EqualsAndHashCode.Include
     private Long id;
     
+    @Version
+    private Long version;
+    
     @Column(nullable = false, length = 100)
     private String name;
     
@@ -41,7 +44,8 @@ public class Customer {
     @Column(nullable = false)
     private CustomerStatus status;
     
-    @Column(name = "loyalty_points", nullable = false)
+    // Balance moves only through atomic SQL updates (see LoyaltyLedgerRepository)
+    @Column(name = "loyalty_points", nullable = false, updatable = false)
     private Integer loyaltyPoints = 0;
     
     @PrePersist
@@ -20,10 +20,18 @@ public class Delivery {
     @EqualsAndHashCode.Include
     private Long id;
     
+    @Version
+    private Long version;
+    
+    // The foreign key to the partitioned orders is on (order_id, order_date_time), see the migrations
     @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
     
+    // Copy of the order's partition key, part of the foreign key to orders
+    @Column(name = "order_date_time", nullable = false, updatable = false)
+    private LocalDateTime orderDateTime;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "delivery_person_id")
     private DeliveryPerson deliveryPerson;
@@ -61,6 +69,9 @@ public class Delivery {
         if (status == null) {
             status = DeliveryStatus.WAITING_DELIVERY_PERSON;
         }
+        if (orderDateTime == null) {
+            orderDateTime = order.getOrderDateTime();
+        }
     }
     
     public enum DeliveryStatus {
@@ -69,7 +80,16 @@ public class Delivery {
         DELIVERY_ATTEMPT,
         DELIVERED,
         CANCELLED,
-        RETURNED
+        RETURNED;
+
+        public boolean canTransitionTo(DeliveryStatus next) {
+            return switch (this) {
+                case WAITING_DELIVERY_PERSON -> next == EN_ROUTE || next == CANCELLED;
+                case EN_ROUTE, DELIVERY_ATTEMPT -> next == DELIVERY_ATTEMPT || next == DELIVERED
+                        || next == RETURNED || next == CANCELLED || (this == DELIVERY_ATTEMPT && next == EN_ROUTE);
+                case DELIVERED, CANCELLED, RETURNED -> false;
+            };
+        }
     }
     
     public Integer calculateDeliveryTimeMinutes() {
@@ -3,11 +3,15 @@ package br.com.alg.algexpress.domain.menu;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "ingredients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-ingredients")
 @Data
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Ingredient {
@@ -3,12 +3,16 @@ package br.com.alg.algexpress.domain.menu;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
 @Table(name = "pizzas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-pizzas")
 @Data
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Pizza {
@@ -37,6 +41,7 @@ public class Pizza {
     private BigDecimal priceExtraLarge;
     
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-pizza-ingredients")
     @JoinTable(
         name = "pizza_ingredients",
         joinColumns = @JoinColumn(name = "pizza_id"),
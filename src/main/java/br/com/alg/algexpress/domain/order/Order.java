@@ -18,10 +18,14 @@ import java.util.List;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
     
+    @Version
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
@@ -44,7 +48,8 @@ public class Order {
     @JoinColumn(name = "delivery_address_id")
     private Address deliveryAddress;
     
-    @Column(name = "order_date_time", nullable = false)
+    // Partition key of orders, order_items and payments: never changes once the order is placed
+    @Column(name = "order_date_time", nullable = false, updatable = false)
     private LocalDateTime orderDateTime;
     
     @Column(name = "estimated_date_time")
@@ -82,11 +87,6 @@ public class Order {
         calculateTotal();
     }
     
-    @PreUpdate
-    private void preUpdate() {
-        calculateTotal();
-    }
-    
     public enum OrderStatus {
         PENDING,
         CONFIRMED,
@@ -94,7 +94,18 @@ public class Order {
         READY,
         OUT_FOR_DELIVERY,
         DELIVERED,
-        CANCELLED
+        CANCELLED;
+
+        public boolean canTransitionTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == CONFIRMED || next == CANCELLED;
+                case CONFIRMED -> next == PREPARING || next == READY || next == CANCELLED;
+                case PREPARING -> next == READY || next == CANCELLED;
+                case READY -> next == OUT_FOR_DELIVERY || next == DELIVERED || next == CANCELLED;
+                case OUT_FOR_DELIVERY -> next == DELIVERED || next == CANCELLED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
     }
     
     public enum OrderType {
@@ -118,6 +129,15 @@ public class Order {
         return calculatedTotal;
     }
     
+    /**
+     * Shifts subtotal and total by the change in one item's total price. Item changes go through
+     * here (see {@code OrderItemService}) so that updating an order never loads its items.
+     */
+    public void applyItemDelta(BigDecimal delta) {
+        this.subtotal = (subtotal != null ? subtotal : BigDecimal.ZERO).add(delta);
+        this.total = (total != null ? total : BigDecimal.ZERO).add(delta);
+    }
+    
     public BigDecimal getTotalPaidAmount() {
         return payments != null ? payments.stream()
             .filter(payment -> payment.getStatus() == Payment.PaymentStatus.APPROVED)
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -16,7 +17,8 @@ import java.util.List;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
     
@@ -31,10 +33,12 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
     
+    // No foreign keys to the partitioned order_items (no unique key on id alone); a delete
+    // trigger on order_items removes the customizations instead
     @ManyToMany
     @JoinTable(
         name = "order_item_additional_ingredients",
-        joinColumns = @JoinColumn(name = "order_item_id"),
+        joinColumns = @JoinColumn(name = "order_item_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)),
         inverseJoinColumns = @JoinColumn(name = "ingredient_id")
     )
     private List<Ingredient> additionalIngredients;
@@ -42,7 +46,7 @@ public class OrderItem {
     @ManyToMany
     @JoinTable(
         name = "order_item_removed_ingredients",
-        joinColumns = @JoinColumn(name = "order_item_id"),
+        joinColumns = @JoinColumn(name = "order_item_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)),
         inverseJoinColumns = @JoinColumn(name = "ingredient_id")
     )
     private List<Ingredient> removedIngredients;
@@ -56,10 +60,15 @@ public class OrderItem {
     @Column(length = 300)
     private String observations;
     
+    // The foreign key to the partitioned orders is on (order_id, order_date_time), see the migrations
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
     
+    // Copy of the order's partition key: the item lives in the same monthly partition as its order
+    @Column(name = "order_date_time", nullable = false, updatable = false)
+    private LocalDateTime orderDateTime;
+    
     public BigDecimal calculateTotalPrice() {
         BigDecimal basePrice = pizza.getPriceBySize(size);
         BigDecimal additionalIngredientsCost = BigDecimal.ZERO;
@@ -74,9 +83,22 @@ public class OrderItem {
     }
     
     @PrePersist
+    private void prePersist() {
+        if (orderDateTime == null) {
+            orderDateTime = order.getOrderDateTime();
+        }
+        calculatePrices();
+    }
+    
+    // Prices set by the services are kept as-is: the order's totals are maintained from them
+    // through deltas, so they must not be recomputed behind the services' back at flush time
     @PreUpdate
     private void calculatePrices() {
-        this.unitPrice = pizza.getPriceBySize(size);
-        this.totalPrice = calculateTotalPrice();
+        if (unitPrice == null) {
+            this.unitPrice = pizza.getPriceBySize(size);
+        }
+        if (totalPrice == null) {
+            this.totalPrice = calculateTotalPrice();
+        }
     }
 }
\ No newline at end of file
@@ -21,8 +21,12 @@ public class Payment {
     @EqualsAndHashCode.Include
     private Long id;
     
+    @Version
+    private Long version;
+    
+    // The foreign key to the partitioned orders is on (order_id, order_date_time), see the migrations
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
     
     @Embedded
@@ -44,9 +48,14 @@ public class Payment {
     @AttributeOverride(name = "amount", column = @Column(name = "amount_paid"))
     private Money amountPaid;
     
-    @Column(name = "payment_date_time")
+    // Partition key of payments; setting it later moves the row to the matching partition
+    @Column(name = "payment_date_time", nullable = false)
     private LocalDateTime paymentDateTime;
     
+    // Copy of the order's partition key, part of the foreign key to orders
+    @Column(name = "order_date_time", nullable = false, updatable = false)
+    private LocalDateTime orderDateTime;
+    
     @Column(name = "due_date_time")
     private LocalDateTime dueDateDateTime;
     
@@ -61,6 +70,12 @@ public class Payment {
         if (status == null) {
             status = PaymentStatus.PENDING;
         }
+        if (paymentDateTime == null) {
+            paymentDateTime = LocalDateTime.now();
+        }
+        if (orderDateTime == null) {
+            orderDateTime = order.getOrderDateTime();
+        }
     }
     
     // PaymentMethod agora é um Value Object em domain.valueObjects
@@ -71,7 +86,16 @@ public class Payment {
         APPROVED,
         REJECTED,
         CANCELLED,
-        REFUNDED
+        REFUNDED;
+
+        public boolean canTransitionTo(PaymentStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == APPROVED || next == REJECTED || next == CANCELLED;
+                case PROCESSING -> next == APPROVED || next == REJECTED || next == CANCELLED;
+                case APPROVED -> next == REFUNDED;
+                case REJECTED, CANCELLED, REFUNDED -> false;
+            };
+        }
     }
     
     public Money calculateChange() {
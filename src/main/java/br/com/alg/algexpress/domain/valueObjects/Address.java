@@ -45,6 +45,9 @@ public class Address {
     @Column(precision = 10, scale = 7)
     private BigDecimal longitude;
     
+    @Column(length = 12)
+    private String geohash;
+    
     @Column(name = "distance_km", precision = 8, scale = 3)
     private BigDecimal distanceKm;
     
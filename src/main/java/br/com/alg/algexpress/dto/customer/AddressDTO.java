@@ -1,6 +1,8 @@
 package br.com.alg.algexpress.dto.customer;
 
 import br.com.alg.algexpress.domain.valueObjects.Address;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -40,6 +42,14 @@ public record AddressDTO(
     @Pattern(regexp = "^\\d{5}-?\\d{3}$", message = "ZIP code format is invalid")
     String zipCode,
     
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    BigDecimal latitude,
+    
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    BigDecimal longitude,
+    
     @Size(max = 200, message = "Reference points must not exceed 200 characters")
     String referencePoints,
     
@@ -61,6 +71,8 @@ public record AddressDTO(
             address.getCity(),
             address.getState(),
             address.getZipCode(),
+            address.getLatitude(),
+            address.getLongitude(),
             address.getReferencePoints(),
             address.getType(),
             address.getDeliveryFee(),
@@ -78,6 +90,8 @@ public record AddressDTO(
         address.setCity(this.city);
         address.setState(this.state);
         address.setZipCode(this.zipCode);
+        address.setLatitude(this.latitude);
+        address.setLongitude(this.longitude);
         address.setReferencePoints(this.referencePoints);
         address.setType(this.type);
         address.setDeliveryFee(this.deliveryFee);
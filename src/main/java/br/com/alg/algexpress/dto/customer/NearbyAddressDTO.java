@@ -0,0 +1,16 @@
+package br.com.alg.algexpress.dto.customer;
+
+import java.math.BigDecimal;
+
+public record NearbyAddressDTO(
+    Long addressId,
+    Long customerId,
+    String street,
+    String number,
+    String neighborhood,
+    String city,
+    BigDecimal latitude,
+    BigDecimal longitude,
+    Double distanceKm
+) {
+}
\ No newline at end of file
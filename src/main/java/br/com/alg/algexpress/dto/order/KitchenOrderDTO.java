@@ -0,0 +1,64 @@
+package br.com.alg.algexpress.dto.order;
+
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.order.OrderItem;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What the kitchen needs to prepare an order: no customer, address or prices.
+ */
+public record KitchenOrderDTO(
+    Long id,
+    Order.OrderType type,
+    Order.OrderStatus status,
+    LocalDateTime orderDateTime,
+    LocalDateTime estimatedDateTime,
+    String observations,
+    List<Item> items
+) {
+
+    public record Item(
+        String pizzaName,
+        Pizza.PizzaSize size,
+        Integer quantity,
+        List<String> additionalIngredients,
+        List<String> removedIngredients,
+        String observations
+    ) {
+
+        public static Item fromEntity(OrderItem orderItem) {
+            return new Item(
+                orderItem.getPizza() != null ? orderItem.getPizza().getName() : null,
+                orderItem.getSize(),
+                orderItem.getQuantity(),
+                names(orderItem.getAdditionalIngredients()),
+                names(orderItem.getRemovedIngredients()),
+                orderItem.getObservations()
+            );
+        }
+
+        private static List<String> names(List<Ingredient> ingredients) {
+            return ingredients != null ? ingredients.stream().map(Ingredient::getName).toList() : List.of();
+        }
+    }
+
+    public static KitchenOrderDTO fromEntity(Order order) {
+        List<Item> items = order.getItems() != null
+            ? order.getItems().stream().map(Item::fromEntity).toList()
+            : List.of();
+
+        return new KitchenOrderDTO(
+            order.getId(),
+            order.getType(),
+            order.getStatus(),
+            order.getOrderDateTime(),
+            order.getEstimatedDateTime(),
+            order.getObservations(),
+            items
+        );
+    }
+}
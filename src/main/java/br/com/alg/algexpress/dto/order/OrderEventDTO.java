@@ -0,0 +1,16 @@
+package br.com.alg.algexpress.dto.order;
+
+import br.com.alg.algexpress.domain.order.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change on the order board. {@code previousStatus} is {@code null} for a new order.
+ */
+public record OrderEventDTO(
+    long id,
+    LocalDateTime occurredAt,
+    Order.OrderStatus previousStatus,
+    OrderSummaryDTO order
+) {
+}
@@ -0,0 +1,57 @@
+package br.com.alg.algexpress.dto.order;
+
+import br.com.alg.algexpress.domain.order.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderExportRow(
+    Long id,
+    LocalDateTime orderDateTime,
+    LocalDateTime completionDateTime,
+    Long customerId,
+    String customerName,
+    Order.OrderType type,
+    Order.OrderStatus status,
+    BigDecimal subtotal,
+    BigDecimal deliveryFee,
+    BigDecimal discount,
+    BigDecimal total
+) {
+
+    public static final String CSV_HEADER = "id,order_date_time,completion_date_time,customer_id,customer_name,"
+            + "type,status,subtotal,delivery_fee,discount,total";
+
+    public static OrderExportRow fromEntity(Order order) {
+        return new OrderExportRow(
+            order.getId(),
+            order.getOrderDateTime(),
+            order.getCompletionDateTime(),
+            order.getCustomer() != null ? order.getCustomer().getId() : null,
+            order.getCustomer() != null ? order.getCustomer().getName() : null,
+            order.getType(),
+            order.getStatus(),
+            order.getSubtotal(),
+            order.getDeliveryFee(),
+            order.getDiscount(),
+            order.getTotal()
+        );
+    }
+
+    public String toCsv() {
+        return String.join(",",
+            csv(id), csv(orderDateTime), csv(completionDateTime), csv(customerId), csv(customerName),
+            csv(type), csv(status), csv(subtotal), csv(deliveryFee), csv(discount), csv(total));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
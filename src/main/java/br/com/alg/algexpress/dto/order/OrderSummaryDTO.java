@@ -19,8 +19,14 @@ public record OrderSummaryDTO(
 ) {
     
     public static OrderSummaryDTO fromEntity(Order order) {
+        return fromEntity(order, order.getItems() != null ? order.getItems().size() : 0);
+    }
+    
+    /**
+     * Variant for callers that counted the items with a query instead of loading them.
+     */
+    public static OrderSummaryDTO fromEntity(Order order, int itemCount) {
         String customerName = order.getCustomer() != null ? order.getCustomer().getName() : null;
-        Integer itemCount = order.getItems() != null ? order.getItems().size() : 0;
         
         return new OrderSummaryDTO(
             order.getId(),
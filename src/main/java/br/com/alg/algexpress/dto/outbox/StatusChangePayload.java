@@ -0,0 +1,14 @@
+package br.com.alg.algexpress.dto.outbox;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StatusChangePayload(
+    Long id,
+    Long orderId,
+    String previousStatus,
+    String status,
+    BigDecimal amount,
+    LocalDateTime occurredAt
+) {
+}
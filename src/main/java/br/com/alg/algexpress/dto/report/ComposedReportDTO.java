@@ -0,0 +1,13 @@
+package br.com.alg.algexpress.dto.report;
+
+import java.util.Map;
+
+/**
+ * Result of a composed report: every query that finished in time is in {@code values}, and
+ * every query that failed or timed out is in {@code errors} with a short reason.
+ */
+public record ComposedReportDTO(
+    Map<String, Object> values,
+    Map<String, String> errors
+) {
+}
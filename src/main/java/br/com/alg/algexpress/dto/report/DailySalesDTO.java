@@ -0,0 +1,14 @@
+package br.com.alg.algexpress.dto.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesDTO(
+    LocalDate date,
+    Integer deliveredOrders,
+    Integer cancelledOrders,
+    BigDecimal revenue,
+    BigDecimal deliveryFees,
+    Integer itemsSold
+) {
+}
@@ -0,0 +1,14 @@
+package br.com.alg.algexpress.dto.report;
+
+import br.com.alg.algexpress.domain.menu.Pizza;
+
+import java.math.BigDecimal;
+
+public record PizzaSalesDTO(
+    Long pizzaId,
+    String pizzaName,
+    Pizza.PizzaSize size,
+    Long quantity,
+    BigDecimal revenue
+) {
+}
@@ -0,0 +1,72 @@
+package br.com.alg.algexpress.infra.repository.customer;
+
+import br.com.alg.algexpress.dto.customer.NearbyAddressDTO;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import br.com.alg.algexpress.infra.support.Geohash;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Radius queries over geocoded addresses. The circle is covered by nine geohash cells, each one
+ * key range of {@code idx_addresses_geohash}, so only addresses near the centre are read; the
+ * exact great-circle distance then drops the corners.
+ */
+@Repository
+public class AddressLocationRepository {
+
+    private static final String WITHIN =
+            "SELECT * FROM ( " +
+            "    SELECT a.id, a.customer_id, a.street, a.number, a.neighborhood, a.city, a.latitude, a.longitude, " +
+            "           2 * 6371.0088 * asin(least(1, sqrt( " +
+            "               power(sin(radians(a.latitude - ?) / 2), 2) " +
+            "               + cos(radians(a.latitude)) * cos(radians(?)) " +
+            "               * power(sin(radians(a.longitude - ?) / 2), 2)))) AS distance_km " +
+            "    FROM addresses a " +
+            "    WHERE %s " +
+            ") nearby " +
+            "WHERE distance_km <= ? " +
+            "ORDER BY distance_km, id " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AddressLocationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Addresses within {@code radiusKm} of {@code center}, nearest first.
+     */
+    public List<NearbyAddressDTO> findWithin(GeoPoint center, double radiusKm, int limit) {
+        Set<String> cells = Geohash.covering(center, radiusKm);
+        List<String> ranges = new ArrayList<>(cells.size());
+        List<Object> args = new ArrayList<>(cells.size() * 2 + 5);
+        args.add(center.latitude());
+        args.add(center.latitude());
+        args.add(center.longitude());
+        for (String cell : cells) {
+            ranges.add("(a.geohash >= ? AND a.geohash < ?)");
+            args.add(cell);
+            args.add(Geohash.upperBound(cell));
+        }
+        args.add(radiusKm);
+        args.add(limit);
+
+        return jdbcTemplate.query(String.format(WITHIN, String.join(" OR ", ranges)),
+                (rs, rowNum) -> new NearbyAddressDTO(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getString(6),
+                        rs.getBigDecimal(7),
+                        rs.getBigDecimal(8),
+                        rs.getDouble(9)),
+                args.toArray());
+    }
+}
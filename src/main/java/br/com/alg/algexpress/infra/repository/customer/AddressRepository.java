@@ -24,6 +24,12 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     
     List<Address> findByNeighborhood(String neighborhood);
     
+    @Query("SELECT a FROM Address a WHERE a.id = :addressId AND a.customer.id = :customerId")
+    Optional<Address> findByIdAndCustomerId(@Param("addressId") Long addressId, @Param("customerId") Long customerId);
+    
+    @Query("SELECT a.id FROM Address a WHERE a.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+    
     @Query("SELECT a FROM Address a WHERE a.customer.id = :customerId AND a.type = :type")
     List<Address> findByCustomerIdAndType(@Param("customerId") Long customerId, @Param("type") Address.AddressType type);
     
@@ -1,6 +1,7 @@
 package br.com.alg.algexpress.infra.repository.customer;
 
 import br.com.alg.algexpress.domain.customer.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -41,17 +42,22 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     List<Customer> findByLoyaltyPointsGreaterThan(Integer points);
     
+    Long countByLoyaltyPointsGreaterThan(Integer points);
+    
+    @Query("SELECT COALESCE(SUM(c.loyaltyPoints), 0) FROM Customer c")
+    Long sumLoyaltyPoints();
+    
     @Query("SELECT c FROM Customer c WHERE c.registrationDate BETWEEN :startDate AND :endDate")
     List<Customer> findCustomersCreatedBetween(@Param("startDate") LocalDateTime startDate, 
                                              @Param("endDate") LocalDateTime endDate);
     
     @Query("SELECT c FROM Customer c LEFT JOIN Order o ON c.id = o.customer.id " +
            "GROUP BY c.id ORDER BY COUNT(o) DESC")
-    List<Customer> findCustomersWithMostOrders();
+    List<Customer> findCustomersWithMostOrders(Limit limit);
     
     @Query("SELECT c FROM Customer c LEFT JOIN Order o ON c.id = o.customer.id " +
            "GROUP BY c.id ORDER BY COALESCE(SUM(o.total), 0) DESC")
-    List<Customer> findCustomersWithHighestSpending();
+    List<Customer> findCustomersWithHighestSpending(Limit limit);
     
     @Query("SELECT AVG(c.loyaltyPoints) FROM Customer c WHERE c.loyaltyPoints > 0")
     Optional<BigDecimal> findAverageLoyaltyPoints();
@@ -76,4 +82,32 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
            "END " +
            "ORDER BY pointRange")
     List<Object[]> findLoyaltyPointsDistribution();
-}
\ No newline at end of file
+    
+    // === KEYSET PAGES (by id) ===
+    
+    @Query("SELECT c FROM Customer c WHERE c.status = :status AND c.id > :afterId ORDER BY c.id ASC")
+    List<Customer> findPageByStatus(@Param("status") Customer.CustomerStatus status,
+                                    @Param("afterId") Long afterId,
+                                    Limit limit);
+    
+    @Query("SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
+           "AND c.id > :afterId ORDER BY c.id ASC")
+    List<Customer> findPageByNameContaining(@Param("name") String name,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+    
+    @Query("SELECT c FROM Customer c WHERE c.loyaltyPoints > :points AND c.id > :afterId ORDER BY c.id ASC")
+    List<Customer> findPageByLoyaltyPointsGreaterThan(@Param("points") Integer points,
+                                                      @Param("afterId") Long afterId,
+                                                      Limit limit);
+    
+    @Query("SELECT c FROM Customer c WHERE c.registrationDate BETWEEN :startDate AND :endDate " +
+           "AND c.id > :afterId ORDER BY c.id ASC")
+    List<Customer> findPageCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
+    
+    @Query("SELECT c FROM Customer c WHERE c.loyaltyPoints > 0 ORDER BY c.loyaltyPoints DESC, c.id ASC")
+    List<Customer> findTopByLoyaltyPoints(Limit limit);
+}
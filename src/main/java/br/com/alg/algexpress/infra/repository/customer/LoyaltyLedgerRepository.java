@@ -0,0 +1,89 @@
+package br.com.alg.algexpress.infra.repository.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain SQL access to {@code loyalty_ledger} and the balance column it feeds,
+ * {@code customers.loyalty_points}. Balances only move through atomic increments, never through
+ * a read-modify-write of the entity.
+ */
+@Repository
+public class LoyaltyLedgerRepository {
+
+    public static final String ACCRUAL = "ACCRUAL";
+    public static final String REDEMPTION = "REDEMPTION";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+
+    // 1 point for every 10 reais spent, as in CustomerService.calculateLoyaltyPointsForOrder.
+    // Orders that already have an accrual are skipped by the partial unique index, and only the
+    // rows actually inserted move the balances.
+    private static final String ACCRUE_DELIVERED_ORDERS =
+            "WITH inserted AS ( " +
+            "    INSERT INTO loyalty_ledger (customer_id, order_id, points, reason) " +
+            "    SELECT o.customer_id, o.id, FLOOR(o.total / 10)::int, '" + ACCRUAL + "' " +
+            "    FROM orders o " +
+            "    WHERE o.id = ANY (?) AND o.status = 'DELIVERED' AND o.total >= 10 " +
+            "    ORDER BY o.id " +
+            "    ON CONFLICT (order_id) WHERE reason = '" + ACCRUAL + "' DO NOTHING " +
+            "    RETURNING customer_id, points " +
+            "), totals AS ( " +
+            "    SELECT customer_id, SUM(points) AS points FROM inserted GROUP BY customer_id " +
+            ") " +
+            "UPDATE customers c SET loyalty_points = c.loyalty_points + t.points " +
+            "FROM totals t WHERE c.id = t.customer_id " +
+            "RETURNING c.id, c.loyalty_points - t.points, c.loyalty_points";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Accrual(long customerId, int oldPoints, int newPoints) {
+    }
+
+    public LoyaltyLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Awards the points of every given order that is delivered and not yet accrued, in one
+     * statement.
+     *
+     * @return one entry per customer balance updated
+     */
+    public List<Accrual> accrueForDeliveredOrders(List<Long> orderIds) {
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(ACCRUE_DELIVERED_ORDERS);
+            statement.setArray(1, connection.createArrayOf("bigint", orderIds.toArray()));
+            return statement;
+        }, (rs, rowNum) -> new Accrual(rs.getLong(1), rs.getInt(2), rs.getInt(3)));
+    }
+
+    public void record(Long customerId, Long orderId, int points, String reason) {
+        jdbcTemplate.update("INSERT INTO loyalty_ledger (customer_id, order_id, points, reason) VALUES (?, ?, ?, ?)",
+                customerId, orderId, points, reason);
+    }
+
+    /**
+     * @return {@code false} when the customer does not exist
+     */
+    public boolean addToBalance(Long customerId, int points) {
+        return jdbcTemplate.update("UPDATE customers SET loyalty_points = loyalty_points + ? WHERE id = ?",
+                points, customerId) > 0;
+    }
+
+    /**
+     * @return {@code false} when the customer does not exist or has fewer points
+     */
+    public boolean deductFromBalance(Long customerId, int points) {
+        return jdbcTemplate.update(
+                "UPDATE customers SET loyalty_points = loyalty_points - ? WHERE id = ? AND loyalty_points >= ?",
+                points, customerId, points) > 0;
+    }
+
+    public Integer findBalance(Long customerId) {
+        List<Integer> balance = jdbcTemplate.queryForList("SELECT loyalty_points FROM customers WHERE id = ?",
+                Integer.class, customerId);
+        return balance.isEmpty() ? null : balance.get(0);
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.alg.algexpress.infra.repository.delivery;
+
+import br.com.alg.algexpress.domain.delivery.Delivery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Guarded status transitions for any number of deliveries in one statement, without loading
+ * entities; see {@link Delivery.DeliveryStatus#canTransitionTo}. Departure and delivery times
+ * and the attempt counter are maintained as in {@code DeliveryService.updateDeliveryStatus}.
+ */
+@Repository
+public class DeliveryTransitionRepository {
+
+    private static final String TRANSITION =
+            "WITH target AS ( " +
+            "    SELECT id, status AS previous_status FROM deliveries " +
+            "    WHERE id = ANY (?) AND status = ANY (?) " +
+            "    ORDER BY id " +
+            "    FOR UPDATE " +
+            ") " +
+            "UPDATE deliveries d SET " +
+            "    status = ?, " +
+            "    version = d.version + 1, " +
+            "    departure_time = CASE WHEN ? = 'EN_ROUTE' THEN COALESCE(d.departure_time, ?) ELSE d.departure_time END, " +
+            "    delivery_time = CASE WHEN ? = 'DELIVERED' THEN ? ELSE d.delivery_time END, " +
+            "    delivery_attempts = d.delivery_attempts + CASE WHEN ? = 'DELIVERY_ATTEMPT' THEN 1 ELSE 0 END " +
+            "FROM target t " +
+            "WHERE d.id = t.id " +
+            "RETURNING d.id, d.order_id, t.previous_status, d.delivery_fee";
+
+    private static final String ASSIGN =
+            "WITH target AS ( " +
+            "    SELECT d.id, d.status AS previous_status FROM deliveries d " +
+            "    WHERE d.id = ANY (?) AND d.status = 'WAITING_DELIVERY_PERSON' " +
+            "      AND EXISTS (SELECT 1 FROM orders o " +
+            "                  WHERE o.id = d.order_id AND o.order_date_time = d.order_date_time AND o.status = 'READY') " +
+            "      AND EXISTS (SELECT 1 FROM delivery_persons p " +
+            "                  WHERE p.id = ? AND p.status = 'ACTIVE' AND p.available) " +
+            "      AND NOT EXISTS (SELECT 1 FROM deliveries x " +
+            "                      WHERE x.delivery_person_id = ? AND x.status IN ('EN_ROUTE', 'DELIVERY_ATTEMPT')) " +
+            "    ORDER BY d.id " +
+            "    FOR UPDATE " +
+            ") " +
+            "UPDATE deliveries d SET " +
+            "    delivery_person_id = ?, " +
+            "    status = 'EN_ROUTE', " +
+            "    version = d.version + 1, " +
+            "    departure_time = COALESCE(d.departure_time, ?) " +
+            "FROM target t " +
+            "WHERE d.id = t.id " +
+            "RETURNING d.id, d.order_id, t.previous_status, d.delivery_fee";
+
+    // Serializes assignments to one courier across instances. A separate statement, so the
+    // assignment that follows reads a snapshot taken after any competing one committed
+    private static final String LOCK_COURIER = "SELECT id FROM delivery_persons WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeliveryTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record TransitionedDelivery(long id, Long orderId, Delivery.DeliveryStatus previousStatus,
+                                       BigDecimal deliveryFee) {
+
+        private static TransitionedDelivery map(ResultSet rs, int rowNum) throws SQLException {
+            return new TransitionedDelivery(
+                    rs.getLong(1),
+                    rs.getObject(2, Long.class),
+                    Delivery.DeliveryStatus.valueOf(rs.getString(3)),
+                    rs.getBigDecimal(4));
+        }
+    }
+
+    public List<TransitionedDelivery> transition(Collection<Long> deliveryIds, Delivery.DeliveryStatus newStatus) {
+        String[] sources = Arrays.stream(Delivery.DeliveryStatus.values())
+                .filter(status -> status.canTransitionTo(newStatus))
+                .map(Enum::name)
+                .toArray(String[]::new);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TRANSITION);
+            statement.setArray(1, connection.createArrayOf("bigint", deliveryIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", sources));
+            statement.setString(3, newStatus.name());
+            statement.setString(4, newStatus.name());
+            statement.setTimestamp(5, now);
+            statement.setString(6, newStatus.name());
+            statement.setTimestamp(7, now);
+            statement.setString(8, newStatus.name());
+            return statement;
+        }, TransitionedDelivery::map);
+    }
+
+    /**
+     * Hands the given deliveries to a courier and moves them EN_ROUTE, skipping any that no
+     * longer wait for a courier or whose order is not READY; nothing changes when the courier
+     * is not active and available or is already out on a trip, possibly given by another
+     * instance. Must run in a transaction: the courier stays locked until it ends.
+     */
+    public List<TransitionedDelivery> assign(long deliveryPersonId, Collection<Long> deliveryIds) {
+        if (jdbcTemplate.queryForList(LOCK_COURIER, Long.class, deliveryPersonId).isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ASSIGN);
+            statement.setArray(1, connection.createArrayOf("bigint", deliveryIds.toArray()));
+            statement.setLong(2, deliveryPersonId);
+            statement.setLong(3, deliveryPersonId);
+            statement.setLong(4, deliveryPersonId);
+            statement.setTimestamp(5, now);
+            return statement;
+        }, TransitionedDelivery::map);
+    }
+}
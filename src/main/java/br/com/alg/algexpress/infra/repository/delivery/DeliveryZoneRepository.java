@@ -0,0 +1,39 @@
+package br.com.alg.algexpress.infra.repository.delivery;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Reads {@code delivery_zones} and the geohash cells each zone is made of. Zones are maintained
+ * directly in the database; inactive zones and their cells are left out.
+ */
+@Repository
+public class DeliveryZoneRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeliveryZoneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Zone(long id, String name, BigDecimal fee) {
+    }
+
+    public record ZoneCell(String geohash, long zoneId) {
+    }
+
+    public List<Zone> findActiveZones() {
+        return jdbcTemplate.query("SELECT id, name, fee FROM delivery_zones WHERE active ORDER BY id",
+                (rs, rowNum) -> new Zone(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3)));
+    }
+
+    public List<ZoneCell> findActiveCells() {
+        return jdbcTemplate.query(
+                "SELECT c.geohash, c.zone_id FROM delivery_zone_cells c " +
+                "JOIN delivery_zones z ON z.id = c.zone_id WHERE z.active",
+                (rs, rowNum) -> new ZoneCell(rs.getString(1), rs.getLong(2)));
+    }
+}
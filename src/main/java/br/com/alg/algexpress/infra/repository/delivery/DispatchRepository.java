@@ -0,0 +1,81 @@
+package br.com.alg.algexpress.infra.repository.delivery;
+
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads the state the dispatch engine is rebuilt from: deliveries of READY orders still
+ * waiting for a courier (only those with a geocoded address can be routed) and deliveries that
+ * couriers are carrying.
+ */
+@Repository
+public class DispatchRepository {
+
+    private static final String WAITING =
+            "SELECT d.id, d.order_id, a.latitude, a.longitude, o.order_date_time " +
+            "FROM deliveries d " +
+            "JOIN orders o ON o.id = d.order_id AND o.order_date_time = d.order_date_time " +
+            "JOIN addresses a ON a.id = o.delivery_address_id " +
+            "WHERE d.status = 'WAITING_DELIVERY_PERSON' AND o.status = 'READY' " +
+            "  AND a.latitude IS NOT NULL AND a.longitude IS NOT NULL ";
+
+    private static final String CARRIED =
+            "SELECT d.id, d.delivery_person_id, a.latitude, a.longitude " +
+            "FROM deliveries d " +
+            "JOIN orders o ON o.id = d.order_id AND o.order_date_time = d.order_date_time " +
+            "LEFT JOIN addresses a ON a.id = o.delivery_address_id " +
+            "WHERE d.status IN ('EN_ROUTE', 'DELIVERY_ATTEMPT') AND d.delivery_person_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DispatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A READY order waiting for a courier; its order date sets its place in the queue.
+     */
+    public record WaitingDelivery(long deliveryId, long orderId, GeoPoint destination, LocalDateTime orderedAt) {
+    }
+
+    /**
+     * A delivery a courier has taken and not yet closed; the destination may be unknown.
+     */
+    public record CarriedDelivery(long deliveryId, long courierId, GeoPoint destination) {
+    }
+
+    public List<WaitingDelivery> findWaiting() {
+        return jdbcTemplate.query(WAITING, (rs, rowNum) -> waiting(rs));
+    }
+
+    public List<WaitingDelivery> findWaiting(Collection<Long> orderIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(WAITING + "AND d.order_id = ANY (?)");
+            statement.setArray(1, connection.createArrayOf("bigint", orderIds.toArray()));
+            return statement;
+        }, (rs, rowNum) -> waiting(rs));
+    }
+
+    public List<CarriedDelivery> findCarried() {
+        return jdbcTemplate.query(CARRIED, (rs, rowNum) -> new CarriedDelivery(
+                rs.getLong(1),
+                rs.getLong(2),
+                GeoPoint.of(rs.getBigDecimal(3), rs.getBigDecimal(4))));
+    }
+
+    private static WaitingDelivery waiting(ResultSet rs) throws SQLException {
+        return new WaitingDelivery(
+                rs.getLong(1),
+                rs.getLong(2),
+                GeoPoint.of(rs.getBigDecimal(3), rs.getBigDecimal(4)),
+                rs.getTimestamp(5).toLocalDateTime());
+    }
+}
@@ -1,8 +1,10 @@
 package br.com.alg.algexpress.infra.repository.menu;
 
 import br.com.alg.algexpress.domain.menu.Ingredient;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,11 +12,20 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     
+    // Menu listings are served from the query cache (region default-query-results-region)
+    
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Ingredient> findAll();
+    
     List<Ingredient> findByAvailableTrue();
     
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Ingredient> findByCategory(Ingredient.IngredientCategory category);
     
     List<Ingredient> findByAllergenicTrue();
@@ -49,6 +60,7 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     
     // Additional methods used by MenuService
     
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Ingredient> findByAvailable(Boolean available);
     
     @Query("SELECT i FROM Ingredient i LEFT JOIN OrderItem oi ON i MEMBER OF oi.additionalIngredients " +
@@ -1,8 +1,11 @@
 package br.com.alg.algexpress.infra.repository.menu;
 
 import br.com.alg.algexpress.domain.menu.Pizza;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,11 +13,30 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface PizzaRepository extends JpaRepository<Pizza, Long> {
     
+    // Menu listings are served from the query cache (region default-query-results-region)
+    
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Pizza> findAll();
+    
+    // Loads recipes in the same statement, for the menu search index
+    
+    @EntityGraph(attributePaths = "ingredients")
+    @Query("SELECT DISTINCT p FROM Pizza p")
+    List<Pizza> findAllWithIngredients();
+    
+    @EntityGraph(attributePaths = "ingredients")
+    @Query("SELECT p FROM Pizza p WHERE p.id = :id")
+    Optional<Pizza> findWithIngredientsById(@Param("id") Long id);
+    
     List<Pizza> findByAvailableTrue();
     
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Pizza> findByCategory(Pizza.PizzaCategory category);
     
     List<Pizza> findByNameContainingIgnoreCase(String name);
@@ -50,6 +72,7 @@ public interface PizzaRepository extends JpaRepository<Pizza, Long> {
     
     // Additional methods used by MenuService
     
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Pizza> findByAvailable(Boolean available);
     
     @Query("SELECT p FROM Pizza p WHERE " +
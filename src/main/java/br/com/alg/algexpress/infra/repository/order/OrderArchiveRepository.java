@@ -0,0 +1,252 @@
+package br.com.alg.algexpress.infra.repository.order;
+
+import br.com.alg.algexpress.infra.support.ColumnarFile;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Column;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Type;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain SQL access for moving closed orders out of the database: claims a batch, reads it
+ * table by table as {@link ColumnarFile.Table}s and deletes it. Every statement repeats the
+ * batch's date range so only the partitions holding it are touched. Deleting an order cascades
+ * to its items (and their customizations), payments and delivery.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    private static final String CLAIM =
+            "SELECT id, order_date_time FROM orders " +
+            "WHERE status IN ('DELIVERED', 'CANCELLED') AND order_date_time < ? " +
+            "ORDER BY order_date_time, id LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    // Session-level, so it spans the run's many batch transactions
+    private static final String LOCK = "SELECT pg_try_advisory_lock(hashtext('algexpress.order-archiver'))";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(hashtext('algexpress.order-archiver'))";
+
+    private static final String BATCH = "order_id = ANY (?) AND order_date_time >= ? AND order_date_time <= ?";
+
+    public static final List<Column> ORDER_COLUMNS = List.of(
+            new Column("id", Type.LONG),
+            new Column("customer_id", Type.LONG),
+            new Column("customer_name", Type.TEXT),
+            new Column("delivery_address_id", Type.LONG),
+            new Column("status", Type.TEXT),
+            new Column("type", Type.TEXT),
+            new Column("order_date_time", Type.TIMESTAMP),
+            new Column("estimated_date_time", Type.TIMESTAMP),
+            new Column("completion_date_time", Type.TIMESTAMP),
+            new Column("subtotal", Type.DECIMAL),
+            new Column("delivery_fee", Type.DECIMAL),
+            new Column("discount", Type.DECIMAL),
+            new Column("total", Type.DECIMAL),
+            new Column("observations", Type.TEXT),
+            new Column("estimated_time_minutes", Type.LONG));
+
+    public static final List<Column> ITEM_COLUMNS = List.of(
+            new Column("id", Type.LONG),
+            new Column("order_id", Type.LONG),
+            new Column("pizza_id", Type.LONG),
+            new Column("size", Type.TEXT),
+            new Column("quantity", Type.LONG),
+            new Column("unit_price", Type.DECIMAL),
+            new Column("total_price", Type.DECIMAL),
+            new Column("observations", Type.TEXT));
+
+    public static final List<Column> CUSTOMIZATION_COLUMNS = List.of(
+            new Column("order_item_id", Type.LONG),
+            new Column("ingredient_id", Type.LONG));
+
+    public static final List<Column> PAYMENT_COLUMNS = List.of(
+            new Column("id", Type.LONG),
+            new Column("order_id", Type.LONG),
+            new Column("payment_method", Type.TEXT),
+            new Column("status", Type.TEXT),
+            new Column("amount", Type.DECIMAL),
+            new Column("amount_paid", Type.DECIMAL),
+            new Column("payment_date_time", Type.TIMESTAMP),
+            new Column("transaction_id", Type.TEXT),
+            new Column("authorization_code", Type.TEXT));
+
+    public static final List<Column> DELIVERY_COLUMNS = List.of(
+            new Column("id", Type.LONG),
+            new Column("order_id", Type.LONG),
+            new Column("delivery_person_id", Type.LONG),
+            new Column("status", Type.TEXT),
+            new Column("departure_time", Type.TIMESTAMP),
+            new Column("delivery_time", Type.TIMESTAMP),
+            new Column("distance_km", Type.DECIMAL),
+            new Column("delivery_fee", Type.DECIMAL),
+            new Column("delivery_attempts", Type.LONG));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Locked orders of one batch, oldest first; {@code from} and {@code to} bound their dates.
+     */
+    public record Batch(Long[] ids, LocalDateTime from, LocalDateTime to) {
+
+        public boolean isEmpty() {
+            return ids.length == 0;
+        }
+    }
+
+    /**
+     * Locks up to {@code limit} DELIVERED or CANCELLED orders dated before {@code before}. Must
+     * run in the transaction that deletes them; rows locked by another archiver are skipped.
+     */
+    public Batch claimClosedOrders(LocalDateTime before, int limit) {
+        List<Long> ids = new ArrayList<>();
+        List<LocalDateTime> dates = new ArrayList<>();
+        jdbcTemplate.query(CLAIM, rs -> {
+            ids.add(rs.getLong(1));
+            dates.add(rs.getTimestamp(2).toLocalDateTime());
+        }, Timestamp.valueOf(before), limit);
+        if (ids.isEmpty()) {
+            return new Batch(new Long[0], null, null);
+        }
+        return new Batch(ids.toArray(Long[]::new), dates.get(0), dates.get(dates.size() - 1));
+    }
+
+    public ColumnarFile.Table readOrders(Batch batch) {
+        return read("orders", ORDER_COLUMNS,
+                "SELECT o.id, o.customer_id, c.name, o.delivery_address_id, o.status, o.type, o.order_date_time, " +
+                "       o.estimated_date_time, o.completion_date_time, o.subtotal, o.delivery_fee, o.discount, " +
+                "       o.total, o.observations, o.estimated_time_minutes " +
+                "FROM orders o JOIN customers c ON c.id = o.customer_id " +
+                "WHERE o.id = ANY (?) AND o.order_date_time >= ? AND o.order_date_time <= ? " +
+                "ORDER BY o.order_date_time, o.id", batch);
+    }
+
+    public ColumnarFile.Table readItems(Batch batch) {
+        return read("order_items", ITEM_COLUMNS,
+                "SELECT id, order_id, pizza_id, size, quantity, unit_price, total_price, observations " +
+                "FROM order_items WHERE " + BATCH + " ORDER BY order_id, id", batch);
+    }
+
+    /**
+     * Rows of {@code order_item_additional_ingredients} or {@code order_item_removed_ingredients}.
+     */
+    public ColumnarFile.Table readCustomizations(String table, Batch batch) {
+        return read(table, CUSTOMIZATION_COLUMNS,
+                "SELECT j.order_item_id, j.ingredient_id FROM " + table + " j " +
+                "JOIN order_items i ON i.id = j.order_item_id " +
+                "WHERE i.order_id = ANY (?) AND i.order_date_time >= ? AND i.order_date_time <= ? " +
+                "ORDER BY j.order_item_id, j.ingredient_id", batch);
+    }
+
+    public ColumnarFile.Table readPayments(Batch batch) {
+        return read("payments", PAYMENT_COLUMNS,
+                "SELECT id, order_id, payment_method, status, amount, amount_paid, payment_date_time, " +
+                "       transaction_id, authorization_code " +
+                "FROM payments WHERE " + BATCH + " ORDER BY order_id, id", batch);
+    }
+
+    public ColumnarFile.Table readDeliveries(Batch batch) {
+        return read("deliveries", DELIVERY_COLUMNS,
+                "SELECT id, order_id, delivery_person_id, status, departure_time, delivery_time, distance_km, " +
+                "       delivery_fee, delivery_attempts " +
+                "FROM deliveries WHERE " + BATCH + " ORDER BY order_id", batch);
+    }
+
+    /**
+     * How many of the batch's orders are still in the database: all of them when the archiving
+     * transaction rolled back, none when it committed.
+     */
+    public int countRemaining(Batch batch) {
+        return jdbcTemplate.query(connection -> bind(connection,
+                "SELECT count(*) FROM orders WHERE id = ANY (?) AND order_date_time >= ? AND order_date_time <= ?", batch),
+                rs -> rs.next() ? rs.getInt(1) : 0);
+    }
+
+    /**
+     * Runs {@code work} unless another instance is archiving, holding a session advisory lock on
+     * a connection of its own meanwhile.
+     *
+     * @return {@code false} when the lock was held elsewhere and nothing ran
+     */
+    public boolean runExclusively(Runnable work) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery(LOCK)) {
+                    if (!rs.next() || !rs.getBoolean(1)) {
+                        return false;
+                    }
+                }
+                try {
+                    work.run();
+                } finally {
+                    statement.executeQuery(UNLOCK).close();
+                }
+                return true;
+            }
+        }));
+    }
+
+    /**
+     * Indexes a segment; must run in the transaction that deletes its orders.
+     */
+    public void recordSegment(String name, Batch batch) {
+        jdbcTemplate.update("INSERT INTO order_archive_segments (name, order_from, order_to, orders) VALUES (?, ?, ?, ?)",
+                name, Timestamp.valueOf(batch.from()), Timestamp.valueOf(batch.to()), batch.ids().length);
+    }
+
+    public List<String> findSegmentNames() {
+        return jdbcTemplate.queryForList("SELECT name FROM order_archive_segments", String.class);
+    }
+
+    public int delete(Batch batch) {
+        return jdbcTemplate.update(connection -> bind(connection,
+                "DELETE FROM orders WHERE id = ANY (?) AND order_date_time >= ? AND order_date_time <= ?", batch));
+    }
+
+    private ColumnarFile.Table read(String name, List<Column> columns, String sql, Batch batch) {
+        List<Object[]> rows = jdbcTemplate.query(connection -> bind(connection, sql, batch), (rs, rowNum) -> {
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = value(rs, i + 1, columns.get(i).type());
+            }
+            return row;
+        });
+        return new ColumnarFile.Table(name, columns, rows);
+    }
+
+    private static PreparedStatement bind(Connection connection, String sql, Batch batch) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        Array ids = connection.createArrayOf("bigint", batch.ids());
+        statement.setArray(1, ids);
+        statement.setTimestamp(2, Timestamp.valueOf(batch.from()));
+        statement.setTimestamp(3, Timestamp.valueOf(batch.to()));
+        return statement;
+    }
+
+    private static Object value(ResultSet rs, int index, Type type) throws SQLException {
+        Object value = switch (type) {
+            case LONG -> rs.getLong(index);
+            case DECIMAL -> rs.getBigDecimal(index);
+            case TIMESTAMP -> {
+                Timestamp timestamp = rs.getTimestamp(index);
+                yield timestamp != null ? timestamp.toLocalDateTime() : null;
+            }
+            case TEXT -> rs.getString(index);
+        };
+        return rs.wasNull() ? null : value;
+    }
+}
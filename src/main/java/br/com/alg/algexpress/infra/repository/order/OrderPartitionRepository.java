@@ -0,0 +1,75 @@
+package br.com.alg.algexpress.infra.repository.order;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Plain SQL access to the monthly partitions of {@code orders}, {@code order_items} and
+ * {@code payments}. Creation and archiving are done by the {@code create_order_partitions} and
+ * {@code archive_order_month} database functions, so the job and a DBA running them by hand
+ * behave the same.
+ */
+@Repository
+public class OrderPartitionRepository {
+
+    private static final String PARTITIONS =
+            "SELECT parent.relname, child.relname, pg_get_expr(child.relpartbound, child.oid), " +
+            "       GREATEST(child.reltuples, 0)::BIGINT " +
+            "FROM pg_inherits i " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "JOIN pg_class child ON child.oid = i.inhrelid " +
+            "WHERE parent.relname IN ('orders', 'order_items', 'payments') " +
+            "  AND parent.relnamespace = 'public'::regnamespace " +
+            "ORDER BY parent.relname, child.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Partition(String table, String name, String bounds, long estimatedRows) {
+    }
+
+    /**
+     * Creates the missing monthly partitions for [fromMonth, toMonth] and returns how many months
+     * were added.
+     */
+    public int createPartitions(YearMonth fromMonth, YearMonth toMonth) {
+        Integer created = jdbcTemplate.queryForObject("SELECT create_order_partitions(?, ?)", Integer.class,
+                Date.valueOf(fromMonth.atDay(1)), Date.valueOf(toMonth.atDay(1)));
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Months that still have an attached {@code orders} partition, oldest first.
+     */
+    public List<YearMonth> findOrderMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT child.relname FROM pg_inherits i " +
+                        "JOIN pg_class child ON child.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'public.orders'::regclass AND child.relname ~ '^orders_[0-9]{4}_[0-9]{2}$' " +
+                        "ORDER BY child.relname", String.class)
+                .stream()
+                .map(name -> YearMonth.of(Integer.parseInt(name.substring(7, 11)), Integer.parseInt(name.substring(12))))
+                .toList();
+    }
+
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS, (rs, rowNum) -> new Partition(
+                rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4)));
+    }
+
+    /**
+     * Detaches one month of orders, items and payments (with the month's deliveries and item
+     * customizations) into the {@code archive} schema.
+     */
+    public void archiveMonth(YearMonth month) {
+        jdbcTemplate.query("SELECT archive_order_month(?)", rs -> {
+        }, Date.valueOf(month.atDay(1)));
+    }
+}
@@ -2,8 +2,13 @@ package br.com.alg.algexpress.infra.repository.order;
 
 import br.com.alg.algexpress.domain.customer.Customer;
 import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,12 +16,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByCustomer(Customer customer);
     
+    @Query("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order.id = :orderId AND oi.orderDateTime = :orderDateTime")
+    long countItemsByOrderId(@Param("orderId") Long orderId, @Param("orderDateTime") LocalDateTime orderDateTime);
+    
     List<Order> findByCustomerId(Long customerId);
     
     List<Order> findByStatus(Order.OrderStatus status);
@@ -63,4 +75,114 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT o FROM Order o WHERE o.orderDateTime >= :startOfDay AND o.orderDateTime < :endOfDay ORDER BY o.orderDateTime DESC")
     List<Order> findTodaysOrders(@Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
-}
\ No newline at end of file
+    
+    /**
+     * Streams orders in [startDate, endDate) with their customer, fetching rows from the
+     * server in chunks. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer " +
+           "WHERE o.orderDateTime >= :startDate AND o.orderDateTime < :endDate " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    Stream<Order> streamOrdersBetweenDates(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+    
+    // === SUMMARY PROJECTIONS ===
+    // List endpoints read OrderSummaryDTO rows straight from one statement: customer joined,
+    // items counted in a subquery, no entities loaded. The subquery repeats the order's date so
+    // it only probes the order's own order_items partition.
+    
+    String SUMMARY = "SELECT new br.com.alg.algexpress.dto.order.OrderSummaryDTO(" +
+            "o.id, c.id, c.name, o.type, o.status, o.orderDateTime, o.estimatedDateTime, " +
+            "o.total, o.deliveryFee, CAST((SELECT COUNT(i) FROM OrderItem i " +
+            "WHERE i.order = o AND i.orderDateTime = o.orderDateTime) AS Integer)) " +
+            "FROM Order o JOIN o.customer c ";
+    
+    @Query(SUMMARY + "WHERE o.status IN ('CONFIRMED', 'PREPARING', 'READY') ORDER BY o.orderDateTime ASC")
+    List<OrderSummaryDTO> findActiveOrderSummaries();
+    
+    @Query(SUMMARY + "WHERE o.type = 'DELIVERY' AND o.status IN ('CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY')")
+    List<OrderSummaryDTO> findActiveDeliveryOrderSummaries();
+    
+    @Query(SUMMARY + "WHERE o.orderDateTime >= :startOfDay AND o.orderDateTime < :endOfDay ORDER BY o.orderDateTime DESC")
+    List<OrderSummaryDTO> findTodaysOrderSummaries(@Param("startOfDay") LocalDateTime startOfDay,
+                                                   @Param("endOfDay") LocalDateTime endOfDay);
+    
+    // === FETCH PLANS ===
+    // Collections below the fetched graph (ingredient lists, customer addresses) are loaded in
+    // batches (hibernate.default_batch_fetch_size), one statement per collection role.
+    
+    @EntityGraph(attributePaths = {"customer", "deliveryAddress", "items", "items.pizza"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findDetailById(@Param("id") Long id);
+    
+    @EntityGraph(attributePaths = {"items", "items.pizza"})
+    @Query("SELECT o FROM Order o WHERE o.status IN ('CONFIRMED', 'PREPARING') ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<Order> findKitchenOrders();
+    
+    // === KEYSET PAGES ===
+    // Ascending pages continue after (afterDate, afterId); descending pages before (beforeDate, beforeId).
+    // The redundant range predicate on order_date_time lets the planner seek the composite indexes.
+    
+    @Query(SUMMARY + "WHERE o.status = :status " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageByStatus(@Param("status") Order.OrderStatus status,
+                                           @Param("afterDate") LocalDateTime afterDate,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.type = :type " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageByType(@Param("type") Order.OrderType type,
+                                         @Param("afterDate") LocalDateTime afterDate,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.orderDateTime BETWEEN :startDate AND :endDate " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageBetweenDates(@Param("startDate") LocalDateTime startDate,
+                                               @Param("endDate") LocalDateTime endDate,
+                                               @Param("afterDate") LocalDateTime afterDate,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.customer.id = :customerId " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageByCustomerId(@Param("customerId") Long customerId,
+                                               @Param("afterDate") LocalDateTime afterDate,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.customer.id = :customerId AND o.status = :status " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageByCustomerIdAndStatus(@Param("customerId") Long customerId,
+                                                        @Param("status") Order.OrderStatus status,
+                                                        @Param("afterDate") LocalDateTime afterDate,
+                                                        @Param("afterId") Long afterId,
+                                                        Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.total BETWEEN :minTotal AND :maxTotal " +
+           "AND o.orderDateTime >= :afterDate AND (o.orderDateTime > :afterDate OR o.id > :afterId) " +
+           "ORDER BY o.orderDateTime ASC, o.id ASC")
+    List<OrderSummaryDTO> findPageByTotalBetween(@Param("minTotal") BigDecimal minTotal,
+                                                 @Param("maxTotal") BigDecimal maxTotal,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+    
+    @Query(SUMMARY + "WHERE o.customer.id = :customerId " +
+           "AND o.orderDateTime <= :beforeDate AND (o.orderDateTime < :beforeDate OR o.id < :beforeId) " +
+           "ORDER BY o.orderDateTime DESC, o.id DESC")
+    List<OrderSummaryDTO> findCustomerOrderHistoryPage(@Param("customerId") Long customerId,
+                                                       @Param("beforeDate") LocalDateTime beforeDate,
+                                                       @Param("beforeId") Long beforeId,
+                                                       Limit limit);
+}
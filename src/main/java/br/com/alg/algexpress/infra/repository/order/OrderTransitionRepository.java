@@ -0,0 +1,80 @@
+package br.com.alg.algexpress.infra.repository.order;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Guarded status transitions for any number of orders in one statement, without loading
+ * entities. Only rows whose current status may move to the target (see
+ * {@link Order.OrderStatus#canTransitionTo}) are updated; the version is bumped so concurrent
+ * entity updates still detect the change.
+ */
+@Repository
+public class OrderTransitionRepository {
+
+    // Target rows are locked in id order (no deadlocks between overlapping batches); a row whose
+    // status changed while waiting for the lock is re-checked and skipped.
+    private static final String TRANSITION =
+            "WITH target AS ( " +
+            "    SELECT id, status AS previous_status FROM orders " +
+            "    WHERE id = ANY (?) AND status = ANY (?) " +
+            "    ORDER BY id " +
+            "    FOR UPDATE " +
+            ") " +
+            "UPDATE orders o SET " +
+            "    status = ?, " +
+            "    version = o.version + 1, " +
+            "    estimated_date_time = CASE WHEN ? THEN ? ELSE o.estimated_date_time END " +
+            "FROM target t, customers c " +
+            "WHERE o.id = t.id AND c.id = o.customer_id " +
+            "RETURNING o.id, c.id, c.name, o.type, t.previous_status, o.order_date_time, o.estimated_date_time, " +
+            "          o.total, o.delivery_fee, (SELECT COUNT(*) FROM order_items oi " +
+            "           WHERE oi.order_id = o.id AND oi.order_date_time = o.order_date_time)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record TransitionedOrder(Order.OrderStatus previousStatus, OrderSummaryDTO order) {
+    }
+
+    public List<TransitionedOrder> transition(Collection<Long> orderIds, Order.OrderStatus newStatus) {
+        String[] sources = Arrays.stream(Order.OrderStatus.values())
+                .filter(status -> status.canTransitionTo(newStatus))
+                .map(Enum::name)
+                .toArray(String[]::new);
+        boolean confirming = newStatus == Order.OrderStatus.CONFIRMED;
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TRANSITION);
+            statement.setArray(1, connection.createArrayOf("bigint", orderIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", sources));
+            statement.setString(3, newStatus.name());
+            statement.setBoolean(4, confirming);
+            statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now().plusMinutes(30)));
+            return statement;
+        }, (rs, rowNum) -> new TransitionedOrder(
+                Order.OrderStatus.valueOf(rs.getString(5)),
+                new OrderSummaryDTO(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getString(3),
+                        Order.OrderType.valueOf(rs.getString(4)),
+                        newStatus,
+                        rs.getTimestamp(6).toLocalDateTime(),
+                        rs.getTimestamp(7) != null ? rs.getTimestamp(7).toLocalDateTime() : null,
+                        rs.getBigDecimal(8),
+                        rs.getBigDecimal(9),
+                        rs.getInt(10))));
+    }
+}
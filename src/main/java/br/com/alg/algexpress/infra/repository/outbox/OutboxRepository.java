@@ -0,0 +1,64 @@
+package br.com.alg.algexpress.infra.repository.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain SQL access to {@code outbox_events}. Rows are deleted once relayed.
+ */
+@Repository
+public class OutboxRepository {
+
+    // Only the oldest pending event of each aggregate is eligible, so events of one aggregate
+    // are relayed in order even with several relays running: while one relay holds the head
+    // locked, SKIP LOCKED hides it from the others and the later events are not heads.
+    private static final String CLAIM_BATCH =
+            "SELECT e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload::text, e.attempts " +
+            "FROM outbox_events e " +
+            "WHERE e.available_at <= CURRENT_TIMESTAMP " +
+            "  AND e.id = (SELECT MIN(x.id) FROM outbox_events x " +
+            "              WHERE x.aggregate_type = e.aggregate_type AND x.aggregate_id = e.aggregate_id) " +
+            "ORDER BY e.id " +
+            "LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record OutboxEvent(long id, String aggregateType, long aggregateId, String eventType,
+                              String payload, int attempts) {
+    }
+
+    public void insert(String aggregateType, long aggregateId, String eventType, String payload) {
+        jdbcTemplate.update(
+                "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, CAST(? AS jsonb))",
+                aggregateType, aggregateId, eventType, payload);
+    }
+
+    public List<OutboxEvent> claimBatch(int limit) {
+        return jdbcTemplate.query(CLAIM_BATCH, (rs, rowNum) -> new OutboxEvent(
+                rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getString(5), rs.getInt(6)),
+                limit);
+    }
+
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM outbox_events WHERE id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void scheduleRetry(long id, long delaySeconds) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET attempts = attempts + 1, available_at = CURRENT_TIMESTAMP + make_interval(secs => ?) WHERE id = ?",
+                delaySeconds, id);
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class);
+        return count != null ? count : 0;
+    }
+}
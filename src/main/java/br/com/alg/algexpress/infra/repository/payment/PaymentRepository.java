@@ -3,6 +3,7 @@ package br.com.alg.algexpress.infra.repository.payment;
 import br.com.alg.algexpress.domain.order.Order;
 import br.com.alg.algexpress.domain.payment.Payment;
 import br.com.alg.algexpress.domain.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -75,5 +76,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p FROM Payment p WHERE p.paymentDateTime >= :startOfDay AND p.status = 'APPROVED'")
     List<Payment> findTodaysApprovedPayments(@Param("startOfDay") LocalDateTime startOfDay);
-
-}
\ No newline at end of file
+    
+    // === KEYSET PAGES (by id) ===
+    
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.id > :afterId ORDER BY p.id ASC")
+    List<Payment> findPageByStatus(@Param("status") Payment.PaymentStatus status,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
+    
+    @Query("SELECT p FROM Payment p WHERE p.paymentMethod.type = :paymentMethodType AND p.id > :afterId ORDER BY p.id ASC")
+    List<Payment> findPageByPaymentMethodType(@Param("paymentMethodType") br.com.alg.algexpress.domain.valueObjects.PaymentMethod.PaymentType paymentMethodType,
+                                              @Param("afterId") Long afterId,
+                                              Limit limit);
+}
@@ -0,0 +1,58 @@
+package br.com.alg.algexpress.infra.repository.payment;
+
+import br.com.alg.algexpress.domain.payment.Payment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Guarded status transitions for any number of payments in one statement, without loading
+ * entities; see {@link Payment.PaymentStatus#canTransitionTo}.
+ */
+@Repository
+public class PaymentTransitionRepository {
+
+    private static final String TRANSITION =
+            "WITH target AS ( " +
+            "    SELECT id, status AS previous_status FROM payments " +
+            "    WHERE id = ANY (?) AND status = ANY (?) " +
+            "    ORDER BY id " +
+            "    FOR UPDATE " +
+            ") " +
+            "UPDATE payments p SET status = ?, version = p.version + 1 " +
+            "FROM target t " +
+            "WHERE p.id = t.id " +
+            "RETURNING p.id, p.order_id, t.previous_status, p.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record TransitionedPayment(long id, Long orderId, Payment.PaymentStatus previousStatus, BigDecimal amount) {
+    }
+
+    public List<TransitionedPayment> transition(Collection<Long> paymentIds, Payment.PaymentStatus newStatus) {
+        String[] sources = Arrays.stream(Payment.PaymentStatus.values())
+                .filter(status -> status.canTransitionTo(newStatus))
+                .map(Enum::name)
+                .toArray(String[]::new);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TRANSITION);
+            statement.setArray(1, connection.createArrayOf("bigint", paymentIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", sources));
+            statement.setString(3, newStatus.name());
+            return statement;
+        }, (rs, rowNum) -> new TransitionedPayment(
+                rs.getLong(1),
+                rs.getObject(2, Long.class),
+                Payment.PaymentStatus.valueOf(rs.getString(3)),
+                rs.getBigDecimal(4)));
+    }
+}
@@ -0,0 +1,228 @@
+package br.com.alg.algexpress.infra.repository.report;
+
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.dto.report.DailySalesDTO;
+import br.com.alg.algexpress.dto.report.PizzaSalesDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain SQL access to the sales rollup tables ({@code sales_daily}, {@code sales_hourly} and
+ * {@code sales_daily_pizza}). Updates are additive upserts computed from the order row, so they
+ * run in the caller's transaction without loading any entity. Every join to {@code order_items}
+ * repeats the order's {@code order_date_time} so only the matching monthly partitions are read.
+ */
+@Repository
+public class SalesRollupRepository {
+
+    private static final String DAY_BUCKET = "CAST(o.order_date_time AS DATE)";
+    private static final String HOUR_BUCKET = "date_trunc('hour', o.order_date_time)";
+
+    private static final String APPLY_ORDER =
+            "INSERT INTO %1$s AS s (%2$s, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold) " +
+            "SELECT %3$s, ?, ?, ? * o.total, ? * COALESCE(o.delivery_fee, 0), " +
+            "       ? * COALESCE((SELECT SUM(oi.quantity) FROM order_items oi " +
+            "                 WHERE oi.order_id = o.id AND oi.order_date_time = o.order_date_time), 0) " +
+            "FROM orders o WHERE o.id = ? " +
+            "ON CONFLICT (%2$s) DO UPDATE SET " +
+            "    delivered_orders = s.delivered_orders + EXCLUDED.delivered_orders, " +
+            "    cancelled_orders = s.cancelled_orders + EXCLUDED.cancelled_orders, " +
+            "    revenue = s.revenue + EXCLUDED.revenue, " +
+            "    delivery_fees = s.delivery_fees + EXCLUDED.delivery_fees, " +
+            "    items_sold = s.items_sold + EXCLUDED.items_sold";
+
+    // Rows are sorted so concurrent transactions lock pizza rows in the same order
+    private static final String APPLY_ORDER_PIZZAS =
+            "INSERT INTO sales_daily_pizza AS s (sales_date, pizza_id, size, quantity, revenue) " +
+            "SELECT " + DAY_BUCKET + ", oi.pizza_id, oi.size, ? * SUM(oi.quantity), ? * SUM(oi.total_price) " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id AND oi.order_date_time = o.order_date_time " +
+            "WHERE o.id = ? " +
+            "GROUP BY " + DAY_BUCKET + ", oi.pizza_id, oi.size ORDER BY oi.pizza_id, oi.size " +
+            "ON CONFLICT (sales_date, pizza_id, size) DO UPDATE SET " +
+            "    quantity = s.quantity + EXCLUDED.quantity, " +
+            "    revenue = s.revenue + EXCLUDED.revenue";
+
+    private static final String REBUILD =
+            "INSERT INTO %1$s (%2$s, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold) " +
+            "SELECT %3$s, " +
+            "       COUNT(*) FILTER (WHERE o.status = 'DELIVERED'), " +
+            "       COUNT(*) FILTER (WHERE o.status = 'CANCELLED'), " +
+            "       COALESCE(SUM(o.total) FILTER (WHERE o.status = 'DELIVERED'), 0), " +
+            "       COALESCE(SUM(o.delivery_fee) FILTER (WHERE o.status = 'DELIVERED'), 0), " +
+            "       COALESCE(SUM(items.quantity) FILTER (WHERE o.status = 'DELIVERED'), 0) " +
+            "FROM orders o " +
+            "LEFT JOIN (SELECT order_id, order_date_time, SUM(quantity) AS quantity FROM order_items " +
+            "           WHERE order_date_time >= ? AND order_date_time < ? GROUP BY order_id, order_date_time) items " +
+            "       ON items.order_id = o.id AND items.order_date_time = o.order_date_time " +
+            "WHERE o.status IN ('DELIVERED', 'CANCELLED') AND o.order_date_time >= ? AND o.order_date_time < ? " +
+            "GROUP BY %3$s";
+
+    private static final String REBUILD_PIZZAS =
+            "INSERT INTO sales_daily_pizza (sales_date, pizza_id, size, quantity, revenue) " +
+            "SELECT " + DAY_BUCKET + ", oi.pizza_id, oi.size, SUM(oi.quantity), SUM(oi.total_price) " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id AND oi.order_date_time = o.order_date_time " +
+            "WHERE o.status = 'DELIVERED' AND o.order_date_time >= ? AND o.order_date_time < ? " +
+            "  AND oi.order_date_time >= ? AND oi.order_date_time < ? " +
+            "GROUP BY " + DAY_BUCKET + ", oi.pizza_id, oi.size";
+
+    private static final String ADD_SALES =
+            "INSERT INTO %1$s AS s (%2$s, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (%2$s) DO UPDATE SET " +
+            "    delivered_orders = s.delivered_orders + EXCLUDED.delivered_orders, " +
+            "    cancelled_orders = s.cancelled_orders + EXCLUDED.cancelled_orders, " +
+            "    revenue = s.revenue + EXCLUDED.revenue, " +
+            "    delivery_fees = s.delivery_fees + EXCLUDED.delivery_fees, " +
+            "    items_sold = s.items_sold + EXCLUDED.items_sold";
+
+    private static final String ADD_PIZZA_SALES =
+            "INSERT INTO sales_daily_pizza AS s (sales_date, pizza_id, size, quantity, revenue) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sales_date, pizza_id, size) DO UPDATE SET " +
+            "    quantity = s.quantity + EXCLUDED.quantity, " +
+            "    revenue = s.revenue + EXCLUDED.revenue";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record DeliveredTotals(long orders, BigDecimal revenue) {
+    }
+
+    /**
+     * Totals of one day or hour, added on top of whatever the rollup already holds.
+     */
+    public record SalesBucket(LocalDateTime bucket, int deliveredOrders, int cancelledOrders, BigDecimal revenue,
+                              BigDecimal deliveryFees, int itemsSold) {
+    }
+
+    public record PizzaSalesBucket(LocalDate salesDate, long pizzaId, Pizza.PizzaSize size, long quantity,
+                                   BigDecimal revenue) {
+    }
+
+    public SalesRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds (or, with negative deltas, removes) one order's contribution to every rollup.
+     */
+    public void applyOrder(long orderId, int deliveredDelta, int cancelledDelta) {
+        for (String[] rollup : new String[][]{
+                {"sales_daily", "sales_date", DAY_BUCKET},
+                {"sales_hourly", "sales_hour", HOUR_BUCKET}}) {
+            jdbcTemplate.update(String.format(APPLY_ORDER, rollup[0], rollup[1], rollup[2]),
+                    deliveredDelta, cancelledDelta, deliveredDelta, deliveredDelta, deliveredDelta, orderId);
+        }
+        if (deliveredDelta != 0) {
+            jdbcTemplate.update(APPLY_ORDER_PIZZAS, deliveredDelta, deliveredDelta, orderId);
+        }
+    }
+
+    /**
+     * Recomputes all rollups for orders dated in [startDate, endDate).
+     */
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        Timestamp start = Timestamp.valueOf(startDate.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(endDate.atStartOfDay());
+
+        jdbcTemplate.update("DELETE FROM sales_daily WHERE sales_date >= ? AND sales_date < ?",
+                Date.valueOf(startDate), Date.valueOf(endDate));
+        jdbcTemplate.update("DELETE FROM sales_hourly WHERE sales_hour >= ? AND sales_hour < ?", start, end);
+        jdbcTemplate.update("DELETE FROM sales_daily_pizza WHERE sales_date >= ? AND sales_date < ?",
+                Date.valueOf(startDate), Date.valueOf(endDate));
+
+        jdbcTemplate.update(String.format(REBUILD, "sales_daily", "sales_date", DAY_BUCKET), start, end, start, end);
+        jdbcTemplate.update(String.format(REBUILD, "sales_hourly", "sales_hour", HOUR_BUCKET), start, end, start, end);
+        jdbcTemplate.update(REBUILD_PIZZAS, start, end, start, end);
+    }
+
+    /**
+     * Adds pre-aggregated totals, e.g. of archived orders after {@link #rebuild}.
+     */
+    public void addSales(List<SalesBucket> daily, List<SalesBucket> hourly, List<PizzaSalesBucket> pizzas) {
+        jdbcTemplate.batchUpdate(String.format(ADD_SALES, "sales_daily", "sales_date"), daily.stream()
+                .map(bucket -> salesRow(Date.valueOf(bucket.bucket().toLocalDate()), bucket))
+                .toList());
+        jdbcTemplate.batchUpdate(String.format(ADD_SALES, "sales_hourly", "sales_hour"), hourly.stream()
+                .map(bucket -> salesRow(Timestamp.valueOf(bucket.bucket()), bucket))
+                .toList());
+        jdbcTemplate.batchUpdate(ADD_PIZZA_SALES, pizzas.stream()
+                .map(bucket -> new Object[]{Date.valueOf(bucket.salesDate()), bucket.pizzaId(), bucket.size().name(),
+                        bucket.quantity(), bucket.revenue()})
+                .toList());
+    }
+
+    private static Object[] salesRow(Object key, SalesBucket bucket) {
+        return new Object[]{key, bucket.deliveredOrders(), bucket.cancelledOrders(), bucket.revenue(),
+                bucket.deliveryFees(), bucket.itemsSold()};
+    }
+
+    public BigDecimal sumDailyRevenue(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(revenue), 0) FROM sales_daily WHERE sales_date >= ? AND sales_date < ?",
+                BigDecimal.class, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    public BigDecimal sumHourlyRevenue(LocalDateTime startHour, LocalDateTime endHour) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(revenue), 0) FROM sales_hourly WHERE sales_hour >= ? AND sales_hour < ?",
+                BigDecimal.class, Timestamp.valueOf(startHour), Timestamp.valueOf(endHour));
+    }
+
+    /**
+     * Revenue of delivered orders read from the orders table, used for the sub-hour edges of a
+     * range. The end bound is inclusive when {@code includeEnd} is set.
+     */
+    public BigDecimal sumOrderRevenue(LocalDateTime startDate, LocalDateTime endDate, boolean includeEnd) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total), 0) FROM orders WHERE status = 'DELIVERED' " +
+                "AND order_date_time >= ? AND order_date_time " + (includeEnd ? "<=" : "<") + " ?",
+                BigDecimal.class, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    public DeliveredTotals findDeliveredTotals() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(delivered_orders), 0), COALESCE(SUM(revenue), 0) FROM sales_daily",
+                (rs, rowNum) -> new DeliveredTotals(rs.getLong(1), rs.getBigDecimal(2)));
+    }
+
+    public BigDecimal findAverageDeliveredOrderTotal() {
+        return jdbcTemplate.queryForObject(
+                "SELECT SUM(revenue) / NULLIF(SUM(delivered_orders), 0) FROM sales_daily", BigDecimal.class);
+    }
+
+    public List<DailySalesDTO> findDailySales(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(
+                "SELECT sales_date, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold " +
+                "FROM sales_daily WHERE sales_date >= ? AND sales_date < ? ORDER BY sales_date",
+                (rs, rowNum) -> new DailySalesDTO(
+                        rs.getDate("sales_date").toLocalDate(),
+                        rs.getInt("delivered_orders"),
+                        rs.getInt("cancelled_orders"),
+                        rs.getBigDecimal("revenue"),
+                        rs.getBigDecimal("delivery_fees"),
+                        rs.getInt("items_sold")),
+                Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    public List<PizzaSalesDTO> findPizzaSales(LocalDate startDate, LocalDate endDate, int limit) {
+        return jdbcTemplate.query(
+                "SELECT s.pizza_id, p.name, s.size, SUM(s.quantity) AS quantity, SUM(s.revenue) AS revenue " +
+                "FROM sales_daily_pizza s LEFT JOIN pizzas p ON p.id = s.pizza_id " +
+                "WHERE s.sales_date >= ? AND s.sales_date < ? " +
+                "GROUP BY s.pizza_id, p.name, s.size HAVING SUM(s.quantity) > 0 " +
+                "ORDER BY quantity DESC, s.pizza_id LIMIT ?",
+                (rs, rowNum) -> new PizzaSalesDTO(
+                        rs.getLong("pizza_id"),
+                        rs.getString("name"),
+                        Pizza.PizzaSize.valueOf(rs.getString("size")),
+                        rs.getLong("quantity"),
+                        rs.getBigDecimal("revenue")),
+                Date.valueOf(startDate), Date.valueOf(endDate), limit);
+    }
+}
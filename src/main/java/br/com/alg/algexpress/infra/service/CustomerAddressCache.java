@@ -0,0 +1,73 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional cache of the address ids owned by each customer, used to validate delivery
+ * addresses at order time without a query. Only positive answers are trusted: an id missing
+ * from a cached entry is always re-checked against the database by {@link CustomerService}.
+ */
+@Component
+public class CustomerAddressCache {
+
+    private final boolean enabled;
+    private final int maxCustomers;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public CustomerAddressCache(@Value("${algexpress.customer.address-cache.enabled:false}") boolean enabled,
+                                @Value("${algexpress.customer.address-cache.max-customers:10000}") int maxCustomers,
+                                @Value("${algexpress.customer.address-cache.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxCustomers = maxCustomers;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isCached(Long customerId) {
+        Entry entry = entries.get(customerId);
+        return entry != null && !entry.isExpired(ttlNanos);
+    }
+
+    public boolean owns(Long customerId, Long addressId) {
+        Entry entry = entries.get(customerId);
+        return entry != null && !entry.isExpired(ttlNanos) && entry.addressIds().contains(addressId);
+    }
+
+    public void put(Long customerId, Collection<Long> addressIds) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxCustomers) {
+            // Crude bound: dropping everything is cheap to rebuild and keeps memory flat
+            entries.clear();
+        }
+        entries.put(customerId, new Entry(Set.copyOf(addressIds), System.nanoTime()));
+    }
+
+    /**
+     * Drops the entry now and again once the surrounding transaction commits, so a concurrent
+     * reader cannot re-cache the pre-commit address list.
+     */
+    public void evict(Long customerId) {
+        entries.remove(customerId);
+        AfterCommit.run(() -> entries.remove(customerId));
+    }
+
+    private record Entry(Set<Long> addressIds, long loadedAt) {
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
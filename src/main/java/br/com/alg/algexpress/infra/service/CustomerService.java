@@ -2,12 +2,26 @@ package br.com.alg.algexpress.infra.service;
 
 import br.com.alg.algexpress.domain.customer.Customer;
 import br.com.alg.algexpress.domain.valueObjects.Address;
+import br.com.alg.algexpress.dto.common.CursorPage;
 import br.com.alg.algexpress.dto.customer.AddressDTO;
+import br.com.alg.algexpress.dto.customer.NearbyAddressDTO;
+import br.com.alg.algexpress.infra.repository.customer.AddressLocationRepository;
+import br.com.alg.algexpress.infra.repository.customer.AddressRepository;
 import br.com.alg.algexpress.infra.repository.customer.CustomerRepository;
+import br.com.alg.algexpress.infra.repository.customer.LoyaltyLedgerRepository;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryZoneRepository;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import br.com.alg.algexpress.infra.support.Geohash;
+import br.com.alg.algexpress.infra.support.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,9 +32,30 @@ import java.util.Optional;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
-
-    public CustomerService(CustomerRepository customerRepository) {
+    private final AddressRepository addressRepository;
+    private final CustomerAddressCache addressCache;
+    private final DashboardMetrics dashboardMetrics;
+    private final LoyaltyLedgerRepository loyaltyLedgerRepository;
+    private final AddressLocationRepository addressLocationRepository;
+    private final DeliveryZones deliveryZones;
+    private final BigDecimal defaultDeliveryFee;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CustomerService(CustomerRepository customerRepository, AddressRepository addressRepository,
+                           CustomerAddressCache addressCache, DashboardMetrics dashboardMetrics,
+                           LoyaltyLedgerRepository loyaltyLedgerRepository,
+                           AddressLocationRepository addressLocationRepository, DeliveryZones deliveryZones,
+                           @Value("${algexpress.delivery-zones.default-fee:5.00}") BigDecimal defaultDeliveryFee) {
         this.customerRepository = customerRepository;
+        this.addressRepository = addressRepository;
+        this.addressCache = addressCache;
+        this.dashboardMetrics = dashboardMetrics;
+        this.loyaltyLedgerRepository = loyaltyLedgerRepository;
+        this.addressLocationRepository = addressLocationRepository;
+        this.deliveryZones = deliveryZones;
+        this.defaultDeliveryFee = defaultDeliveryFee;
     }
 
     @Transactional(readOnly = true)
@@ -64,13 +99,48 @@ public class CustomerService {
     }
 
     @Transactional(readOnly = true)
-    public List<Customer> findCustomersWithMostOrders() {
-        return customerRepository.findCustomersWithMostOrders();
+    public List<Customer> findCustomersWithMostOrders(int limit) {
+        return customerRepository.findCustomersWithMostOrders(Limit.of(CursorPage.limit(limit)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Customer> findCustomersWithHighestSpending(int limit) {
+        return customerRepository.findCustomersWithHighestSpending(Limit.of(CursorPage.limit(limit)));
+    }
+
+    // === KEYSET PAGES ===
+
+    @Transactional(readOnly = true)
+    public CursorPage<Customer> findPageByStatus(Customer.CustomerStatus status, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        return page(customerRepository.findPageByStatus(status, afterId(cursor), Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Customer> findPageByNameContaining(String name, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        return page(customerRepository.findPageByNameContaining(name, afterId(cursor), Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Customer> findPageByLoyaltyPointsGreaterThan(Integer points, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        return page(customerRepository.findPageByLoyaltyPointsGreaterThan(points, afterId(cursor), Limit.of(limit + 1)), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<Customer> findCustomersWithHighestSpending() {
-        return customerRepository.findCustomersWithHighestSpending();
+    public CursorPage<Customer> findPageCreatedBetween(LocalDateTime startDate, LocalDateTime endDate,
+                                                       String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        return page(customerRepository.findPageCreatedBetween(startDate, endDate, afterId(cursor), Limit.of(limit + 1)), limit);
+    }
+
+    private static long afterId(String cursor) {
+        return KeysetCursor.decode(cursor, false).id();
+    }
+
+    private static CursorPage<Customer> page(List<Customer> rows, int limit) {
+        return CursorPage.of(rows, limit, customer -> KeysetCursor.afterId(customer.getId()).encode());
     }
 
     public Customer save(Customer customer) {
@@ -78,6 +148,7 @@ public class CustomerService {
             customer.setRegistrationDate(LocalDateTime.now());
             customer.setStatus(Customer.CustomerStatus.ACTIVE);
             customer.setLoyaltyPoints(0);
+            dashboardMetrics.customerChanged(null, 0, Customer.CustomerStatus.ACTIVE, 0);
         }
         return customerRepository.save(customer);
     }
@@ -90,7 +161,7 @@ public class CustomerService {
         Optional<Customer> customerOpt = customerRepository.findById(customerId);
         if (customerOpt.isPresent()) {
             Customer customer = customerOpt.get();
-            customer.setStatus(Customer.CustomerStatus.ACTIVE);
+            statusChanged(customer, Customer.CustomerStatus.ACTIVE);
             return customerRepository.save(customer);
         }
         throw new RuntimeException("Customer not found with id: " + customerId);
@@ -100,7 +171,7 @@ public class CustomerService {
         Optional<Customer> customerOpt = customerRepository.findById(customerId);
         if (customerOpt.isPresent()) {
             Customer customer = customerOpt.get();
-            customer.setStatus(Customer.CustomerStatus.INACTIVE);
+            statusChanged(customer, Customer.CustomerStatus.INACTIVE);
             return customerRepository.save(customer);
         }
         throw new RuntimeException("Customer not found with id: " + customerId);
@@ -110,35 +181,55 @@ public class CustomerService {
         Optional<Customer> customerOpt = customerRepository.findById(customerId);
         if (customerOpt.isPresent()) {
             Customer customer = customerOpt.get();
-            customer.setStatus(Customer.CustomerStatus.BLOCKED);
+            statusChanged(customer, Customer.CustomerStatus.BLOCKED);
             return customerRepository.save(customer);
         }
         throw new RuntimeException("Customer not found with id: " + customerId);
     }
 
     public Customer addLoyaltyPoints(Long customerId, Integer points) {
-        Optional<Customer> customerOpt = customerRepository.findById(customerId);
-        if (customerOpt.isPresent()) {
-            Customer customer = customerOpt.get();
-            customer.setLoyaltyPoints(customer.getLoyaltyPoints() + points);
-            return customerRepository.save(customer);
+        if (!loyaltyLedgerRepository.addToBalance(customerId, points)) {
+            throw new RuntimeException("Customer not found with id: " + customerId);
         }
-        throw new RuntimeException("Customer not found with id: " + customerId);
+        loyaltyLedgerRepository.record(customerId, null, points, LoyaltyLedgerRepository.ADJUSTMENT);
+        return pointsChanged(customerId, points);
     }
 
     public Customer redeemLoyaltyPoints(Long customerId, Integer points) {
-        Optional<Customer> customerOpt = customerRepository.findById(customerId);
-        if (customerOpt.isPresent()) {
-            Customer customer = customerOpt.get();
-            if (customer.getLoyaltyPoints() >= points) {
-                customer.setLoyaltyPoints(customer.getLoyaltyPoints() - points);
-                return customerRepository.save(customer);
-            } else {
-                throw new RuntimeException("Insufficient loyalty points. Customer has: " + 
-                    customer.getLoyaltyPoints() + ", trying to redeem: " + points);
+        if (!loyaltyLedgerRepository.deductFromBalance(customerId, points)) {
+            Integer balance = loyaltyLedgerRepository.findBalance(customerId);
+            if (balance == null) {
+                throw new RuntimeException("Customer not found with id: " + customerId);
             }
+            throw new RuntimeException("Insufficient loyalty points. Customer has: " + 
+                balance + ", trying to redeem: " + points);
         }
-        throw new RuntimeException("Customer not found with id: " + customerId);
+        loyaltyLedgerRepository.record(customerId, null, -points, LoyaltyLedgerRepository.REDEMPTION);
+        return pointsChanged(customerId, -points);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Integer> getLoyaltyBalance(Long customerId) {
+        return Optional.ofNullable(loyaltyLedgerRepository.findBalance(customerId));
+    }
+
+    private void statusChanged(Customer customer, Customer.CustomerStatus newStatus) {
+        dashboardMetrics.customerChanged(customer.getStatus(), customer.getLoyaltyPoints(),
+                newStatus, customer.getLoyaltyPoints());
+        customer.setStatus(newStatus);
+    }
+
+    /**
+     * Loads the customer after an atomic balance update (the SQL update bypasses the persistence
+     * context, so a managed instance is refreshed) and reports the change to the dashboard.
+     */
+    private Customer pointsChanged(Long customerId, int delta) {
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
+        entityManager.refresh(customer);
+        dashboardMetrics.customerChanged(customer.getStatus(), customer.getLoyaltyPoints() - delta,
+                customer.getStatus(), customer.getLoyaltyPoints());
+        return customer;
     }
 
     @Transactional(readOnly = true)
@@ -185,34 +276,45 @@ public class CustomerService {
 
     @Transactional(readOnly = true)
     public List<Customer> findTopCustomersByLoyaltyPoints(int limit) {
-        List<Customer> customers = customerRepository.findByLoyaltyPointsGreaterThan(0);
-        return customers.stream()
-                .sorted((c1, c2) -> c2.getLoyaltyPoints().compareTo(c1.getLoyaltyPoints()))
-                .limit(limit)
-                .toList();
+        return customerRepository.findTopByLoyaltyPoints(Limit.of(CursorPage.limit(limit)));
     }
 
     public void deleteCustomer(Long customerId) {
+        customerRepository.findById(customerId).ifPresent(customer ->
+                dashboardMetrics.customerChanged(customer.getStatus(), customer.getLoyaltyPoints(), null, 0));
         customerRepository.deleteById(customerId);
+        addressCache.evict(customerId);
     }
     
     // ===== ADDRESS MANAGEMENT METHODS =====
     
     @Transactional(readOnly = true)
     public Optional<Address> findAddressById(Long addressId) {
-        List<Customer> customers = customerRepository.findAll();
-        
-        for (Customer customer : customers) {
-            if (customer.getAddresses() != null) {
-                for (Address address : customer.getAddresses()) {
-                    if (address.getId().equals(addressId)) {
-                        return Optional.of(address);
-                    }
-                }
+        return addressRepository.findById(addressId);
+    }
+    
+    /**
+     * Returns the address only if it belongs to the given customer. With the address cache
+     * enabled a known owner gets a lazy reference (no query); otherwise, or on a cache miss,
+     * ownership is checked with a single indexed lookup.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Address> findCustomerAddress(Long customerId, Long addressId) {
+        if (addressCache.isEnabled()) {
+            if (!addressCache.isCached(customerId)) {
+                addressCache.put(customerId, addressRepository.findIdsByCustomerId(customerId));
+            }
+            if (addressCache.owns(customerId, addressId)) {
+                return Optional.of(addressRepository.getReferenceById(addressId));
             }
         }
         
-        return Optional.empty();
+        Optional<Address> address = addressRepository.findByIdAndCustomerId(addressId, customerId);
+        if (address.isPresent() && addressCache.isEnabled()) {
+            // Address was added after the entry was cached (possibly on another node)
+            addressCache.evict(customerId);
+        }
+        return address;
     }
     
     public Address addAddressToCustomer(Long customerId, AddressDTO addressDTO) {
@@ -231,7 +333,7 @@ public class CustomerService {
             address.setZipCode(addressDTO.zipCode());
             address.setType(addressDTO.type() != null ? addressDTO.type() : Address.AddressType.RESIDENTIAL);
             address.setReferencePoints(addressDTO.referencePoints());
-            address.setDeliveryFee(addressDTO.deliveryFee() != null ? addressDTO.deliveryFee() : calculateDeliveryFee(addressDTO));
+            locate(address, addressDTO);
             
             // Initialize addresses list if null
             if (customer.getAddresses() == null) {
@@ -240,6 +342,7 @@ public class CustomerService {
             
             customer.getAddresses().add(address);
             Customer savedCustomer = customerRepository.save(customer);
+            addressCache.evict(customerId);
             
             // Return the newly added address (last one in the list)
             List<Address> addresses = savedCustomer.getAddresses();
@@ -266,6 +369,7 @@ public class CustomerService {
                         address.setType(addressDTO.type());
                         address.setReferencePoints(addressDTO.referencePoints());
             address.setType(addressDTO.type() != null ? addressDTO.type() : Address.AddressType.RESIDENTIAL);
+                        locate(address, addressDTO);
                         
                         customerRepository.save(customer);
                         return address;
@@ -286,6 +390,7 @@ public class CustomerService {
                 boolean removed = customer.getAddresses().removeIf(address -> address.getId().equals(addressId));
                 if (removed) {
                     customerRepository.save(customer);
+                    addressCache.evict(customerId);
                     return;
                 }
             }
@@ -321,19 +426,47 @@ public class CustomerService {
         throw new RuntimeException("Customer not found with id: " + customerId);
     }
     
-    private BigDecimal calculateDeliveryFee(AddressDTO addressDTO) {
-        // Basic delivery fee calculation based on neighborhood/city
-        // In a real system, this could integrate with maps API for distance calculation
-        BigDecimal baseFee = new BigDecimal("5.00"); // Base fee
-        
-        // Different fees based on city (example logic)
-        if ("São Paulo".equalsIgnoreCase(addressDTO.city())) {
-            return baseFee; // Standard fee for São Paulo
-        } else if (addressDTO.city() != null && addressDTO.city().toLowerCase().contains("grande") ||
-                   addressDTO.city() != null && addressDTO.city().toLowerCase().contains("abc")) {
-            return baseFee.add(new BigDecimal("2.00")); // Higher fee for Greater São Paulo
-        } else {
-            return baseFee.add(new BigDecimal("5.00")); // Even higher for other cities
+    /**
+     * Delivery fee of an order to {@code address}: the fee of the delivery zone its geohash cell
+     * falls in, looked up in memory, or the fee stored on the address when it was never geocoded.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal deliveryFeeFor(Address address) {
+        if (address.getGeohash() == null) {
+            return address.getDeliveryFee();
+        }
+        return deliveryZones.zoneOf(address.getGeohash())
+                .map(DeliveryZoneRepository.Zone::fee)
+                .orElseThrow(() -> new RuntimeException("Address is outside the delivery area: " + address.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<NearbyAddressDTO> findAddressesNear(GeoPoint center, double radiusKm, int limit) {
+        return addressLocationRepository.findWithin(center, radiusKm, limit);
+    }
+
+    // Coordinates, when given, decide the cell, distance from the store and zone fee; outside
+    // every zone the address is rejected. Without them a new address takes the requested or the
+    // default fee and an existing one keeps its location, and its zone fee if it was geocoded.
+    private void locate(Address address, AddressDTO addressDTO) {
+        if (addressDTO.latitude() == null && addressDTO.longitude() == null) {
+            if (address.getGeohash() == null) {
+                BigDecimal fee = addressDTO.deliveryFee() != null ? addressDTO.deliveryFee() : address.getDeliveryFee();
+                address.setDeliveryFee(fee != null ? fee : defaultDeliveryFee);
+            }
+            return;
+        }
+        GeoPoint point = GeoPoint.of(addressDTO.latitude(), addressDTO.longitude());
+        if (point == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
         }
+        String geohash = Geohash.encode(point, Geohash.ADDRESS_PRECISION);
+        DeliveryZoneRepository.Zone zone = deliveryZones.zoneOf(geohash)
+                .orElseThrow(() -> new IllegalArgumentException("Address is outside the delivery area"));
+        address.setLatitude(addressDTO.latitude());
+        address.setLongitude(addressDTO.longitude());
+        address.setGeohash(geohash);
+        address.setDistanceKm(BigDecimal.valueOf(deliveryZones.distanceFromStoreKm(point)).setScale(3, RoundingMode.HALF_UP));
+        address.setDeliveryFee(zone.fee());
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.customer.Customer;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.infra.repository.customer.CustomerRepository;
+import br.com.alg.algexpress.infra.repository.report.SalesRollupRepository;
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory counters behind the reports dashboard. Service write paths report their deltas
+ * (applied after commit) and a scheduled reconcile reloads the exact values from the database
+ * to correct any drift. Menu counts come straight from the {@link MenuCatalog} snapshot.
+ */
+@Component
+public class DashboardMetrics {
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final CustomerRepository customerRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final MenuCatalog menuCatalog;
+
+    // Distinguishes ETags across restarts, since versions start over
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicReference<Values> values = new AtomicReference<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    public DashboardMetrics(CustomerRepository customerRepository, SalesRollupRepository salesRollupRepository,
+                            MenuCatalog menuCatalog) {
+        this.customerRepository = customerRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.menuCatalog = menuCatalog;
+    }
+
+    public record Snapshot(String etag, Map<String, Object> values) {
+    }
+
+    private record Values(long version, long activeCustomers, long loyaltyPoints, long customersWithPoints,
+                          long deliveredOrders, BigDecimal deliveredRevenue) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+    }
+
+    public Snapshot snapshot() {
+        Values current = current();
+        MenuSnapshot menu = menuCatalog.current();
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("totalActiveCustomers", current.activeCustomers());
+        dashboard.put("averageLoyaltyPoints", average(BigDecimal.valueOf(current.loyaltyPoints()), current.customersWithPoints()));
+        dashboard.put("averageOrderTotal", average(current.deliveredRevenue(), current.deliveredOrders()));
+        dashboard.put("availablePizzas", menu.availablePizzaCount());
+        dashboard.put("availableIngredients", menu.availableIngredientCount());
+        return new Snapshot(etag(current, menu), dashboard);
+    }
+
+    // === WRITE PATH HOOKS ===
+
+    /**
+     * A {@code null} status stands for a customer that does not exist (before creation or
+     * after deletion).
+     */
+    public void customerChanged(Customer.CustomerStatus oldStatus, int oldPoints,
+                                Customer.CustomerStatus newStatus, int newPoints) {
+        long activeDelta = (newStatus == Customer.CustomerStatus.ACTIVE ? 1 : 0)
+                - (oldStatus == Customer.CustomerStatus.ACTIVE ? 1 : 0);
+        long pointsDelta = (newStatus != null ? newPoints : 0) - (oldStatus != null ? oldPoints : 0);
+        long holdersDelta = (newStatus != null && newPoints > 0 ? 1 : 0) - (oldStatus != null && oldPoints > 0 ? 1 : 0);
+        if (activeDelta == 0 && pointsDelta == 0 && holdersDelta == 0) {
+            return;
+        }
+        AfterCommit.run(() -> apply(current -> new Values(current.version() + 1,
+                current.activeCustomers() + activeDelta,
+                current.loyaltyPoints() + pointsDelta,
+                current.customersWithPoints() + holdersDelta,
+                current.deliveredOrders(),
+                current.deliveredRevenue())));
+    }
+
+    /**
+     * Points credited straight to customer balances, outside {@link #customerChanged}.
+     *
+     * @param newHolders customers whose balance went from zero to positive
+     */
+    public void loyaltyAccrued(long points, long newHolders) {
+        if (points == 0 && newHolders == 0) {
+            return;
+        }
+        AfterCommit.run(() -> apply(current -> new Values(current.version() + 1,
+                current.activeCustomers(),
+                current.loyaltyPoints() + points,
+                current.customersWithPoints() + newHolders,
+                current.deliveredOrders(),
+                current.deliveredRevenue())));
+    }
+
+    /**
+     * A {@code null} new status stands for a deleted order.
+     */
+    public void orderStatusChanged(Order.OrderStatus oldStatus, Order.OrderStatus newStatus, BigDecimal total) {
+        int delta = (newStatus == Order.OrderStatus.DELIVERED ? 1 : 0) - (oldStatus == Order.OrderStatus.DELIVERED ? 1 : 0);
+        if (delta == 0) {
+            return;
+        }
+        BigDecimal revenueDelta = (total != null ? total : BigDecimal.ZERO).multiply(BigDecimal.valueOf(delta));
+        AfterCommit.run(() -> apply(current -> new Values(current.version() + 1,
+                current.activeCustomers(),
+                current.loyaltyPoints(),
+                current.customersWithPoints(),
+                current.deliveredOrders() + delta,
+                current.deliveredRevenue().add(revenueDelta))));
+    }
+
+    // === RECONCILIATION ===
+
+    /**
+     * Reloads every counter from the database. A delta applied while loading may or may not be
+     * part of what was read, so the load is retried until no delta lands in between.
+     */
+    @Scheduled(fixedDelayString = "${algexpress.dashboard.reconcile-interval:PT5M}",
+               initialDelayString = "${algexpress.dashboard.reconcile-interval:PT5M}")
+    public void reconcile() {
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            if (tryReconcile()) {
+                return;
+            }
+        }
+    }
+
+    private Values current() {
+        Values current = values.get();
+        if (current == null) {
+            reconcile();
+            current = values.get();
+        }
+        return current != null ? current : load(0);
+    }
+
+    private boolean tryReconcile() {
+        long generation = changes.get();
+        Values previous = values.get();
+        Values loaded = load(previous != null ? previous.version() + 1 : 1);
+        if (changes.get() != generation) {
+            return false;
+        }
+        if (previous != null && sameCounters(previous, loaded)) {
+            // Nothing drifted; keep the version so client ETags stay valid
+            return true;
+        }
+        return values.compareAndSet(previous, loaded) && changes.get() == generation;
+    }
+
+    private Values load(long version) {
+        SalesRollupRepository.DeliveredTotals delivered = salesRollupRepository.findDeliveredTotals();
+        return new Values(version,
+                customerRepository.countByStatus(Customer.CustomerStatus.ACTIVE),
+                customerRepository.sumLoyaltyPoints(),
+                customerRepository.countByLoyaltyPointsGreaterThan(0),
+                delivered.orders(),
+                delivered.revenue());
+    }
+
+    private void apply(UnaryOperator<Values> change) {
+        changes.incrementAndGet();
+        values.updateAndGet(current -> current != null ? change.apply(current) : null);
+    }
+
+    private String etag(Values current, MenuSnapshot menu) {
+        return "\"" + bootId + "-" + current.version() + "-" + menu.version() + "\"";
+    }
+
+    private static boolean sameCounters(Values a, Values b) {
+        return a.activeCustomers() == b.activeCustomers()
+                && a.loyaltyPoints() == b.loyaltyPoints()
+                && a.customersWithPoints() == b.customersWithPoints()
+                && a.deliveredOrders() == b.deliveredOrders()
+                && a.deliveredRevenue().compareTo(b.deliveredRevenue()) == 0;
+    }
+
+    private static BigDecimal average(BigDecimal sum, long count) {
+        return count > 0 ? sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,147 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.delivery.Delivery;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.outbox.StatusChangePayload;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryPersonRepository;
+import br.com.alg.algexpress.infra.repository.delivery.DispatchRepository;
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the {@link DispatchEngine}. Every interval the planned trips are written one guarded
+ * UPDATE each, which attaches the courier and moves the deliveries EN_ROUTE; a trip whose write
+ * fails goes back to the queue. Orders reaching READY join the queue from the outbox feed and
+ * closed deliveries free their courier. The whole state is reloaded from the database at startup
+ * and every resync interval, which also picks up deliveries created after their order was READY.
+ */
+@Component
+@ConditionalOnProperty(prefix = "algexpress.dispatch", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeliveryDispatcher implements OutboxEventHandler {
+
+    private final DispatchEngine dispatchEngine;
+    private final DispatchRepository dispatchRepository;
+    private final DeliveryPersonRepository deliveryPersonRepository;
+    private final DeliveryService deliveryService;
+    private final ObjectMapper objectMapper;
+    private final Duration resyncInterval;
+
+    private final AtomicReference<Instant> lastRun = new AtomicReference<>();
+    private final AtomicReference<Instant> lastResync = new AtomicReference<>();
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong failedTrips = new AtomicLong();
+
+    public DeliveryDispatcher(DispatchEngine dispatchEngine, DispatchRepository dispatchRepository,
+                              DeliveryPersonRepository deliveryPersonRepository, DeliveryService deliveryService,
+                              ObjectMapper objectMapper,
+                              @Value("${algexpress.dispatch.resync-interval:1m}") Duration resyncInterval) {
+        this.dispatchEngine = dispatchEngine;
+        this.dispatchRepository = dispatchRepository;
+        this.deliveryPersonRepository = deliveryPersonRepository;
+        this.deliveryService = deliveryService;
+        this.objectMapper = objectMapper;
+        this.resyncInterval = resyncInterval;
+    }
+
+    public record Stats(Instant lastRun, Instant lastResync, long deliveriesAssigned, long failedTrips,
+                        DispatchEngine.Stats engine) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        resync();
+    }
+
+    @Scheduled(fixedDelayString = "${algexpress.dispatch.interval:5s}")
+    public synchronized void dispatch() {
+        JdbcGate.WorkloadClass previous = JdbcGate.bind(JdbcGate.WorkloadClass.WRITE);
+        try {
+            Instant synced = lastResync.get();
+            if (synced == null || synced.plus(resyncInterval).isBefore(Instant.now())) {
+                resync();
+            }
+            boolean stale = false;
+            for (DispatchEngine.Trip trip : dispatchEngine.plan()) {
+                try {
+                    List<Long> deliveryIds = deliveryService.assignDeliveries(trip.courierId(), trip.deliveryIds());
+                    dispatchEngine.confirm(trip, deliveryIds);
+                    assigned.addAndGet(deliveryIds.size());
+                    // Nothing written: the courier or the orders were taken, e.g. by another instance
+                    stale |= deliveryIds.isEmpty();
+                } catch (RuntimeException e) {
+                    dispatchEngine.release(trip);
+                    failedTrips.incrementAndGet();
+                }
+            }
+            if (stale) {
+                resync();
+            }
+            lastRun.set(Instant.now());
+        } finally {
+            JdbcGate.restore(previous);
+        }
+    }
+
+    public synchronized void resync() {
+        dispatchEngine.resync(deliveryPersonRepository.findAll(), dispatchRepository.findCarried(),
+                dispatchRepository.findWaiting());
+        lastResync.set(Instant.now());
+    }
+
+    public Stats stats() {
+        return new Stats(lastRun.get(), lastResync.get(), assigned.get(), failedTrips.get(), dispatchEngine.stats());
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxService.ORDER.equals(aggregateType) || OutboxService.DELIVERY.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxRepository.OutboxEvent event) {
+        handleBatch(List.of(event));
+    }
+
+    @Override
+    public void handleBatch(List<OutboxRepository.OutboxEvent> events) {
+        List<Long> readyOrderIds = new ArrayList<>();
+        for (OutboxRepository.OutboxEvent event : events) {
+            String status = read(event).status();
+            if (OutboxService.ORDER.equals(event.aggregateType())) {
+                if (Order.OrderStatus.READY.name().equals(status)) {
+                    readyOrderIds.add(event.aggregateId());
+                }
+            } else if (Delivery.DeliveryStatus.DELIVERED.name().equals(status)
+                    || Delivery.DeliveryStatus.RETURNED.name().equals(status)
+                    || Delivery.DeliveryStatus.CANCELLED.name().equals(status)) {
+                dispatchEngine.closed(event.aggregateId());
+            }
+        }
+        if (!readyOrderIds.isEmpty()) {
+            dispatchRepository.findWaiting(readyOrderIds).forEach(dispatchEngine::enqueue);
+        }
+    }
+
+    private StatusChangePayload read(OutboxRepository.OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.payload(), StatusChangePayload.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid outbox payload for event " + event.id(), e);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package br.com.alg.algexpress.infra.service;
 
 import br.com.alg.algexpress.domain.delivery.DeliveryPerson;
+import br.com.alg.algexpress.domain.valueObjects.Address;
 import br.com.alg.algexpress.infra.repository.delivery.DeliveryPersonRepository;
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import br.com.alg.algexpress.infra.support.GeoPoint;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -9,15 +12,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 @Service
 @Transactional
 public class DeliveryPersonService {
 
     private final DeliveryPersonRepository deliveryPersonRepository;
+    private final DispatchEngine dispatchEngine;
 
-    public DeliveryPersonService(DeliveryPersonRepository deliveryPersonRepository) {
+    public DeliveryPersonService(DeliveryPersonRepository deliveryPersonRepository, DispatchEngine dispatchEngine) {
         this.deliveryPersonRepository = deliveryPersonRepository;
+        this.dispatchEngine = dispatchEngine;
     }
 
     @Transactional(readOnly = true)
@@ -65,11 +71,11 @@ public class DeliveryPersonService {
             deliveryPerson.setShiftStart(LocalDateTime.now());
             deliveryPerson.setStatus(DeliveryPerson.DeliveryPersonStatus.ACTIVE);
         }
-        return deliveryPersonRepository.save(deliveryPerson);
+        return track(deliveryPerson);
     }
 
     public DeliveryPerson updateDeliveryPerson(DeliveryPerson deliveryPerson) {
-        return deliveryPersonRepository.save(deliveryPerson);
+        return track(deliveryPerson);
     }
 
     public DeliveryPerson updateStatus(Long deliveryPersonId, DeliveryPerson.DeliveryPersonStatus newStatus) {
@@ -85,7 +91,7 @@ public class DeliveryPersonService {
                 deliveryPerson.setAvailable(false);
             }
             
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
@@ -96,7 +102,7 @@ public class DeliveryPersonService {
             DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
             deliveryPerson.setAvailable(true);
             deliveryPerson.setStatus(DeliveryPerson.DeliveryPersonStatus.ACTIVE);
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
@@ -114,7 +120,7 @@ public class DeliveryPersonService {
         if (deliveryPersonOpt.isPresent()) {
             DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
             deliveryPerson.setAvailable(false);
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
@@ -125,7 +131,7 @@ public class DeliveryPersonService {
             DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
             // Note: totalDeliveries field doesn't exist in DeliveryPerson entity
             // This functionality would need to be tracked separately or added to entity
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
@@ -138,7 +144,7 @@ public class DeliveryPersonService {
             // Note: averageRating field doesn't exist in DeliveryPerson entity
             // This functionality would need to be tracked separately or added to entity
             
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
@@ -150,17 +156,33 @@ public class DeliveryPersonService {
             DeliveryPerson deliveryPerson = deliveryPersonOpt.get();
             deliveryPerson.setVehicleType(vehicleType);
             deliveryPerson.setVehiclePlate(vehiclePlate);
-            return deliveryPersonRepository.save(deliveryPerson);
+            return track(deliveryPerson);
         }
         throw new RuntimeException("Delivery person not found with id: " + deliveryPersonId);
     }
 
+    /**
+     * The idle courier with the lowest estimated pickup-plus-drop time to {@code destination},
+     * according to the {@link DispatchEngine} pool.
+     */
     @Transactional(readOnly = true)
-    public Optional<DeliveryPerson> findBestAvailableDeliveryPerson() {
-        List<DeliveryPerson> available = findAvailableDeliveryPersons();
-        
-        // Since rating and totalDeliveries don't exist, just return first available
-        return available.stream().findFirst();
+    public Optional<DeliveryPerson> findBestAvailableDeliveryPerson(Address destination) {
+        GeoPoint point = destination != null ? GeoPoint.of(destination.getLatitude(), destination.getLongitude()) : null;
+        OptionalLong best = dispatchEngine.bestCourierFor(point);
+        return best.isPresent() ? deliveryPersonRepository.findById(best.getAsLong()) : Optional.empty();
+    }
+
+    /**
+     * Last known position reported by the courier's device; kept in memory only.
+     */
+    @Transactional(readOnly = true)
+    public void reportPosition(Long deliveryPersonId, GeoPoint position) {
+        if (!dispatchEngine.reportPosition(deliveryPersonId, position)) {
+            DeliveryPerson deliveryPerson = deliveryPersonRepository.findById(deliveryPersonId)
+                    .orElseThrow(() -> new RuntimeException("Delivery person not found with id: " + deliveryPersonId));
+            dispatchEngine.updateCourier(deliveryPerson);
+            dispatchEngine.reportPosition(deliveryPersonId, position);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -214,5 +236,13 @@ public class DeliveryPersonService {
 
     public void deleteDeliveryPerson(Long deliveryPersonId) {
         deliveryPersonRepository.deleteById(deliveryPersonId);
+        AfterCommit.run(() -> dispatchEngine.removeCourier(deliveryPersonId));
+    }
+
+    // The dispatch pool follows committed changes only
+    private DeliveryPerson track(DeliveryPerson deliveryPerson) {
+        DeliveryPerson saved = deliveryPersonRepository.save(deliveryPerson);
+        AfterCommit.run(() -> dispatchEngine.updateCourier(saved));
+        return saved;
     }
 }
\ No newline at end of file
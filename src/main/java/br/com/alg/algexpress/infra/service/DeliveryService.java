@@ -3,13 +3,22 @@ package br.com.alg.algexpress.infra.service;
 import br.com.alg.algexpress.domain.delivery.Delivery;
 import br.com.alg.algexpress.domain.delivery.DeliveryPerson;
 import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.valueObjects.Address;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryPersonRepository;
 import br.com.alg.algexpress.infra.repository.delivery.DeliveryRepository;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryTransitionRepository;
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import br.com.alg.algexpress.infra.support.OptimisticRetry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +27,24 @@ import java.util.Optional;
 public class DeliveryService {
 
     private final DeliveryRepository deliveryRepository;
-
-    public DeliveryService(DeliveryRepository deliveryRepository) {
+    private final OutboxService outboxService;
+    private final OptimisticRetry optimisticRetry;
+    private final DeliveryTransitionRepository deliveryTransitionRepository;
+    private final DeliveryPersonRepository deliveryPersonRepository;
+    private final DispatchEngine dispatchEngine;
+    private final OrderArchive orderArchive;
+
+    public DeliveryService(DeliveryRepository deliveryRepository, OutboxService outboxService,
+                           OptimisticRetry optimisticRetry, DeliveryTransitionRepository deliveryTransitionRepository,
+                           DeliveryPersonRepository deliveryPersonRepository, DispatchEngine dispatchEngine,
+                           OrderArchive orderArchive) {
         this.deliveryRepository = deliveryRepository;
+        this.orderArchive = orderArchive;
+        this.deliveryTransitionRepository = deliveryTransitionRepository;
+        this.outboxService = outboxService;
+        this.optimisticRetry = optimisticRetry;
+        this.deliveryPersonRepository = deliveryPersonRepository;
+        this.dispatchEngine = dispatchEngine;
     }
 
     public List<Delivery> findTodaysDeliveries() {
@@ -83,23 +107,66 @@ public class DeliveryService {
         return deliveryRepository.save(delivery);
     }
 
+    /**
+     * Hands a delivery to a courier chosen by hand and moves it EN_ROUTE; a delivery already
+     * EN_ROUTE only changes courier.
+     */
     public Delivery assignDeliveryPerson(Long deliveryId, Long deliveryPersonId) {
         Optional<Delivery> deliveryOpt = deliveryRepository.findById(deliveryId);
         if (deliveryOpt.isPresent()) {
             Delivery delivery = deliveryOpt.get();
-            // Note: You would need to inject DeliveryPersonRepository to get the DeliveryPerson
-            // For now, we'll just set the status
-            delivery.setStatus(Delivery.DeliveryStatus.EN_ROUTE);
-            delivery.setDepartureTime(LocalDateTime.now());
+            DeliveryPerson deliveryPerson = deliveryPersonRepository.findById(deliveryPersonId)
+                    .orElseThrow(() -> new RuntimeException("Delivery person not found with id: " + deliveryPersonId));
+            Delivery.DeliveryStatus previousStatus = delivery.getStatus();
+            if (previousStatus != Delivery.DeliveryStatus.EN_ROUTE) {
+                checkTransition(delivery, Delivery.DeliveryStatus.EN_ROUTE);
+                delivery.setStatus(Delivery.DeliveryStatus.EN_ROUTE);
+                outboxService.deliveryStatusChanged(delivery, previousStatus);
+            }
+            delivery.setDeliveryPerson(deliveryPerson);
+            if (delivery.getDepartureTime() == null) {
+                delivery.setDepartureTime(LocalDateTime.now());
+            }
+            Address address = delivery.getOrder().getDeliveryAddress();
+            GeoPoint destination = address != null ? GeoPoint.of(address.getLatitude(), address.getLongitude()) : null;
+            AfterCommit.run(() -> dispatchEngine.assigned(deliveryPersonId, deliveryId, destination));
             return deliveryRepository.save(delivery);
         }
         throw new RuntimeException("Delivery not found with id: " + deliveryId);
     }
 
+    /**
+     * Hands the given deliveries to a courier as one trip with a single guarded UPDATE; see
+     * {@link DeliveryTransitionRepository#assign}.
+     *
+     * @return ids of the deliveries that changed
+     */
+    public List<Long> assignDeliveries(Long deliveryPersonId, Collection<Long> deliveryIds) {
+        List<DeliveryTransitionRepository.TransitionedDelivery> assigned =
+                deliveryTransitionRepository.assign(deliveryPersonId, deliveryIds);
+        List<Long> changed = new ArrayList<>(assigned.size());
+        for (DeliveryTransitionRepository.TransitionedDelivery row : assigned) {
+            outboxService.deliveryStatusChanged(row.id(), row.orderId(), row.previousStatus(),
+                    Delivery.DeliveryStatus.EN_ROUTE, row.deliveryFee());
+            changed.add(row.id());
+        }
+        return changed;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Delivery updateDeliveryStatus(Long deliveryId, Delivery.DeliveryStatus newStatus) {
+        return optimisticRetry.execute(() -> applyDeliveryStatus(deliveryId, newStatus));
+    }
+
+    private Delivery applyDeliveryStatus(Long deliveryId, Delivery.DeliveryStatus newStatus) {
         Optional<Delivery> deliveryOpt = deliveryRepository.findById(deliveryId);
         if (deliveryOpt.isPresent()) {
             Delivery delivery = deliveryOpt.get();
+            Delivery.DeliveryStatus previousStatus = delivery.getStatus();
+            if (previousStatus == newStatus && !newStatus.canTransitionTo(newStatus)) {
+                return delivery;
+            }
+            checkTransition(delivery, newStatus);
             delivery.setStatus(newStatus);
             
             switch (newStatus) {
@@ -119,32 +186,81 @@ public class DeliveryService {
                     break;
             }
             
+            outboxService.deliveryStatusChanged(delivery, previousStatus);
             return deliveryRepository.save(delivery);
         }
         throw new RuntimeException("Delivery not found with id: " + deliveryId);
     }
 
-    public Delivery markAsEnRoute(Long deliveryId) {
-        return updateDeliveryStatus(deliveryId, Delivery.DeliveryStatus.EN_ROUTE);
+    public boolean markAsEnRoute(Long deliveryId) {
+        return transitionDelivery(deliveryId, Delivery.DeliveryStatus.EN_ROUTE);
+    }
+
+    public boolean markAsDelivered(Long deliveryId) {
+        return transitionDelivery(deliveryId, Delivery.DeliveryStatus.DELIVERED);
+    }
+
+    public boolean markAsDeliveryAttempt(Long deliveryId) {
+        return transitionDelivery(deliveryId, Delivery.DeliveryStatus.DELIVERY_ATTEMPT);
     }
 
-    public Delivery markAsDelivered(Long deliveryId) {
-        return updateDeliveryStatus(deliveryId, Delivery.DeliveryStatus.DELIVERED);
+    /**
+     * Moves every given delivery whose current status may reach {@code newStatus} with one
+     * guarded UPDATE and no entity loading.
+     *
+     * @return ids of the deliveries that changed
+     */
+    public List<Long> transitionDeliveries(Collection<Long> deliveryIds, Delivery.DeliveryStatus newStatus) {
+        List<DeliveryTransitionRepository.TransitionedDelivery> transitioned =
+                deliveryTransitionRepository.transition(deliveryIds, newStatus);
+        List<Long> changed = new ArrayList<>(transitioned.size());
+        for (DeliveryTransitionRepository.TransitionedDelivery row : transitioned) {
+            outboxService.deliveryStatusChanged(row.id(), row.orderId(), row.previousStatus(), newStatus,
+                    row.deliveryFee());
+            changed.add(row.id());
+        }
+        return changed;
     }
 
-    public Delivery markAsDeliveryAttempt(Long deliveryId) {
-        return updateDeliveryStatus(deliveryId, Delivery.DeliveryStatus.DELIVERY_ATTEMPT);
+    /**
+     * @return {@code true} when the delivery changed, {@code false} when it already had the
+     * target status
+     */
+    private boolean transitionDelivery(Long deliveryId, Delivery.DeliveryStatus newStatus) {
+        if (!transitionDeliveries(List.of(deliveryId), newStatus).isEmpty()) {
+            return true;
+        }
+        Delivery.DeliveryStatus current = deliveryRepository.findById(deliveryId)
+                .map(Delivery::getStatus)
+                .orElseThrow(() -> new RuntimeException("Delivery not found with id: " + deliveryId));
+        if (current == newStatus) {
+            return false;
+        }
+        throw new IllegalStateException("Cannot change delivery " + deliveryId + " from " + current + " to " + newStatus);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Delivery cancelDelivery(Long deliveryId, String reason) {
-        Optional<Delivery> deliveryOpt = deliveryRepository.findById(deliveryId);
-        if (deliveryOpt.isPresent()) {
-            Delivery delivery = deliveryOpt.get();
-            delivery.setStatus(Delivery.DeliveryStatus.CANCELLED);
-            delivery.setCancellationReason(reason);
-            return deliveryRepository.save(delivery);
+        return optimisticRetry.execute(() -> {
+            Optional<Delivery> deliveryOpt = deliveryRepository.findById(deliveryId);
+            if (deliveryOpt.isPresent()) {
+                Delivery delivery = deliveryOpt.get();
+                Delivery.DeliveryStatus previousStatus = delivery.getStatus();
+                checkTransition(delivery, Delivery.DeliveryStatus.CANCELLED);
+                delivery.setStatus(Delivery.DeliveryStatus.CANCELLED);
+                delivery.setCancellationReason(reason);
+                outboxService.deliveryStatusChanged(delivery, previousStatus);
+                return deliveryRepository.save(delivery);
+            }
+            throw new RuntimeException("Delivery not found with id: " + deliveryId);
+        });
+    }
+
+    private static void checkTransition(Delivery delivery, Delivery.DeliveryStatus newStatus) {
+        if (delivery.getStatus() != null && !delivery.getStatus().canTransitionTo(newStatus)) {
+            throw new IllegalStateException("Cannot change delivery " + delivery.getId() + " from "
+                    + delivery.getStatus() + " to " + newStatus);
         }
-        throw new RuntimeException("Delivery not found with id: " + deliveryId);
     }
 
     @Transactional(readOnly = true)
@@ -169,7 +285,10 @@ public class DeliveryService {
 
     @Transactional(readOnly = true)
     public Optional<BigDecimal> getTotalDeliveryFees(LocalDateTime startDate, LocalDateTime endDate) {
-        return deliveryRepository.sumDeliveryFeesByDateRange(startDate, endDate);
+        Optional<BigDecimal> archived = orderArchive.sumDeliveryFees(startDate, endDate);
+        return deliveryRepository.sumDeliveryFeesByDateRange(startDate, endDate)
+                .map(sum -> archived.map(sum::add).orElse(sum))
+                .or(() -> archived);
     }
 
     @Transactional(readOnly = true)
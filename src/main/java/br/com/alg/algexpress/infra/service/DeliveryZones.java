@@ -0,0 +1,116 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryZoneRepository;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryZoneRepository.Zone;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import br.com.alg.algexpress.infra.support.Geohash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory grid of the delivery zones: a hash map from geohash cell to zone, so finding the
+ * zone, and with it the fee, of an address is at most one map probe per cell length instead of
+ * a query. Rebuilt from the database at startup and every reload interval.
+ */
+@Component
+public class DeliveryZones {
+
+    private final DeliveryZoneRepository deliveryZoneRepository;
+    private final GeoPoint store;
+
+    private final AtomicReference<Grid> grid = new AtomicReference<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong outsideArea = new AtomicLong();
+
+    public DeliveryZones(DeliveryZoneRepository deliveryZoneRepository,
+                         @Value("${algexpress.dispatch.store.latitude:-23.5505}") double storeLatitude,
+                         @Value("${algexpress.dispatch.store.longitude:-46.6333}") double storeLongitude) {
+        this.deliveryZoneRepository = deliveryZoneRepository;
+        this.store = new GeoPoint(storeLatitude, storeLongitude);
+    }
+
+    public record Stats(Instant loadedAt, int zones, int cells, long lookups, long outsideArea) {
+    }
+
+    private record Grid(Map<String, Zone> cells, int zones, int shortestCell, int longestCell, Instant loadedAt) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${algexpress.delivery-zones.reload-interval:5m}",
+            initialDelayString = "${algexpress.delivery-zones.reload-interval:5m}")
+    public void reload() {
+        List<Zone> zones = deliveryZoneRepository.findActiveZones();
+        Map<Long, Zone> byId = new HashMap<>();
+        zones.forEach(zone -> byId.put(zone.id(), zone));
+
+        Map<String, Zone> cells = new HashMap<>();
+        int shortest = Integer.MAX_VALUE;
+        int longest = 0;
+        for (DeliveryZoneRepository.ZoneCell cell : deliveryZoneRepository.findActiveCells()) {
+            Zone zone = byId.get(cell.zoneId());
+            if (zone == null) {
+                continue;
+            }
+            cells.put(cell.geohash(), zone);
+            shortest = Math.min(shortest, cell.geohash().length());
+            longest = Math.max(longest, cell.geohash().length());
+        }
+        grid.set(new Grid(cells, zones.size(), cells.isEmpty() ? 1 : shortest, longest, Instant.now()));
+    }
+
+    /**
+     * Zone of the cell {@code geohash} falls in; the longest matching cell wins where cells nest.
+     */
+    public Optional<Zone> zoneOf(String geohash) {
+        Grid current = current();
+        lookups.incrementAndGet();
+        for (int length = Math.min(current.longestCell(), geohash.length()); length >= current.shortestCell(); length--) {
+            Zone zone = current.cells().get(geohash.substring(0, length));
+            if (zone != null) {
+                return Optional.of(zone);
+            }
+        }
+        outsideArea.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public Optional<Zone> zoneOf(GeoPoint point) {
+        return zoneOf(Geohash.encode(point, Geohash.ADDRESS_PRECISION));
+    }
+
+    /**
+     * Great-circle distance from the store, as stored on addresses.
+     */
+    public double distanceFromStoreKm(GeoPoint point) {
+        return store.distanceKm(point);
+    }
+
+    public Stats stats() {
+        Grid current = current();
+        return new Stats(current.loadedAt(), current.zones(), current.cells().size(), lookups.get(), outsideArea.get());
+    }
+
+    private Grid current() {
+        Grid current = grid.get();
+        if (current == null) {
+            reload();
+            current = grid.get();
+        }
+        return current;
+    }
+}
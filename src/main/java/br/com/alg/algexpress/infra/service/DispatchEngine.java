@@ -0,0 +1,520 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.delivery.DeliveryPerson;
+import br.com.alg.algexpress.infra.repository.delivery.DispatchRepository.CarriedDelivery;
+import br.com.alg.algexpress.infra.repository.delivery.DispatchRepository.WaitingDelivery;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory delivery dispatch: a live pool of couriers (vehicle, availability, current load and
+ * last known position) and the queue of READY delivery orders waiting for one.
+ * <p>
+ * {@link #plan()} walks the queue oldest order first. Each order seeds a trip together with the
+ * nearest queued orders within the batch radius of its destination (found through a grid of
+ * radius-sized cells), and the trip goes to the idle courier with the lowest estimated
+ * pickup-plus-drop time: the ride from the courier's position to the store plus the mean arrival
+ * time of the stops it can carry, visited nearest first. Idle couriers are kept in one heap per
+ * vehicle type ordered by their ride to the store, so a decision compares a handful of heap
+ * heads instead of the whole pool. Travel times use straight-line distances, a road factor and
+ * an average speed per vehicle type; a courier is never given a trip that would keep it out
+ * longer than the maximum trip time (a walker is not sent across town), and an order that no idle
+ * courier can take in time waits for the next plan.
+ * <p>
+ * Planned trips stay reserved (their orders leave the queue and count as the courier's load)
+ * until the caller writes them and calls {@link #confirm}, or gives them back with
+ * {@link #release}. The state only approximates the database and is rebuilt by {@link #resync}.
+ */
+@Component
+public class DispatchEngine {
+
+    // Straight-line to street distance in a city grid
+    private static final double ROAD_FACTOR = 1.35;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final Comparator<WaitingDelivery> OLDEST_FIRST =
+            Comparator.comparing(WaitingDelivery::orderedAt).thenComparingLong(WaitingDelivery::deliveryId);
+    private static final Comparator<CourierState> NEAREST_FIRST =
+            Comparator.<CourierState>comparingDouble(courier -> courier.pickupMinutes).thenComparingLong(courier -> courier.id);
+
+    private final GeoPoint store;
+    private final double batchRadiusKm;
+    private final int maxBatchSize;
+    private final double stopMinutes;
+    private final double maxTripMinutes;
+    private final double kmPerDegreeLongitude;
+    private final double cellLatitude;
+    private final double cellLongitude;
+
+    private final Map<Long, CourierState> couriers = new HashMap<>();
+    private final Map<Long, WaitingDelivery> queue = new HashMap<>();
+    private final Map<Long, CarriedDelivery> carried = new HashMap<>();
+    private final Map<Long, WaitingDelivery> reserved = new HashMap<>();
+
+    private long plans;
+    private long tripsPlanned;
+    private long deliveriesPlanned;
+    private long lastPlanNanos;
+
+    public DispatchEngine(@Value("${algexpress.dispatch.store.latitude:-23.5505}") double storeLatitude,
+                          @Value("${algexpress.dispatch.store.longitude:-46.6333}") double storeLongitude,
+                          @Value("${algexpress.dispatch.batch-radius-km:1.5}") double batchRadiusKm,
+                          @Value("${algexpress.dispatch.max-batch-size:3}") int maxBatchSize,
+                          @Value("${algexpress.dispatch.stop-minutes:3}") double stopMinutes,
+                          @Value("${algexpress.dispatch.max-trip-minutes:60}") double maxTripMinutes) {
+        this.store = new GeoPoint(storeLatitude, storeLongitude);
+        this.batchRadiusKm = batchRadiusKm;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.stopMinutes = stopMinutes;
+        this.maxTripMinutes = maxTripMinutes;
+        this.kmPerDegreeLongitude = KM_PER_DEGREE * Math.cos(Math.toRadians(storeLatitude));
+        this.cellLatitude = batchRadiusKm / KM_PER_DEGREE;
+        this.cellLongitude = batchRadiusKm / kmPerDegreeLongitude;
+    }
+
+    /**
+     * @param minutes estimated arrival after leaving the store, including the time at earlier stops
+     */
+    public record Stop(long deliveryId, GeoPoint destination, double minutes) {
+    }
+
+    /**
+     * @param pickupMinutes estimated ride from the courier's position to the store
+     */
+    public record Trip(long courierId, double pickupMinutes, List<Stop> stops) {
+
+        public List<Long> deliveryIds() {
+            return stops.stream().map(Stop::deliveryId).toList();
+        }
+
+        public double durationMinutes() {
+            return pickupMinutes + stops.get(stops.size() - 1).minutes();
+        }
+    }
+
+    public record Stats(int couriers, int idleCouriers, int queued, int carried, long plans, long tripsPlanned,
+                        long deliveriesPlanned, double lastPlanMillis) {
+    }
+
+    // === COURIER POOL ===
+
+    public void updateCourier(DeliveryPerson deliveryPerson) {
+        updateCourier(deliveryPerson.getId(), deliveryPerson.getVehicleType(), isDispatchable(deliveryPerson));
+    }
+
+    /**
+     * Adds or updates a courier, keeping its load and last known position.
+     */
+    public synchronized void updateCourier(long courierId, DeliveryPerson.VehicleType vehicleType, boolean dispatchable) {
+        CourierState courier = couriers.computeIfAbsent(courierId, CourierState::new);
+        courier.vehicleType = vehicleType;
+        courier.dispatchable = dispatchable;
+    }
+
+    public synchronized void removeCourier(long courierId) {
+        couriers.remove(courierId);
+    }
+
+    /**
+     * @return {@code false} when the courier is not in the pool
+     */
+    public synchronized boolean reportPosition(long courierId, GeoPoint position) {
+        CourierState courier = couriers.get(courierId);
+        if (courier == null) {
+            return false;
+        }
+        courier.position = position;
+        return true;
+    }
+
+    // === QUEUE ===
+
+    /**
+     * Queues a delivery unless it is already queued, planned or carried, so repeated calls are
+     * no-ops.
+     */
+    public synchronized void enqueue(WaitingDelivery delivery) {
+        if (!carried.containsKey(delivery.deliveryId())) {
+            queue.putIfAbsent(delivery.deliveryId(), delivery);
+        }
+    }
+
+    /**
+     * A courier took the delivery outside the engine (manual assignment or reassignment).
+     */
+    public synchronized void assigned(long courierId, long deliveryId, GeoPoint destination) {
+        WaitingDelivery queued = queue.remove(deliveryId);
+        reserved.remove(deliveryId);
+        GeoPoint to = destination != null ? destination : queued != null ? queued.destination() : null;
+        carry(new CarriedDelivery(deliveryId, courierId, to));
+    }
+
+    /**
+     * The delivery was delivered, returned or cancelled: it leaves the queue, and a courier
+     * carrying it has one order less and is last known at its destination.
+     */
+    public synchronized void closed(long deliveryId) {
+        queue.remove(deliveryId);
+        reserved.remove(deliveryId);
+        CarriedDelivery delivery = carried.remove(deliveryId);
+        if (delivery != null) {
+            CourierState courier = couriers.get(delivery.courierId());
+            if (courier != null) {
+                courier.load = Math.max(0, courier.load - 1);
+                if (delivery.destination() != null) {
+                    courier.position = delivery.destination();
+                }
+            }
+        }
+    }
+
+    // === PLANNING ===
+
+    /**
+     * Plans trips for as many queued orders as there are idle couriers for, and reserves them.
+     */
+    public synchronized List<Trip> plan() {
+        long start = System.nanoTime();
+        List<Trip> trips = new ArrayList<>();
+        Map<DeliveryPerson.VehicleType, PriorityQueue<CourierState>> idle = idleCouriers();
+        if (!idle.isEmpty() && !queue.isEmpty()) {
+            List<WaitingDelivery> pending = new ArrayList<>(queue.values());
+            pending.sort(OLDEST_FIRST);
+            Map<Long, List<WaitingDelivery>> cells = new HashMap<>();
+            for (WaitingDelivery delivery : pending) {
+                cells.computeIfAbsent(cell(row(delivery.destination()), column(delivery.destination())),
+                        key -> new ArrayList<>()).add(delivery);
+            }
+            Set<Long> taken = new HashSet<>();
+            for (WaitingDelivery seed : pending) {
+                if (idle.isEmpty()) {
+                    break;
+                }
+                if (taken.contains(seed.deliveryId())) {
+                    continue;
+                }
+                Trip trip = assignBest(batchAround(seed, cells, taken), idle);
+                if (trip == null) {
+                    continue;
+                }
+                for (Stop stop : trip.stops()) {
+                    taken.add(stop.deliveryId());
+                    WaitingDelivery delivery = queue.remove(stop.deliveryId());
+                    reserved.put(stop.deliveryId(), delivery);
+                    carry(new CarriedDelivery(stop.deliveryId(), trip.courierId(), delivery.destination()));
+                }
+                trips.add(trip);
+                deliveriesPlanned += trip.stops().size();
+            }
+        }
+        plans++;
+        tripsPlanned += trips.size();
+        lastPlanNanos = System.nanoTime() - start;
+        return trips;
+    }
+
+    /**
+     * Ends the reservation of a planned trip once written: deliveries missing from
+     * {@code assignedIds} (cancelled or taken elsewhere meanwhile) are dropped.
+     */
+    public synchronized void confirm(Trip trip, Collection<Long> assignedIds) {
+        Set<Long> assigned = new HashSet<>(assignedIds);
+        for (Stop stop : trip.stops()) {
+            if (reserved.remove(stop.deliveryId()) != null && !assigned.contains(stop.deliveryId())) {
+                uncarry(stop.deliveryId(), trip.courierId());
+            }
+        }
+    }
+
+    /**
+     * Gives back a planned trip that could not be written: its deliveries return to the queue.
+     */
+    public synchronized void release(Trip trip) {
+        for (Stop stop : trip.stops()) {
+            WaitingDelivery delivery = reserved.remove(stop.deliveryId());
+            if (delivery != null) {
+                uncarry(stop.deliveryId(), trip.courierId());
+                queue.putIfAbsent(delivery.deliveryId(), delivery);
+            }
+        }
+    }
+
+    /**
+     * The idle courier with the lowest estimated pickup-plus-drop time for a single order to
+     * {@code destination} (or around the store when unknown), without reserving it.
+     */
+    public synchronized OptionalLong bestCourierFor(GeoPoint destination) {
+        double dropKm = destination != null ? distanceKm(store, destination) : 0;
+        CourierState best = null;
+        double bestMinutes = Double.MAX_VALUE;
+        for (PriorityQueue<CourierState> sameVehicle : idleCouriers().values()) {
+            CourierState courier = sameVehicle.peek();
+            double minutes = courier.pickupMinutes + travelMinutes(dropKm, courier.vehicleType) + stopMinutes;
+            if (minutes <= maxTripMinutes && minutes < bestMinutes) {
+                best = courier;
+                bestMinutes = minutes;
+            }
+        }
+        return best != null ? OptionalLong.of(best.id) : OptionalLong.empty();
+    }
+
+    // === RESYNC AND STATS ===
+
+    /**
+     * Replaces couriers, loads and the queue with what the database holds; positions reported by
+     * couriers are kept. Must not run while planned trips are still unconfirmed.
+     */
+    public synchronized void resync(Collection<DeliveryPerson> deliveryPersons, Collection<CarriedDelivery> inProgress,
+                                    Collection<WaitingDelivery> waiting) {
+        Map<Long, CourierState> previous = new HashMap<>(couriers);
+        couriers.clear();
+        for (DeliveryPerson deliveryPerson : deliveryPersons) {
+            CourierState courier = new CourierState(deliveryPerson.getId());
+            courier.vehicleType = deliveryPerson.getVehicleType();
+            courier.dispatchable = isDispatchable(deliveryPerson);
+            CourierState known = previous.get(deliveryPerson.getId());
+            courier.position = known != null ? known.position : null;
+            couriers.put(courier.id, courier);
+        }
+        carried.clear();
+        reserved.clear();
+        inProgress.forEach(this::carry);
+        queue.clear();
+        waiting.forEach(this::enqueue);
+    }
+
+    public synchronized Stats stats() {
+        int idle = (int) couriers.values().stream().filter(CourierState::isIdle).count();
+        return new Stats(couriers.size(), idle, queue.size(), carried.size(), plans, tripsPlanned, deliveriesPlanned,
+                lastPlanNanos / 1_000_000.0);
+    }
+
+    private Map<DeliveryPerson.VehicleType, PriorityQueue<CourierState>> idleCouriers() {
+        Map<DeliveryPerson.VehicleType, PriorityQueue<CourierState>> idle = new EnumMap<>(DeliveryPerson.VehicleType.class);
+        for (CourierState courier : couriers.values()) {
+            if (courier.isIdle()) {
+                GeoPoint at = courier.position != null ? courier.position : store;
+                courier.pickupMinutes = travelMinutes(distanceKm(at, store), courier.vehicleType);
+                idle.computeIfAbsent(courier.vehicleType, type -> new PriorityQueue<>(NEAREST_FIRST)).add(courier);
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * The seed followed by the nearest untaken orders within the batch radius of its destination.
+     */
+    private List<WaitingDelivery> batchAround(WaitingDelivery seed, Map<Long, List<WaitingDelivery>> cells,
+                                              Set<Long> taken) {
+        List<WaitingDelivery> batch = new ArrayList<>(maxBatchSize);
+        batch.add(seed);
+        if (maxBatchSize == 1) {
+            return batch;
+        }
+        GeoPoint origin = seed.destination();
+        long row = row(origin);
+        long column = column(origin);
+        // The few nearest candidates so far, closest first; cells list older orders first, so ties keep those
+        WaitingDelivery[] nearest = new WaitingDelivery[maxBatchSize - 1];
+        double[] nearestKm = new double[maxBatchSize - 1];
+        int found = 0;
+        for (long r = row - 1; r <= row + 1; r++) {
+            for (long c = column - 1; c <= column + 1; c++) {
+                List<WaitingDelivery> cell = cells.get(cell(r, c));
+                if (cell == null) {
+                    continue;
+                }
+                cell.removeIf(candidate -> taken.contains(candidate.deliveryId()));
+                for (WaitingDelivery candidate : cell) {
+                    if (candidate == seed) {
+                        continue;
+                    }
+                    double km = distanceKm(origin, candidate.destination());
+                    if (km > batchRadiusKm || found == nearest.length && km >= nearestKm[found - 1]) {
+                        continue;
+                    }
+                    int at = found < nearest.length ? found++ : found - 1;
+                    while (at > 0 && nearestKm[at - 1] > km) {
+                        nearest[at] = nearest[at - 1];
+                        nearestKm[at] = nearestKm[at - 1];
+                        at--;
+                    }
+                    nearest[at] = candidate;
+                    nearestKm[at] = km;
+                }
+            }
+        }
+        batch.addAll(Arrays.asList(nearest).subList(0, found));
+        return batch;
+    }
+
+    /**
+     * Takes the best idle courier for the batch, trimmed to what its vehicle carries.
+     *
+     * @return {@code null} when no idle courier can make the trip within the maximum trip time
+     */
+    private Trip assignBest(List<WaitingDelivery> batch,
+                            Map<DeliveryPerson.VehicleType, PriorityQueue<CourierState>> idle) {
+        CourierState best = null;
+        List<Stop> bestRoute = null;
+        double bestMinutes = Double.MAX_VALUE;
+        for (Map.Entry<DeliveryPerson.VehicleType, PriorityQueue<CourierState>> sameVehicle : idle.entrySet()) {
+            CourierState courier = sameVehicle.getValue().peek();
+            List<Stop> route = null;
+            // Fewer stops when the full trip would take too long
+            for (int stops = Math.min(batch.size(), capacity(sameVehicle.getKey())); stops > 0; stops--) {
+                List<Stop> candidate = route(batch.subList(0, stops), sameVehicle.getKey());
+                if (courier.pickupMinutes + candidate.get(candidate.size() - 1).minutes() <= maxTripMinutes) {
+                    route = candidate;
+                    break;
+                }
+            }
+            if (route == null) {
+                continue;
+            }
+            double minutes = courier.pickupMinutes + route.stream().mapToDouble(Stop::minutes).average().orElse(0);
+            if (minutes < bestMinutes) {
+                best = courier;
+                bestRoute = route;
+                bestMinutes = minutes;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        PriorityQueue<CourierState> sameVehicle = idle.get(best.vehicleType);
+        sameVehicle.poll();
+        if (sameVehicle.isEmpty()) {
+            idle.remove(best.vehicleType);
+        }
+        return new Trip(best.id, best.pickupMinutes, bestRoute);
+    }
+
+    /**
+     * Visits the deliveries nearest first, starting at the store.
+     */
+    private List<Stop> route(List<WaitingDelivery> deliveries, DeliveryPerson.VehicleType vehicleType) {
+        List<WaitingDelivery> remaining = new ArrayList<>(deliveries);
+        List<Stop> stops = new ArrayList<>(remaining.size());
+        GeoPoint at = store;
+        double minutes = 0;
+        while (!remaining.isEmpty()) {
+            int next = 0;
+            double nextKm = Double.MAX_VALUE;
+            for (int i = 0; i < remaining.size(); i++) {
+                double km = distanceKm(at, remaining.get(i).destination());
+                if (km < nextKm) {
+                    next = i;
+                    nextKm = km;
+                }
+            }
+            WaitingDelivery delivery = remaining.remove(next);
+            minutes += travelMinutes(nextKm, vehicleType) + stopMinutes;
+            stops.add(new Stop(delivery.deliveryId(), delivery.destination(), minutes));
+            at = delivery.destination();
+        }
+        return stops;
+    }
+
+    private void carry(CarriedDelivery delivery) {
+        CarriedDelivery previous = carried.put(delivery.deliveryId(), delivery);
+        if (previous != null) {
+            adjustLoad(previous.courierId(), -1);
+        }
+        adjustLoad(delivery.courierId(), 1);
+    }
+
+    private void uncarry(long deliveryId, long courierId) {
+        CarriedDelivery delivery = carried.get(deliveryId);
+        if (delivery != null && delivery.courierId() == courierId) {
+            carried.remove(deliveryId);
+            adjustLoad(courierId, -1);
+        }
+    }
+
+    private void adjustLoad(long courierId, int delta) {
+        CourierState courier = couriers.get(courierId);
+        if (courier != null) {
+            courier.load = Math.max(0, courier.load + delta);
+        }
+    }
+
+    private int capacity(DeliveryPerson.VehicleType vehicleType) {
+        int vehicle = switch (vehicleType) {
+            case CAR -> 5;
+            case MOTORCYCLE -> 3;
+            case BICYCLE -> 2;
+            case ON_FOOT -> 1;
+        };
+        return Math.min(vehicle, maxBatchSize);
+    }
+
+    private static double travelMinutes(double km, DeliveryPerson.VehicleType vehicleType) {
+        double kmPerHour = switch (vehicleType) {
+            case MOTORCYCLE -> 30;
+            case CAR -> 22;
+            case BICYCLE -> 14;
+            case ON_FOOT -> 5;
+        };
+        return km * ROAD_FACTOR / kmPerHour * 60;
+    }
+
+    private static boolean isDispatchable(DeliveryPerson deliveryPerson) {
+        return deliveryPerson.getStatus() == DeliveryPerson.DeliveryPersonStatus.ACTIVE
+                && Boolean.TRUE.equals(deliveryPerson.getAvailable());
+    }
+
+    /**
+     * Equirectangular approximation around the store's latitude: within a city it is off by far
+     * less than the road factor, and much cheaper than {@link GeoPoint#distanceKm}.
+     */
+    private double distanceKm(GeoPoint from, GeoPoint to) {
+        double north = (to.latitude() - from.latitude()) * KM_PER_DEGREE;
+        double east = (to.longitude() - from.longitude()) * kmPerDegreeLongitude;
+        return Math.sqrt(north * north + east * east);
+    }
+
+    private long row(GeoPoint point) {
+        return (long) Math.floor(point.latitude() / cellLatitude);
+    }
+
+    private long column(GeoPoint point) {
+        return (long) Math.floor(point.longitude() / cellLongitude);
+    }
+
+    private static long cell(long row, long column) {
+        return row << 32 | (column & 0xFFFFFFFFL);
+    }
+
+    private static final class CourierState {
+
+        private final long id;
+        private DeliveryPerson.VehicleType vehicleType;
+        private boolean dispatchable;
+        private int load;
+        private GeoPoint position;
+        // Ride to the store, refreshed at the start of each plan
+        private double pickupMinutes;
+
+        private CourierState(long id) {
+            this.id = id;
+        }
+
+        private boolean isIdle() {
+            return dispatchable && load == 0 && vehicleType != null;
+        }
+    }
+}
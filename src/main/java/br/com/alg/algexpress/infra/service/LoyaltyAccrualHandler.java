@@ -0,0 +1,72 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.outbox.StatusChangePayload;
+import br.com.alg.algexpress.infra.repository.customer.LoyaltyLedgerRepository;
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accrues loyalty points for orders that reached DELIVERED, from the outbox feed. A relayed
+ * batch becomes a single ledger insert plus balance update, and re-delivered events are no-ops.
+ * The credited points go to the dashboard counters once the relay's transaction commits.
+ */
+@Component
+public class LoyaltyAccrualHandler implements OutboxEventHandler {
+
+    private final LoyaltyLedgerRepository loyaltyLedgerRepository;
+    private final DashboardMetrics dashboardMetrics;
+    private final ObjectMapper objectMapper;
+
+    public LoyaltyAccrualHandler(LoyaltyLedgerRepository loyaltyLedgerRepository, DashboardMetrics dashboardMetrics,
+                                 ObjectMapper objectMapper) {
+        this.loyaltyLedgerRepository = loyaltyLedgerRepository;
+        this.dashboardMetrics = dashboardMetrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxService.ORDER.equals(aggregateType);
+    }
+
+    @Override
+    public void handle(OutboxRepository.OutboxEvent event) {
+        handleBatch(List.of(event));
+    }
+
+    @Override
+    public void handleBatch(List<OutboxRepository.OutboxEvent> events) {
+        List<Long> deliveredOrderIds = new ArrayList<>();
+        for (OutboxRepository.OutboxEvent event : events) {
+            if (Order.OrderStatus.DELIVERED.name().equals(read(event).status())) {
+                deliveredOrderIds.add(event.aggregateId());
+            }
+        }
+        if (deliveredOrderIds.isEmpty()) {
+            return;
+        }
+        long points = 0;
+        long newHolders = 0;
+        for (LoyaltyLedgerRepository.Accrual accrual : loyaltyLedgerRepository.accrueForDeliveredOrders(deliveredOrderIds)) {
+            points += accrual.newPoints() - accrual.oldPoints();
+            if (accrual.oldPoints() == 0 && accrual.newPoints() > 0) {
+                newHolders++;
+            }
+        }
+        dashboardMetrics.loyaltyAccrued(points, newHolders);
+    }
+
+    private StatusChangePayload read(OutboxRepository.OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.payload(), StatusChangePayload.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid outbox payload for event " + event.id(), e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the menu caches of every instance in step. Menu writes send a NOTIFY on the configured
+ * channel from inside their transaction, so PostgreSQL delivers it only if that transaction
+ * commits. Each instance LISTENs on a dedicated connection (outside the Hikari pool) and, for
+ * changes made elsewhere, evicts the second-level cache entries involved, drops cached menu
+ * queries and patches its {@link MenuCatalog}. Changes made locally are already reflected by
+ * Hibernate's read-write regions and are skipped.
+ * <p>
+ * Notifications sent while the connection is down are lost, so after a reconnect every menu
+ * region is cleared and the catalog reloaded.
+ */
+@Component
+public class MenuCacheInvalidator {
+
+    private static final String PIZZA = "pizza";
+    private static final String INGREDIENT = "ingredient";
+    private static final String PIZZA_INGREDIENTS = Pizza.class.getName() + ".ingredients";
+
+    private final boolean enabled;
+    private final String channel;
+    private final int pollMillis;
+    private final Duration reconnectDelay;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MenuCatalog menuCatalog;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread listener;
+
+    public MenuCacheInvalidator(@Value("${algexpress.menu.cache-invalidation.enabled:true}") boolean enabled,
+                                @Value("${algexpress.menu.cache-invalidation.channel:algexpress_menu}") String channel,
+                                @Value("${algexpress.menu.cache-invalidation.poll-interval:500ms}") Duration pollInterval,
+                                @Value("${algexpress.menu.cache-invalidation.reconnect-delay:5s}") Duration reconnectDelay,
+                                JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                EntityManagerFactory entityManagerFactory, MenuCatalog menuCatalog) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            // LISTEN takes an identifier, not a bind parameter
+            throw new IllegalArgumentException("Invalid menu cache invalidation channel: " + channel);
+        }
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollMillis = (int) pollInterval.toMillis();
+        this.reconnectDelay = reconnectDelay;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.entityManagerFactory = entityManagerFactory;
+        this.menuCatalog = menuCatalog;
+    }
+
+    public record Stats(boolean listening, long sent, long received, long reconnects) {
+    }
+
+    public Stats stats() {
+        return new Stats(running, sent.get(), received.get(), reconnects.get());
+    }
+
+    public void pizzaChanged(Long pizzaId) {
+        publish(PIZZA, pizzaId);
+    }
+
+    public void ingredientChanged(Long ingredientId) {
+        publish(INGREDIENT, ingredientId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("menu-cache-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void publish(String type, Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        // Joins the caller's transaction: PostgreSQL queues the notification until commit
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, nodeId + ":" + type + ":" + id);
+        sent.incrementAndGet();
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                if (reconnecting) {
+                    reconnects.incrementAndGet();
+                    evictAll();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                reconnecting = true;
+                pause();
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        received.incrementAndGet();
+        long id = Long.parseLong(parts[2]);
+        if (PIZZA.equals(parts[1])) {
+            evictPizza(id);
+            menuCatalog.pizzaRefreshed(id);
+            evictPizza(id);
+        } else if (INGREDIENT.equals(parts[1])) {
+            evictIngredient(id);
+            menuCatalog.ingredientRefreshed(id);
+            evictIngredient(id);
+        }
+    }
+
+    // Evicted again after the catalog refresh: a local load that read the row before the remote
+    // commit may have put it back in the meantime. One still running after the second eviction
+    // can leave it stale until the region's safety expiry (application.conf).
+
+    private void evictPizza(long id) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Pizza.class, id);
+        cache.evictCollectionData(PIZZA_INGREDIENTS, id);
+        cache.evictQueryRegions();
+    }
+
+    private void evictIngredient(long id) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Ingredient.class, id);
+        // Pizzas referencing a deleted ingredient must not keep its id in their cached lists
+        cache.evictCollectionData(PIZZA_INGREDIENTS);
+        cache.evictQueryRegions();
+    }
+
+    private void evictAll() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Pizza.class);
+        cache.evictEntityData(Ingredient.class);
+        cache.evictCollectionData(PIZZA_INGREDIENTS);
+        cache.evictQueryRegions();
+        menuCatalog.reload();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.infra.repository.menu.IngredientRepository;
+import br.com.alg.algexpress.infra.repository.menu.PizzaRepository;
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import br.com.alg.algexpress.infra.support.ReadYourWrites;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current {@link MenuSnapshot}. The snapshot is loaded once and then patched in
+ * place after every committed menu write, so pricing and validation are served from memory.
+ * The {@link MenuSearchIndex} follows the same changes and is always updated before the
+ * snapshot version moves, so anything keyed by that version never sees an older index.
+ * Rows are always read from the primary: with replica routing, a lagging replica would
+ * otherwise put an old row into the catalog under a new version.
+ */
+@Component
+public class MenuCatalog {
+
+    private final PizzaRepository pizzaRepository;
+    private final IngredientRepository ingredientRepository;
+    private final MenuSearchIndex searchIndex;
+
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    private final Object lock = new Object();
+
+    public MenuCatalog(PizzaRepository pizzaRepository, IngredientRepository ingredientRepository,
+                       MenuSearchIndex searchIndex) {
+        this.pizzaRepository = pizzaRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Loads the catalog, and with it the search index, if nothing has loaded it yet.
+     */
+    public void ensureLoaded() {
+        current();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database. Patches wait while it loads, so a write that
+     * commits meanwhile is applied on top of the loaded rows instead of being overwritten by
+     * rows read before it committed.
+     */
+    public MenuSnapshot reload() {
+        synchronized (lock) {
+            MenuSnapshot previous = snapshot.get();
+            List<Pizza> pizzas = ReadYourWrites.onPrimary(pizzaRepository::findAllWithIngredients);
+            List<Ingredient> ingredients = ReadYourWrites.onPrimary(ingredientRepository::findAll);
+            MenuSnapshot loaded = MenuSnapshot.of(previous != null ? previous.version() + 1 : 1, pizzas, ingredients);
+            searchIndex.rebuild(pizzas, ingredients);
+            snapshot.set(loaded);
+            return loaded;
+        }
+    }
+
+    // Search documents are built right away: the pizza's ingredients can still be loaded while
+    // the writing transaction is open, not after it commits.
+
+    public void pizzaChanged(Pizza pizza) {
+        MenuSearchIndex.PizzaDocument document = MenuSearchIndex.document(pizza);
+        AfterCommit.run(() -> apply(() -> searchIndex.put(document), current -> current.withPizza(pizza)));
+    }
+
+    public void pizzaRemoved(Long pizzaId) {
+        AfterCommit.run(() -> apply(() -> searchIndex.removePizza(pizzaId), current -> current.withoutPizza(pizzaId)));
+    }
+
+    public void ingredientChanged(Ingredient ingredient) {
+        MenuSearchIndex.IngredientDocument document = MenuSearchIndex.document(ingredient);
+        AfterCommit.run(() -> apply(() -> searchIndex.put(document), current -> current.withIngredient(ingredient)));
+    }
+
+    public void ingredientRemoved(Long ingredientId) {
+        AfterCommit.run(() -> apply(() -> searchIndex.removeIngredient(ingredientId),
+                current -> current.withoutIngredient(ingredientId)));
+    }
+
+    /**
+     * Re-reads one pizza after a change committed by another instance.
+     */
+    public void pizzaRefreshed(Long pizzaId) {
+        Optional<Pizza> pizza = ReadYourWrites.onPrimary(() -> pizzaRepository.findWithIngredientsById(pizzaId));
+        apply(() -> pizza.map(MenuSearchIndex::document).ifPresentOrElse(searchIndex::put,
+                        () -> searchIndex.removePizza(pizzaId)),
+                current -> pizza.map(current::withPizza).orElseGet(() -> current.withoutPizza(pizzaId)));
+    }
+
+    /**
+     * Re-reads one ingredient after a change committed by another instance.
+     */
+    public void ingredientRefreshed(Long ingredientId) {
+        Optional<Ingredient> ingredient = ReadYourWrites.onPrimary(() -> ingredientRepository.findById(ingredientId));
+        apply(() -> ingredient.map(MenuSearchIndex::document).ifPresentOrElse(searchIndex::put,
+                        () -> searchIndex.removeIngredient(ingredientId)),
+                current -> ingredient.map(current::withIngredient).orElseGet(() -> current.withoutIngredient(ingredientId)));
+    }
+
+    private void apply(Runnable indexChange, UnaryOperator<MenuSnapshot> change) {
+        synchronized (lock) {
+            indexChange.run();
+            snapshot.updateAndGet(current -> current != null ? change.apply(current) : null);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.dto.menu.IngredientDTO;
+import br.com.alg.algexpress.dto.menu.PizzaSummaryDTO;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index behind the menu search. Names, descriptions and ingredient names are
+ * split into accent-folded, lower-cased terms ("Calábresa" and "calabresa" are the same term)
+ * and every query word matches as a prefix, so partial words typed by the customer already find
+ * results. Each pizza keeps its prices in one column per size for the price filter.
+ * <p>
+ * Like {@link MenuSnapshot}, the index is immutable and replaced on every change; it is kept up
+ * to date by {@link MenuCatalog}, which hands over documents built while the writing
+ * transaction is still open and applies them after commit.
+ */
+@Component
+public class MenuSearchIndex {
+
+    private static final Pizza.PizzaSize[] SIZES = Pizza.PizzaSize.values();
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final long[] NO_IDS = new long[0];
+
+    private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+
+    /**
+     * A pizza as the index sees it. Ingredients are kept by id, so renaming an ingredient does
+     * not touch the pizzas that use it.
+     */
+    public record PizzaDocument(PizzaSummaryDTO summary, Set<String> terms, long[] ingredientIds, BigDecimal[] prices) {
+    }
+
+    public record IngredientDocument(IngredientDTO ingredient, Set<String> terms) {
+    }
+
+    public static PizzaDocument document(Pizza pizza) {
+        BigDecimal[] prices = new BigDecimal[SIZES.length];
+        for (Pizza.PizzaSize size : SIZES) {
+            prices[size.ordinal()] = pizza.getPriceBySize(size);
+        }
+        long[] ingredientIds = pizza.getIngredients() != null
+                ? pizza.getIngredients().stream().mapToLong(Ingredient::getId).sorted().distinct().toArray()
+                : NO_IDS;
+        Set<String> terms = new LinkedHashSet<>(terms(pizza.getName()));
+        terms.addAll(terms(pizza.getDescription()));
+        return new PizzaDocument(PizzaSummaryDTO.fromEntity(pizza), Set.copyOf(terms), ingredientIds, prices);
+    }
+
+    public static IngredientDocument document(Ingredient ingredient) {
+        return new IngredientDocument(IngredientDTO.fromEntity(ingredient), Set.copyOf(terms(ingredient.getName())));
+    }
+
+    /**
+     * Splits text into lower-case terms without diacritics.
+     */
+    public static List<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    public void rebuild(Collection<Pizza> pizzas, Collection<Ingredient> ingredients) {
+        index.set(Index.of(
+                pizzas.stream().filter(pizza -> pizza.getId() != null).map(MenuSearchIndex::document).toList(),
+                ingredients.stream().filter(ingredient -> ingredient.getId() != null).map(MenuSearchIndex::document).toList()));
+    }
+
+    public void put(PizzaDocument pizza) {
+        apply(current -> current.withPizza(pizza));
+    }
+
+    public void put(IngredientDocument ingredient) {
+        apply(current -> current.withIngredient(ingredient));
+    }
+
+    public void removePizza(Long pizzaId) {
+        apply(current -> current.withoutPizza(pizzaId));
+    }
+
+    public void removeIngredient(Long ingredientId) {
+        apply(current -> current.withoutIngredient(ingredientId));
+    }
+
+    /**
+     * Available pizzas whose name, description or ingredients contain a term starting with each
+     * word of {@code text}, in id order. Without a size, {@code maxPrice} accepts a pizza when any
+     * of its sizes fits.
+     */
+    public List<PizzaSummaryDTO> searchPizzas(String text, Pizza.PizzaCategory category, BigDecimal maxPrice,
+                                              Pizza.PizzaSize size, boolean vegetarianOnly) {
+        Index current = index.get();
+        Set<Long> matches = current.matchingPizzas(terms(text));
+        List<PizzaSummaryDTO> result = new ArrayList<>();
+        for (PizzaDocument pizza : current.pizzas().values()) {
+            PizzaSummaryDTO summary = pizza.summary();
+            if ((matches == null || matches.contains(summary.id()))
+                    && Boolean.TRUE.equals(summary.available())
+                    && (category == null || summary.category() == category)
+                    && (!vegetarianOnly || summary.category() == Pizza.PizzaCategory.VEGAN)
+                    && (maxPrice == null || fits(pizza.prices(), maxPrice, size))) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pizzas of {@code category} (any when {@code null}), only the available ones when
+     * {@code availableOnly}, in id order.
+     */
+    public List<PizzaSummaryDTO> listPizzas(Pizza.PizzaCategory category, boolean availableOnly) {
+        List<PizzaSummaryDTO> result = new ArrayList<>();
+        for (PizzaDocument pizza : index.get().pizzas().values()) {
+            PizzaSummaryDTO summary = pizza.summary();
+            if ((category == null || summary.category() == category)
+                    && (!availableOnly || Boolean.TRUE.equals(summary.available()))) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ingredients, available or not, whose name contains a term starting with each word of
+     * {@code text}, in id order.
+     */
+    public List<IngredientDTO> searchIngredients(String text) {
+        Index current = index.get();
+        List<String> words = terms(text);
+        Set<Long> matches = null;
+        for (String word : words) {
+            Set<Long> found = new HashSet<>();
+            for (long[] ids : prefixed(current.ingredientTerms(), word).values()) {
+                for (long id : ids) {
+                    found.add(id);
+                }
+            }
+            matches = intersect(matches, found);
+        }
+        List<IngredientDTO> result = new ArrayList<>();
+        for (IngredientDocument ingredient : current.ingredients().values()) {
+            if (matches == null || matches.contains(ingredient.ingredient().id())) {
+                result.add(ingredient.ingredient());
+            }
+        }
+        return result;
+    }
+
+    private void apply(UnaryOperator<Index> change) {
+        index.updateAndGet(change);
+    }
+
+    private static boolean fits(BigDecimal[] prices, BigDecimal maxPrice, Pizza.PizzaSize size) {
+        if (size != null) {
+            BigDecimal price = prices[size.ordinal()];
+            return price != null && price.compareTo(maxPrice) <= 0;
+        }
+        for (BigDecimal price : prices) {
+            if (price != null && price.compareTo(maxPrice) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static NavigableMap<String, long[]> prefixed(NavigableMap<String, long[]> terms, String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static Set<Long> intersect(Set<Long> matches, Set<Long> found) {
+        if (matches == null) {
+            return found;
+        }
+        matches.retainAll(found);
+        return matches;
+    }
+
+    private record Index(TreeMap<Long, PizzaDocument> pizzas,
+                         TreeMap<Long, IngredientDocument> ingredients,
+                         TreeMap<String, long[]> pizzaTerms,
+                         TreeMap<String, long[]> ingredientTerms,
+                         Map<Long, long[]> pizzasByIngredient) {
+
+        static final Index EMPTY = new Index(new TreeMap<>(), new TreeMap<>(), new TreeMap<>(), new TreeMap<>(),
+                Map.of());
+
+        static Index of(List<PizzaDocument> pizzaDocuments, List<IngredientDocument> ingredientDocuments) {
+            TreeMap<Long, PizzaDocument> pizzas = new TreeMap<>();
+            Map<String, List<Long>> pizzaTerms = new HashMap<>();
+            Map<Long, List<Long>> pizzasByIngredient = new HashMap<>();
+            for (PizzaDocument pizza : pizzaDocuments) {
+                long id = pizza.summary().id();
+                pizzas.put(id, pizza);
+                pizza.terms().forEach(term -> pizzaTerms.computeIfAbsent(term, key -> new ArrayList<>()).add(id));
+                for (long ingredientId : pizza.ingredientIds()) {
+                    pizzasByIngredient.computeIfAbsent(ingredientId, key -> new ArrayList<>()).add(id);
+                }
+            }
+            TreeMap<Long, IngredientDocument> ingredients = new TreeMap<>();
+            Map<String, List<Long>> ingredientTerms = new HashMap<>();
+            for (IngredientDocument ingredient : ingredientDocuments) {
+                long id = ingredient.ingredient().id();
+                ingredients.put(id, ingredient);
+                ingredient.terms().forEach(term -> ingredientTerms.computeIfAbsent(term, key -> new ArrayList<>()).add(id));
+            }
+            Map<Long, long[]> byIngredient = new HashMap<>();
+            pizzasByIngredient.forEach((ingredientId, ids) -> byIngredient.put(ingredientId, sorted(ids)));
+            return new Index(pizzas, ingredients, postings(pizzaTerms), postings(ingredientTerms), byIngredient);
+        }
+
+        private static TreeMap<String, long[]> postings(Map<String, List<Long>> terms) {
+            TreeMap<String, long[]> postings = new TreeMap<>();
+            terms.forEach((term, ids) -> postings.put(term, sorted(ids)));
+            return postings;
+        }
+
+        private static long[] sorted(List<Long> ids) {
+            return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        }
+
+        /**
+         * @return the ids matching every word, or {@code null} when there are no words
+         */
+        Set<Long> matchingPizzas(List<String> words) {
+            Set<Long> matches = null;
+            for (String word : words) {
+                Set<Long> found = new HashSet<>();
+                for (long[] ids : prefixed(pizzaTerms, word).values()) {
+                    for (long id : ids) {
+                        found.add(id);
+                    }
+                }
+                for (long[] ingredientIds : prefixed(ingredientTerms, word).values()) {
+                    for (long ingredientId : ingredientIds) {
+                        for (long id : pizzasByIngredient.getOrDefault(ingredientId, NO_IDS)) {
+                            found.add(id);
+                        }
+                    }
+                }
+                matches = intersect(matches, found);
+            }
+            return matches;
+        }
+
+        Index withPizza(PizzaDocument pizza) {
+            long id = pizza.summary().id();
+            Index base = pizzas.containsKey(id) ? withoutPizza(id) : this;
+            TreeMap<Long, PizzaDocument> nextPizzas = new TreeMap<>(base.pizzas);
+            nextPizzas.put(id, pizza);
+            TreeMap<String, long[]> nextTerms = new TreeMap<>(base.pizzaTerms);
+            for (String term : pizza.terms()) {
+                nextTerms.put(term, insert(nextTerms.getOrDefault(term, NO_IDS), id));
+            }
+            Map<Long, long[]> nextByIngredient = new HashMap<>(base.pizzasByIngredient);
+            for (long ingredientId : pizza.ingredientIds()) {
+                nextByIngredient.put(ingredientId, insert(nextByIngredient.getOrDefault(ingredientId, NO_IDS), id));
+            }
+            return new Index(nextPizzas, base.ingredients, nextTerms, base.ingredientTerms, nextByIngredient);
+        }
+
+        Index withoutPizza(long id) {
+            PizzaDocument previous = pizzas.get(id);
+            if (previous == null) {
+                return this;
+            }
+            TreeMap<Long, PizzaDocument> nextPizzas = new TreeMap<>(pizzas);
+            nextPizzas.remove(id);
+            TreeMap<String, long[]> nextTerms = new TreeMap<>(pizzaTerms);
+            for (String term : previous.terms()) {
+                removeFrom(nextTerms, term, id);
+            }
+            Map<Long, long[]> nextByIngredient = new HashMap<>(pizzasByIngredient);
+            for (long ingredientId : previous.ingredientIds()) {
+                removeFrom(nextByIngredient, ingredientId, id);
+            }
+            return new Index(nextPizzas, ingredients, nextTerms, ingredientTerms, nextByIngredient);
+        }
+
+        Index withIngredient(IngredientDocument ingredient) {
+            long id = ingredient.ingredient().id();
+            Index base = ingredients.containsKey(id) ? withoutIngredient(id) : this;
+            TreeMap<Long, IngredientDocument> nextIngredients = new TreeMap<>(base.ingredients);
+            nextIngredients.put(id, ingredient);
+            TreeMap<String, long[]> nextTerms = new TreeMap<>(base.ingredientTerms);
+            for (String term : ingredient.terms()) {
+                nextTerms.put(term, insert(nextTerms.getOrDefault(term, NO_IDS), id));
+            }
+            return new Index(base.pizzas, nextIngredients, base.pizzaTerms, nextTerms, base.pizzasByIngredient);
+        }
+
+        /**
+         * Pizzas keep the ingredient's id; without its terms it simply stops matching.
+         */
+        Index withoutIngredient(long id) {
+            IngredientDocument previous = ingredients.get(id);
+            if (previous == null) {
+                return this;
+            }
+            TreeMap<Long, IngredientDocument> nextIngredients = new TreeMap<>(ingredients);
+            nextIngredients.remove(id);
+            TreeMap<String, long[]> nextTerms = new TreeMap<>(ingredientTerms);
+            for (String term : previous.terms()) {
+                removeFrom(nextTerms, term, id);
+            }
+            return new Index(pizzas, nextIngredients, pizzaTerms, nextTerms, pizzasByIngredient);
+        }
+
+        private static <K> void removeFrom(Map<K, long[]> postings, K key, long id) {
+            long[] ids = remove(postings.getOrDefault(key, NO_IDS), id);
+            if (ids.length == 0) {
+                postings.remove(key);
+            } else {
+                postings.put(key, ids);
+            }
+        }
+
+        private static long[] insert(long[] ids, long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                return ids;
+            }
+            int position = -index - 1;
+            long[] result = new long[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, position);
+            result[position] = id;
+            System.arraycopy(ids, position, result, position + 1, ids.length - position);
+            return result;
+        }
+
+        private static long[] remove(long[] ids, long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) {
+                return ids;
+            }
+            long[] result = new long[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, index);
+            System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -2,9 +2,12 @@ package br.com.alg.algexpress.infra.service;
 
 import br.com.alg.algexpress.domain.menu.Ingredient;
 import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.dto.menu.IngredientDTO;
+import br.com.alg.algexpress.dto.menu.PizzaSummaryDTO;
 import br.com.alg.algexpress.infra.repository.menu.IngredientRepository;
 import br.com.alg.algexpress.infra.repository.menu.PizzaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -17,10 +20,18 @@ public class MenuService {
 
     private final PizzaRepository pizzaRepository;
     private final IngredientRepository ingredientRepository;
+    private final MenuCatalog menuCatalog;
+    private final MenuCacheInvalidator menuCacheInvalidator;
+    private final MenuSearchIndex menuSearchIndex;
 
-    public MenuService(PizzaRepository pizzaRepository, IngredientRepository ingredientRepository) {
+    public MenuService(PizzaRepository pizzaRepository, IngredientRepository ingredientRepository,
+                       MenuCatalog menuCatalog, MenuCacheInvalidator menuCacheInvalidator,
+                       MenuSearchIndex menuSearchIndex) {
         this.pizzaRepository = pizzaRepository;
         this.ingredientRepository = ingredientRepository;
+        this.menuCatalog = menuCatalog;
+        this.menuCacheInvalidator = menuCacheInvalidator;
+        this.menuSearchIndex = menuSearchIndex;
     }
 
     // === PIZZA METHODS ===
@@ -71,7 +82,10 @@ public class MenuService {
     }
 
     public Pizza savePizza(Pizza pizza) {
-        return pizzaRepository.save(pizza);
+        Pizza savedPizza = pizzaRepository.save(pizza);
+        menuCatalog.pizzaChanged(savedPizza);
+        menuCacheInvalidator.pizzaChanged(savedPizza.getId());
+        return savedPizza;
     }
 
     public Pizza updatePizzaAvailability(Long pizzaId, boolean isAvailable) {
@@ -79,7 +93,10 @@ public class MenuService {
         if (pizzaOpt.isPresent()) {
             Pizza pizza = pizzaOpt.get();
             pizza.setAvailable(isAvailable);
-            return pizzaRepository.save(pizza);
+            Pizza savedPizza = pizzaRepository.save(pizza);
+            menuCatalog.pizzaChanged(savedPizza);
+            menuCacheInvalidator.pizzaChanged(savedPizza.getId());
+            return savedPizza;
         }
         throw new RuntimeException("Pizza not found with id: " + pizzaId);
     }
@@ -94,28 +111,27 @@ public class MenuService {
                 case LARGE -> pizza.setPriceLarge(newPrice);
                 case EXTRA_LARGE -> pizza.setPriceExtraLarge(newPrice);
             }
-            return pizzaRepository.save(pizza);
+            Pizza savedPizza = pizzaRepository.save(pizza);
+            menuCatalog.pizzaChanged(savedPizza);
+            menuCacheInvalidator.pizzaChanged(savedPizza.getId());
+            return savedPizza;
         }
         throw new RuntimeException("Pizza not found with id: " + pizzaId);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal getPizzaPrice(Long pizzaId, Pizza.PizzaSize size) {
-        Optional<Pizza> pizzaOpt = pizzaRepository.findById(pizzaId);
-        if (pizzaOpt.isPresent()) {
-            Pizza pizza = pizzaOpt.get();
-            return switch (size) {
-                case SMALL -> pizza.getPriceSmall();
-                case MEDIUM -> pizza.getPriceMedium();
-                case LARGE -> pizza.getPriceLarge();
-                case EXTRA_LARGE -> pizza.getPriceExtraLarge();
-            };
+        MenuSnapshot menu = menuCatalog.current();
+        if (menu.containsPizza(pizzaId)) {
+            return menu.pizzaPrice(pizzaId, size);
         }
         throw new RuntimeException("Pizza not found with id: " + pizzaId);
     }
 
     public void deletePizza(Long pizzaId) {
         pizzaRepository.deleteById(pizzaId);
+        menuCatalog.pizzaRemoved(pizzaId);
+        menuCacheInvalidator.pizzaChanged(pizzaId);
     }
 
     // === INGREDIENT METHODS ===
@@ -163,7 +179,10 @@ public class MenuService {
     }
 
     public Ingredient saveIngredient(Ingredient ingredient) {
-        return ingredientRepository.save(ingredient);
+        Ingredient savedIngredient = ingredientRepository.save(ingredient);
+        menuCatalog.ingredientChanged(savedIngredient);
+        menuCacheInvalidator.ingredientChanged(savedIngredient.getId());
+        return savedIngredient;
     }
 
     public Ingredient updateIngredientAvailability(Long ingredientId, boolean isAvailable) {
@@ -171,7 +190,10 @@ public class MenuService {
         if (ingredientOpt.isPresent()) {
             Ingredient ingredient = ingredientOpt.get();
             ingredient.setAvailable(isAvailable);
-            return ingredientRepository.save(ingredient);
+            Ingredient savedIngredient = ingredientRepository.save(ingredient);
+            menuCatalog.ingredientChanged(savedIngredient);
+            menuCacheInvalidator.ingredientChanged(savedIngredient.getId());
+            return savedIngredient;
         }
         throw new RuntimeException("Ingredient not found with id: " + ingredientId);
     }
@@ -181,43 +203,68 @@ public class MenuService {
         if (ingredientOpt.isPresent()) {
             Ingredient ingredient = ingredientOpt.get();
             ingredient.setAdditionalPrice(newPrice);
-            return ingredientRepository.save(ingredient);
+            Ingredient savedIngredient = ingredientRepository.save(ingredient);
+            menuCatalog.ingredientChanged(savedIngredient);
+            menuCacheInvalidator.ingredientChanged(savedIngredient.getId());
+            return savedIngredient;
         }
         throw new RuntimeException("Ingredient not found with id: " + ingredientId);
     }
 
     public void deleteIngredient(Long ingredientId) {
         ingredientRepository.deleteById(ingredientId);
+        menuCatalog.ingredientRemoved(ingredientId);
+        menuCacheInvalidator.ingredientChanged(ingredientId);
     }
 
     // === COMBINED MENU METHODS ===
 
-    @Transactional(readOnly = true)
-    public List<Pizza> searchMenu(String searchTerm, Pizza.PizzaCategory category, 
-                                  BigDecimal maxPrice, Pizza.PizzaSize size, boolean vegetarianOnly) {
-        List<Pizza> pizzas = pizzaRepository.findByAvailable(true);
-        
-        return pizzas.stream()
-                .filter(pizza -> searchTerm == null || 
-                        pizza.getName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        pizza.getDescription().toLowerCase().contains(searchTerm.toLowerCase()))
-                .filter(pizza -> category == null || pizza.getCategory() == category)
-                .filter(pizza -> maxPrice == null || getPizzaPrice(pizza.getId(), size).compareTo(maxPrice) <= 0)
-                .filter(pizza -> !vegetarianOnly || pizza.getCategory() == Pizza.PizzaCategory.VEGAN)
-                .toList();
+    // Searches and the cached listings are answered by the in-memory index and never reach the
+    // database; the catalog is only loaded here if a request arrives before warm-up
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PizzaSummaryDTO> searchMenu(String searchTerm, Pizza.PizzaCategory category,
+                                            BigDecimal maxPrice, Pizza.PizzaSize size, boolean vegetarianOnly) {
+        menuCatalog.ensureLoaded();
+        return menuSearchIndex.searchPizzas(searchTerm, category, maxPrice, size, vegetarianOnly);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PizzaSummaryDTO> listAvailablePizzas() {
+        menuCatalog.ensureLoaded();
+        return menuSearchIndex.listPizzas(null, true);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PizzaSummaryDTO> listPizzasByCategory(Pizza.PizzaCategory category) {
+        menuCatalog.ensureLoaded();
+        return menuSearchIndex.listPizzas(category, false);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<IngredientDTO> searchIngredients(String name) {
+        menuCatalog.ensureLoaded();
+        return menuSearchIndex.searchIngredients(name);
+    }
+
+    // Pricing and validation run on every order item, so they read the in-memory menu
+    // snapshot instead of the repositories and do not open a transaction of their own.
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal calculateItemPrice(Long pizzaId, Pizza.PizzaSize size, 
                                         List<Long> additionalIngredients, List<Long> removedIngredients) {
-        BigDecimal basePrice = getPizzaPrice(pizzaId, size);
+        MenuSnapshot menu = menuCatalog.current();
+        if (!menu.containsPizza(pizzaId)) {
+            throw new RuntimeException("Pizza not found with id: " + pizzaId);
+        }
+        BigDecimal basePrice = menu.pizzaPrice(pizzaId, size);
         
         // Add price for additional ingredients
         if (additionalIngredients != null && !additionalIngredients.isEmpty()) {
             for (Long ingredientId : additionalIngredients) {
-                Optional<Ingredient> ingredientOpt = ingredientRepository.findById(ingredientId);
-                if (ingredientOpt.isPresent()) {
-                    basePrice = basePrice.add(ingredientOpt.get().getAdditionalPrice());
+                BigDecimal ingredientPrice = menu.ingredientPrice(ingredientId);
+                if (ingredientPrice != null) {
+                    basePrice = basePrice.add(ingredientPrice);
                 }
             }
         }
@@ -227,20 +274,20 @@ public class MenuService {
         return basePrice;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean validatePizzaCustomization(Long pizzaId, List<Long> additionalIngredients, 
                                              List<Long> removedIngredients) {
+        MenuSnapshot menu = menuCatalog.current();
+
         // Check if pizza exists and is available
-        Optional<Pizza> pizzaOpt = pizzaRepository.findById(pizzaId);
-        if (pizzaOpt.isEmpty() || !pizzaOpt.get().getAvailable()) {
+        if (!menu.isPizzaAvailable(pizzaId)) {
             return false;
         }
         
         // Check if all additional ingredients exist and are available
         if (additionalIngredients != null) {
             for (Long ingredientId : additionalIngredients) {
-                Optional<Ingredient> ingredientOpt = ingredientRepository.findById(ingredientId);
-                if (ingredientOpt.isEmpty() || !ingredientOpt.get().getAvailable()) {
+                if (!menu.isIngredientAvailable(ingredientId)) {
                     return false;
                 }
             }
@@ -249,7 +296,7 @@ public class MenuService {
         // Check if all removed ingredients exist (they should be part of the original pizza)
         if (removedIngredients != null) {
             for (Long ingredientId : removedIngredients) {
-                if (ingredientRepository.findById(ingredientId).isEmpty()) {
+                if (!menu.containsIngredient(ingredientId)) {
                     return false;
                 }
             }
@@ -0,0 +1,250 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the menu used for pricing and customization checks.
+ * Pizzas and ingredients are kept in arrays sorted by id (looked up with a binary search on
+ * primitive longs), so reads never box keys nor touch the database. Every change produces a
+ * new snapshot with a higher version; see {@link MenuCatalog}.
+ */
+public final class MenuSnapshot {
+
+    private static final Pizza.PizzaSize[] SIZES = Pizza.PizzaSize.values();
+
+    private final long version;
+
+    private final long[] pizzaIds;
+    private final BigDecimal[] pizzaPrices; // row-major: pizza index * SIZES.length + size ordinal
+    private final boolean[] pizzaAvailable;
+
+    private final long[] ingredientIds;
+    private final BigDecimal[] ingredientPrices;
+    private final boolean[] ingredientAvailable;
+
+    private MenuSnapshot(long version,
+                         long[] pizzaIds, BigDecimal[] pizzaPrices, boolean[] pizzaAvailable,
+                         long[] ingredientIds, BigDecimal[] ingredientPrices, boolean[] ingredientAvailable) {
+        this.version = version;
+        this.pizzaIds = pizzaIds;
+        this.pizzaPrices = pizzaPrices;
+        this.pizzaAvailable = pizzaAvailable;
+        this.ingredientIds = ingredientIds;
+        this.ingredientPrices = ingredientPrices;
+        this.ingredientAvailable = ingredientAvailable;
+    }
+
+    public static MenuSnapshot of(long version, Collection<Pizza> pizzas, Collection<Ingredient> ingredients) {
+        List<Pizza> sortedPizzas = pizzas.stream()
+                .filter(pizza -> pizza.getId() != null)
+                .sorted(Comparator.comparing(Pizza::getId))
+                .toList();
+        long[] pizzaIds = new long[sortedPizzas.size()];
+        BigDecimal[] pizzaPrices = new BigDecimal[sortedPizzas.size() * SIZES.length];
+        boolean[] pizzaAvailable = new boolean[sortedPizzas.size()];
+        for (int i = 0; i < sortedPizzas.size(); i++) {
+            Pizza pizza = sortedPizzas.get(i);
+            pizzaIds[i] = pizza.getId();
+            writePrices(pizza, pizzaPrices, i);
+            pizzaAvailable[i] = Boolean.TRUE.equals(pizza.getAvailable());
+        }
+
+        List<Ingredient> sortedIngredients = ingredients.stream()
+                .filter(ingredient -> ingredient.getId() != null)
+                .sorted(Comparator.comparing(Ingredient::getId))
+                .toList();
+        long[] ingredientIds = new long[sortedIngredients.size()];
+        BigDecimal[] ingredientPrices = new BigDecimal[sortedIngredients.size()];
+        boolean[] ingredientAvailable = new boolean[sortedIngredients.size()];
+        for (int i = 0; i < sortedIngredients.size(); i++) {
+            Ingredient ingredient = sortedIngredients.get(i);
+            ingredientIds[i] = ingredient.getId();
+            ingredientPrices[i] = priceOrZero(ingredient.getAdditionalPrice());
+            ingredientAvailable[i] = Boolean.TRUE.equals(ingredient.getAvailable());
+        }
+
+        return new MenuSnapshot(version, pizzaIds, pizzaPrices, pizzaAvailable,
+                ingredientIds, ingredientPrices, ingredientAvailable);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // === PIZZAS ===
+
+    public boolean containsPizza(long pizzaId) {
+        return Arrays.binarySearch(pizzaIds, pizzaId) >= 0;
+    }
+
+    public boolean isPizzaAvailable(long pizzaId) {
+        int index = Arrays.binarySearch(pizzaIds, pizzaId);
+        return index >= 0 && pizzaAvailable[index];
+    }
+
+    public int availablePizzaCount() {
+        return countTrue(pizzaAvailable);
+    }
+
+    /**
+     * @return the price for the given size, or {@code null} when the pizza is unknown or has
+     * no price for that size
+     */
+    public BigDecimal pizzaPrice(long pizzaId, Pizza.PizzaSize size) {
+        int index = Arrays.binarySearch(pizzaIds, pizzaId);
+        return index >= 0 ? pizzaPrices[index * SIZES.length + size.ordinal()] : null;
+    }
+
+    public MenuSnapshot withPizza(Pizza pizza) {
+        int index = Arrays.binarySearch(pizzaIds, pizza.getId());
+        long[] ids;
+        BigDecimal[] prices;
+        boolean[] available;
+        int position;
+        if (index >= 0) {
+            ids = pizzaIds;
+            prices = pizzaPrices.clone();
+            available = pizzaAvailable.clone();
+            position = index;
+        } else {
+            position = -index - 1;
+            ids = insert(pizzaIds, position, pizza.getId());
+            prices = new BigDecimal[pizzaPrices.length + SIZES.length];
+            System.arraycopy(pizzaPrices, 0, prices, 0, position * SIZES.length);
+            System.arraycopy(pizzaPrices, position * SIZES.length, prices, (position + 1) * SIZES.length,
+                    pizzaPrices.length - position * SIZES.length);
+            available = new boolean[pizzaAvailable.length + 1];
+            System.arraycopy(pizzaAvailable, 0, available, 0, position);
+            System.arraycopy(pizzaAvailable, position, available, position + 1, pizzaAvailable.length - position);
+        }
+        writePrices(pizza, prices, position);
+        available[position] = Boolean.TRUE.equals(pizza.getAvailable());
+        return new MenuSnapshot(version + 1, ids, prices, available,
+                ingredientIds, ingredientPrices, ingredientAvailable);
+    }
+
+    public MenuSnapshot withoutPizza(long pizzaId) {
+        int index = Arrays.binarySearch(pizzaIds, pizzaId);
+        if (index < 0) {
+            return this;
+        }
+        BigDecimal[] prices = new BigDecimal[pizzaPrices.length - SIZES.length];
+        System.arraycopy(pizzaPrices, 0, prices, 0, index * SIZES.length);
+        System.arraycopy(pizzaPrices, (index + 1) * SIZES.length, prices, index * SIZES.length,
+                pizzaPrices.length - (index + 1) * SIZES.length);
+        return new MenuSnapshot(version + 1, remove(pizzaIds, index), prices, remove(pizzaAvailable, index),
+                ingredientIds, ingredientPrices, ingredientAvailable);
+    }
+
+    // === INGREDIENTS ===
+
+    public boolean containsIngredient(long ingredientId) {
+        return Arrays.binarySearch(ingredientIds, ingredientId) >= 0;
+    }
+
+    public boolean isIngredientAvailable(long ingredientId) {
+        int index = Arrays.binarySearch(ingredientIds, ingredientId);
+        return index >= 0 && ingredientAvailable[index];
+    }
+
+    public int availableIngredientCount() {
+        return countTrue(ingredientAvailable);
+    }
+
+    /**
+     * @return the additional price of the ingredient, or {@code null} when it is unknown
+     */
+    public BigDecimal ingredientPrice(long ingredientId) {
+        int index = Arrays.binarySearch(ingredientIds, ingredientId);
+        return index >= 0 ? ingredientPrices[index] : null;
+    }
+
+    public MenuSnapshot withIngredient(Ingredient ingredient) {
+        int index = Arrays.binarySearch(ingredientIds, ingredient.getId());
+        long[] ids;
+        BigDecimal[] prices;
+        boolean[] available;
+        int position;
+        if (index >= 0) {
+            ids = ingredientIds;
+            prices = ingredientPrices.clone();
+            available = ingredientAvailable.clone();
+            position = index;
+        } else {
+            position = -index - 1;
+            ids = insert(ingredientIds, position, ingredient.getId());
+            prices = new BigDecimal[ingredientPrices.length + 1];
+            System.arraycopy(ingredientPrices, 0, prices, 0, position);
+            System.arraycopy(ingredientPrices, position, prices, position + 1, ingredientPrices.length - position);
+            available = new boolean[ingredientAvailable.length + 1];
+            System.arraycopy(ingredientAvailable, 0, available, 0, position);
+            System.arraycopy(ingredientAvailable, position, available, position + 1, ingredientAvailable.length - position);
+        }
+        prices[position] = priceOrZero(ingredient.getAdditionalPrice());
+        available[position] = Boolean.TRUE.equals(ingredient.getAvailable());
+        return new MenuSnapshot(version + 1, pizzaIds, pizzaPrices, pizzaAvailable, ids, prices, available);
+    }
+
+    public MenuSnapshot withoutIngredient(long ingredientId) {
+        int index = Arrays.binarySearch(ingredientIds, ingredientId);
+        if (index < 0) {
+            return this;
+        }
+        BigDecimal[] prices = new BigDecimal[ingredientPrices.length - 1];
+        System.arraycopy(ingredientPrices, 0, prices, 0, index);
+        System.arraycopy(ingredientPrices, index + 1, prices, index, ingredientPrices.length - index - 1);
+        return new MenuSnapshot(version + 1, pizzaIds, pizzaPrices, pizzaAvailable,
+                remove(ingredientIds, index), prices, remove(ingredientAvailable, index));
+    }
+
+    // === HELPERS ===
+
+    private static void writePrices(Pizza pizza, BigDecimal[] prices, int position) {
+        for (Pizza.PizzaSize size : SIZES) {
+            prices[position * SIZES.length + size.ordinal()] = pizza.getPriceBySize(size);
+        }
+    }
+
+    private static int countTrue(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BigDecimal priceOrZero(BigDecimal price) {
+        return price != null ? price : BigDecimal.ZERO;
+    }
+
+    private static long[] insert(long[] source, int position, long value) {
+        long[] target = new long[source.length + 1];
+        System.arraycopy(source, 0, target, 0, position);
+        target[position] = value;
+        System.arraycopy(source, position, target, position + 1, source.length - position);
+        return target;
+    }
+
+    private static long[] remove(long[] source, int index) {
+        long[] target = new long[source.length - 1];
+        System.arraycopy(source, 0, target, 0, index);
+        System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+        return target;
+    }
+
+    private static boolean[] remove(boolean[] source, int index) {
+        boolean[] target = new boolean[source.length - 1];
+        System.arraycopy(source, 0, target, 0, index);
+        System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+        return target;
+    }
+}
@@ -0,0 +1,409 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.delivery.Delivery;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.payment.Payment;
+import br.com.alg.algexpress.dto.order.OrderExportRow;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
+import br.com.alg.algexpress.infra.support.ColumnarFile;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Column;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Archived orders on local disk: one {@link ColumnarFile} segment per archived batch, under a
+ * directory per month. Each segment starts with two small header tables (its date range and
+ * the sorted ids of its customers), which are kept in memory so lookups only decompress the
+ * segments that can match. Besides the order dates, a segment records the latest timestamp of
+ * any of its rows, so payments and deliveries can be looked up by their own dates too.
+ * Segments are written pending and published once their orders left the database, so an
+ * order is read from one place only. Segments are immutable; the archive only grows.
+ * <p>
+ * With several instances the directory must be shared storage. Segments are also indexed in
+ * the database, so an instance can tell from {@link #missing} that it does not see all of them.
+ */
+@Component
+public class OrderArchive {
+
+    private static final String EXTENSION = ".oca";
+    private static final String PENDING = ".pending";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final List<Column> SEGMENT_COLUMNS = List.of(
+            new Column("from", Type.TIMESTAMP), new Column("to", Type.TIMESTAMP), new Column("orders", Type.LONG),
+            new Column("last_activity", Type.TIMESTAMP));
+    private static final List<Column> CUSTOMER_COLUMNS = List.of(new Column("customer_id", Type.LONG));
+
+    private final Path directory;
+    private volatile List<Segment> segments;
+
+    public OrderArchive(@Value("${algexpress.archive.directory:data/order-archive}") Path directory) {
+        this.directory = directory;
+        this.segments = scan(directory, EXTENSION);
+    }
+
+    public record Segment(Path file, LocalDateTime from, LocalDateTime to, LocalDateTime lastActivity, int orders,
+                          long bytes, long[] customers) {
+
+        boolean hasCustomer(long customerId) {
+            return Arrays.binarySearch(customers, customerId) >= 0;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return !to.isBefore(start) && !from.isAfter(end);
+        }
+
+        boolean within(LocalDateTime start, LocalDateTime end) {
+            return !from.isBefore(start) && !to.isAfter(end);
+        }
+
+        // Payments and deliveries are never dated before their order
+        boolean activeBetween(LocalDateTime start, LocalDateTime end) {
+            return !lastActivity.isBefore(start) && !from.isAfter(end);
+        }
+    }
+
+    public record ArchivedItem(long pizzaId, Pizza.PizzaSize size, int quantity, BigDecimal totalPrice) {
+    }
+
+    public record ArchivedOrder(long id, long customerId, String customerName, Order.OrderType type,
+                                Order.OrderStatus status, LocalDateTime orderDateTime, LocalDateTime estimatedDateTime,
+                                LocalDateTime completionDateTime, BigDecimal subtotal, BigDecimal deliveryFee,
+                                BigDecimal discount, BigDecimal total, List<ArchivedItem> items) {
+
+        public OrderSummaryDTO toSummary() {
+            return new OrderSummaryDTO(id, customerId, customerName, type, status, orderDateTime, estimatedDateTime,
+                    total, deliveryFee, items.size());
+        }
+
+        public OrderExportRow toExportRow() {
+            return new OrderExportRow(id, orderDateTime, completionDateTime, customerId, customerName, type, status,
+                    subtotal, deliveryFee, discount, total);
+        }
+    }
+
+    public record Stats(int segments, long orders, long bytes, LocalDateTime oldest, LocalDateTime newest) {
+    }
+
+    /**
+     * Writes one batch read by {@code OrderArchiveRepository}; {@code tables} must start with
+     * the orders table, sorted by date. The segment is written pending: readers only see it once
+     * it is {@link #publish published}, after the orders left the database.
+     */
+    public Segment write(List<ColumnarFile.Table> tables) {
+        ColumnarFile.Table orders = tables.get(0);
+        int idColumn = orders.index("id");
+        int dateColumn = orders.index("order_date_time");
+        int customerColumn = orders.index("customer_id");
+        LocalDateTime from = (LocalDateTime) orders.rows().get(0)[dateColumn];
+        LocalDateTime to = (LocalDateTime) orders.rows().get(orders.rows().size() - 1)[dateColumn];
+        long[] customers = orders.rows().stream()
+                .mapToLong(row -> (Long) row[customerColumn])
+                .sorted()
+                .distinct()
+                .toArray();
+        LocalDateTime lastActivity = to;
+        for (ColumnarFile.Table table : tables) {
+            for (int i = 0; i < table.columns().size(); i++) {
+                if (table.columns().get(i).type() != Type.TIMESTAMP) {
+                    continue;
+                }
+                for (Object[] row : table.rows()) {
+                    if (row[i] != null && ((LocalDateTime) row[i]).isAfter(lastActivity)) {
+                        lastActivity = (LocalDateTime) row[i];
+                    }
+                }
+            }
+        }
+
+        List<ColumnarFile.Table> content = new ArrayList<>(tables.size() + 2);
+        List<Object[]> segmentRow = new ArrayList<>();
+        segmentRow.add(new Object[]{from, to, (long) orders.rows().size(), lastActivity});
+        content.add(new ColumnarFile.Table("segment", SEGMENT_COLUMNS, segmentRow));
+        content.add(new ColumnarFile.Table("customers", CUSTOMER_COLUMNS,
+                Arrays.stream(customers).mapToObj(id -> new Object[]{id}).toList()));
+        content.addAll(tables);
+
+        Path file = directory.resolve(from.format(MONTH))
+                .resolve("orders-" + from.format(STAMP) + "-" + orders.rows().get(0)[idColumn] + EXTENSION + PENDING);
+        try {
+            Files.createDirectories(file.getParent());
+            ColumnarFile.write(file, content);
+            return new Segment(file, from, to, lastActivity, orders.rows().size(), Files.size(file), customers);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive orders to " + file, e);
+        }
+    }
+
+    /**
+     * Makes a pending segment visible to readers; only once its orders were deleted from the
+     * database, so no order is ever read from both places.
+     */
+    public Segment publish(Segment pending) {
+        String name = pending.file().getFileName().toString();
+        Path file = pending.file().resolveSibling(name.substring(0, name.length() - PENDING.length()));
+        ColumnarFile.move(pending.file(), file);
+        Segment segment = new Segment(file, pending.from(), pending.to(), pending.lastActivity(), pending.orders(),
+                pending.bytes(), pending.customers());
+        add(segment);
+        return segment;
+    }
+
+    /**
+     * Deletes a pending segment whose orders are still in the database.
+     */
+    public void discard(Segment pending) {
+        try {
+            Files.deleteIfExists(pending.file());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + pending.file(), e);
+        }
+    }
+
+    /**
+     * Segments written but neither published nor discarded, left behind by a crash or by a
+     * failure while finishing the batch.
+     */
+    public List<Segment> pendingSegments() {
+        return scan(directory, EXTENSION + PENDING);
+    }
+
+    /**
+     * Name under which a segment is indexed: its path below the archive directory, without the
+     * pending suffix.
+     */
+    public String name(Segment segment) {
+        String name = directory.relativize(segment.file()).toString().replace('\\', '/');
+        return name.endsWith(PENDING) ? name.substring(0, name.length() - PENDING.length()) : name;
+    }
+
+    /**
+     * Indexed segments this instance cannot read, i.e. written where its directory does not
+     * reach; empty when the local archive is complete.
+     */
+    public List<String> missing(Collection<String> indexed) {
+        Set<String> local = segments.stream().map(this::name).collect(Collectors.toSet());
+        return indexed.stream().filter(name -> !local.contains(name)).sorted().toList();
+    }
+
+    public long[] orderIds(Segment segment) {
+        // The orders table comes right after the two header tables
+        ColumnarFile.Table orders = ColumnarFile.read(segment.file(), 3).get(2);
+        int id = orders.index("id");
+        return orders.rows().stream().mapToLong(row -> (Long) row[id]).toArray();
+    }
+
+    public boolean hasCustomer(long customerId) {
+        return segments.stream().anyMatch(segment -> segment.hasCustomer(customerId));
+    }
+
+    /**
+     * Archived orders of a customer placed before ({@code beforeDate}, {@code beforeId}), newest
+     * first, at most {@code limit}; same ordering as the keyset history query.
+     */
+    public List<OrderSummaryDTO> findCustomerHistory(long customerId, LocalDateTime beforeDate, long beforeId,
+                                                     int limit) {
+        Comparator<OrderSummaryDTO> newestFirst = Comparator.comparing(OrderSummaryDTO::orderDateTime)
+                .thenComparing(OrderSummaryDTO::id).reversed();
+        List<OrderSummaryDTO> found = new ArrayList<>();
+        // Segments are sorted newest first: once the page is full, older segments cannot improve it
+        for (Segment segment : segments) {
+            if (!segment.hasCustomer(customerId) || segment.from().isAfter(beforeDate)) {
+                continue;
+            }
+            if (found.size() >= limit && segment.to().isBefore(found.get(limit - 1).orderDateTime())) {
+                break;
+            }
+            for (ArchivedOrder order : readOrders(segment)) {
+                if (order.customerId() == customerId && (order.orderDateTime().isBefore(beforeDate)
+                        || order.orderDateTime().isEqual(beforeDate) && order.id() < beforeId)) {
+                    found.add(order.toSummary());
+                }
+            }
+            found.sort(newestFirst);
+            if (found.size() > limit) {
+                found = new ArrayList<>(found.subList(0, limit));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Visits the archived orders dated in [start, end) or, with {@code includeEnd}, [start, end],
+     * oldest segment first and in date order within a segment.
+     */
+    public void forEachOrder(LocalDateTime start, LocalDateTime end, boolean includeEnd, Consumer<ArchivedOrder> action) {
+        for (Segment segment : segments.reversed()) {
+            if (!segment.overlaps(start, end)) {
+                continue;
+            }
+            for (ArchivedOrder order : readOrders(segment)) {
+                LocalDateTime at = order.orderDateTime();
+                if (!at.isBefore(start) && (includeEnd ? !at.isAfter(end) : at.isBefore(end))) {
+                    action.accept(order);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of archived orders dated in [start, end]. Segments entirely inside the range are
+     * counted from their header.
+     */
+    public long countOrders(LocalDateTime start, LocalDateTime end) {
+        long count = 0;
+        for (Segment segment : segments) {
+            if (segment.within(start, end)) {
+                count += segment.orders();
+            } else if (segment.overlaps(start, end)) {
+                count += readOrders(segment).stream()
+                        .filter(order -> !order.orderDateTime().isBefore(start) && !order.orderDateTime().isAfter(end))
+                        .count();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sum of the archived APPROVED payments made in [start, end]; empty when there are none, like
+     * {@code PaymentRepository.sumApprovedPaymentsByDateRange}.
+     */
+    public Optional<BigDecimal> sumApprovedPayments(LocalDateTime start, LocalDateTime end) {
+        return sum("payments", "payment_date_time", "amount", Payment.PaymentStatus.APPROVED.name(), start, end);
+    }
+
+    /**
+     * Sum of the fees of archived DELIVERED deliveries completed in [start, end]; empty when there
+     * are none, like {@code DeliveryRepository.sumDeliveryFeesByDateRange}.
+     */
+    public Optional<BigDecimal> sumDeliveryFees(LocalDateTime start, LocalDateTime end) {
+        return sum("deliveries", "delivery_time", "delivery_fee", Delivery.DeliveryStatus.DELIVERED.name(), start, end);
+    }
+
+    public Stats stats() {
+        List<Segment> current = segments;
+        return new Stats(current.size(),
+                current.stream().mapToLong(Segment::orders).sum(),
+                current.stream().mapToLong(Segment::bytes).sum(),
+                current.stream().map(Segment::from).min(Comparator.naturalOrder()).orElse(null),
+                current.stream().map(Segment::to).max(Comparator.naturalOrder()).orElse(null));
+    }
+
+    private Optional<BigDecimal> sum(String tableName, String dateColumn, String amountColumn, String status,
+                                     LocalDateTime start, LocalDateTime end) {
+        BigDecimal sum = null;
+        for (Segment segment : segments) {
+            if (!segment.activeBetween(start, end)) {
+                continue;
+            }
+            for (ColumnarFile.Table table : ColumnarFile.read(segment.file())) {
+                if (!table.name().equals(tableName)) {
+                    continue;
+                }
+                int date = table.index(dateColumn);
+                int amount = table.index(amountColumn);
+                int statusColumn = table.index("status");
+                for (Object[] row : table.rows()) {
+                    LocalDateTime at = (LocalDateTime) row[date];
+                    if (status.equals(row[statusColumn]) && at != null && row[amount] != null
+                            && !at.isBefore(start) && !at.isAfter(end)) {
+                        sum = sum == null ? (BigDecimal) row[amount] : sum.add((BigDecimal) row[amount]);
+                    }
+                }
+            }
+        }
+        return Optional.ofNullable(sum);
+    }
+
+    private List<ArchivedOrder> readOrders(Segment segment) {
+        Map<String, ColumnarFile.Table> tables = new HashMap<>();
+        for (ColumnarFile.Table table : ColumnarFile.read(segment.file())) {
+            tables.put(table.name(), table);
+        }
+
+        ColumnarFile.Table items = tables.get("order_items");
+        int itemOrder = items.index("order_id");
+        int pizza = items.index("pizza_id");
+        int size = items.index("size");
+        int quantity = items.index("quantity");
+        int totalPrice = items.index("total_price");
+        Map<Long, List<ArchivedItem>> itemsByOrder = new HashMap<>();
+        for (Object[] row : items.rows()) {
+            itemsByOrder.computeIfAbsent((Long) row[itemOrder], id -> new ArrayList<>())
+                    .add(new ArchivedItem((Long) row[pizza], Pizza.PizzaSize.valueOf((String) row[size]),
+                            ((Long) row[quantity]).intValue(), (BigDecimal) row[totalPrice]));
+        }
+
+        ColumnarFile.Table orders = tables.get("orders");
+        int id = orders.index("id");
+        int customer = orders.index("customer_id");
+        int customerName = orders.index("customer_name");
+        int type = orders.index("type");
+        int status = orders.index("status");
+        int date = orders.index("order_date_time");
+        int estimated = orders.index("estimated_date_time");
+        int completion = orders.index("completion_date_time");
+        int subtotal = orders.index("subtotal");
+        int deliveryFee = orders.index("delivery_fee");
+        int discount = orders.index("discount");
+        int total = orders.index("total");
+        List<ArchivedOrder> result = new ArrayList<>(orders.rows().size());
+        for (Object[] row : orders.rows()) {
+            result.add(new ArchivedOrder((Long) row[id], (Long) row[customer], (String) row[customerName],
+                    Order.OrderType.valueOf((String) row[type]), Order.OrderStatus.valueOf((String) row[status]),
+                    (LocalDateTime) row[date], (LocalDateTime) row[estimated], (LocalDateTime) row[completion],
+                    (BigDecimal) row[subtotal], (BigDecimal) row[deliveryFee], (BigDecimal) row[discount],
+                    (BigDecimal) row[total], itemsByOrder.getOrDefault((Long) row[id], List.of())));
+        }
+        return result;
+    }
+
+    private synchronized void add(Segment segment) {
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(Comparator.comparing(Segment::to).reversed());
+        segments = List.copyOf(updated);
+    }
+
+    private static List<Segment> scan(Path directory, String suffix) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Segment> loaded = new ArrayList<>();
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(suffix)).toList()) {
+                List<ColumnarFile.Table> header = ColumnarFile.read(file, 2);
+                Object[] range = header.get(0).rows().get(0);
+                long[] customers = header.get(1).rows().stream().mapToLong(row -> (Long) row[0]).toArray();
+                loaded.add(new Segment(file, (LocalDateTime) range[0], (LocalDateTime) range[1],
+                        (LocalDateTime) range[3], ((Long) range[2]).intValue(), Files.size(file), customers));
+            }
+            loaded.sort(Comparator.comparing(Segment::to).reversed());
+            return List.copyOf(loaded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the order archive in " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.order.OrderArchiveRepository;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves DELIVERED and CANCELLED orders older than the hot window out of the database into
+ * {@link OrderArchive} segments, one batch per transaction: the batch is locked, written and
+ * forced to disk as a pending segment, then deleted. The segment is published only after the
+ * transaction commits. A pending segment left by a failure or a crash is settled on the next
+ * start or run: published if its orders are gone from the database, discarded if they are still
+ * there. The sales rollups keep the archived orders' contribution, so moving orders never
+ * changes a report.
+ * <p>
+ * Only one instance archives at a time (a PostgreSQL advisory lock around the run); the others
+ * skip it. Each segment is indexed in the database in the batch's transaction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "algexpress.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiver {
+
+    private final OrderArchiveRepository archiveRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotDays;
+    private final int batchSize;
+
+    private final AtomicReference<Instant> lastRun = new AtomicReference<>();
+    private final AtomicLong archived = new AtomicLong();
+
+    public OrderArchiver(OrderArchiveRepository archiveRepository, OrderArchive orderArchive,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${algexpress.archive.hot-days:90}") int hotDays,
+                         @Value("${algexpress.archive.batch-size:20000}") int batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotDays = hotDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param missingSegments indexed segments this instance cannot read; non-zero means the
+     *                        archive directory is not shared with the instances that wrote them
+     */
+    public record Stats(Instant lastRun, long ordersArchived, int missingSegments, OrderArchive.Stats archive) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recoverPending() {
+        for (OrderArchive.Segment pending : orderArchive.pendingSegments()) {
+            settle(pending);
+        }
+    }
+
+    @Scheduled(cron = "${algexpress.archive.cron:0 0 4 * * *}")
+    public synchronized void archiveClosedOrders() {
+        JdbcGate.WorkloadClass previous = JdbcGate.bind(JdbcGate.WorkloadClass.WRITE);
+        try {
+            archiveRepository.runExclusively(() -> {
+                recoverPending();
+                LocalDateTime before = LocalDateTime.now().minusDays(hotDays);
+                int moved;
+                do {
+                    moved = archiveBatch(before);
+                    archived.addAndGet(moved);
+                } while (moved == batchSize);
+                lastRun.set(Instant.now());
+            });
+        } finally {
+            JdbcGate.restore(previous);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(lastRun.get(), archived.get(),
+                orderArchive.missing(archiveRepository.findSegmentNames()).size(), orderArchive.stats());
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        AtomicReference<OrderArchive.Segment> written = new AtomicReference<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                OrderArchiveRepository.Batch batch = archiveRepository.claimClosedOrders(before, batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                written.set(orderArchive.write(List.of(
+                        archiveRepository.readOrders(batch),
+                        archiveRepository.readItems(batch),
+                        archiveRepository.readCustomizations("order_item_additional_ingredients", batch),
+                        archiveRepository.readCustomizations("order_item_removed_ingredients", batch),
+                        archiveRepository.readPayments(batch),
+                        archiveRepository.readDeliveries(batch))));
+                archiveRepository.delete(batch);
+                archiveRepository.recordSegment(orderArchive.name(written.get()), batch);
+            });
+        } catch (RuntimeException e) {
+            // The commit itself may have failed after the delete went through: ask the database
+            if (written.get() != null) {
+                try {
+                    settle(written.get());
+                } catch (RuntimeException settleFailure) {
+                    e.addSuppressed(settleFailure);
+                }
+            }
+            throw e;
+        }
+        if (written.get() == null) {
+            return 0;
+        }
+        return orderArchive.publish(written.get()).orders();
+    }
+
+    private void settle(OrderArchive.Segment pending) {
+        Long[] ids = Arrays.stream(orderArchive.orderIds(pending)).boxed().toArray(Long[]::new);
+        OrderArchiveRepository.Batch batch = new OrderArchiveRepository.Batch(ids, pending.from(), pending.to());
+        if (archiveRepository.countRemaining(batch) == 0) {
+            orderArchive.publish(pending);
+        } else {
+            orderArchive.discard(pending);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.order.OrderEventDTO;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
+import br.com.alg.algexpress.infra.support.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes committed order changes to Server-Sent Events subscribers (kitchen screens).
+ * The last {@code replayBuffer} events are kept so a reconnecting screen can resume from its
+ * {@code Last-Event-ID}; a screen that is too far behind, or new, gets a full snapshot first.
+ * Each subscriber has a bounded queue drained by its own virtual thread, and a subscriber that
+ * falls behind by more than that queue is disconnected (it reconnects and replays).
+ */
+@Component
+public class OrderEventBus {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String ORDER_EVENT = "order";
+
+    private final OrderEventDTO[] ring;
+    private final int clientQueueSize;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatNanos;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Seeded from the clock so ids from before a restart always fall outside the ring
+    private long lastEventId = System.currentTimeMillis();
+    private int ringSize;
+
+    public OrderEventBus(@Value("${algexpress.orders.stream.replay-buffer:1000}") int replayBuffer,
+                         @Value("${algexpress.orders.stream.client-queue:256}") int clientQueueSize,
+                         @Value("${algexpress.orders.stream.timeout:30m}") Duration emitterTimeout,
+                         @Value("${algexpress.orders.stream.heartbeat:15s}") Duration heartbeat) {
+        this.ring = new OrderEventDTO[replayBuffer];
+        this.clientQueueSize = clientQueueSize;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    /**
+     * Called inside the writing transaction; the event is built now (while lazy associations
+     * can still be read) and delivered only if the transaction commits.
+     */
+    public void orderChanged(Order.OrderStatus previousStatus, Order order) {
+        orderChanged(previousStatus, OrderSummaryDTO.fromEntity(order));
+    }
+
+    public void orderChanged(Order.OrderStatus previousStatus, OrderSummaryDTO summary) {
+        AfterCommit.run(() -> publish(previousStatus, summary));
+    }
+
+    public SseEmitter subscribe(Long lastSeenEventId, Supplier<List<OrderSummaryDTO>> snapshot) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(clientQueueSize));
+        long snapshotEventId = -1;
+        synchronized (this) {
+            List<OrderEventDTO> missed = lastSeenEventId != null ? eventsAfter(lastSeenEventId) : null;
+            if (missed != null && missed.size() <= clientQueueSize) {
+                subscriber.queue.addAll(missed);
+            } else {
+                snapshotEventId = lastEventId;
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        long initialSnapshotId = snapshotEventId;
+        subscriber.thread = Thread.ofVirtual().name("order-stream").start(() -> {
+            try {
+                if (initialSnapshotId >= 0) {
+                    // May overlap with queued events; applying a status delta twice is harmless
+                    emitter.send(SseEmitter.event().id(Long.toString(initialSnapshotId)).name(SNAPSHOT_EVENT)
+                            .data(snapshot.get()));
+                }
+                drain(subscriber);
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                emitter.complete();
+            } finally {
+                subscribers.remove(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private synchronized void publish(Order.OrderStatus previousStatus, OrderSummaryDTO summary) {
+        OrderEventDTO event = new OrderEventDTO(++lastEventId, LocalDateTime.now(), previousStatus, summary);
+        ring[(int) (event.id() % ring.length)] = event;
+        ringSize = Math.min(ringSize + 1, ring.length);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * @return the buffered events after the given id, or {@code null} when some of them were
+     * already evicted from the ring
+     */
+    private List<OrderEventDTO> eventsAfter(long eventId) {
+        if (eventId > lastEventId || eventId < lastEventId - ringSize) {
+            return null;
+        }
+        List<OrderEventDTO> events = new ArrayList<>((int) (lastEventId - eventId));
+        for (long id = eventId + 1; id <= lastEventId; id++) {
+            events.add(ring[(int) (id % ring.length)]);
+        }
+        return events;
+    }
+
+    private void drain(Subscriber subscriber) throws IOException, InterruptedException {
+        while (!subscriber.closed) {
+            OrderEventDTO event = subscriber.queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+            if (event != null) {
+                subscriber.emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(ORDER_EVENT).data(event));
+            } else {
+                // Keeps proxies from closing idle streams and detects gone clients
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        }
+        subscriber.emitter.complete();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<OrderEventDTO> queue;
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<OrderEventDTO> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void close() {
+            closed = true;
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.order.OrderExportRow;
+import br.com.alg.algexpress.infra.repository.order.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders of a date range straight to an output stream. Rows are read through a
+ * server-side cursor and each entity is detached once written, so memory stays flat no
+ * matter how many orders the range holds. Archived orders in the range come first, one
+ * {@link OrderArchive} segment at a time; they are older than anything still in the database.
+ */
+@Service
+public class OrderExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final OrderArchive orderArchive;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderExportService(OrderRepository orderRepository, ObjectMapper objectMapper, OrderArchive orderArchive) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.orderArchive = orderArchive;
+    }
+
+    public enum ExportFormat {
+        CSV,
+        NDJSON
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format,
+                             OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(OrderExportRow.CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long[] archived = {0};
+        try {
+            orderArchive.forEachOrder(startDate, endDate, false, order -> {
+                try {
+                    writeRow(writer, format, order.toExportRow());
+                    if (++archived[0] % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long written = archived[0];
+        try (Stream<Order> orders = orderRepository.streamOrdersBetweenDates(startDate, endDate)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                writeRow(writer, format, OrderExportRow.fromEntity(order));
+
+                entityManager.detach(order);
+                if (++written % FLUSH_EVERY == 0) {
+                    // Customers are shared between rows, so they are only dropped in bulk
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private void writeRow(Writer writer, ExportFormat format, OrderExportRow row) throws IOException {
+        writer.write(format == ExportFormat.CSV ? row.toCsv() : objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+}
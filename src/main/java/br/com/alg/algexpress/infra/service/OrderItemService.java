@@ -5,6 +5,7 @@ import br.com.alg.algexpress.domain.menu.Pizza;
 import br.com.alg.algexpress.domain.order.Order;
 import br.com.alg.algexpress.domain.order.OrderItem;
 import br.com.alg.algexpress.infra.repository.order.OrderItemRepository;
+import br.com.alg.algexpress.infra.repository.order.OrderRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,15 +13,23 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Item changes keep the owning order's subtotal and total current by applying the difference
+ * in the item's total price ({@link Order#applyItemDelta}); the order's items are never loaded
+ * to recompute them.
+ */
 @Service
 @Transactional
 public class OrderItemService {
 
     private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
     private final MenuService menuService;
 
-    public OrderItemService(OrderItemRepository orderItemRepository, MenuService menuService) {
+    public OrderItemService(OrderItemRepository orderItemRepository, OrderRepository orderRepository,
+                            MenuService menuService) {
         this.orderItemRepository = orderItemRepository;
+        this.orderRepository = orderRepository;
         this.menuService = menuService;
     }
 
@@ -75,8 +84,10 @@ public class OrderItemService {
     }
 
     public OrderItem save(OrderItem orderItem) {
+        BigDecimal previousTotal = orderItem.getId() != null ? orderItem.getTotalPrice() : null;
         // Calculate subtotal before saving
         orderItem.setTotalPrice(calculateItemSubtotal(orderItem));
+        applyTotalChange(orderItem, previousTotal);
         return orderItemRepository.save(orderItem);
     }
 
@@ -91,11 +102,10 @@ public class OrderItemService {
         
         // Create new OrderItem
         OrderItem orderItem = new OrderItem();
-        
-        // Set basic fields - Note: You would need to fetch Order and Pizza entities
-        // For now, we'll create a simplified version
-        // orderItem.setOrder(orderRepository.findById(orderId).orElseThrow());
-        // orderItem.setPizza(pizzaRepository.findById(pizzaId).orElseThrow());
+        orderItem.setOrder(orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId)));
+        orderItem.setPizza(menuService.findPizzaById(pizzaId)
+                .orElseThrow(() -> new RuntimeException("Pizza not found with id: " + pizzaId)));
         
         orderItem.setSize(size);
         orderItem.setQuantity(quantity);
@@ -108,6 +118,7 @@ public class OrderItemService {
         // Calculate and set subtotal
         BigDecimal subtotal = unitPrice.multiply(new BigDecimal(quantity));
         orderItem.setTotalPrice(subtotal);
+        applyTotalChange(orderItem, null);
         
         return orderItemRepository.save(orderItem);
     }
@@ -116,10 +127,12 @@ public class OrderItemService {
         Optional<OrderItem> orderItemOpt = orderItemRepository.findById(orderItemId);
         if (orderItemOpt.isPresent()) {
             OrderItem orderItem = orderItemOpt.get();
+            BigDecimal previousTotal = orderItem.getTotalPrice();
             orderItem.setQuantity(newQuantity);
             
             // Recalculate subtotal
             orderItem.setTotalPrice(orderItem.getUnitPrice().multiply(new BigDecimal(newQuantity)));
+            applyTotalChange(orderItem, previousTotal);
             
             return orderItemRepository.save(orderItem);
         }
@@ -269,6 +282,7 @@ public class OrderItemService {
     }
 
     private void recalculateOrderItemPrice(OrderItem orderItem) {
+        BigDecimal previousTotal = orderItem.getTotalPrice();
         List<Long> additionalIngredientIds = orderItem.getAdditionalIngredients().stream()
                 .map(Ingredient::getId)
                 .toList();
@@ -286,9 +300,32 @@ public class OrderItemService {
         
         orderItem.setUnitPrice(unitPrice);
         orderItem.setTotalPrice(unitPrice.multiply(new BigDecimal(orderItem.getQuantity())));
+        applyTotalChange(orderItem, previousTotal);
+    }
+
+    /**
+     * Moves the owning order's subtotal and total by the difference between the item's new
+     * total price and {@code previousTotal} ({@code null} for an item being added).
+     */
+    private static void applyTotalChange(OrderItem orderItem, BigDecimal previousTotal) {
+        Order order = orderItem.getOrder();
+        if (order == null || orderItem.getTotalPrice() == null) {
+            return;
+        }
+        BigDecimal delta = previousTotal != null
+                ? orderItem.getTotalPrice().subtract(previousTotal)
+                : orderItem.getTotalPrice();
+        if (delta.signum() != 0) {
+            order.applyItemDelta(delta);
+        }
     }
 
     public void deleteOrderItem(Long orderItemId) {
-        orderItemRepository.deleteById(orderItemId);
+        orderItemRepository.findById(orderItemId).ifPresent(orderItem -> {
+            if (orderItem.getOrder() != null && orderItem.getTotalPrice() != null) {
+                orderItem.getOrder().applyItemDelta(orderItem.getTotalPrice().negate());
+            }
+            orderItemRepository.delete(orderItem);
+        });
     }
 }
\ No newline at end of file
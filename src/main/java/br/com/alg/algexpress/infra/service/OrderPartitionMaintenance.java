@@ -0,0 +1,77 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.order.OrderPartitionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the monthly partitions of orders, order_items and payments ahead of the calendar and
+ * moves months older than the retention window into the {@code archive} schema. Runs at startup
+ * and then daily; creating a partition that already exists is a no-op, so several instances can
+ * run it. Each month is archived in its own transaction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "algexpress.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderPartitionMaintenance {
+
+    private final OrderPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    private final AtomicReference<Instant> lastRun = new AtomicReference<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong archived = new AtomicLong();
+
+    public OrderPartitionMaintenance(OrderPartitionRepository partitionRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${algexpress.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${algexpress.partitions.retention-months:24}") int retentionMonths) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    public record Stats(Instant lastRun, long partitionsCreated, long monthsArchived,
+                        List<OrderPartitionRepository.Partition> partitions) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${algexpress.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        Integer added = transactionTemplate.execute(status ->
+                partitionRepository.createPartitions(current, current.plusMonths(monthsAhead)));
+        created.addAndGet(added != null ? added : 0);
+
+        // 0 keeps every month attached
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (YearMonth month : partitionRepository.findOrderMonths()) {
+                if (!month.isBefore(oldestKept)) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> partitionRepository.archiveMonth(month));
+                archived.incrementAndGet();
+            }
+        }
+        lastRun.set(Instant.now());
+    }
+
+    public Stats stats() {
+        return new Stats(lastRun.get(), created.get(), archived.get(), partitionRepository.findPartitions());
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.customer.Customer;
+import br.com.alg.algexpress.domain.menu.Ingredient;
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.order.OrderItem;
+import br.com.alg.algexpress.domain.valueObjects.Address;
+import br.com.alg.algexpress.dto.order.OrderDTO;
+import br.com.alg.algexpress.dto.order.OrderItemDTO;
+import br.com.alg.algexpress.infra.repository.menu.IngredientRepository;
+import br.com.alg.algexpress.infra.repository.menu.PizzaRepository;
+import br.com.alg.algexpress.infra.repository.order.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates an order and its items in a single transaction. Pizzas and ingredients referenced by
+ * the request are loaded with one query each, prices are computed in memory and the order is
+ * persisted once, so order and item rows go out as JDBC batches on the commit flush.
+ */
+@Service
+@Transactional
+public class OrderPlacementService {
+
+    private final OrderRepository orderRepository;
+    private final PizzaRepository pizzaRepository;
+    private final IngredientRepository ingredientRepository;
+    private final CustomerService customerService;
+    private final OrderEventBus orderEventBus;
+
+    public OrderPlacementService(OrderRepository orderRepository, PizzaRepository pizzaRepository,
+                                 IngredientRepository ingredientRepository, CustomerService customerService,
+                                 OrderEventBus orderEventBus) {
+        this.orderRepository = orderRepository;
+        this.pizzaRepository = pizzaRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.customerService = customerService;
+        this.orderEventBus = orderEventBus;
+    }
+
+    public Order placeOrder(OrderDTO request) {
+        Customer customer = customerService.findById(request.customerId())
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + request.customerId()));
+
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setType(request.type());
+        order.setObservations(request.observations());
+
+        if (request.type() == Order.OrderType.DELIVERY) {
+            if (request.addressId() == null) {
+                throw new RuntimeException("Address is required for delivery orders");
+            }
+            Address address = customerService.findCustomerAddress(customer.getId(), request.addressId())
+                    .orElseThrow(() -> new RuntimeException("Address not found for customer"));
+            order.setDeliveryAddress(address);
+            order.setDeliveryFee(customerService.deliveryFeeFor(address));
+        }
+
+        Map<Long, Pizza> pizzas = loadPizzas(request.items());
+        Map<Long, Ingredient> ingredients = loadIngredients(request.items());
+
+        List<OrderItem> orderItems = new ArrayList<>(request.items().size());
+        for (OrderItemDTO itemRequest : request.items()) {
+            orderItems.add(buildItem(order, itemRequest, pizzas, ingredients));
+        }
+        order.setItems(orderItems);
+        order.calculateTotal();
+
+        // Items cascade from the order; nothing is written until the commit flush
+        Order saved = orderRepository.save(order);
+        orderEventBus.orderChanged(null, saved);
+        return saved;
+    }
+
+    private OrderItem buildItem(Order order, OrderItemDTO itemRequest,
+                                Map<Long, Pizza> pizzas, Map<Long, Ingredient> ingredients) {
+        Pizza pizza = pizzas.get(itemRequest.pizzaId());
+        if (pizza == null) {
+            throw new RuntimeException("Pizza not found with id: " + itemRequest.pizzaId());
+        }
+        if (!Boolean.TRUE.equals(pizza.getAvailable())) {
+            throw new RuntimeException("Pizza is not available: " + pizza.getName());
+        }
+
+        List<Ingredient> additional = resolveIngredients(itemRequest.additionalIngredientIds(), ingredients, true);
+        List<Ingredient> removed = resolveIngredients(itemRequest.removedIngredientIds(), ingredients, false);
+
+        BigDecimal unitPrice = pizza.getPriceBySize(itemRequest.size());
+        if (unitPrice == null) {
+            throw new RuntimeException("Pizza " + pizza.getName() + " has no price for size " + itemRequest.size());
+        }
+        for (Ingredient ingredient : additional) {
+            if (ingredient.getAdditionalPrice() != null) {
+                unitPrice = unitPrice.add(ingredient.getAdditionalPrice());
+            }
+        }
+
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setPizza(pizza);
+        orderItem.setSize(itemRequest.size());
+        orderItem.setQuantity(itemRequest.quantity());
+        orderItem.setObservations(itemRequest.observations());
+        orderItem.setAdditionalIngredients(additional);
+        orderItem.setRemovedIngredients(removed);
+        orderItem.setUnitPrice(unitPrice);
+        orderItem.setTotalPrice(unitPrice.multiply(BigDecimal.valueOf(itemRequest.quantity())));
+        return orderItem;
+    }
+
+    private List<Ingredient> resolveIngredients(List<Long> ingredientIds, Map<Long, Ingredient> ingredients,
+                                                boolean mustBeAvailable) {
+        if (ingredientIds == null || ingredientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Ingredient> resolved = new ArrayList<>(ingredientIds.size());
+        for (Long ingredientId : ingredientIds) {
+            Ingredient ingredient = ingredients.get(ingredientId);
+            if (ingredient == null || (mustBeAvailable && !Boolean.TRUE.equals(ingredient.getAvailable()))) {
+                throw new RuntimeException("Invalid pizza customization");
+            }
+            resolved.add(ingredient);
+        }
+        return resolved;
+    }
+
+    private Map<Long, Pizza> loadPizzas(List<OrderItemDTO> items) {
+        Set<Long> pizzaIds = new HashSet<>();
+        for (OrderItemDTO item : items) {
+            pizzaIds.add(item.pizzaId());
+        }
+        Map<Long, Pizza> pizzas = new HashMap<>();
+        for (Pizza pizza : pizzaRepository.findAllById(pizzaIds)) {
+            pizzas.put(pizza.getId(), pizza);
+        }
+        return pizzas;
+    }
+
+    private Map<Long, Ingredient> loadIngredients(List<OrderItemDTO> items) {
+        Set<Long> ingredientIds = new HashSet<>();
+        for (OrderItemDTO item : items) {
+            if (item.additionalIngredientIds() != null) {
+                ingredientIds.addAll(item.additionalIngredientIds());
+            }
+            if (item.removedIngredientIds() != null) {
+                ingredientIds.addAll(item.removedIngredientIds());
+            }
+        }
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        if (!ingredientIds.isEmpty()) {
+            for (Ingredient ingredient : ingredientRepository.findAllById(ingredientIds)) {
+                ingredients.put(ingredient.getId(), ingredient);
+            }
+        }
+        return ingredients;
+    }
+}
@@ -3,13 +3,25 @@ package br.com.alg.algexpress.infra.service;
 import br.com.alg.algexpress.domain.customer.Customer;
 import br.com.alg.algexpress.domain.order.Order;
 import br.com.alg.algexpress.domain.order.OrderItem;
+import br.com.alg.algexpress.dto.common.CursorPage;
+import br.com.alg.algexpress.dto.order.KitchenOrderDTO;
+import br.com.alg.algexpress.dto.order.OrderDTO;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
 import br.com.alg.algexpress.infra.repository.order.OrderRepository;
+import br.com.alg.algexpress.infra.repository.order.OrderTransitionRepository;
+import br.com.alg.algexpress.infra.support.KeysetCursor;
+import br.com.alg.algexpress.infra.support.OptimisticRetry;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +30,26 @@ import java.util.Optional;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollupService;
+    private final DashboardMetrics dashboardMetrics;
+    private final OrderEventBus orderEventBus;
+    private final OutboxService outboxService;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderTransitionRepository orderTransitionRepository;
+    private final OrderArchive orderArchive;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, SalesRollupService salesRollupService,
+                        DashboardMetrics dashboardMetrics, OrderEventBus orderEventBus,
+                        OutboxService outboxService, OptimisticRetry optimisticRetry,
+                        OrderTransitionRepository orderTransitionRepository, OrderArchive orderArchive) {
         this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.orderTransitionRepository = orderTransitionRepository;
+        this.salesRollupService = salesRollupService;
+        this.dashboardMetrics = dashboardMetrics;
+        this.orderEventBus = orderEventBus;
+        this.outboxService = outboxService;
+        this.optimisticRetry = optimisticRetry;
     }
 
     public List<Order> findTodaysOrders() {
@@ -59,6 +88,42 @@ public class OrderService {
         return orderRepository.findActiveOrders();
     }
 
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> findActiveOrderSummaries() {
+        return orderRepository.findActiveOrderSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> findActiveDeliveryOrderSummaries() {
+        return orderRepository.findActiveDeliveryOrderSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSummaryDTO> findTodaysOrderSummaries() {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        LocalDateTime endOfDay = LocalDate.now().plusDays(1).atStartOfDay();
+        return orderRepository.findTodaysOrderSummaries(startOfDay, endOfDay);
+    }
+
+    /**
+     * Full order view, mapped inside the transaction from one fetch-joined query plus one
+     * batched query per nested collection.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderDTO> findDetailById(Long id) {
+        return orderRepository.findDetailById(id).map(OrderDTO::fromEntity);
+    }
+
+    /**
+     * Orders the kitchen still has to prepare, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<KitchenOrderDTO> findKitchenOrders() {
+        return orderRepository.findKitchenOrders().stream()
+                .map(KitchenOrderDTO::fromEntity)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public List<Order> findActiveDeliveryOrders() {
         return orderRepository.findActiveDeliveryOrders();
@@ -69,48 +134,121 @@ public class OrderService {
         return orderRepository.findOrdersBetweenDates(startDate, endDate);
     }
 
+    /**
+     * Whole customer history, newest first, including archived orders; see
+     * {@link #findCustomerOrderHistoryPage} for the paged variant.
+     */
     @Transactional(readOnly = true)
-    public List<Order> findCustomerOrderHistory(Long customerId) {
-        return orderRepository.findCustomerOrderHistory(customerId);
+    public List<OrderSummaryDTO> findCustomerOrderHistory(Long customerId) {
+        KeysetCursor before = KeysetCursor.decode(null, true);
+        List<OrderSummaryDTO> rows = orderRepository.findCustomerOrderHistoryPage(customerId, before.at(), before.id(),
+                Limit.unlimited());
+        if (!orderArchive.hasCustomer(customerId)) {
+            return rows;
+        }
+        return merge(rows, orderArchive.findCustomerHistory(customerId, before.at(), before.id(), Integer.MAX_VALUE));
     }
 
     public Order save(Order order) {
-        if (order.getId() == null) {
+        boolean created = order.getId() == null;
+        if (created) {
             order.setOrderDateTime(LocalDateTime.now());
             order.setStatus(Order.OrderStatus.PENDING);
         }
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        if (created) {
+            orderEventBus.orderChanged(null, saved);
+        }
+        return saved;
     }
 
+    /**
+     * Applies a state-machine-checked transition in its own transaction, replayed on optimistic
+     * locking conflicts. Repeating the current status is a no-op.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order updateOrderStatus(Long orderId, Order.OrderStatus newStatus) {
+        return optimisticRetry.execute(() -> applyOrderStatus(orderId, newStatus));
+    }
+
+    private Order applyOrderStatus(Long orderId, Order.OrderStatus newStatus) {
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
+            Order.OrderStatus oldStatus = order.getStatus();
+            if (oldStatus == newStatus) {
+                return order;
+            }
+            if (oldStatus != null && !oldStatus.canTransitionTo(newStatus)) {
+                throw new IllegalStateException("Cannot change order " + orderId + " from " + oldStatus + " to " + newStatus);
+            }
             order.setStatus(newStatus);
+            salesRollupService.onStatusChange(order.getId(), oldStatus, newStatus);
+            dashboardMetrics.orderStatusChanged(oldStatus, newStatus, order.getTotal());
             
             if (newStatus == Order.OrderStatus.CONFIRMED) {
                 order.setEstimatedDateTime(LocalDateTime.now().plusMinutes(30));
             }
             
-            return orderRepository.save(order);
+            Order saved = orderRepository.save(order);
+            outboxService.orderStatusChanged(saved, oldStatus);
+            // Items are counted, not loaded: a status change never touches the collection
+            orderEventBus.orderChanged(oldStatus,
+                    OrderSummaryDTO.fromEntity(saved, (int) orderRepository.countItemsByOrderId(orderId, saved.getOrderDateTime())));
+            return saved;
         }
         throw new RuntimeException("Order not found with id: " + orderId);
     }
 
-    public Order confirmOrder(Long orderId) {
-        return updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+    public OrderSummaryDTO confirmOrder(Long orderId) {
+        return transitionOrder(orderId, Order.OrderStatus.CONFIRMED);
+    }
+
+    public OrderSummaryDTO cancelOrder(Long orderId) {
+        return transitionOrder(orderId, Order.OrderStatus.CANCELLED);
     }
 
-    public Order cancelOrder(Long orderId) {
-        return updateOrderStatus(orderId, Order.OrderStatus.CANCELLED);
+    public OrderSummaryDTO markAsReady(Long orderId) {
+        return transitionOrder(orderId, Order.OrderStatus.READY);
     }
 
-    public Order markAsReady(Long orderId) {
-        return updateOrderStatus(orderId, Order.OrderStatus.READY);
+    public OrderSummaryDTO markAsDelivered(Long orderId) {
+        return transitionOrder(orderId, Order.OrderStatus.DELIVERED);
     }
 
-    public Order markAsDelivered(Long orderId) {
-        return updateOrderStatus(orderId, Order.OrderStatus.DELIVERED);
+    /**
+     * Moves every given order whose current status may reach {@code newStatus} with one guarded
+     * UPDATE and no entity loading; orders in any other status are left untouched.
+     *
+     * @return summaries of the orders that changed
+     */
+    public List<OrderSummaryDTO> transitionOrders(Collection<Long> orderIds, Order.OrderStatus newStatus) {
+        List<OrderTransitionRepository.TransitionedOrder> transitioned =
+                orderTransitionRepository.transition(orderIds, newStatus);
+        List<OrderSummaryDTO> changed = new ArrayList<>(transitioned.size());
+        for (OrderTransitionRepository.TransitionedOrder row : transitioned) {
+            OrderSummaryDTO order = row.order();
+            salesRollupService.onStatusChange(order.id(), row.previousStatus(), newStatus);
+            dashboardMetrics.orderStatusChanged(row.previousStatus(), newStatus, order.total());
+            outboxService.orderStatusChanged(order.id(), row.previousStatus(), newStatus, order.total());
+            orderEventBus.orderChanged(row.previousStatus(), order);
+            changed.add(order);
+        }
+        return changed;
+    }
+
+    private OrderSummaryDTO transitionOrder(Long orderId, Order.OrderStatus newStatus) {
+        List<OrderSummaryDTO> changed = transitionOrders(List.of(orderId), newStatus);
+        if (!changed.isEmpty()) {
+            return changed.get(0);
+        }
+        // Nothing moved: only now is the order loaded, to tell the caller why
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        if (order.getStatus() == newStatus) {
+            return OrderSummaryDTO.fromEntity(order);
+        }
+        throw new IllegalStateException("Cannot change order " + orderId + " from " + order.getStatus() + " to " + newStatus);
     }
 
     @Transactional(readOnly = true)
@@ -120,17 +258,17 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Long countOrdersBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.countOrdersBetweenDates(startDate, endDate);
+        return orderRepository.countOrdersBetweenDates(startDate, endDate) + orderArchive.countOrders(startDate, endDate);
     }
 
     @Transactional(readOnly = true)
     public Optional<BigDecimal> getTotalRevenueBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.sumTotalByDateRange(startDate, endDate);
+        return Optional.of(salesRollupService.getRevenueBetween(startDate, endDate));
     }
 
     @Transactional(readOnly = true)
     public Optional<BigDecimal> getAverageOrderTotal() {
-        return orderRepository.findAverageOrderTotal();
+        return salesRollupService.getAverageOrderTotal();
     }
 
     @Transactional(readOnly = true)
@@ -162,6 +300,94 @@ public class OrderService {
     }
 
     public void deleteOrder(Long orderId) {
+        orderRepository.findById(orderId).ifPresent(order -> {
+            salesRollupService.onStatusChange(orderId, order.getStatus(), null);
+            dashboardMetrics.orderStatusChanged(order.getStatus(), null, order.getTotal());
+        });
         orderRepository.deleteById(orderId);
     }
-}
\ No newline at end of file
+
+    // === KEYSET PAGES ===
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageByStatus(Order.OrderStatus status, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageByStatus(status, after.at(), after.id(), Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageByType(Order.OrderType type, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageByType(type, after.at(), after.id(), Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageBetweenDates(LocalDateTime startDate, LocalDateTime endDate,
+                                                  String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageBetweenDates(startDate, endDate, after.at(), after.id(),
+                Limit.of(limit + 1)), limit);
+    }
+
+    /**
+     * The customer's orders still in the orders table, oldest first like the other filtered
+     * listings; archived orders are only listed by {@link #findCustomerOrderHistoryPage}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageByCustomerId(Long customerId, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageByCustomerId(customerId, after.at(), after.id(), Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageByCustomerIdAndStatus(Long customerId, Order.OrderStatus status,
+                                                           String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageByCustomerIdAndStatus(customerId, status, after.at(), after.id(),
+                Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findPageByTotalBetween(BigDecimal minTotal, BigDecimal maxTotal,
+                                                    String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return page(orderRepository.findPageByTotalBetween(minTotal, maxTotal, after.at(), after.id(),
+                Limit.of(limit + 1)), limit);
+    }
+
+    /**
+     * Customer history, newest first, including archived orders. Both sources are read with the
+     * same keyset and merged; archive segments are only published once their orders left the
+     * database, so the two never overlap.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> findCustomerOrderHistoryPage(Long customerId, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        KeysetCursor before = KeysetCursor.decode(cursor, true);
+        List<OrderSummaryDTO> rows = orderRepository.findCustomerOrderHistoryPage(customerId, before.at(), before.id(),
+                Limit.of(limit + 1));
+        if (!orderArchive.hasCustomer(customerId)) {
+            return page(rows, limit);
+        }
+        List<OrderSummaryDTO> merged = merge(rows,
+                orderArchive.findCustomerHistory(customerId, before.at(), before.id(), limit + 1));
+        return page(merged.subList(0, Math.min(merged.size(), limit + 1)), limit);
+    }
+
+    private static List<OrderSummaryDTO> merge(List<OrderSummaryDTO> rows, List<OrderSummaryDTO> archivedRows) {
+        List<OrderSummaryDTO> merged = new ArrayList<>(rows);
+        merged.addAll(archivedRows);
+        merged.sort(Comparator.comparing(OrderSummaryDTO::orderDateTime).thenComparing(OrderSummaryDTO::id).reversed());
+        return merged;
+    }
+
+    private static CursorPage<OrderSummaryDTO> page(List<OrderSummaryDTO> rows, int limit) {
+        return CursorPage.of(rows, limit, order -> new KeysetCursor(order.orderDateTime(), order.id()).encode());
+    }
+}
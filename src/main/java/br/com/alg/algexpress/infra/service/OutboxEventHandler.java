@@ -0,0 +1,24 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+
+import java.util.List;
+
+/**
+ * Consumer of relayed outbox events. Delivery is at least once and in order per aggregate, so
+ * implementations must tolerate seeing the same event again. Throwing schedules a retry.
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(String aggregateType);
+
+    void handle(OutboxRepository.OutboxEvent event);
+
+    /**
+     * Handles the supported events of one relayed batch, in order. If this throws, the relay
+     * falls back to {@link #handle} event by event to isolate the failing ones.
+     */
+    default void handleBatch(List<OutboxRepository.OutboxEvent> events) {
+        events.forEach(this::handle);
+    }
+}
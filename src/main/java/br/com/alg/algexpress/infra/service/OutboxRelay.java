@@ -0,0 +1,120 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} in batches. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, handed to the {@link OutboxEventHandler}s and deleted in the
+ * same transaction, so several instances can relay concurrently. Handlers run in savepoints; an
+ * event whose handler fails is retried later with a growing delay and keeps blocking the later
+ * events of its aggregate.
+ */
+@Component
+@ConditionalOnProperty(prefix = "algexpress.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 300;
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate savepoint;
+    private final int batchSize;
+
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong relayNanos = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository, List<OutboxEventHandler> handlers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${algexpress.outbox.relay.batch-size:200}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.batchSize = batchSize;
+    }
+
+    public record Stats(long relayed, long failed, long pending, double eventsPerSecond) {
+    }
+
+    @Scheduled(fixedDelayString = "${algexpress.outbox.relay.poll-interval:500ms}")
+    public void drain() {
+        JdbcGate.WorkloadClass previous = JdbcGate.bind(JdbcGate.WorkloadClass.WRITE);
+        try {
+            Integer claimed;
+            do {
+                long start = System.nanoTime();
+                claimed = transactionTemplate.execute(status -> relayBatch());
+                relayNanos.addAndGet(System.nanoTime() - start);
+            } while (claimed != null && claimed == batchSize);
+        } finally {
+            JdbcGate.restore(previous);
+        }
+    }
+
+    public Stats stats() {
+        long nanos = relayNanos.get();
+        long count = relayed.get();
+        return new Stats(count, failed.get(), outboxRepository.countPending(),
+                nanos > 0 ? count / (nanos / 1_000_000_000.0) : 0);
+    }
+
+    private int relayBatch() {
+        List<OutboxRepository.OutboxEvent> batch = outboxRepository.claimBatch(batchSize);
+        Set<Long> failedIds = new HashSet<>();
+        for (OutboxEventHandler handler : handlers) {
+            List<OutboxRepository.OutboxEvent> supported = batch.stream()
+                    .filter(event -> handler.supports(event.aggregateType()) && !failedIds.contains(event.id()))
+                    .toList();
+            if (supported.isEmpty() || attempt(() -> handler.handleBatch(supported))) {
+                continue;
+            }
+            for (OutboxRepository.OutboxEvent event : supported) {
+                if (!attempt(() -> handler.handle(event))) {
+                    failedIds.add(event.id());
+                }
+            }
+        }
+
+        List<Long> done = new ArrayList<>(batch.size());
+        for (OutboxRepository.OutboxEvent event : batch) {
+            if (failedIds.contains(event.id())) {
+                failed.incrementAndGet();
+                long delay = Math.min(MAX_RETRY_DELAY_SECONDS, 1L << Math.min(event.attempts(), 8));
+                outboxRepository.scheduleRetry(event.id(), delay);
+            } else {
+                done.add(event.id());
+            }
+        }
+        if (!done.isEmpty()) {
+            outboxRepository.deleteAll(done);
+            relayed.addAndGet(done.size());
+        }
+        return batch.size();
+    }
+
+    private boolean attempt(Runnable work) {
+        try {
+            savepoint.executeWithoutResult(status -> work.run());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
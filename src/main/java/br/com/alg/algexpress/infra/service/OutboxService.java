@@ -0,0 +1,83 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.delivery.Delivery;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.payment.Payment;
+import br.com.alg.algexpress.dto.outbox.StatusChangePayload;
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Records state changes in the outbox as part of the caller's transaction, so an event exists
+ * if and only if the change it describes committed.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    public static final String ORDER = "ORDER";
+    public static final String PAYMENT = "PAYMENT";
+    public static final String DELIVERY = "DELIVERY";
+
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void orderStatusChanged(Order order, Order.OrderStatus previousStatus) {
+        orderStatusChanged(order.getId(), previousStatus, order.getStatus(), order.getTotal());
+    }
+
+    public void orderStatusChanged(Long orderId, Order.OrderStatus previousStatus, Order.OrderStatus status,
+                                   BigDecimal total) {
+        record(ORDER, orderId, new StatusChangePayload(orderId, orderId,
+                name(previousStatus), name(status), total, LocalDateTime.now()));
+    }
+
+    public void paymentStatusChanged(Payment payment, Payment.PaymentStatus previousStatus) {
+        paymentStatusChanged(payment.getId(), payment.getOrder() != null ? payment.getOrder().getId() : null,
+                previousStatus, payment.getStatus(),
+                payment.getAmount() != null ? payment.getAmount().getAmount() : null);
+    }
+
+    public void paymentStatusChanged(Long paymentId, Long orderId, Payment.PaymentStatus previousStatus,
+                                     Payment.PaymentStatus status, BigDecimal amount) {
+        record(PAYMENT, paymentId, new StatusChangePayload(paymentId, orderId,
+                name(previousStatus), name(status), amount, LocalDateTime.now()));
+    }
+
+    public void deliveryStatusChanged(Delivery delivery, Delivery.DeliveryStatus previousStatus) {
+        deliveryStatusChanged(delivery.getId(), delivery.getOrder() != null ? delivery.getOrder().getId() : null,
+                previousStatus, delivery.getStatus(), delivery.getDeliveryFee());
+    }
+
+    public void deliveryStatusChanged(Long deliveryId, Long orderId, Delivery.DeliveryStatus previousStatus,
+                                      Delivery.DeliveryStatus status, BigDecimal deliveryFee) {
+        record(DELIVERY, deliveryId, new StatusChangePayload(deliveryId, orderId,
+                name(previousStatus), name(status), deliveryFee, LocalDateTime.now()));
+    }
+
+    private void record(String aggregateType, Long aggregateId, StatusChangePayload payload) {
+        try {
+            outboxRepository.insert(aggregateType, aggregateId, STATUS_CHANGED, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize outbox event for " + aggregateType + " " + aggregateId, e);
+        }
+    }
+
+    private static String name(Enum<?> status) {
+        return status != null ? status.name() : null;
+    }
+}
@@ -4,14 +4,20 @@ import br.com.alg.algexpress.domain.order.Order;
 import br.com.alg.algexpress.domain.payment.Payment;
 import br.com.alg.algexpress.domain.valueObjects.Money;
 import br.com.alg.algexpress.domain.valueObjects.PaymentMethod;
+import br.com.alg.algexpress.dto.common.CursorPage;
 import br.com.alg.algexpress.infra.repository.payment.PaymentRepository;
+import br.com.alg.algexpress.infra.repository.payment.PaymentTransitionRepository;
 import br.com.alg.algexpress.infra.repository.order.OrderRepository;
+import br.com.alg.algexpress.infra.support.KeysetCursor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,10 +27,18 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final PaymentTransitionRepository paymentTransitionRepository;
+    private final OrderArchive orderArchive;
 
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+                          OutboxService outboxService, PaymentTransitionRepository paymentTransitionRepository,
+                          OrderArchive orderArchive) {
         this.paymentRepository = paymentRepository;
+        this.orderArchive = orderArchive;
+        this.paymentTransitionRepository = paymentTransitionRepository;
         this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
     }
 
     public List<Payment> findTodaysApprovedPayments() {
@@ -123,13 +137,17 @@ public class PaymentService {
     }
 
     public Payment approvePayment(Long paymentId) {
-        Optional<Payment> paymentOpt = paymentRepository.findById(paymentId);
-        if (paymentOpt.isPresent()) {
-            Payment payment = paymentOpt.get();
-            payment.setStatus(Payment.PaymentStatus.APPROVED);
-            return paymentRepository.save(payment);
-        }
-        throw new RuntimeException("Payment not found with id: " + paymentId);
+        return transitionPayment(paymentId, Payment.PaymentStatus.APPROVED);
+    }
+
+    /**
+     * Approves every given payment that is still pending or processing with one guarded UPDATE;
+     * payments in any other status are left untouched.
+     *
+     * @return ids of the payments that were approved
+     */
+    public List<Long> approvePayments(Collection<Long> paymentIds) {
+        return transitionPayments(paymentIds, Payment.PaymentStatus.APPROVED);
     }
 
     public Payment rejectPayment(Long paymentId, String reason) {
@@ -144,13 +162,30 @@ public class PaymentService {
     }
 
     public Payment refundPayment(Long paymentId) {
-        Optional<Payment> paymentOpt = paymentRepository.findById(paymentId);
-        if (paymentOpt.isPresent()) {
-            Payment payment = paymentOpt.get();
-            payment.setStatus(Payment.PaymentStatus.REFUNDED);
-            return paymentRepository.save(payment);
+        return transitionPayment(paymentId, Payment.PaymentStatus.REFUNDED);
+    }
+
+    private List<Long> transitionPayments(Collection<Long> paymentIds, Payment.PaymentStatus newStatus) {
+        List<PaymentTransitionRepository.TransitionedPayment> transitioned =
+                paymentTransitionRepository.transition(paymentIds, newStatus);
+        List<Long> changed = new ArrayList<>(transitioned.size());
+        for (PaymentTransitionRepository.TransitionedPayment row : transitioned) {
+            outboxService.paymentStatusChanged(row.id(), row.orderId(), row.previousStatus(), newStatus, row.amount());
+            changed.add(row.id());
         }
-        throw new RuntimeException("Payment not found with id: " + paymentId);
+        return changed;
+    }
+
+    private Payment transitionPayment(Long paymentId, Payment.PaymentStatus newStatus) {
+        boolean changed = !transitionPayments(List.of(paymentId), newStatus).isEmpty();
+        // Read after the UPDATE so the response reflects the new status and version
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
+        if (!changed && payment.getStatus() != newStatus) {
+            throw new IllegalStateException("Cannot change payment " + paymentId + " from "
+                    + payment.getStatus() + " to " + newStatus);
+        }
+        return payment;
     }
 
     @Transactional(readOnly = true)
@@ -184,7 +219,10 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public Optional<BigDecimal> getTotalRevenueBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return paymentRepository.sumApprovedPaymentsByDateRange(startDate, endDate);
+        Optional<BigDecimal> archived = orderArchive.sumApprovedPayments(startDate, endDate);
+        return paymentRepository.sumApprovedPaymentsByDateRange(startDate, endDate)
+                .map(sum -> archived.map(sum::add).orElse(sum))
+                .or(() -> archived);
     }
 
     @Transactional(readOnly = true)
@@ -210,4 +248,25 @@ public class PaymentService {
     public void deletePayment(Long paymentId) {
         paymentRepository.deleteById(paymentId);
     }
-}
\ No newline at end of file
+
+    // === KEYSET PAGES ===
+
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> findPageByStatus(Payment.PaymentStatus status, String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        long afterId = KeysetCursor.decode(cursor, false).id();
+        return page(paymentRepository.findPageByStatus(status, afterId, Limit.of(limit + 1)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> findPageByPaymentMethodType(PaymentMethod.PaymentType paymentMethodType,
+                                                           String cursor, Integer size) {
+        int limit = CursorPage.limit(size);
+        long afterId = KeysetCursor.decode(cursor, false).id();
+        return page(paymentRepository.findPageByPaymentMethodType(paymentMethodType, afterId, Limit.of(limit + 1)), limit);
+    }
+
+    private static CursorPage<Payment> page(List<Payment> rows, int limit) {
+        return CursorPage.of(rows, limit, payment -> KeysetCursor.afterId(payment.getId()).encode());
+    }
+}
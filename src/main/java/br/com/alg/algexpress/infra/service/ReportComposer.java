@@ -0,0 +1,113 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.dto.report.ComposedReportDTO;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only report queries concurrently, one virtual thread and one read-only
+ * transaction per query. A semaphore caps how many of them hold a connection at once so reports
+ * cannot drain the pool, and every query shares one deadline: whatever has not finished by then
+ * is cancelled and reported as an error while the other results are still returned.
+ * <p>
+ * Queries run outside the caller's persistence context, so they must return values that are
+ * safe to read after their transaction ends (counts, DTOs, basic attributes).
+ */
+@Component
+public class ReportComposer {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore connectionSlots;
+    private final long queryTimeoutNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ReportComposer(PlatformTransactionManager transactionManager,
+                          @Value("${algexpress.reports.max-concurrent-queries:4}") int maxConcurrentQueries,
+                          @Value("${algexpress.reports.query-timeout:5s}") Duration queryTimeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Also applied by Hibernate as the JDBC statement timeout
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000));
+        this.connectionSlots = new Semaphore(maxConcurrentQueries);
+        this.queryTimeoutNanos = queryTimeout.toNanos();
+    }
+
+    public Composition compose() {
+        return new Composition();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Composition {
+
+        private final Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+
+        private Composition() {
+        }
+
+        public Composition add(String name, Supplier<?> query) {
+            queries.put(name, query);
+            return this;
+        }
+
+        public ComposedReportDTO execute() {
+            long deadline = System.nanoTime() + queryTimeoutNanos;
+
+            Map<String, Future<Object>> running = new LinkedHashMap<>();
+            queries.forEach((name, query) -> running.put(name, executor.submit(JdbcGate.propagate(() -> run(query, deadline)))));
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Object>> entry : running.entrySet()) {
+                Future<Object> future = entry.getValue();
+                try {
+                    values.put(entry.getKey(), future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    errors.put(entry.getKey(), "Query timed out");
+                } catch (ExecutionException e) {
+                    errors.put(entry.getKey(), describe(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running.values().forEach(pending -> pending.cancel(true));
+                    errors.put(entry.getKey(), "Report interrupted");
+                }
+            }
+            return new ComposedReportDTO(values, errors);
+        }
+    }
+
+    private Object run(Supplier<?> query, long deadline) throws InterruptedException, TimeoutException {
+        if (!connectionSlots.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No connection slot available");
+        }
+        try {
+            return readOnlyTransaction.execute(status -> query.get());
+        } finally {
+            connectionSlots.release();
+        }
+    }
+
+    private static String describe(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,185 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.common.CursorPage;
+import br.com.alg.algexpress.dto.report.DailySalesDTO;
+import br.com.alg.algexpress.dto.report.PizzaSalesDTO;
+import br.com.alg.algexpress.infra.repository.order.OrderArchiveRepository;
+import br.com.alg.algexpress.infra.repository.report.SalesRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Keeps the daily/hourly sales rollups in step with order status changes and answers revenue
+ * questions from them. Orders are bucketed by their order date, matching the queries the
+ * rollups replace. Archived orders keep their contribution in the rollups; the two places that
+ * read orders directly (rebuilds and sub-hour edges) add the archived ones from
+ * {@link OrderArchive}.
+ */
+@Service
+@Transactional
+public class SalesRollupService {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderArchive orderArchive;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public SalesRollupService(SalesRollupRepository salesRollupRepository, OrderArchive orderArchive,
+                              OrderArchiveRepository orderArchiveRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderArchive = orderArchive;
+        this.orderArchiveRepository = orderArchiveRepository;
+    }
+
+    /**
+     * Must run in the transaction that changes the status. Leaving DELIVERED or CANCELLED
+     * (including deleting the order, {@code newStatus == null}) subtracts the contribution again.
+     */
+    public void onStatusChange(Long orderId, Order.OrderStatus oldStatus, Order.OrderStatus newStatus) {
+        int deliveredDelta = delta(oldStatus, newStatus, Order.OrderStatus.DELIVERED);
+        int cancelledDelta = delta(oldStatus, newStatus, Order.OrderStatus.CANCELLED);
+        if (deliveredDelta != 0 || cancelledDelta != 0) {
+            salesRollupRepository.applyOrder(orderId, deliveredDelta, cancelledDelta);
+        }
+    }
+
+    /**
+     * Recomputes the rollups for orders dated from startDate to endDate (inclusive), e.g. after
+     * a bulk import or a manual correction. Refused when this instance cannot read every archive
+     * segment: rebuilding would drop the revenue of the orders in the others.
+     *
+     * @throws IllegalStateException when the local archive is incomplete
+     */
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        List<String> missing = orderArchive.missing(orderArchiveRepository.findSegmentNames());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(missing.size() + " archive segments are not readable here, e.g. "
+                    + missing.get(0) + "; the archive directory must be shared by every instance");
+        }
+        salesRollupRepository.rebuild(startDate, endDate.plusDays(1));
+        addArchivedSales(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Revenue of delivered orders dated in [startDate, endDate]. Whole days come from the daily
+     * rollup, whole hours at the edges from the hourly rollup and only the sub-hour remainders
+     * from the orders table.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getRevenueBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (endDate.isBefore(startDate)) {
+            return BigDecimal.ZERO;
+        }
+        LocalDateTime firstHour = ceil(startDate, ChronoUnit.HOURS);
+        LocalDateTime lastHour = endDate.truncatedTo(ChronoUnit.HOURS);
+        if (!firstHour.isBefore(lastHour)) {
+            return orderRevenue(startDate, endDate, true);
+        }
+
+        BigDecimal revenue = orderRevenue(startDate, firstHour, false)
+                .add(orderRevenue(lastHour, endDate, true));
+
+        LocalDateTime firstDay = ceil(firstHour, ChronoUnit.DAYS);
+        LocalDateTime lastDay = lastHour.truncatedTo(ChronoUnit.DAYS);
+        if (firstDay.isBefore(lastDay)) {
+            return revenue
+                    .add(salesRollupRepository.sumHourlyRevenue(firstHour, firstDay))
+                    .add(salesRollupRepository.sumDailyRevenue(firstDay.toLocalDate(), lastDay.toLocalDate()))
+                    .add(salesRollupRepository.sumHourlyRevenue(lastDay, lastHour));
+        }
+        return revenue.add(salesRollupRepository.sumHourlyRevenue(firstHour, lastHour));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> getAverageOrderTotal() {
+        return Optional.ofNullable(salesRollupRepository.findAverageDeliveredOrderTotal());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesDTO> getDailySales(LocalDate startDate, LocalDate endDate) {
+        return salesRollupRepository.findDailySales(startDate, endDate.plusDays(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PizzaSalesDTO> getMostSoldPizzas(LocalDate startDate, LocalDate endDate, int limit) {
+        return salesRollupRepository.findPizzaSales(startDate, endDate.plusDays(1), CursorPage.limit(limit));
+    }
+
+    private BigDecimal orderRevenue(LocalDateTime startDate, LocalDateTime endDate, boolean includeEnd) {
+        BigDecimal[] archived = {BigDecimal.ZERO};
+        orderArchive.forEachOrder(startDate, endDate, includeEnd, order -> {
+            if (order.status() == Order.OrderStatus.DELIVERED) {
+                archived[0] = archived[0].add(order.total());
+            }
+        });
+        return salesRollupRepository.sumOrderRevenue(startDate, endDate, includeEnd).add(archived[0]);
+    }
+
+    // Same buckets and rules as SalesRollupRepository's rebuild statements
+    private void addArchivedSales(LocalDateTime start, LocalDateTime end) {
+        Map<LocalDateTime, SalesRollupRepository.SalesBucket> daily = new TreeMap<>();
+        Map<LocalDateTime, SalesRollupRepository.SalesBucket> hourly = new TreeMap<>();
+        Map<String, SalesRollupRepository.PizzaSalesBucket> pizzas = new TreeMap<>();
+        orderArchive.forEachOrder(start, end, false, order -> {
+            boolean delivered = order.status() == Order.OrderStatus.DELIVERED;
+            boolean cancelled = order.status() == Order.OrderStatus.CANCELLED;
+            if (!delivered && !cancelled) {
+                return;
+            }
+            int itemsSold = delivered ? order.items().stream().mapToInt(OrderArchive.ArchivedItem::quantity).sum() : 0;
+            SalesRollupRepository.SalesBucket sales = new SalesRollupRepository.SalesBucket(null,
+                    delivered ? 1 : 0, cancelled ? 1 : 0,
+                    delivered ? order.total() : BigDecimal.ZERO,
+                    delivered && order.deliveryFee() != null ? order.deliveryFee() : BigDecimal.ZERO,
+                    itemsSold);
+            daily.merge(order.orderDateTime().truncatedTo(ChronoUnit.DAYS), sales, SalesRollupService::sum);
+            hourly.merge(order.orderDateTime().truncatedTo(ChronoUnit.HOURS), sales, SalesRollupService::sum);
+            if (delivered) {
+                LocalDate day = order.orderDateTime().toLocalDate();
+                for (OrderArchive.ArchivedItem item : order.items()) {
+                    pizzas.merge(day + "|" + item.pizzaId() + "|" + item.size(),
+                            new SalesRollupRepository.PizzaSalesBucket(day, item.pizzaId(), item.size(),
+                                    item.quantity(), item.totalPrice()),
+                            (a, b) -> new SalesRollupRepository.PizzaSalesBucket(day, item.pizzaId(), item.size(),
+                                    a.quantity() + b.quantity(), a.revenue().add(b.revenue())));
+                }
+            }
+        });
+        if (!daily.isEmpty()) {
+            salesRollupRepository.addSales(withKeys(daily), withKeys(hourly), List.copyOf(pizzas.values()));
+        }
+    }
+
+    private static SalesRollupRepository.SalesBucket sum(SalesRollupRepository.SalesBucket a,
+                                                         SalesRollupRepository.SalesBucket b) {
+        return new SalesRollupRepository.SalesBucket(a.bucket(),
+                a.deliveredOrders() + b.deliveredOrders(), a.cancelledOrders() + b.cancelledOrders(),
+                a.revenue().add(b.revenue()), a.deliveryFees().add(b.deliveryFees()), a.itemsSold() + b.itemsSold());
+    }
+
+    private static List<SalesRollupRepository.SalesBucket> withKeys(Map<LocalDateTime, SalesRollupRepository.SalesBucket> buckets) {
+        return buckets.entrySet().stream()
+                .map(entry -> new SalesRollupRepository.SalesBucket(entry.getKey(), entry.getValue().deliveredOrders(),
+                        entry.getValue().cancelledOrders(), entry.getValue().revenue(),
+                        entry.getValue().deliveryFees(), entry.getValue().itemsSold()))
+                .toList();
+    }
+
+    private static int delta(Order.OrderStatus oldStatus, Order.OrderStatus newStatus, Order.OrderStatus tracked) {
+        return (newStatus == tracked ? 1 : 0) - (oldStatus == tracked ? 1 : 0);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime truncated = dateTime.truncatedTo(unit);
+        return truncated.equals(dateTime) ? truncated : truncated.plus(1, unit);
+    }
+}
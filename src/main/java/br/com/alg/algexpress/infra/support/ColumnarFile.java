@@ -0,0 +1,329 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact columnar file: a sequence of named tables, each stored column by column in a single
+ * gzip stream. Integers and timestamps are delta-encoded varints, decimals are unscaled varints
+ * with one scale per column and low-cardinality text is dictionary-encoded, so similar values
+ * sit next to each other and compress well. Tables are read back in the order they were
+ * written; {@link #read(Path, int)} stops after the first ones, which is how small header
+ * tables are read without decoding the rest.
+ */
+public final class ColumnarFile {
+
+    private static final int MAGIC = 0x41584346; // "AXCF"
+    private static final int VERSION = 1;
+    private static final int BUFFER = 1 << 16;
+    private static final int MAX_DICTIONARY = 4096;
+    // Directories cannot be opened as a channel there; NTFS makes the rename durable by itself
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private ColumnarFile() {
+    }
+
+    public enum Type {
+        LONG,
+        DECIMAL,
+        TIMESTAMP,
+        TEXT
+    }
+
+    public record Column(String name, Type type) {
+    }
+
+    /**
+     * Rows hold Long (any Number when writing), BigDecimal, LocalDateTime or String values, or null.
+     */
+    public record Table(String name, List<Column> columns, List<Object[]> rows) {
+
+        public int index(String column) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).name().equals(column)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("No column " + column + " in table " + name);
+        }
+    }
+
+    /**
+     * Writes the tables to a temporary file, forces it to disk and moves it into place, so a
+     * file either exists complete or not at all; once this returns it survives a crash.
+     */
+    public static void write(Path file, List<Table> tables) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarLong(out, tables.size());
+            for (Table table : tables) {
+                writeTable(out, table);
+            }
+            out.flush();
+            gzip.finish();
+            gzip.flush();
+            channel.force(true);
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+        move(temporary, file);
+    }
+
+    /**
+     * Atomically renames {@code source} to {@code target} and forces the directory entry to
+     * disk; without the directory sync a crash right after the rename can bring back the old name.
+     */
+    public static void move(Path source, Path target) {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (!WINDOWS) {
+                try (FileChannel directory = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                    directory.force(true);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not move " + source + " to " + target, e);
+        }
+    }
+
+    public static List<Table> read(Path file) {
+        return read(file, Integer.MAX_VALUE);
+    }
+
+    public static List<Table> read(Path file, int maxTables) {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file), BUFFER)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(input, BUFFER));
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a columnar file (or unsupported version)");
+            }
+            int count = (int) Math.min(readVarLong(in), maxTables);
+            List<Table> tables = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tables.add(readTable(in));
+            }
+            return tables;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, Table table) throws IOException {
+        writeString(out, table.name());
+        writeVarLong(out, table.columns().size());
+        for (Column column : table.columns()) {
+            writeString(out, column.name());
+            out.writeByte(column.type().ordinal());
+        }
+        writeVarLong(out, table.rows().size());
+        for (int i = 0; i < table.columns().size(); i++) {
+            writeColumn(out, table.columns().get(i).type(), table.rows(), i);
+        }
+    }
+
+    private static Table readTable(DataInputStream in) throws IOException {
+        String name = readString(in);
+        int columnCount = (int) readVarLong(in);
+        List<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(new Column(readString(in), Type.values()[in.readUnsignedByte()]));
+        }
+        int rowCount = (int) readVarLong(in);
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[columnCount]);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            readColumn(in, columns.get(i).type(), rows, i);
+        }
+        return new Table(name, columns, rows);
+    }
+
+    private static void writeColumn(DataOutputStream out, Type type, List<Object[]> rows, int index) throws IOException {
+        BitSet nulls = new BitSet(rows.size());
+        List<Object> values = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object value = rows.get(i)[index];
+            if (value == null) {
+                nulls.set(i);
+            } else {
+                values.add(value);
+            }
+        }
+        byte[] nullBits = nulls.toByteArray();
+        writeVarLong(out, nullBits.length);
+        out.write(nullBits);
+
+        switch (type) {
+            case LONG, TIMESTAMP -> {
+                long previous = 0;
+                for (Object value : values) {
+                    long current = type == Type.LONG ? ((Number) value).longValue() : micros((LocalDateTime) value);
+                    writeVarLong(out, zigzag(current - previous));
+                    previous = current;
+                }
+            }
+            case DECIMAL -> {
+                int scale = 0;
+                for (Object value : values) {
+                    scale = Math.max(scale, ((BigDecimal) value).scale());
+                }
+                out.writeByte(scale);
+                for (Object value : values) {
+                    writeVarLong(out, zigzag(((BigDecimal) value).setScale(scale).unscaledValue().longValueExact()));
+                }
+            }
+            case TEXT -> {
+                Map<String, Integer> dictionary = new HashMap<>();
+                List<String> entries = new ArrayList<>();
+                for (Object value : values) {
+                    if (dictionary.putIfAbsent((String) value, entries.size()) == null) {
+                        entries.add((String) value);
+                        if (entries.size() > MAX_DICTIONARY) {
+                            break;
+                        }
+                    }
+                }
+                // A dictionary only pays off when values repeat
+                boolean dictionaryEncoded = entries.size() <= MAX_DICTIONARY && entries.size() * 2 <= values.size();
+                out.writeBoolean(dictionaryEncoded);
+                if (dictionaryEncoded) {
+                    writeVarLong(out, entries.size());
+                    for (String entry : entries) {
+                        writeString(out, entry);
+                    }
+                    for (Object value : values) {
+                        writeVarLong(out, dictionary.get(value));
+                    }
+                } else {
+                    for (Object value : values) {
+                        writeString(out, (String) value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readColumn(DataInputStream in, Type type, List<Object[]> rows, int index) throws IOException {
+        byte[] nullBits = new byte[(int) readVarLong(in)];
+        in.readFully(nullBits);
+        BitSet nulls = BitSet.valueOf(nullBits);
+
+        switch (type) {
+            case LONG, TIMESTAMP -> {
+                long previous = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    if (!nulls.get(i)) {
+                        previous += unzigzag(readVarLong(in));
+                        rows.get(i)[index] = type == Type.LONG ? Long.valueOf(previous) : fromMicros(previous);
+                    }
+                }
+            }
+            case DECIMAL -> {
+                int scale = in.readUnsignedByte();
+                for (int i = 0; i < rows.size(); i++) {
+                    if (!nulls.get(i)) {
+                        rows.get(i)[index] = new BigDecimal(BigInteger.valueOf(unzigzag(readVarLong(in))), scale);
+                    }
+                }
+            }
+            case TEXT -> {
+                boolean dictionaryEncoded = in.readBoolean();
+                List<String> entries = new ArrayList<>();
+                if (dictionaryEncoded) {
+                    int size = (int) readVarLong(in);
+                    for (int i = 0; i < size; i++) {
+                        entries.add(readString(in));
+                    }
+                }
+                for (int i = 0; i < rows.size(); i++) {
+                    if (!nulls.get(i)) {
+                        rows.get(i)[index] = dictionaryEncoded ? entries.get((int) readVarLong(in)) : readString(in);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long micros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.alg.algexpress.infra.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands out connections only after the {@link JdbcGate} grants a permit; the permit goes back
+ * when the connection is closed (returned to the pool).
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+    private final JdbcGate gate;
+
+    public GatedDataSource(DataSource targetDataSource, JdbcGate gate) {
+        super(targetDataSource);
+        this.gate = gate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        JdbcGate.WorkloadClass permit = gate.acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(), permit);
+        } catch (SQLException | RuntimeException e) {
+            gate.release(permit);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        JdbcGate.WorkloadClass permit = gate.acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password), permit);
+        } catch (SQLException | RuntimeException e) {
+            gate.release(permit);
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection, JdbcGate.WorkloadClass permit) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                gate.release(permit);
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
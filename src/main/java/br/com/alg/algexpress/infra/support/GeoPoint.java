@@ -0,0 +1,37 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.math.BigDecimal;
+
+/**
+ * A WGS84 coordinate in decimal degrees.
+ */
+public record GeoPoint(double latitude, double longitude) {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public GeoPoint {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinate: " + latitude + ", " + longitude);
+        }
+    }
+
+    /**
+     * @return the point, or {@code null} when either value is missing (addresses that were
+     * never geocoded)
+     */
+    public static GeoPoint of(BigDecimal latitude, BigDecimal longitude) {
+        return latitude != null && longitude != null ? new GeoPoint(latitude.doubleValue(), longitude.doubleValue()) : null;
+    }
+
+    /**
+     * Great-circle (haversine) distance.
+     */
+    public double distanceKm(GeoPoint other) {
+        double dLat = Math.toRadians(other.latitude - latitude);
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(other.latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
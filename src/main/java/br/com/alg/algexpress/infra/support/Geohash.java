@@ -0,0 +1,142 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash cells: a base-32 string that interleaves longitude and latitude bisections, so every
+ * prefix of a point's hash is a larger cell containing it and points in one cell share a key
+ * range in an ordinary B-tree index.
+ */
+public final class Geohash {
+
+    /** Precision stored on addresses, cells of about 4.8 x 4.8 m. */
+    public static final int ADDRESS_PRECISION = 9;
+
+    private static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int MAX_PRECISION = 12;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private Geohash() {
+    }
+
+    public static String encode(GeoPoint point, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double latMin = -90, latMax = 90, lonMin = -180, lonMax = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bits = 0, bit = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (lonMin + lonMax) / 2;
+                if (point.longitude() >= mid) {
+                    bits = bits << 1 | 1;
+                    lonMin = mid;
+                } else {
+                    bits <<= 1;
+                    lonMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (point.latitude() >= mid) {
+                    bits = bits << 1 | 1;
+                    latMin = mid;
+                } else {
+                    bits <<= 1;
+                    latMax = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(ALPHABET.charAt(bits));
+                bits = 0;
+                bit = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Centre of the cell.
+     */
+    public static GeoPoint decode(String hash) {
+        double latMin = -90, latMax = 90, lonMin = -180, lonMax = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int bits = ALPHABET.indexOf(hash.charAt(i));
+            if (bits < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int shift = 4; shift >= 0; shift--) {
+                boolean set = (bits >> shift & 1) == 1;
+                if (even) {
+                    double mid = (lonMin + lonMax) / 2;
+                    if (set) {
+                        lonMin = mid;
+                    } else {
+                        lonMax = mid;
+                    }
+                } else {
+                    double mid = (latMin + latMax) / 2;
+                    if (set) {
+                        latMin = mid;
+                    } else {
+                        latMax = mid;
+                    }
+                }
+                even = !even;
+            }
+        }
+        return new GeoPoint((latMin + latMax) / 2, (lonMin + lonMax) / 2);
+    }
+
+    public static double cellHeightDegrees(int precision) {
+        return 180 / Math.pow(2, 5 * precision / 2);
+    }
+
+    public static double cellWidthDegrees(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    /**
+     * Cells that together contain every point within {@code radiusKm} of {@code center}: the
+     * cell holding the centre and its eight neighbours, at the finest precision whose cells are
+     * at least {@code radiusKm} on each side. Nine key ranges to scan, whatever the radius.
+     */
+    public static Set<String> covering(GeoPoint center, double radiusKm) {
+        double latitude = Math.min(89, Math.abs(center.latitude()) + radiusKm / KM_PER_DEGREE);
+        double kmPerDegreeLongitude = KM_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        int precision = 1;
+        while (precision < MAX_PRECISION
+                && cellHeightDegrees(precision + 1) * KM_PER_DEGREE >= radiusKm
+                && cellWidthDegrees(precision + 1) * kmPerDegreeLongitude >= radiusKm) {
+            precision++;
+        }
+
+        double height = cellHeightDegrees(precision);
+        double width = cellWidthDegrees(precision);
+        GeoPoint middle = decode(encode(center, precision));
+        Set<String> cells = new LinkedHashSet<>(9);
+        for (int dy = -1; dy <= 1; dy++) {
+            double lat = middle.latitude() + dy * height;
+            if (lat < -90 || lat > 90) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                double lon = middle.longitude() + dx * width;
+                lon = lon > 180 ? lon - 360 : lon < -180 ? lon + 360 : lon;
+                cells.add(encode(new GeoPoint(lat, lon), precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Exclusive upper bound of the key range holding every hash that starts with {@code prefix}.
+     */
+    public static String upperBound(String prefix) {
+        return prefix + '~';
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fair per-workload quotas in front of the connection pool. Each request is tagged with a
+ * {@link WorkloadClass} and may only hold as many connections as its class allows, so a burst
+ * of reports or order writes queues here instead of starving every other request of the pool.
+ * Quotas may add up to more than the pool size; they bound each class, not the total.
+ */
+public class JdbcGate {
+
+    public enum WorkloadClass {
+        READ, WRITE, REPORT
+    }
+
+    // Not inheritable: pooled threads would keep the class of whichever request created them.
+    // Work handed to another thread carries the class explicitly, see propagate
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    private final Map<WorkloadClass, Lane> lanes = new EnumMap<>(WorkloadClass.class);
+    private final long acquireTimeoutNanos;
+
+    public JdbcGate(Map<WorkloadClass, Integer> quotas, Duration acquireTimeout) {
+        for (WorkloadClass workloadClass : WorkloadClass.values()) {
+            lanes.put(workloadClass, new Lane(quotas.get(workloadClass)));
+        }
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    /**
+     * Tags the calling thread.
+     *
+     * @return the class bound before, to be handed back to {@link #restore}
+     */
+    public static WorkloadClass bind(WorkloadClass workloadClass) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workloadClass);
+        return previous;
+    }
+
+    public static void restore(WorkloadClass previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task so that it runs under the class of the thread submitting it; usable as a
+     * {@code TaskDecorator}.
+     */
+    public static Runnable propagate(Runnable task) {
+        WorkloadClass workloadClass = CURRENT.get();
+        return () -> {
+            WorkloadClass previous = CURRENT.get();
+            restore(workloadClass);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        WorkloadClass workloadClass = CURRENT.get();
+        return () -> {
+            WorkloadClass previous = CURRENT.get();
+            restore(workloadClass);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static WorkloadClass current() {
+        WorkloadClass workloadClass = CURRENT.get();
+        return workloadClass != null ? workloadClass : WorkloadClass.READ;
+    }
+
+    /**
+     * Takes a permit for the calling thread's workload class.
+     *
+     * @return the class the permit was taken from, to be handed back to {@link #release}
+     */
+    public WorkloadClass acquire() throws SQLTransientConnectionException {
+        WorkloadClass workloadClass = current();
+        Lane lane = lanes.get(workloadClass);
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lane.permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a " + workloadClass + " connection");
+        }
+        long waited = System.nanoTime() - start;
+        lane.waitNanos.add(waited);
+        lane.maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            lane.timeouts.increment();
+            throw new SQLTransientConnectionException("Timed out waiting for a " + workloadClass + " connection");
+        }
+        lane.acquired.increment();
+        return workloadClass;
+    }
+
+    public void release(WorkloadClass workloadClass) {
+        lanes.get(workloadClass).permits.release();
+    }
+
+    public List<LaneStats> stats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.size());
+        lanes.forEach((workloadClass, lane) -> {
+            long acquired = lane.acquired.sum();
+            long attempts = acquired + lane.timeouts.sum();
+            stats.add(new LaneStats(workloadClass, lane.quota,
+                    lane.quota - lane.permits.availablePermits(),
+                    lane.permits.getQueueLength(),
+                    acquired,
+                    lane.timeouts.sum(),
+                    attempts > 0 ? lane.waitNanos.sum() / attempts / 1_000_000.0 : 0,
+                    lane.maxWaitNanos.get() / 1_000_000.0));
+        });
+        return stats;
+    }
+
+    public record LaneStats(WorkloadClass workloadClass, int quota, int inUse, int waiting,
+                            long acquired, long timeouts, double averageWaitMillis, double maxWaitMillis) {
+    }
+
+    private static final class Lane {
+
+        private final int quota;
+        private final Semaphore permits;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private Lane(int quota) {
+            this.quota = quota;
+            this.permits = new Semaphore(quota, true);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort key and id of the last row returned.
+ * Clients only see the opaque {@link #encode()} form. A missing cursor decodes to a sentinel
+ * that sorts before every row, so the first page runs the same query as any later page.
+ */
+public record KeysetCursor(LocalDateTime at, long id) {
+
+    private static final LocalDateTime LOWEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HIGHEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    public static KeysetCursor start(boolean descending) {
+        return descending ? new KeysetCursor(HIGHEST, Long.MAX_VALUE) : new KeysetCursor(LOWEST, 0L);
+    }
+
+    public static KeysetCursor afterId(long id) {
+        return new KeysetCursor(LOWEST, id);
+    }
+
+    public static KeysetCursor decode(String token, boolean descending) {
+        if (token == null || token.isBlank()) {
+            return start(descending);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.alg.algexpress.infra.support;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as pinned to the primary database until a given instant, so a
+ * client that has just written reads its own writes instead of a lagging replica.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PINNED_UNTIL = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinUntil(long epochMillis) {
+        PINNED_UNTIL.set(epochMillis);
+    }
+
+    public static void clear() {
+        PINNED_UNTIL.remove();
+    }
+
+    /**
+     * Runs {@code read} on the primary whatever the thread's window, for reads whose result is
+     * kept and served as current (e.g. the menu catalog).
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Long previous = PINNED_UNTIL.get();
+        PINNED_UNTIL.set(Long.MAX_VALUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous != null) {
+                PINNED_UNTIL.set(previous);
+            } else {
+                PINNED_UNTIL.remove();
+            }
+        }
+    }
+
+    public static boolean isPinned() {
+        Long pinnedUntil = PINNED_UNTIL.get();
+        return pinnedUntil != null && pinnedUntil > System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.alg.algexpress.infra.support;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * primary. Reads stay on the primary while the thread is pinned by {@link ReadYourWrites} or
+ * while the replica is considered down (failed a connection or the periodic health check,
+ * including a replication lag check when {@code maxLag} is positive).
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the read-only flag of a transaction
+ * is only known once it has begun, which is after the transaction manager asks for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final String REPLICATION_LAG_QUERY =
+            "SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+
+    private volatile boolean replicaHealthy = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaHealthy = false;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                replicaHealthy = false;
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${algexpress.datasource.replica.health-check-interval:5s}")
+    public void checkReplica() {
+        try (Connection connection = replica.getConnection()) {
+            replicaHealthy = connection.isValid(2) && withinLag(connection);
+        } catch (SQLException e) {
+            replicaHealthy = false;
+        }
+    }
+
+    private boolean useReplica() {
+        return replicaHealthy
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPinned();
+    }
+
+    private boolean withinLag(Connection connection) throws SQLException {
+        if (maxLag.isZero() || maxLag.isNegative()) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)) {
+            return resultSet.next() && resultSet.getDouble(1) * 1000 <= maxLag.toMillis();
+        }
+    }
+}
@@ -2,10 +2,13 @@ package br.com.alg.algexpress.infra.web;
 
 import br.com.alg.algexpress.domain.customer.Customer;
 import br.com.alg.algexpress.domain.valueObjects.Address;
+import br.com.alg.algexpress.dto.common.CursorPage;
 import br.com.alg.algexpress.dto.customer.CustomerDTO;
 import br.com.alg.algexpress.dto.customer.CustomerSummaryDTO;
 import br.com.alg.algexpress.dto.customer.AddressDTO;
+import br.com.alg.algexpress.dto.customer.NearbyAddressDTO;
 import br.com.alg.algexpress.infra.service.CustomerService;
+import br.com.alg.algexpress.infra.support.GeoPoint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -40,12 +43,15 @@ public class CustomerController {
     @Operation(summary = "Listar clientes ativos", 
                description = "Retorna lista resumida de todos os clientes com status ativo (sem endereços)")
     @ApiResponse(responseCode = "200", description = "Lista resumida de clientes ativos")
-    public ResponseEntity<List<CustomerSummaryDTO>> getAllCustomers() {
-        List<Customer> customers = customerService.findActiveCustomers();
-        List<CustomerSummaryDTO> response = customers.stream()
-                .map(CustomerSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CustomerSummaryDTO>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Customer> page = customerService.findPageByStatus(Customer.CustomerStatus.ACTIVE, cursor, size);
+            return ResponseEntity.ok(page.map(CustomerSummaryDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -78,35 +84,46 @@ public class CustomerController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersByStatus(@PathVariable Customer.CustomerStatus status) {
-        List<Customer> customers = customerService.findByStatus(status);
-        List<CustomerSummaryDTO> response = customers.stream()
-                .map(CustomerSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CustomerSummaryDTO>> getCustomersByStatus(
+            @PathVariable Customer.CustomerStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Customer> page = customerService.findPageByStatus(status, cursor, size);
+            return ResponseEntity.ok(page.map(CustomerSummaryDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/search")
     @Operation(summary = "Buscar clientes por nome", 
                description = "Busca clientes que contenham o nome especificado")
     @ApiResponse(responseCode = "200", description = "Lista de clientes encontrados")
-    public ResponseEntity<List<CustomerSummaryDTO>> searchCustomersByName(
+    public ResponseEntity<CursorPage<CustomerSummaryDTO>> searchCustomersByName(
             @Parameter(description = "Nome ou parte do nome do cliente", required = true) 
-            @RequestParam String name) {
-        List<Customer> customers = customerService.findByNameContaining(name);
-        List<CustomerSummaryDTO> response = customers.stream()
-                .map(CustomerSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Customer> page = customerService.findPageByNameContaining(name, cursor, size);
+            return ResponseEntity.ok(page.map(CustomerSummaryDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/loyalty-points")
-    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersByLoyaltyPoints(@RequestParam Integer minPoints) {
-        List<Customer> customers = customerService.findByLoyaltyPointsGreaterThan(minPoints);
-        List<CustomerSummaryDTO> response = customers.stream()
-                .map(CustomerSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CustomerSummaryDTO>> getCustomersByLoyaltyPoints(
+            @RequestParam Integer minPoints,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Customer> page = customerService.findPageByLoyaltyPointsGreaterThan(minPoints, cursor, size);
+            return ResponseEntity.ok(page.map(CustomerSummaryDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/top-loyalty")
@@ -119,19 +136,22 @@ public class CustomerController {
     }
 
     @GetMapping("/created-between")
-    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersCreatedBetween(
+    public ResponseEntity<CursorPage<CustomerSummaryDTO>> getCustomersCreatedBetween(
             @RequestParam LocalDateTime startDate,
-            @RequestParam LocalDateTime endDate) {
-        List<Customer> customers = customerService.findCustomersCreatedBetween(startDate, endDate);
-        List<CustomerSummaryDTO> response = customers.stream()
-                .map(CustomerSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Customer> page = customerService.findPageCreatedBetween(startDate, endDate, cursor, size);
+            return ResponseEntity.ok(page.map(CustomerSummaryDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/most-orders")
-    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersWithMostOrders() {
-        List<Customer> customers = customerService.findCustomersWithMostOrders();
+    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersWithMostOrders(@RequestParam(defaultValue = "10") int limit) {
+        List<Customer> customers = customerService.findCustomersWithMostOrders(limit);
         List<CustomerSummaryDTO> response = customers.stream()
                 .map(CustomerSummaryDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -139,8 +159,8 @@ public class CustomerController {
     }
 
     @GetMapping("/highest-spending")
-    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersWithHighestSpending() {
-        List<Customer> customers = customerService.findCustomersWithHighestSpending();
+    public ResponseEntity<List<CustomerSummaryDTO>> getCustomersWithHighestSpending(@RequestParam(defaultValue = "10") int limit) {
+        List<Customer> customers = customerService.findCustomersWithHighestSpending(limit);
         List<CustomerSummaryDTO> response = customers.stream()
                 .map(CustomerSummaryDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -235,6 +255,13 @@ public class CustomerController {
         }
     }
 
+    @GetMapping("/{id}/loyalty-points")
+    public ResponseEntity<Integer> getLoyaltyBalance(@PathVariable Long id) {
+        return customerService.getLoyaltyBalance(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PatchMapping("/{id}/loyalty-points/add")
     public ResponseEntity<CustomerDTO> addLoyaltyPoints(@PathVariable Long id, @RequestParam Integer points) {
         try {
@@ -323,6 +350,32 @@ public class CustomerController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/enderecos/proximos")
+    @Operation(summary = "Buscar endereços próximos", 
+               description = "Retorna os endereços geocodificados dentro do raio informado, do mais próximo ao mais distante")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Endereços dentro do raio"),
+        @ApiResponse(responseCode = "400", description = "Coordenadas ou raio inválidos")
+    })
+    public ResponseEntity<List<NearbyAddressDTO>> findAddressesNear(
+            @Parameter(description = "Latitude do centro", required = true) 
+            @RequestParam double latitude,
+            @Parameter(description = "Longitude do centro", required = true) 
+            @RequestParam double longitude,
+            @Parameter(description = "Raio em km (máximo 50)") 
+            @RequestParam(defaultValue = "2") double raioKm,
+            @Parameter(description = "Quantidade máxima de endereços (máximo 1000)") 
+            @RequestParam(defaultValue = "100") int limite) {
+        if (!(raioKm > 0 && raioKm <= 50) || limite < 1 || limite > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(customerService.findAddressesNear(new GeoPoint(latitude, longitude), raioKm, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @PostMapping("/{customerId}/enderecos")
     @Operation(summary = "Adicionar endereço ao cliente", 
                description = "Cadastra um novo endereço para o cliente")
@@ -339,6 +392,8 @@ public class CustomerController {
         try {
             Address address = customerService.addAddressToCustomer(customerId, addressDTO);
             return ResponseEntity.status(HttpStatus.CREATED).body(AddressDTO.fromEntity(address));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -352,6 +407,8 @@ public class CustomerController {
         try {
             Address address = customerService.updateCustomerAddress(customerId, addressId, addressDTO);
             return ResponseEntity.ok(AddressDTO.fromEntity(address));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
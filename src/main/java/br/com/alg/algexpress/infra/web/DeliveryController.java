@@ -2,11 +2,14 @@ package br.com.alg.algexpress.infra.web;
 
 import br.com.alg.algexpress.domain.delivery.Delivery;
 import br.com.alg.algexpress.domain.delivery.DeliveryPerson;
+import br.com.alg.algexpress.dto.common.CursorPage;
 import br.com.alg.algexpress.dto.delivery.DeliveryDTO;
 import br.com.alg.algexpress.dto.delivery.DeliveryPersonDTO;
 import br.com.alg.algexpress.infra.service.DeliveryService;
 import br.com.alg.algexpress.infra.service.DeliveryPersonService;
+import br.com.alg.algexpress.infra.support.GeoPoint;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -65,16 +68,46 @@ public class DeliveryController {
         try {
             Delivery delivery = deliveryService.assignDeliveryPerson(id, deliveryPersonId);
             return ResponseEntity.ok(DeliveryDTO.fromEntity(delivery));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PutMapping("/entregadores/{id}/posicao")
+    public ResponseEntity<Void> reportDeliveryPersonPosition(@PathVariable Long id, @RequestParam double latitude,
+                                                             @RequestParam double longitude) {
+        GeoPoint position;
+        try {
+            position = new GeoPoint(latitude, longitude);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            deliveryPersonService.reportPosition(id, position);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/status/bulk")
+    public ResponseEntity<List<Long>> updateDeliveryStatuses(@RequestParam Delivery.DeliveryStatus status,
+                                                             @RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > CursorPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(deliveryService.transitionDeliveries(ids, status));
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<DeliveryDTO> updateDeliveryStatus(@PathVariable Long id, @RequestParam Delivery.DeliveryStatus status) {
         try {
             Delivery delivery = deliveryService.updateDeliveryStatus(id, status);
             return ResponseEntity.ok(DeliveryDTO.fromEntity(delivery));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,43 @@
+package br.com.alg.algexpress.infra.web;
+
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tags each request with the {@link JdbcGate} workload class whose quota its database work
+ * counts against.
+ */
+@Component
+@ConditionalOnProperty(prefix = "algexpress.jdbc-gate", name = "enabled", havingValue = "true")
+public class JdbcGateFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        JdbcGate.bind(classify(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JdbcGate.clear();
+        }
+    }
+
+    private static JdbcGate.WorkloadClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/v1/relatorios") || path.contains("/statistics") || path.endsWith("/export")) {
+            return JdbcGate.WorkloadClass.REPORT;
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> JdbcGate.WorkloadClass.READ;
+            default -> JdbcGate.WorkloadClass.WRITE;
+        };
+    }
+}
@@ -5,14 +5,20 @@ import br.com.alg.algexpress.domain.menu.Pizza;
 import br.com.alg.algexpress.dto.menu.IngredientDTO;
 import br.com.alg.algexpress.dto.menu.PizzaDTO;
 import br.com.alg.algexpress.dto.menu.PizzaSummaryDTO;
+import br.com.alg.algexpress.dto.report.ComposedReportDTO;
+import br.com.alg.algexpress.infra.service.MenuSearchIndex;
 import br.com.alg.algexpress.infra.service.MenuService;
+import br.com.alg.algexpress.infra.service.ReportComposer;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,20 +29,24 @@ import java.util.stream.Collectors;
 public class MenuController {
 
     private final MenuService menuService;
+    private final ReportComposer reportComposer;
+    private final MenuResponseCache menuResponseCache;
 
-    public MenuController(MenuService menuService) {
+    public MenuController(MenuService menuService, ReportComposer reportComposer, MenuResponseCache menuResponseCache) {
         this.menuService = menuService;
+        this.reportComposer = reportComposer;
+        this.menuResponseCache = menuResponseCache;
     }
 
     // === PIZZA ENDPOINTS ===
 
+    // The customer-facing listings below are answered from MenuResponseCache: pre-serialized,
+    // gzip-compressed bodies per menu version, with ETag/Last-Modified revalidation. Bodies come
+    // from the in-memory catalog, never from a query that could hit a lagging replica.
+
     @GetMapping("/pizzas")
-    public ResponseEntity<List<PizzaSummaryDTO>> getAllPizzas() {
-        List<Pizza> pizzas = menuService.findAvailablePizzas();
-        List<PizzaSummaryDTO> response = pizzas.stream()
-                .map(PizzaSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getAllPizzas(@RequestHeader HttpHeaders headers) {
+        return menuResponseCache.respond("pizzas", headers, menuService::listAvailablePizzas);
     }
 
     @GetMapping("/pizzas/{id}")
@@ -47,12 +57,10 @@ public class MenuController {
     }
 
     @GetMapping("/pizzas/category/{category}")
-    public ResponseEntity<List<PizzaSummaryDTO>> getPizzasByCategory(@PathVariable Pizza.PizzaCategory category) {
-        List<Pizza> pizzas = menuService.findPizzasByCategory(category);
-        List<PizzaSummaryDTO> response = pizzas.stream()
-                .map(PizzaSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getPizzasByCategory(@PathVariable Pizza.PizzaCategory category,
+                                                      @RequestHeader HttpHeaders headers) {
+        return menuResponseCache.respond("pizzas/category/" + category, headers,
+                () -> menuService.listPizzasByCategory(category));
     }
 
     @GetMapping("/pizzas/search")
@@ -182,12 +190,10 @@ public class MenuController {
     // === INGREDIENT ENDPOINTS ===
 
     @GetMapping("/ingredientes")
-    public ResponseEntity<List<IngredientDTO>> getAllIngredients() {
-        List<Ingredient> ingredients = menuService.findAvailableIngredients();
-        List<IngredientDTO> response = ingredients.stream()
+    public ResponseEntity<byte[]> getAllIngredients(@RequestHeader HttpHeaders headers) {
+        return menuResponseCache.respond("ingredientes", headers, () -> menuService.findAvailableIngredients().stream()
                 .map(IngredientDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+                .toList());
     }
 
     @GetMapping("/ingredientes/{id}")
@@ -208,11 +214,7 @@ public class MenuController {
 
     @GetMapping("/ingredientes/search")
     public ResponseEntity<List<IngredientDTO>> searchIngredients(@RequestParam String name) {
-        List<Ingredient> ingredients = menuService.findIngredientsByNameContaining(name);
-        List<IngredientDTO> response = ingredients.stream()
-                .map(IngredientDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(menuService.searchIngredients(name));
     }
 
     @GetMapping("/ingredientes/vegetarian")
@@ -307,18 +309,21 @@ public class MenuController {
     // === MENU SEARCH AND UTILITIES ===
 
     @GetMapping("/search")
-    public ResponseEntity<List<PizzaSummaryDTO>> searchMenu(
+    public ResponseEntity<byte[]> searchMenu(
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) Pizza.PizzaCategory category,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Pizza.PizzaSize size,
-            @RequestParam(defaultValue = "false") boolean vegetarianOnly) {
-        
-        List<Pizza> pizzas = menuService.searchMenu(searchTerm, category, maxPrice, size, vegetarianOnly);
-        List<PizzaSummaryDTO> response = pizzas.stream()
-                .map(PizzaSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "false") boolean vegetarianOnly,
+            @RequestHeader HttpHeaders headers) {
+
+        // The index folds case and accents, so terms that search alike share one entry
+        String term = URLEncoder.encode(String.join(" ", MenuSearchIndex.terms(searchTerm)), StandardCharsets.UTF_8);
+        String key = "search?searchTerm=" + term + "&category=" + category + "&maxPrice="
+                + (maxPrice != null ? maxPrice.stripTrailingZeros().toPlainString() : null)
+                + "&size=" + size + "&vegetarianOnly=" + vegetarianOnly;
+        return menuResponseCache.respond(key, headers,
+                () -> menuService.searchMenu(searchTerm, category, maxPrice, size, vegetarianOnly));
     }
 
     @PostMapping("/calculate-item-price")
@@ -361,4 +366,13 @@ public class MenuController {
         List<Object[]> statistics = menuService.getMenuStatistics();
         return ResponseEntity.ok(statistics);
     }
+
+    @GetMapping("/statistics/summary")
+    public ResponseEntity<ComposedReportDTO> getStatisticsSummary() {
+        return ResponseEntity.ok(reportComposer.compose()
+                .add("availablePizzas", menuService::countAvailablePizzas)
+                .add("availableIngredients", menuService::countAvailableIngredients)
+                .add("menuStatistics", menuService::getMenuStatistics)
+                .execute());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package br.com.alg.algexpress.infra.web;
+
+import br.com.alg.algexpress.infra.service.MenuCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized, pre-compressed bodies of the public menu endpoints, kept per menu version and
+ * request. The version is {@link MenuCatalog}'s snapshot version, which moves after every
+ * committed menu write (local or notified by another instance), so a new version simply starts
+ * an empty generation and the previous one is dropped.
+ * <p>
+ * ETags are derived from the body itself rather than the version, so every instance hands out
+ * the same tag for the same menu and a client revalidating against another node still gets a
+ * 304. Bodies must be built from the catalog ({@code MenuSearchIndex}), never from a database
+ * query: the index moves before the version does, so a body is never older than the version it
+ * is stored under, whereas a query may run on a replica that has not seen the write yet.
+ */
+@Component
+public class MenuResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final MenuCatalog menuCatalog;
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+    private final int maxEntries;
+
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public MenuResponseCache(@Value("${algexpress.menu.http-cache.max-age:30s}") Duration maxAge,
+                             @Value("${algexpress.menu.http-cache.max-entries:500}") int maxEntries,
+                             MenuCatalog menuCatalog, ObjectMapper objectMapper) {
+        this.menuCatalog = menuCatalog;
+        this.objectMapper = objectMapper;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+        this.maxEntries = maxEntries;
+    }
+
+    public record Stats(long version, int entries, long hits, long misses, long notModified) {
+    }
+
+    public Stats stats() {
+        Generation current = generation.get();
+        return new Stats(current != null ? current.version() : 0, current != null ? current.entries().size() : 0,
+                hits.get(), misses.get(), notModified.get());
+    }
+
+    /**
+     * Answers a menu GET from the cache, building and caching the body with {@code body} on a
+     * miss. {@code key} must identify the request completely (path and every parameter).
+     */
+    public ResponseEntity<byte[]> respond(String key, HttpHeaders requestHeaders, Supplier<?> body) {
+        Generation current = generation();
+        Entry entry = current.entries().get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            entry = Entry.of(serialize(body.get()));
+            if (current.entries().size() < maxEntries) {
+                Entry raced = current.entries().putIfAbsent(key, entry);
+                if (raced != null) {
+                    entry = raced;
+                }
+            }
+        }
+
+        boolean gzip = acceptsGzip(requestHeaders);
+        boolean unchanged = notModified(requestHeaders, entry, current.modifiedAt());
+        if (unchanged) {
+            notModified.incrementAndGet();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(unchanged ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(gzip ? entry.gzipEtag() : entry.etag())
+                .lastModified(current.modifiedAt())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (unchanged) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(gzip ? entry.gzip() : entry.json());
+    }
+
+    private Generation generation() {
+        long version = menuCatalog.current().version();
+        while (true) {
+            Generation current = generation.get();
+            if (current != null && current.version() >= version) {
+                return current;
+            }
+            Generation next = new Generation(version, Instant.now().truncatedTo(ChronoUnit.SECONDS),
+                    new ConcurrentHashMap<>());
+            if (generation.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private boolean notModified(HttpHeaders requestHeaders, Entry entry, Instant modifiedAt) {
+        // Either representation's tag identifies the same content
+        String ifNoneMatch = requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(entry.etag()) || candidate.equals(entry.gzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && !modifiedAt.isAfter(Instant.ofEpochMilli(ifModifiedSince));
+    }
+
+    private static boolean acceptsGzip(HttpHeaders requestHeaders) {
+        for (String value : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase(GZIP)
+                        && !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize menu response", e);
+        }
+    }
+
+    private record Generation(long version, Instant modifiedAt, Map<String, Entry> entries) {
+    }
+
+    private record Entry(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+        static Entry of(byte[] json) {
+            String hash = hash(json);
+            return new Entry(json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gz\"");
+        }
+
+        private static String hash(byte[] json) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+                return HexFormat.of().formatHex(digest, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.alg.algexpress.infra.web;
+
+import br.com.alg.algexpress.infra.service.DeliveryDispatcher;
+import br.com.alg.algexpress.infra.service.DeliveryZones;
+import br.com.alg.algexpress.infra.service.MenuCacheInvalidator;
+import br.com.alg.algexpress.infra.service.OrderArchiver;
+import br.com.alg.algexpress.infra.service.OrderPartitionMaintenance;
+import br.com.alg.algexpress.infra.service.OutboxRelay;
+import br.com.alg.algexpress.infra.support.JdbcGate;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/monitoramento")
+@Tag(name = "Monitoramento", description = "API para métricas operacionais")
+public class MonitoringController {
+
+    private final ObjectProvider<JdbcGate> jdbcGate;
+    private final ObjectProvider<OutboxRelay> outboxRelay;
+    private final MenuCacheInvalidator menuCacheInvalidator;
+    private final MenuResponseCache menuResponseCache;
+    private final ObjectProvider<OrderPartitionMaintenance> partitionMaintenance;
+    private final ObjectProvider<OrderArchiver> orderArchiver;
+    private final ObjectProvider<DeliveryDispatcher> deliveryDispatcher;
+    private final DeliveryZones deliveryZones;
+
+    public MonitoringController(ObjectProvider<JdbcGate> jdbcGate, ObjectProvider<OutboxRelay> outboxRelay,
+                                MenuCacheInvalidator menuCacheInvalidator, MenuResponseCache menuResponseCache,
+                                ObjectProvider<OrderPartitionMaintenance> partitionMaintenance,
+                                ObjectProvider<OrderArchiver> orderArchiver,
+                                ObjectProvider<DeliveryDispatcher> deliveryDispatcher, DeliveryZones deliveryZones) {
+        this.jdbcGate = jdbcGate;
+        this.outboxRelay = outboxRelay;
+        this.menuCacheInvalidator = menuCacheInvalidator;
+        this.menuResponseCache = menuResponseCache;
+        this.partitionMaintenance = partitionMaintenance;
+        this.orderArchiver = orderArchiver;
+        this.deliveryDispatcher = deliveryDispatcher;
+        this.deliveryZones = deliveryZones;
+    }
+
+    @GetMapping("/jdbc-gate")
+    public ResponseEntity<List<JdbcGate.LaneStats>> getJdbcGateStats() {
+        JdbcGate gate = jdbcGate.getIfAvailable();
+        if (gate == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(gate.stats());
+    }
+
+    @GetMapping("/outbox")
+    public ResponseEntity<OutboxRelay.Stats> getOutboxStats() {
+        OutboxRelay relay = outboxRelay.getIfAvailable();
+        if (relay == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(relay.stats());
+    }
+
+    @GetMapping("/menu-cache")
+    public ResponseEntity<MenuCacheInvalidator.Stats> getMenuCacheStats() {
+        return ResponseEntity.ok(menuCacheInvalidator.stats());
+    }
+
+    @GetMapping("/menu-responses")
+    public ResponseEntity<MenuResponseCache.Stats> getMenuResponseStats() {
+        return ResponseEntity.ok(menuResponseCache.stats());
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<OrderPartitionMaintenance.Stats> getPartitionStats() {
+        OrderPartitionMaintenance maintenance = partitionMaintenance.getIfAvailable();
+        if (maintenance == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(maintenance.stats());
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<OrderArchiver.Stats> getArchiveStats() {
+        OrderArchiver archiver = orderArchiver.getIfAvailable();
+        if (archiver == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(archiver.stats());
+    }
+
+    @GetMapping("/dispatch")
+    public ResponseEntity<DeliveryDispatcher.Stats> getDispatchStats() {
+        DeliveryDispatcher dispatcher = deliveryDispatcher.getIfAvailable();
+        if (dispatcher == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(dispatcher.stats());
+    }
+
+    @GetMapping("/delivery-zones")
+    public ResponseEntity<DeliveryZones.Stats> getDeliveryZoneStats() {
+        return ResponseEntity.ok(deliveryZones.stats());
+    }
+}
@@ -1,28 +1,32 @@
 package br.com.alg.algexpress.infra.web;
 
-import br.com.alg.algexpress.domain.valueObjects.Address;
-import br.com.alg.algexpress.domain.customer.Customer;
-import br.com.alg.algexpress.domain.menu.Pizza;
 import br.com.alg.algexpress.domain.order.Order;
-import br.com.alg.algexpress.domain.order.OrderItem;
-// AddressService removido - addresses são gerenciados via CustomerService
+import br.com.alg.algexpress.dto.common.CursorPage;
+import br.com.alg.algexpress.dto.order.KitchenOrderDTO;
 import br.com.alg.algexpress.dto.order.OrderDTO;
 import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
-import br.com.alg.algexpress.dto.order.OrderItemDTO;
-import br.com.alg.algexpress.infra.service.CustomerService;
-import br.com.alg.algexpress.infra.service.MenuService;
+import br.com.alg.algexpress.dto.report.ComposedReportDTO;
+import br.com.alg.algexpress.infra.service.OrderEventBus;
+import br.com.alg.algexpress.infra.service.OrderExportService;
+import br.com.alg.algexpress.infra.service.OrderPlacementService;
 import br.com.alg.algexpress.infra.service.OrderService;
+import br.com.alg.algexpress.infra.service.ReportComposer;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/pedidos")
@@ -31,197 +35,176 @@ import java.util.stream.Collectors;
 public class OrderController {
 
     private final OrderService orderService;
-    private final CustomerService customerService;
-    private final MenuService menuService;
-
-    public OrderController(OrderService orderService, CustomerService customerService, 
-                          MenuService menuService) {
+    private final OrderPlacementService orderPlacementService;
+    private final OrderExportService orderExportService;
+    private final ReportComposer reportComposer;
+    private final OrderEventBus orderEventBus;
+
+    public OrderController(OrderService orderService, OrderPlacementService orderPlacementService,
+                           OrderExportService orderExportService, ReportComposer reportComposer,
+                           OrderEventBus orderEventBus) {
         this.orderService = orderService;
-        this.customerService = customerService;
-        this.menuService = menuService;
+        this.orderPlacementService = orderPlacementService;
+        this.orderExportService = orderExportService;
+        this.reportComposer = reportComposer;
+        this.orderEventBus = orderEventBus;
     }
 
     @GetMapping
     public ResponseEntity<List<OrderSummaryDTO>> getAllOrders() {
-        List<Order> orders = orderService.findActiveOrders();
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(orderService.findActiveOrderSummaries());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
-        return orderService.findById(id)
-                .map(order -> ResponseEntity.ok(OrderDTO.fromEntity(order)))
+        return orderService.findDetailById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/kitchen")
+    public ResponseEntity<List<KitchenOrderDTO>> getKitchenOrders() {
+        return ResponseEntity.ok(orderService.findKitchenOrders());
+    }
+
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersByCustomer(@PathVariable Long customerId) {
-        List<Order> orders = orderService.findByCustomerId(customerId);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByCustomer(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageByCustomerId(customerId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/customer/{customerId}/history")
-    public ResponseEntity<List<OrderSummaryDTO>> getCustomerOrderHistory(@PathVariable Long customerId) {
-        List<Order> orders = orderService.findCustomerOrderHistory(customerId);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getCustomerOrderHistory(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findCustomerOrderHistoryPage(customerId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersByStatus(@PathVariable Order.OrderStatus status) {
-        List<Order> orders = orderService.findByStatus(status);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByStatus(
+            @PathVariable Order.OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageByStatus(status, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersByType(@PathVariable Order.OrderType type) {
-        List<Order> orders = orderService.findByType(type);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByType(
+            @PathVariable Order.OrderType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageByType(type, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/today")
     public ResponseEntity<List<OrderSummaryDTO>> getTodaysOrders() {
-        List<Order> orders = orderService.findTodaysOrders();
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(orderService.findTodaysOrderSummaries());
     }
 
     @GetMapping("/active")
     public ResponseEntity<List<OrderSummaryDTO>> getActiveOrders() {
-        List<Order> orders = orderService.findActiveOrders();
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(orderService.findActiveOrderSummaries());
+    }
+
+    @GetMapping(path = "/active/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActiveOrders(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderEventBus.subscribe(lastEventId, orderService::findActiveOrderSummaries);
     }
 
     @GetMapping("/delivery/active")
     public ResponseEntity<List<OrderSummaryDTO>> getActiveDeliveryOrders() {
-        List<Order> orders = orderService.findActiveDeliveryOrders();
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(orderService.findActiveDeliveryOrderSummaries());
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersBetweenDates(
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersBetweenDates(
             @RequestParam LocalDateTime startDate,
-            @RequestParam LocalDateTime endDate) {
-        List<Order> orders = orderService.findOrdersBetweenDates(startDate, endDate);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageBetweenDates(startDate, endDate, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") OrderExportService.ExportFormat format) {
+        StreamingResponseBody body = outputStream ->
+                orderExportService.exportOrders(startDate, endDate, format, outputStream);
+        String extension = format == OrderExportService.ExportFormat.CSV ? "csv" : "ndjson";
+        MediaType contentType = format == OrderExportService.ExportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("pedidos-" + startDate.toLocalDate() + "-" + endDate.toLocalDate() + "." + extension)
+                        .build().toString())
+                .body(body);
     }
 
     @GetMapping("/total-range")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersByTotalRange(
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByTotalRange(
             @RequestParam BigDecimal minTotal,
-            @RequestParam BigDecimal maxTotal) {
-        List<Order> orders = orderService.findByTotalBetween(minTotal, maxTotal);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @RequestParam BigDecimal maxTotal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageByTotalBetween(minTotal, maxTotal, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/customer/{customerId}/status/{status}")
-    public ResponseEntity<List<OrderSummaryDTO>> getOrdersByCustomerAndStatus(
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> getOrdersByCustomerAndStatus(
             @PathVariable Long customerId,
-            @PathVariable Order.OrderStatus status) {
-        List<Order> orders = orderService.findByCustomerIdAndStatus(customerId, status);
-        List<OrderSummaryDTO> response = orders.stream()
-                .map(OrderSummaryDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @PathVariable Order.OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<OrderSummaryDTO> page = orderService.findPageByCustomerIdAndStatus(customerId, status, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
     public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderDTO request) {
         try {
-            Customer customer = customerService.findById(request.customerId())
-                    .orElseThrow(() -> new RuntimeException("Customer not found"));
-
-            Order order = new Order();
-            order.setCustomer(customer);
-            order.setType(request.type());
-            order.setObservations(request.observations());
-
-            if (request.type() == Order.OrderType.DELIVERY) {
-                if (request.addressId() == null) {
-                    throw new RuntimeException("Address is required for delivery orders");
-                }
-                
-                Address address = customerService.findAddressById(request.addressId())
-                        .orElseThrow(() -> new RuntimeException("Address not found"));
-                
-                // TODO: Implement delivery area validation in CustomerService
-                // if (!customerService.isAddressInDeliveryArea(request.addressId())) {
-                //     throw new RuntimeException("Address is not in delivery area");
-                // }
-                
-                order.setDeliveryAddress(address);
-                // TODO: Implement delivery fee calculation in CustomerService
-                // order.setDeliveryFee(customerService.calculateDeliveryFee(request.addressId()));
-            }
-
-            List<OrderItem> orderItems = new ArrayList<>();
-            for (OrderItemDTO itemRequest : request.items()) {
-                Pizza pizza = menuService.findPizzaById(itemRequest.pizzaId())
-                        .orElseThrow(() -> new RuntimeException("Pizza not found"));
-
-                if (!pizza.getAvailable()) {
-                    throw new RuntimeException("Pizza is not available: " + pizza.getName());
-                }
-
-                if (!menuService.validatePizzaCustomization(itemRequest.pizzaId(), 
-                        itemRequest.additionalIngredientIds(), itemRequest.removedIngredientIds())) {
-                    throw new RuntimeException("Invalid pizza customization");
-                }
-
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setPizza(pizza);
-                orderItem.setSize(itemRequest.size());
-                orderItem.setQuantity(itemRequest.quantity());
-                orderItem.setObservations(itemRequest.observations());
-
-                BigDecimal unitPrice = menuService.calculateItemPrice(
-                    itemRequest.pizzaId(),
-                    itemRequest.size(),
-                    itemRequest.additionalIngredientIds(),
-                    itemRequest.removedIngredientIds()
-                );
-                orderItem.setUnitPrice(unitPrice);
-                orderItem.setTotalPrice(unitPrice.multiply(new BigDecimal(itemRequest.quantity())));
-
-                orderItems.add(orderItem);
-            }
-
-            order.setItems(orderItems);
-            
-            Order savedOrder = orderService.save(order);
-            orderService.calculateOrderTotal(savedOrder);
-            Order finalOrder = orderService.save(savedOrder);
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(OrderDTO.fromEntity(finalOrder));
+            Order order = orderPlacementService.placeOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(OrderDTO.fromEntity(order));
 
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -233,46 +216,61 @@ public class OrderController {
         try {
             Order order = orderService.updateOrderStatus(id, status);
             return ResponseEntity.ok(OrderDTO.fromEntity(order));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping("/status/bulk")
+    public ResponseEntity<List<OrderSummaryDTO>> updateOrderStatuses(@RequestParam Order.OrderStatus status,
+                                                                     @RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > CursorPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.transitionOrders(ids, status));
+    }
+
     @PatchMapping("/{id}/confirm")
-    public ResponseEntity<OrderDTO> confirmOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderSummaryDTO> confirmOrder(@PathVariable Long id) {
         try {
-            Order order = orderService.confirmOrder(id);
-            return ResponseEntity.ok(OrderDTO.fromEntity(order));
+            return ResponseEntity.ok(orderService.confirmOrder(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PatchMapping("/{id}/cancel")
-    public ResponseEntity<OrderDTO> cancelOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderSummaryDTO> cancelOrder(@PathVariable Long id) {
         try {
-            Order order = orderService.cancelOrder(id);
-            return ResponseEntity.ok(OrderDTO.fromEntity(order));
+            return ResponseEntity.ok(orderService.cancelOrder(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PatchMapping("/{id}/ready")
-    public ResponseEntity<OrderDTO> markOrderReady(@PathVariable Long id) {
+    public ResponseEntity<OrderSummaryDTO> markOrderReady(@PathVariable Long id) {
         try {
-            Order order = orderService.markAsReady(id);
-            return ResponseEntity.ok(OrderDTO.fromEntity(order));
+            return ResponseEntity.ok(orderService.markAsReady(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PatchMapping("/{id}/delivered")
-    public ResponseEntity<OrderDTO> markOrderDelivered(@PathVariable Long id) {
+    public ResponseEntity<OrderSummaryDTO> markOrderDelivered(@PathVariable Long id) {
         try {
-            Order order = orderService.markAsDelivered(id);
-            return ResponseEntity.ok(OrderDTO.fromEntity(order));
+            return ResponseEntity.ok(orderService.markAsDelivered(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -320,6 +318,20 @@ public class OrderController {
                 .orElse(ResponseEntity.ok(BigDecimal.ZERO));
     }
 
+    @GetMapping("/statistics/summary")
+    public ResponseEntity<ComposedReportDTO> getStatisticsSummary(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate) {
+        ReportComposer.Composition summary = reportComposer.compose()
+                .add("countInRange", () -> orderService.countOrdersBetweenDates(startDate, endDate))
+                .add("revenueInRange", () -> orderService.getTotalRevenueBetweenDates(startDate, endDate).orElse(BigDecimal.ZERO))
+                .add("averageOrderTotal", () -> orderService.getAverageOrderTotal().orElse(BigDecimal.ZERO));
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            summary.add("count" + status.name(), () -> orderService.countByStatus(status));
+        }
+        return ResponseEntity.ok(summary.execute());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         if (orderService.findById(id).isPresent()) {
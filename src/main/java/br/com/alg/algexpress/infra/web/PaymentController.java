@@ -2,6 +2,7 @@ package br.com.alg.algexpress.infra.web;
 
 import br.com.alg.algexpress.domain.payment.Payment;
 import br.com.alg.algexpress.domain.valueObjects.PaymentMethod;
+import br.com.alg.algexpress.dto.common.CursorPage;
 import br.com.alg.algexpress.dto.payment.PaymentDTO;
 import br.com.alg.algexpress.infra.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -82,11 +83,17 @@ public class PaymentController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pagamentos encontrados com sucesso")
     })
-    public ResponseEntity<List<PaymentDTO>> getPaymentsByMethod(
+    public ResponseEntity<CursorPage<PaymentDTO>> getPaymentsByMethod(
             @Parameter(description = "Tipo de método de pagamento", required = true) 
-            @PathVariable PaymentMethod.PaymentType paymentMethodType) {
-        List<Payment> payments = paymentService.findByPaymentMethodType(paymentMethodType);
-        return ResponseEntity.ok(payments.stream().map(PaymentDTO::fromEntity).toList());
+            @PathVariable PaymentMethod.PaymentType paymentMethodType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Payment> page = paymentService.findPageByPaymentMethodType(paymentMethodType, cursor, size);
+            return ResponseEntity.ok(page.map(PaymentDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/status/{status}")
@@ -95,11 +102,17 @@ public class PaymentController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pagamentos encontrados com sucesso")
     })
-    public ResponseEntity<List<PaymentDTO>> getPaymentsByStatus(
+    public ResponseEntity<CursorPage<PaymentDTO>> getPaymentsByStatus(
             @Parameter(description = "Status do pagamento", required = true) 
-            @PathVariable Payment.PaymentStatus status) {
-        List<Payment> payments = paymentService.findByStatus(status);
-        return ResponseEntity.ok(payments.stream().map(PaymentDTO::fromEntity).toList());
+            @PathVariable Payment.PaymentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Payment> page = paymentService.findPageByStatus(status, cursor, size);
+            return ResponseEntity.ok(page.map(PaymentDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/{id}/approve")
@@ -107,7 +120,8 @@ public class PaymentController {
                description = "Aprova um pagamento pendente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pagamento aprovado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Pagamento não encontrado")
+        @ApiResponse(responseCode = "404", description = "Pagamento não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Pagamento não pode mais ser aprovado")
     })
     public ResponseEntity<PaymentDTO> approvePayment(
             @Parameter(description = "ID do pagamento", required = true) 
@@ -115,11 +129,27 @@ public class PaymentController {
         try {
             Payment payment = paymentService.approvePayment(id);
             return ResponseEntity.ok(PaymentDTO.fromEntity(payment));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PostMapping("/approve")
+    @Operation(summary = "Aprovar pagamentos em lote",
+               description = "Aprova, em uma única instrução, os pagamentos pendentes ou em processamento informados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "IDs dos pagamentos aprovados"),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou maior que o limite")
+    })
+    public ResponseEntity<List<Long>> approvePayments(@RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > CursorPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(paymentService.approvePayments(ids));
+    }
+
     @PostMapping("/{id}/reject")
     @Operation(summary = "Rejeitar pagamento", 
                description = "Rejeita um pagamento com motivo opcional")
@@ -146,9 +176,15 @@ public class PaymentController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pagamentos pendentes encontrados com sucesso")
     })
-    public ResponseEntity<List<PaymentDTO>> getPendingPayments() {
-        List<Payment> payments = paymentService.findPendingPayments();
-        return ResponseEntity.ok(payments.stream().map(PaymentDTO::fromEntity).toList());
+    public ResponseEntity<CursorPage<PaymentDTO>> getPendingPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Payment> page = paymentService.findPageByStatus(Payment.PaymentStatus.PENDING, cursor, size);
+            return ResponseEntity.ok(page.map(PaymentDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/statistics/method")
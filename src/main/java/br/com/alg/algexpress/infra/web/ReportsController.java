@@ -1,15 +1,23 @@
 package br.com.alg.algexpress.infra.web;
 
+import br.com.alg.algexpress.dto.report.ComposedReportDTO;
+import br.com.alg.algexpress.dto.report.DailySalesDTO;
+import br.com.alg.algexpress.dto.report.PizzaSalesDTO;
 import br.com.alg.algexpress.infra.service.CustomerService;
+import br.com.alg.algexpress.infra.service.DashboardMetrics;
 import br.com.alg.algexpress.infra.service.MenuService;
-import br.com.alg.algexpress.infra.service.OrderService;
+import br.com.alg.algexpress.infra.service.ReportComposer;
+import br.com.alg.algexpress.infra.service.SalesRollupService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,40 +28,87 @@ import java.util.Map;
 public class ReportsController {
 
     private final CustomerService customerService;
-    private final OrderService orderService;
     private final MenuService menuService;
+    private final SalesRollupService salesRollupService;
+    private final DashboardMetrics dashboardMetrics;
+    private final ReportComposer reportComposer;
 
-    public ReportsController(CustomerService customerService, OrderService orderService, MenuService menuService) {
+    public ReportsController(CustomerService customerService, MenuService menuService,
+                             SalesRollupService salesRollupService, DashboardMetrics dashboardMetrics,
+                             ReportComposer reportComposer) {
         this.customerService = customerService;
-        this.orderService = orderService;
         this.menuService = menuService;
+        this.salesRollupService = salesRollupService;
+        this.dashboardMetrics = dashboardMetrics;
+        this.reportComposer = reportComposer;
     }
 
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboardData() {
-        Map<String, Object> dashboard = new HashMap<>();
-        
-        dashboard.put("totalActiveCustomers", customerService.getTotalActiveCustomers());
-        dashboard.put("averageLoyaltyPoints", customerService.getAverageLoyaltyPoints().orElse(BigDecimal.ZERO));
-        dashboard.put("averageOrderTotal", orderService.getAverageOrderTotal().orElse(BigDecimal.ZERO));
-        dashboard.put("availablePizzas", menuService.countAvailablePizzas());
-        dashboard.put("availableIngredients", menuService.countAvailableIngredients());
-        
-        return ResponseEntity.ok(dashboard);
+    public ResponseEntity<Map<String, Object>> getDashboardData(WebRequest request) {
+        DashboardMetrics.Snapshot dashboard = dashboardMetrics.snapshot();
+        if (request.checkNotModified(dashboard.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(dashboard.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(dashboard.values());
+    }
+
+    @GetMapping("/overview")
+    public ResponseEntity<ComposedReportDTO> getOverview(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(reportComposer.compose()
+                .add("averageLoyaltyPoints", () -> customerService.getAverageLoyaltyPoints().orElse(BigDecimal.ZERO))
+                .add("customersWithMostOrders", () -> customerService.findCustomersWithMostOrders(limit).stream()
+                        .map(c -> new Object[]{c.getId(), c.getName()}).toList())
+                .add("mostPopularPizzas", () -> menuService.findMostPopularPizzas().stream()
+                        .map(p -> new Object[]{p.getId(), p.getName()}).toList())
+                .add("menuStatistics", menuService::getMenuStatistics)
+                .add("dailySales", () -> salesRollupService.getDailySales(startDate, endDate))
+                .add("mostSoldPizzas", () -> salesRollupService.getMostSoldPizzas(startDate, endDate, limit))
+                .execute());
     }
 
     @GetMapping("/revenue")
     public ResponseEntity<BigDecimal> getRevenue(
             @RequestParam LocalDateTime startDate,
             @RequestParam LocalDateTime endDate) {
-        return ResponseEntity.ok(
-            orderService.getTotalRevenueBetweenDates(startDate, endDate).orElse(BigDecimal.ZERO)
-        );
+        return ResponseEntity.ok(salesRollupService.getRevenueBetween(startDate, endDate));
+    }
+
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<DailySalesDTO>> getDailySales(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        return ResponseEntity.ok(salesRollupService.getDailySales(startDate, endDate));
+    }
+
+    @GetMapping("/pizzas/most-sold")
+    public ResponseEntity<List<PizzaSalesDTO>> getMostSoldPizzas(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesRollupService.getMostSoldPizzas(startDate, endDate, limit));
+    }
+
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Void> rebuildSalesRollups(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        try {
+            salesRollupService.rebuild(startDate, endDate);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @GetMapping("/customers/most-orders")
-    public ResponseEntity<List<Object[]>> getCustomersWithMostOrders() {
-        return ResponseEntity.ok(customerService.findCustomersWithMostOrders().stream().map(c -> new Object[]{c.getId(), c.getName()}).toList());
+    public ResponseEntity<List<Object[]>> getCustomersWithMostOrders(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(customerService.findCustomersWithMostOrders(limit).stream().map(c -> new Object[]{c.getId(), c.getName()}).toList());
     }
 
     @GetMapping("/pizzas/most-popular")
@@ -0,0 +1,5 @@
+-- Hand out order and order item ids in blocks of 50 (Hibernate pooled optimizer)
+-- Migration: V202610180901__pooled_order_sequences.sql
+
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- Composite indexes matching the keyset-paginated listings (filter columns, then sort key, then id)
+-- Migration: V202610180902__keyset_pagination_indexes.sql
+
+CREATE INDEX idx_orders_status_date_id ON orders(status, order_date_time, id);
+CREATE INDEX idx_orders_type_date_id ON orders(type, order_date_time, id);
+CREATE INDEX idx_orders_date_id ON orders(order_date_time, id);
+CREATE INDEX idx_orders_customer_date_id ON orders(customer_id, order_date_time, id);
+CREATE INDEX idx_orders_customer_status_date_id ON orders(customer_id, status, order_date_time, id);
+
+CREATE INDEX idx_customers_status_id ON customers(status, id);
+
+CREATE INDEX idx_payments_status_id ON payments(status, id);
+CREATE INDEX idx_payments_method_id ON payments(payment_method, id);
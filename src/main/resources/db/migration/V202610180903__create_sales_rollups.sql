@@ -0,0 +1,64 @@
+-- Pre-aggregated sales facts, bucketed by order date, maintained on DELIVERED/CANCELLED transitions
+-- Migration: V202610180903__create_sales_rollups.sql
+
+CREATE TABLE sales_daily (
+    sales_date DATE PRIMARY KEY,
+    delivered_orders INTEGER NOT NULL DEFAULT 0,
+    cancelled_orders INTEGER NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    delivery_fees DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    items_sold INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE sales_hourly (
+    sales_hour TIMESTAMP PRIMARY KEY,
+    delivered_orders INTEGER NOT NULL DEFAULT 0,
+    cancelled_orders INTEGER NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    delivery_fees DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    items_sold INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE sales_daily_pizza (
+    sales_date DATE NOT NULL,
+    pizza_id BIGINT NOT NULL,
+    size VARCHAR(20) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+
+    PRIMARY KEY (sales_date, pizza_id, size)
+);
+
+-- Backfill from existing history
+INSERT INTO sales_daily (sales_date, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold)
+SELECT CAST(o.order_date_time AS DATE),
+       COUNT(*) FILTER (WHERE o.status = 'DELIVERED'),
+       COUNT(*) FILTER (WHERE o.status = 'CANCELLED'),
+       COALESCE(SUM(o.total) FILTER (WHERE o.status = 'DELIVERED'), 0),
+       COALESCE(SUM(o.delivery_fee) FILTER (WHERE o.status = 'DELIVERED'), 0),
+       COALESCE(SUM(items.quantity) FILTER (WHERE o.status = 'DELIVERED'), 0)
+FROM orders o
+LEFT JOIN (SELECT order_id, SUM(quantity) AS quantity FROM order_items GROUP BY order_id) items
+       ON items.order_id = o.id
+WHERE o.status IN ('DELIVERED', 'CANCELLED')
+GROUP BY CAST(o.order_date_time AS DATE);
+
+INSERT INTO sales_hourly (sales_hour, delivered_orders, cancelled_orders, revenue, delivery_fees, items_sold)
+SELECT date_trunc('hour', o.order_date_time),
+       COUNT(*) FILTER (WHERE o.status = 'DELIVERED'),
+       COUNT(*) FILTER (WHERE o.status = 'CANCELLED'),
+       COALESCE(SUM(o.total) FILTER (WHERE o.status = 'DELIVERED'), 0),
+       COALESCE(SUM(o.delivery_fee) FILTER (WHERE o.status = 'DELIVERED'), 0),
+       COALESCE(SUM(items.quantity) FILTER (WHERE o.status = 'DELIVERED'), 0)
+FROM orders o
+LEFT JOIN (SELECT order_id, SUM(quantity) AS quantity FROM order_items GROUP BY order_id) items
+       ON items.order_id = o.id
+WHERE o.status IN ('DELIVERED', 'CANCELLED')
+GROUP BY date_trunc('hour', o.order_date_time);
+
+INSERT INTO sales_daily_pizza (sales_date, pizza_id, size, quantity, revenue)
+SELECT CAST(o.order_date_time AS DATE), oi.pizza_id, oi.size, SUM(oi.quantity), SUM(oi.total_price)
+FROM orders o
+JOIN order_items oi ON oi.order_id = o.id
+WHERE o.status = 'DELIVERED'
+GROUP BY CAST(o.order_date_time AS DATE), oi.pizza_id, oi.size;
@@ -0,0 +1,22 @@
+-- Append-only loyalty points ledger; customers.loyalty_points is the running balance
+-- Migration: V202610180905__create_loyalty_ledger.sql
+
+CREATE TABLE loyalty_ledger (
+    id BIGSERIAL PRIMARY KEY,
+    customer_id BIGINT NOT NULL REFERENCES customers(id) ON DELETE CASCADE,
+    order_id BIGINT,
+    points INTEGER NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_loyalty_ledger_customer ON loyalty_ledger (customer_id, id);
+
+-- One accrual per order, so replayed DELIVERED events never award points twice
+CREATE UNIQUE INDEX uq_loyalty_ledger_order_accrual ON loyalty_ledger (order_id) WHERE reason = 'ACCRUAL';
+
+-- Opening entries so the ledger of every customer sums to the current balance
+INSERT INTO loyalty_ledger (customer_id, points, reason)
+SELECT id, loyalty_points, 'OPENING'
+FROM customers
+WHERE loyalty_points <> 0;
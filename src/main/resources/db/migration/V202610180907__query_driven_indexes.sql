@@ -0,0 +1,38 @@
+-- Composite and partial indexes for the filters used by the order, payment and delivery repositories
+-- Migration: V202610180907__query_driven_indexes.sql
+
+-- Orders: the board, kitchen and delivery listings only ever read orders still in progress,
+-- a small slice of the table. orders(status, order_date_time) already exists as
+-- idx_orders_status_date_id and order_items(order_id) as idx_order_items_order.
+CREATE INDEX idx_orders_active_date ON orders(order_date_time, id)
+    WHERE status IN ('CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY');
+CREATE INDEX idx_orders_active_delivery_date ON orders(order_date_time, id)
+    WHERE type = 'DELIVERY' AND status IN ('CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY');
+CREATE INDEX idx_orders_total_id ON orders(total, id);
+
+-- Leading columns of the keyset indexes; dropping them saves a write per order insert/update
+DROP INDEX idx_orders_status;
+DROP INDEX idx_orders_date;
+DROP INDEX idx_orders_customer;
+
+-- Payments: approvals by period, by method and period, and gateway callbacks
+CREATE INDEX idx_payments_status_date ON payments(status, payment_date_time);
+CREATE INDEX idx_payments_date ON payments(payment_date_time);
+CREATE INDEX idx_payments_approved_method_date ON payments(payment_method, payment_date_time)
+    WHERE status = 'APPROVED';
+CREATE INDEX idx_payments_order_status ON payments(order_id, status);
+CREATE INDEX idx_payments_transaction ON payments(transaction_id) WHERE transaction_id IS NOT NULL;
+CREATE INDEX idx_payments_authorization ON payments(authorization_code) WHERE authorization_code IS NOT NULL;
+
+DROP INDEX idx_payments_status;
+DROP INDEX idx_payments_order;
+
+-- Deliveries: open deliveries, per-courier workload and completed deliveries by period
+CREATE INDEX idx_deliveries_active ON deliveries(order_id)
+    WHERE status IN ('WAITING_DELIVERY_PERSON', 'EN_ROUTE', 'DELIVERY_ATTEMPT');
+CREATE INDEX idx_deliveries_person_status ON deliveries(delivery_person_id, status);
+CREATE INDEX idx_deliveries_person_departure ON deliveries(delivery_person_id, departure_time);
+CREATE INDEX idx_deliveries_departure ON deliveries(departure_time);
+CREATE INDEX idx_deliveries_delivered_time ON deliveries(delivery_time) WHERE status = 'DELIVERED';
+
+DROP INDEX idx_deliveries_person;
@@ -0,0 +1,219 @@
+-- Monthly range partitioning of orders and order_items (by order_date_time) and payments (by payment_date_time)
+-- Migration: V202610180908__partition_orders_by_month.sql
+--
+-- Primary and unique keys of a partitioned table must contain the partition key, so order ids
+-- are only unique together with order_date_time. Every table referencing orders therefore
+-- carries a copy of its order's order_date_time and references (id, order_date_time). Items
+-- share their order's partition, so a month of orders and its items can be detached together.
+-- Rows whose date has no monthly partition (e.g. older than the first one) go to *_default.
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+CREATE FUNCTION create_monthly_partition(parent TEXT, month DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month);
+    partition_name TEXT := parent || '_' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, start_date, start_date + INTERVAL '1 month');
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates the monthly partitions of orders, order_items and payments for [from_month, to_month]
+CREATE FUNCTION create_order_partitions(from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_month DATE;
+    created INTEGER := 0;
+BEGIN
+    FOR partition_month IN
+        SELECT generate_series(date_trunc('month', from_month), date_trunc('month', to_month), INTERVAL '1 month')::DATE
+    LOOP
+        IF to_regclass('orders_' || to_char(partition_month, 'YYYY_MM')) IS NULL THEN
+            created := created + 1;
+        END IF;
+        PERFORM create_monthly_partition('orders', partition_month);
+        PERFORM create_monthly_partition('order_items', partition_month);
+        PERFORM create_monthly_partition('payments', partition_month);
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches a partition and moves it to the archive schema. Its foreign keys are dropped so the
+-- archived rows no longer pin the rows they referenced.
+CREATE FUNCTION detach_to_archive(parent TEXT, partition_name TEXT) RETURNS VOID AS $$
+DECLARE
+    foreign_key TEXT;
+BEGIN
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition_name);
+    FOR foreign_key IN
+        SELECT conname FROM pg_constraint WHERE conrelid = partition_name::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, foreign_key);
+    END LOOP;
+    EXECUTE format('ALTER TABLE %I SET SCHEMA archive', partition_name);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Moves one month of orders, with everything hanging off them, into the archive schema:
+-- the orders and order_items partitions, the payments partition of that month plus later
+-- payments of the month's orders, and the month's deliveries and item customizations.
+CREATE FUNCTION archive_order_month(month DATE) RETURNS VOID AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month);
+    end_date DATE := start_date + INTERVAL '1 month';
+    suffix TEXT := to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass('orders_' || suffix) IS NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE archive.%I AS SELECT j.* FROM order_item_additional_ingredients j JOIN %I i ON i.id = j.order_item_id',
+                   'order_item_additional_ingredients_' || suffix, 'order_items_' || suffix);
+    EXECUTE format('DELETE FROM order_item_additional_ingredients j USING %I i WHERE i.id = j.order_item_id',
+                   'order_items_' || suffix);
+    EXECUTE format('CREATE TABLE archive.%I AS SELECT j.* FROM order_item_removed_ingredients j JOIN %I i ON i.id = j.order_item_id',
+                   'order_item_removed_ingredients_' || suffix, 'order_items_' || suffix);
+    EXECUTE format('DELETE FROM order_item_removed_ingredients j USING %I i WHERE i.id = j.order_item_id',
+                   'order_items_' || suffix);
+
+    EXECUTE format('CREATE TABLE archive.%I AS SELECT * FROM deliveries WHERE order_date_time >= %L AND order_date_time < %L',
+                   'deliveries_' || suffix, start_date, end_date);
+    DELETE FROM deliveries WHERE order_date_time >= start_date AND order_date_time < end_date;
+
+    IF to_regclass('payments_' || suffix) IS NOT NULL THEN
+        PERFORM detach_to_archive('payments', 'payments_' || suffix);
+    ELSE
+        EXECUTE format('CREATE TABLE archive.%I (LIKE payments)', 'payments_' || suffix);
+    END IF;
+    EXECUTE format('INSERT INTO archive.%I SELECT * FROM payments WHERE order_date_time >= %L AND order_date_time < %L AND payment_date_time >= %L',
+                   'payments_' || suffix, start_date, end_date, start_date);
+    DELETE FROM payments
+    WHERE order_date_time >= start_date AND order_date_time < end_date AND payment_date_time >= start_date;
+
+    PERFORM detach_to_archive('order_items', 'order_items_' || suffix);
+    PERFORM detach_to_archive('orders', 'orders_' || suffix);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Foreign keys into the tables being rebuilt
+ALTER TABLE order_items DROP CONSTRAINT fk_order_item_order;
+ALTER TABLE payments DROP CONSTRAINT fk_payment_order;
+ALTER TABLE deliveries DROP CONSTRAINT fk_delivery_order;
+ALTER TABLE order_item_additional_ingredients DROP CONSTRAINT fk_additional_ingredients_order_item;
+ALTER TABLE order_item_removed_ingredients DROP CONSTRAINT fk_removed_ingredients_order_item;
+
+-- Partitioned copies (LIKE keeps columns, defaults, NOT NULL and CHECK constraints)
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+ALTER SEQUENCE order_items_id_seq OWNED BY NONE;
+ALTER SEQUENCE payments_id_seq OWNED BY NONE;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE payments RENAME TO payments_unpartitioned;
+
+CREATE TABLE orders (LIKE orders_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (order_date_time);
+CREATE TABLE order_items (LIKE order_items_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    order_date_time TIMESTAMP NOT NULL)
+    PARTITION BY RANGE (order_date_time);
+CREATE TABLE payments (LIKE payments_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    order_date_time TIMESTAMP NOT NULL)
+    PARTITION BY RANGE (payment_date_time);
+ALTER TABLE payments ALTER COLUMN payment_date_time SET NOT NULL;
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+SELECT create_order_partitions(
+    LEAST(COALESCE((SELECT MIN(order_date_time) FROM orders_unpartitioned), now()),
+          COALESCE((SELECT MIN(payment_date_time) FROM payments_unpartitioned), now()))::DATE,
+    (now() + INTERVAL '3 months')::DATE);
+
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+CREATE TABLE payments_default PARTITION OF payments DEFAULT;
+
+-- Copy the data; payments still pending get their order's date as partition key
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+
+INSERT INTO order_items
+SELECT oi.*, o.order_date_time
+FROM order_items_unpartitioned oi JOIN orders_unpartitioned o ON o.id = oi.order_id;
+
+UPDATE payments_unpartitioned p SET payment_date_time = o.order_date_time
+FROM orders_unpartitioned o WHERE o.id = p.order_id AND p.payment_date_time IS NULL;
+
+INSERT INTO payments
+SELECT p.*, o.order_date_time
+FROM payments_unpartitioned p JOIN orders_unpartitioned o ON o.id = p.order_id;
+
+ALTER TABLE deliveries ADD COLUMN order_date_time TIMESTAMP;
+UPDATE deliveries d SET order_date_time = o.order_date_time
+FROM orders_unpartitioned o WHERE o.id = d.order_id;
+ALTER TABLE deliveries ALTER COLUMN order_date_time SET NOT NULL;
+
+DROP TABLE payments_unpartitioned, order_items_unpartitioned, orders_unpartitioned CASCADE;
+
+-- Keys
+ALTER TABLE orders ADD CONSTRAINT orders_pkey PRIMARY KEY (id, order_date_time);
+ALTER TABLE orders ADD CONSTRAINT fk_order_customer FOREIGN KEY (customer_id) REFERENCES customers(id);
+ALTER TABLE orders ADD CONSTRAINT fk_order_delivery_address FOREIGN KEY (delivery_address_id) REFERENCES addresses(id);
+
+ALTER TABLE order_items ADD CONSTRAINT order_items_pkey PRIMARY KEY (id, order_date_time);
+ALTER TABLE order_items ADD CONSTRAINT fk_order_item_order FOREIGN KEY (order_id, order_date_time)
+    REFERENCES orders(id, order_date_time) ON DELETE CASCADE;
+ALTER TABLE order_items ADD CONSTRAINT fk_order_item_pizza FOREIGN KEY (pizza_id) REFERENCES pizzas(id);
+
+ALTER TABLE payments ADD CONSTRAINT payments_pkey PRIMARY KEY (id, payment_date_time);
+ALTER TABLE payments ADD CONSTRAINT fk_payment_order FOREIGN KEY (order_id, order_date_time)
+    REFERENCES orders(id, order_date_time) ON DELETE CASCADE;
+
+ALTER TABLE deliveries ADD CONSTRAINT fk_delivery_order FOREIGN KEY (order_id, order_date_time)
+    REFERENCES orders(id, order_date_time) ON DELETE CASCADE;
+
+-- Item customizations cannot reference the partitioned order_items (no unique key on id alone);
+-- a trigger keeps the former ON DELETE CASCADE behaviour
+CREATE FUNCTION delete_order_item_customizations() RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM order_item_additional_ingredients WHERE order_item_id = OLD.id;
+    DELETE FROM order_item_removed_ingredients WHERE order_item_id = OLD.id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_order_items_delete_customizations AFTER DELETE ON order_items
+    FOR EACH ROW EXECUTE FUNCTION delete_order_item_customizations();
+
+-- Indexes (created on the parent, so every current and future partition gets them)
+CREATE INDEX idx_orders_status_date_id ON orders(status, order_date_time, id);
+CREATE INDEX idx_orders_type_date_id ON orders(type, order_date_time, id);
+CREATE INDEX idx_orders_date_id ON orders(order_date_time, id);
+CREATE INDEX idx_orders_customer_date_id ON orders(customer_id, order_date_time, id);
+CREATE INDEX idx_orders_customer_status_date_id ON orders(customer_id, status, order_date_time, id);
+CREATE INDEX idx_orders_active_date ON orders(order_date_time, id)
+    WHERE status IN ('CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY');
+CREATE INDEX idx_orders_active_delivery_date ON orders(order_date_time, id)
+    WHERE type = 'DELIVERY' AND status IN ('CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY');
+CREATE INDEX idx_orders_total_id ON orders(total, id);
+
+CREATE INDEX idx_order_items_order ON order_items(order_id, order_date_time);
+
+CREATE INDEX idx_payments_status_id ON payments(status, id);
+CREATE INDEX idx_payments_method_id ON payments(payment_method, id);
+CREATE INDEX idx_payments_status_date ON payments(status, payment_date_time);
+CREATE INDEX idx_payments_date ON payments(payment_date_time);
+CREATE INDEX idx_payments_approved_method_date ON payments(payment_method, payment_date_time)
+    WHERE status = 'APPROVED';
+CREATE INDEX idx_payments_order_status ON payments(order_id, status);
+CREATE INDEX idx_payments_order_date ON payments(order_date_time);
+CREATE INDEX idx_payments_transaction ON payments(transaction_id) WHERE transaction_id IS NOT NULL;
+CREATE INDEX idx_payments_authorization ON payments(authorization_code) WHERE authorization_code IS NOT NULL;
+
+CREATE INDEX idx_deliveries_order_date ON deliveries(order_date_time);
+
+ANALYZE orders, order_items, payments, deliveries;
@@ -0,0 +1,107 @@
+-- Geohash cells on addresses for radius queries, and delivery zones priced by geohash cell
+-- Migration: V202610180909__address_geohash_and_delivery_zones.sql
+
+-- Same encoding as Geohash.encode in the application; used to backfill and seed below
+CREATE FUNCTION geohash_encode(lat DOUBLE PRECISION, lon DOUBLE PRECISION, chars INT)
+RETURNS VARCHAR
+LANGUAGE plpgsql IMMUTABLE STRICT AS $$
+DECLARE
+    alphabet CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    lat_min DOUBLE PRECISION := -90;
+    lat_max DOUBLE PRECISION := 90;
+    lon_min DOUBLE PRECISION := -180;
+    lon_max DOUBLE PRECISION := 180;
+    mid DOUBLE PRECISION;
+    even BOOLEAN := TRUE;
+    bits INT := 0;
+    bit_count INT := 0;
+    hash TEXT := '';
+BEGIN
+    WHILE length(hash) < chars LOOP
+        IF even THEN
+            mid := (lon_min + lon_max) / 2;
+            IF lon >= mid THEN
+                bits := bits * 2 + 1;
+                lon_min := mid;
+            ELSE
+                bits := bits * 2;
+                lon_max := mid;
+            END IF;
+        ELSE
+            mid := (lat_min + lat_max) / 2;
+            IF lat >= mid THEN
+                bits := bits * 2 + 1;
+                lat_min := mid;
+            ELSE
+                bits := bits * 2;
+                lat_max := mid;
+            END IF;
+        END IF;
+        even := NOT even;
+        bit_count := bit_count + 1;
+        IF bit_count = 5 THEN
+            hash := hash || substr(alphabet, bits + 1, 1);
+            bits := 0;
+            bit_count := 0;
+        END IF;
+    END LOOP;
+    RETURN hash;
+END;
+$$;
+
+-- Addresses: 9-character cell (about 4.8 x 4.8 m). The "C" collation keeps the B-tree in byte
+-- order, so every geohash prefix is one contiguous key range.
+ALTER TABLE addresses ADD COLUMN geohash VARCHAR(12) COLLATE "C";
+
+UPDATE addresses
+SET geohash = geohash_encode(latitude, longitude, 9),
+    distance_km = ROUND((2 * 6371.0088 * asin(least(1, sqrt(
+        power(sin(radians(latitude - (-23.5505)) / 2), 2)
+        + cos(radians(latitude)) * cos(radians(-23.5505))
+        * power(sin(radians(longitude - (-46.6333)) / 2), 2)))))::numeric, 3)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+
+CREATE INDEX idx_addresses_geohash ON addresses(geohash) WHERE geohash IS NOT NULL;
+CREATE INDEX idx_addresses_distance ON addresses(distance_km) WHERE distance_km IS NOT NULL;
+
+-- Delivery zones: a fee per zone, and the geohash cells the zone is made of. Cells may have any
+-- length; where cells nest, the longest one containing an address decides its zone.
+CREATE TABLE delivery_zones (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    fee DECIMAL(8,2) NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+
+    CONSTRAINT uk_delivery_zone_name UNIQUE (name),
+    CONSTRAINT ck_delivery_zone_fee CHECK (fee >= 0)
+);
+
+CREATE TABLE delivery_zone_cells (
+    geohash VARCHAR(12) COLLATE "C" PRIMARY KEY,
+    zone_id BIGINT NOT NULL,
+
+    CONSTRAINT fk_delivery_zone_cell_zone FOREIGN KEY (zone_id) REFERENCES delivery_zones(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_delivery_zone_cells_zone ON delivery_zone_cells(zone_id);
+
+-- Initial rings around the store (algexpress.dispatch.store.*), rasterised into 6-character
+-- cells (about 1.2 x 0.6 km). Each cell belongs to the cheapest ring any of its sample points
+-- falls in.
+INSERT INTO delivery_zones (name, fee) VALUES
+    ('Até 3 km', 5.00),
+    ('3 a 6 km', 8.00),
+    ('6 a 10 km', 12.00);
+
+INSERT INTO delivery_zone_cells (geohash, zone_id)
+SELECT DISTINCT ON (sample.cell) sample.cell, z.id
+FROM (
+    SELECT geohash_encode(-23.5505 + dy * 0.004, -46.6333 + dx * 0.004, 6) AS cell,
+           sqrt(power(dy * 0.004 * 111.32, 2) + power(dx * 0.004 * 111.32 * cos(radians(-23.5505)), 2)) AS km
+    FROM generate_series(-23, 23) AS dy, generate_series(-25, 25) AS dx
+) sample
+JOIN delivery_zones z ON z.name = CASE WHEN sample.km <= 3 THEN 'Até 3 km'
+                                       WHEN sample.km <= 6 THEN '3 a 6 km'
+                                       ELSE '6 a 10 km' END
+WHERE sample.km <= 10
+ORDER BY sample.cell, z.fee;
@@ -0,0 +1,12 @@
+-- Index of the order archive's segment files, written in the transaction that deletes their orders
+-- Migration: V202610180910__create_order_archive_segments.sql
+
+-- Segment files live on disk under algexpress.archive.directory; an instance that cannot read
+-- every segment listed here does not hold the whole archive and must not rebuild rollups from it
+CREATE TABLE order_archive_segments (
+    name VARCHAR(255) PRIMARY KEY,
+    order_from TIMESTAMP NOT NULL,
+    order_to TIMESTAMP NOT NULL,
+    orders INTEGER NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
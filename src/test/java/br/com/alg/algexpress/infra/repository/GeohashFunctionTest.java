@@ -0,0 +1,61 @@
+package br.com.alg.algexpress.infra.repository;
+
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import br.com.alg.algexpress.infra.support.Geohash;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The SQL {@code geohash_encode} used by migrations to backfill addresses and rasterise delivery
+ * zones must produce exactly the cells {@link Geohash#encode} gives new addresses, or radius
+ * queries and zone lookups would miss backfilled rows.
+ */
+@SpringBootTest(properties = "algexpress.outbox.relay.enabled=false")
+class GeohashFunctionTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void sqlEncodingMatchesJava() {
+		List<GeoPoint> points = new ArrayList<>(List.of(
+				new GeoPoint(-23.5505, -46.6333),
+				new GeoPoint(0, 0),
+				new GeoPoint(-90, -180),
+				new GeoPoint(90, 180),
+				new GeoPoint(45, -90),
+				new GeoPoint(-23.5505 + 0.004 * 23, -46.6333 - 0.004 * 25)));
+		Random random = new Random(11);
+		for (int i = 0; i < 500; i++) {
+			points.add(new GeoPoint(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+			// Addresses around the store, at the precision of the numeric(10,7) columns
+			points.add(new GeoPoint(Math.round((-23.5505 + random.nextGaussian() * 0.05) * 1e7) / 1e7,
+					Math.round((-46.6333 + random.nextGaussian() * 0.05) * 1e7) / 1e7));
+		}
+
+		for (GeoPoint point : points) {
+			for (int precision : new int[]{1, 6, Geohash.ADDRESS_PRECISION, 12}) {
+				String sql = jdbcTemplate.queryForObject("SELECT geohash_encode(?, ?, ?)", String.class,
+						point.latitude(), point.longitude(), precision);
+				assertThat(sql).as("%s at precision %d", point, precision).isEqualTo(Geohash.encode(point, precision));
+			}
+		}
+	}
+
+	@Test
+	void backfillFromNumericColumnsMatchesJava() {
+		// The migration encodes the addresses' DECIMAL(10,7) columns, cast to double precision
+		String sql = jdbcTemplate.queryForObject(
+				"SELECT geohash_encode(CAST(-23.5614321 AS DECIMAL(10,7)), CAST(-46.6558765 AS DECIMAL(10,7)), 9)",
+				String.class);
+		assertThat(sql).isEqualTo(Geohash.encode(new GeoPoint(-23.5614321, -46.6558765), Geohash.ADDRESS_PRECISION));
+	}
+}
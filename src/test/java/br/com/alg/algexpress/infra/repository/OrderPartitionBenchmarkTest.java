@@ -0,0 +1,138 @@
+package br.com.alg.algexpress.infra.repository;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.infra.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@link OrderService#findTodaysOrders()} while the orders table grows from 1M to 50M
+ * historical orders spread over the previous 23 months, and checks that the plan only reads the
+ * current month's partition. Seeding 50M rows takes a long time: run it against a disposable
+ * database with {@code mvn test -Pbenchmark}; {@code -Dbenchmark.historical-orders=100000,1000000}
+ * picks other sizes.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"algexpress.outbox.relay.enabled=false", "algexpress.partitions.retention-months=0"})
+class OrderPartitionBenchmarkTest {
+
+	private static final String MARKER = "Benchmark Test";
+	private static final int HISTORY_DAYS = 690;
+	private static final int TODAYS_ORDERS = 500;
+	private static final int CHUNK = 1_000_000;
+	private static final int WARMUP = 50;
+	private static final int RUNS = 500;
+	private static final Pattern RELATION = Pattern.compile("\"Relation Name\": \"(\\w+)\"");
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long customerId;
+
+	@BeforeEach
+	void seedToday() {
+		customerId = jdbcTemplate.queryForObject(
+				"INSERT INTO customers (name, phone) VALUES ('" + MARKER + "', '11999990000') RETURNING id", Long.class);
+		jdbcTemplate.queryForObject("SELECT create_order_partitions((CURRENT_DATE - ?)::DATE, CURRENT_DATE)",
+				Integer.class, HISTORY_DAYS);
+		jdbcTemplate.update("""
+				INSERT INTO orders (customer_id, type, status, order_date_time, subtotal, total)
+				SELECT ?, 'PICKUP', 'CONFIRMED', CURRENT_DATE + g * INTERVAL '1 second', 50.00, 50.00
+				FROM generate_series(1, ?) g
+				""", customerId, TODAYS_ORDERS);
+	}
+
+	@AfterEach
+	void deleteSeed() {
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customerId);
+		jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+	}
+
+	@Test
+	void findTodaysOrdersLatencyDoesNotGrowWithHistory() {
+		long[] sizes = Arrays.stream(System.getProperty("benchmark.historical-orders", "1000000,50000000").split(","))
+				.mapToLong(size -> Long.parseLong(size.trim()))
+				.sorted()
+				.toArray();
+
+		long seeded = 0;
+		for (long size : sizes) {
+			while (seeded < size) {
+				long next = Math.min(size, seeded + CHUNK);
+				seedHistory(seeded + 1, next);
+				seeded = next;
+			}
+			jdbcTemplate.execute("ANALYZE orders");
+
+			assertThat(scannedRelations()).as("relations read with %,d historical orders", size)
+					.containsExactly("orders_" + YearMonth.now().format(DateTimeFormatter.ofPattern("yyyy_MM")));
+
+			for (int i = 0; i < WARMUP; i++) {
+				orderService.findTodaysOrders();
+			}
+			long[] nanos = new long[RUNS];
+			int rows = 0;
+			for (int i = 0; i < RUNS; i++) {
+				long start = System.nanoTime();
+				List<Order> orders = orderService.findTodaysOrders();
+				nanos[i] = System.nanoTime() - start;
+				rows = orders.size();
+			}
+			Arrays.sort(nanos);
+			System.out.printf("findTodaysOrders with %,d historical orders (%d rows): p50 %.2f ms, p95 %.2f ms, p99 %.2f ms%n",
+					size, rows, percentile(nanos, 50), percentile(nanos, 95), percentile(nanos, 99));
+			assertThat(rows).isGreaterThanOrEqualTo(TODAYS_ORDERS);
+		}
+	}
+
+	// Deterministic spread over the HISTORY_DAYS before today, each chunk committed on its own
+	private void seedHistory(long from, long to) {
+		jdbcTemplate.update("""
+				INSERT INTO orders (customer_id, type, status, order_date_time, subtotal, total)
+				SELECT ?, (ARRAY['DELIVERY', 'PICKUP', 'DINE_IN'])[1 + g % 3],
+				       CASE WHEN g % 20 = 0 THEN 'CANCELLED' ELSE 'DELIVERED' END,
+				       CURRENT_DATE - (1 + (g * 7919) % (? * 86400)) * INTERVAL '1 second',
+				       50.00 + g % 100, 50.00 + g % 100
+				FROM generate_series(?, ?) g
+				""", customerId, HISTORY_DAYS, from, to);
+	}
+
+	private TreeSet<String> scannedRelations() {
+		Timestamp startOfDay = Timestamp.valueOf(LocalDate.now().atStartOfDay());
+		Timestamp endOfDay = Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay());
+		String plan = jdbcTemplate.queryForObject(
+				"EXPLAIN (FORMAT JSON) SELECT * FROM orders WHERE order_date_time >= ? AND order_date_time < ?",
+				String.class, startOfDay, endOfDay);
+		TreeSet<String> relations = new TreeSet<>();
+		Matcher matcher = RELATION.matcher(plan);
+		while (matcher.find()) {
+			relations.add(matcher.group(1));
+		}
+		return relations;
+	}
+
+	private static double percentile(long[] sortedNanos, int percentile) {
+		int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+		return sortedNanos[index] / 1_000_000.0;
+	}
+}
@@ -0,0 +1,375 @@
+package br.com.alg.algexpress.infra.repository;
+
+import br.com.alg.algexpress.domain.delivery.Delivery;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.domain.payment.Payment;
+import br.com.alg.algexpress.domain.valueObjects.PaymentMethod;
+import br.com.alg.algexpress.infra.repository.customer.AddressLocationRepository;
+import br.com.alg.algexpress.infra.repository.delivery.DeliveryRepository;
+import br.com.alg.algexpress.infra.repository.order.OrderRepository;
+import br.com.alg.algexpress.infra.repository.payment.PaymentRepository;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the selective order, payment, delivery and address repository queries against a seeded
+ * dataset large enough for the planner to prefer indexes, captures the SQL and bind values they
+ * send, and fails when EXPLAIN shows a sequential scan on one of the large tables or on one of
+ * their seeded monthly partitions. Queries that aggregate over most of a table (averages, global
+ * statistics) are deliberately left out.
+ */
+@SpringBootTest(properties = "algexpress.outbox.relay.enabled=false")
+@Import(RepositoryQueryPlansTest.CapturingDataSourceConfig.class)
+class RepositoryQueryPlansTest {
+
+	private static final Set<String> LARGE_TABLES = Set.of("orders", "order_items", "payments", "deliveries", "addresses");
+	// Empty or nearly empty partitions (future months, the default one) are cheapest to scan
+	private static final long MIN_PARTITION_ROWS = 1_000;
+	private static final String MARKER = "Plan Test";
+	private static final int CUSTOMERS = 2_000;
+	private static final int DELIVERY_PERSONS = 100;
+	private static final int ORDERS = 100_000;
+	private static final int ADDRESSES = 20_000;
+
+	private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private DeliveryRepository deliveryRepository;
+
+	@Autowired
+	private AddressLocationRepository addressLocationRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Long pizzaId;
+
+	record CapturedStatement(String sql, List<Object> parameters) {
+	}
+
+	@TestConfiguration
+	static class CapturingDataSourceConfig {
+
+		@Bean
+		static BeanPostProcessor capturingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+						return new CapturingDataSource(dataSource);
+					}
+					return bean;
+				}
+			};
+		}
+	}
+
+	@BeforeEach
+	void seed() {
+		pizzaId = jdbcTemplate.queryForObject(
+				"INSERT INTO pizzas (name, price_medium, category) VALUES ('" + MARKER + "', 40.00, 'TRADITIONAL') RETURNING id",
+				Long.class);
+		jdbcTemplate.update("INSERT INTO customers (name, phone) "
+				+ "SELECT '" + MARKER + " ' || g, '11' || lpad(g::text, 9, '0') FROM generate_series(1, ?) g", CUSTOMERS);
+		jdbcTemplate.update("INSERT INTO delivery_persons (name, phone, document, vehicle_type) "
+				+ "SELECT '" + MARKER + " ' || g, '11' || lpad(g::text, 9, '0'), 'PLAN-' || g, 'MOTORCYCLE' "
+				+ "FROM generate_series(1, ?) g", DELIVERY_PERSONS);
+
+		// The seeded months get their own partitions instead of landing in the default ones
+		jdbcTemplate.queryForObject("SELECT create_order_partitions((now() - INTERVAL '80 days')::DATE, now()::DATE)",
+				Integer.class);
+		// One order per minute going back ~70 days; about 1% still in progress, like a real board
+		jdbcTemplate.update("""
+				INSERT INTO orders (customer_id, type, status, order_date_time, subtotal, total)
+				SELECT c.ids[1 + g % array_length(c.ids, 1)],
+				       (ARRAY['DELIVERY', 'PICKUP', 'DINE_IN'])[1 + g % 3],
+				       CASE g % 500 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'CONFIRMED' WHEN 2 THEN 'PREPARING'
+				                    WHEN 3 THEN 'READY' WHEN 4 THEN 'OUT_FOR_DELIVERY' WHEN 5 THEN 'CANCELLED'
+				                    ELSE 'DELIVERED' END,
+				       now() - g * INTERVAL '1 minute',
+				       50.00 + g % 100, 50.00 + g % 100
+				FROM generate_series(1, ?) g,
+				     (SELECT array_agg(id) AS ids FROM customers WHERE name LIKE ?) c
+				""", ORDERS, MARKER + " %");
+		jdbcTemplate.update("""
+				INSERT INTO order_items (order_id, order_date_time, pizza_id, size, quantity, unit_price, total_price)
+				SELECT o.id, o.order_date_time, ?, 'MEDIUM', 1, o.total / 2, o.total / 2
+				FROM orders o JOIN customers c ON c.id = o.customer_id, generate_series(1, 2)
+				WHERE c.name LIKE ?
+				""", pizzaId, MARKER + " %");
+		jdbcTemplate.update("""
+				INSERT INTO payments (order_id, order_date_time, payment_method, status, amount, payment_date_time,
+				                      transaction_id, authorization_code)
+				SELECT o.id, o.order_date_time,
+				       (ARRAY['CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'PIX'])[1 + o.id % 4],
+				       CASE WHEN o.status IN ('PENDING', 'CONFIRMED') THEN 'PENDING'
+				            WHEN o.status = 'CANCELLED' THEN 'CANCELLED' ELSE 'APPROVED' END,
+				       o.total, o.order_date_time, 'plan-' || o.id, 'auth-' || o.id
+				FROM orders o JOIN customers c ON c.id = o.customer_id
+				WHERE c.name LIKE ?
+				""", MARKER + " %");
+		jdbcTemplate.update("""
+				INSERT INTO deliveries (order_id, order_date_time, delivery_person_id, status, departure_time, delivery_time,
+				                        delivery_fee, distance_km)
+				SELECT o.id, o.order_date_time, p.ids[1 + o.id % array_length(p.ids, 1)],
+				       CASE o.status WHEN 'DELIVERED' THEN 'DELIVERED' WHEN 'CANCELLED' THEN 'CANCELLED'
+				                     WHEN 'OUT_FOR_DELIVERY' THEN 'EN_ROUTE' ELSE 'WAITING_DELIVERY_PERSON' END,
+				       o.order_date_time + INTERVAL '20 minutes', o.order_date_time + INTERVAL '40 minutes',
+				       5.00, 3.5
+				FROM orders o JOIN customers c ON c.id = o.customer_id,
+				     (SELECT array_agg(id) AS ids FROM delivery_persons WHERE name LIKE ?) p
+				WHERE c.name LIKE ? AND o.type = 'DELIVERY'
+				""", MARKER + " %", MARKER + " %");
+		// Geocoded addresses spread over a ~110 x 100 km square around the store
+		jdbcTemplate.update("""
+				INSERT INTO addresses (customer_id, street, number, neighborhood, city, state, zip_code,
+				                       latitude, longitude, geohash)
+				SELECT c.ids[1 + g % array_length(c.ids, 1)], 'Rua ' || g, g::text, 'Centro', 'São Paulo', 'SP',
+				       '01000-000', p.lat, p.lon, geohash_encode(p.lat, p.lon, 9)
+				FROM generate_series(1, ?) g,
+				     LATERAL (SELECT round(-23.5505 + (g::bigint * 7919 % 10007) / 10007.0 - 0.5, 7) AS lat,
+				                     round(-46.6333 + (g::bigint * 104729 % 9973) / 9973.0 - 0.5, 7) AS lon) p,
+				     (SELECT array_agg(id) AS ids FROM customers WHERE name LIKE ?) c
+				""", ADDRESSES, MARKER + " %");
+		jdbcTemplate.execute("ANALYZE customers, delivery_persons, orders, order_items, payments, deliveries, addresses");
+	}
+
+	@AfterEach
+	void deleteSeed() {
+		// Items, payments and deliveries cascade from their orders, addresses from their customers
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id IN (SELECT id FROM customers WHERE name LIKE ?)", MARKER + " %");
+		jdbcTemplate.update("DELETE FROM customers WHERE name LIKE ?", MARKER + " %");
+		jdbcTemplate.update("DELETE FROM delivery_persons WHERE name LIKE ?", MARKER + " %");
+		jdbcTemplate.update("DELETE FROM pizzas WHERE id = ?", pizzaId);
+	}
+
+	@Test
+	void selectiveRepositoryQueriesUseIndexes() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime dayAgo = now.minusDays(1);
+		LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+		LocalDateTime endOfDay = startOfDay.plusDays(1);
+		LocalDateTime beginning = LocalDateTime.of(2000, 1, 1, 0, 0);
+		Long customerId = jdbcTemplate.queryForObject(
+				"SELECT min(id) FROM customers WHERE name LIKE ?", Long.class, MARKER + " %");
+		Long deliveryPersonId = jdbcTemplate.queryForObject(
+				"SELECT min(id) FROM delivery_persons WHERE name LIKE ?", Long.class, MARKER + " %");
+		Long orderId = jdbcTemplate.queryForObject(
+				"SELECT max(o.id) FROM orders o JOIN customers c ON c.id = o.customer_id "
+						+ "WHERE c.name LIKE ? AND o.type = 'DELIVERY'", Long.class, MARKER + " %");
+		LocalDateTime orderDateTime = jdbcTemplate.queryForObject(
+				"SELECT order_date_time FROM orders WHERE id = ?", LocalDateTime.class, orderId);
+		Limit page = Limit.of(50);
+
+		Map<String, Runnable> queries = new LinkedHashMap<>();
+		queries.put("orders.findByCustomerId", () -> orderRepository.findByCustomerId(customerId));
+		queries.put("orders.findByStatus", () -> orderRepository.findByStatus(Order.OrderStatus.PREPARING));
+		queries.put("orders.findByStatusOrderByDateTime", () -> orderRepository.findByStatusOrderByDateTime(Order.OrderStatus.CONFIRMED));
+		queries.put("orders.findOrdersBetweenDates", () -> orderRepository.findOrdersBetweenDates(dayAgo, now));
+		queries.put("orders.findByCustomerIdAndStatus", () -> orderRepository.findByCustomerIdAndStatus(customerId, Order.OrderStatus.DELIVERED));
+		queries.put("orders.findByTotalBetween", () -> orderRepository.findByTotalBetween(new BigDecimal("100.00"), new BigDecimal("100.00")));
+		queries.put("orders.findActiveOrders", orderRepository::findActiveOrders);
+		queries.put("orders.findActiveDeliveryOrders", orderRepository::findActiveDeliveryOrders);
+		queries.put("orders.countByStatus", () -> orderRepository.countByStatus(Order.OrderStatus.READY));
+		queries.put("orders.countOrdersBetweenDates", () -> orderRepository.countOrdersBetweenDates(dayAgo, now));
+		queries.put("orders.sumTotalByDateRange", () -> orderRepository.sumTotalByDateRange(dayAgo, now));
+		queries.put("orders.findCustomerOrderHistory", () -> orderRepository.findCustomerOrderHistory(customerId));
+		queries.put("orders.findTodaysOrders", () -> orderRepository.findTodaysOrders(startOfDay, endOfDay));
+		queries.put("orders.findActiveOrderSummaries", orderRepository::findActiveOrderSummaries);
+		queries.put("orders.findActiveDeliveryOrderSummaries", orderRepository::findActiveDeliveryOrderSummaries);
+		queries.put("orders.findTodaysOrderSummaries", () -> orderRepository.findTodaysOrderSummaries(startOfDay, endOfDay));
+		queries.put("orders.findDetailById", () -> orderRepository.findDetailById(orderId));
+		queries.put("orders.findKitchenOrders", orderRepository::findKitchenOrders);
+		queries.put("orders.countItemsByOrderId", () -> orderRepository.countItemsByOrderId(orderId, orderDateTime));
+		queries.put("orders.findPageByStatus", () -> orderRepository.findPageByStatus(Order.OrderStatus.CONFIRMED, beginning, 0L, page));
+		queries.put("orders.findPageByType", () -> orderRepository.findPageByType(Order.OrderType.DELIVERY, dayAgo, 0L, page));
+		queries.put("orders.findPageBetweenDates", () -> orderRepository.findPageBetweenDates(dayAgo, now, dayAgo, 0L, page));
+		queries.put("orders.findPageByCustomerIdAndStatus", () -> orderRepository.findPageByCustomerIdAndStatus(customerId, Order.OrderStatus.DELIVERED, beginning, 0L, page));
+		queries.put("orders.findPageByTotalBetween", () -> orderRepository.findPageByTotalBetween(new BigDecimal("100.00"), new BigDecimal("100.00"), beginning, 0L, page));
+		queries.put("orders.findCustomerOrderHistoryPage", () -> orderRepository.findCustomerOrderHistoryPage(customerId, now, Long.MAX_VALUE, page));
+
+		queries.put("payments.findByOrderId", () -> paymentRepository.findByOrderId(orderId));
+		queries.put("payments.findByStatus", () -> paymentRepository.findByStatus(Payment.PaymentStatus.PENDING));
+		queries.put("payments.findByOrderIdAndStatus", () -> paymentRepository.findByOrderIdAndStatus(orderId, Payment.PaymentStatus.APPROVED));
+		queries.put("payments.findPaymentsBetweenDates", () -> paymentRepository.findPaymentsBetweenDates(dayAgo, now));
+		queries.put("payments.findPaymentsAppovedBetweenDates", () -> paymentRepository.findPaymentsAppovedBetweenDates(dayAgo, now));
+		queries.put("payments.sumApprovedPaymentsByOrderId", () -> paymentRepository.sumApprovedPaymentsByOrderId(orderId));
+		queries.put("payments.countByStatus", () -> paymentRepository.countByStatus(Payment.PaymentStatus.PENDING));
+		queries.put("payments.sumApprovedPaymentsByDateRange", () -> paymentRepository.sumApprovedPaymentsByDateRange(dayAgo, now));
+		queries.put("payments.findByTransactionId", () -> paymentRepository.findByTransactionId("plan-" + orderId));
+		queries.put("payments.findByAuthorizationCode", () -> paymentRepository.findByAuthorizationCode("auth-" + orderId));
+		queries.put("payments.findApprovedPaymentsByMethodAndDateRange", () -> paymentRepository.findApprovedPaymentsByMethodAndDateRange(PaymentMethod.PaymentType.PIX, dayAgo, now));
+		queries.put("payments.findTodaysApprovedPayments", () -> paymentRepository.findTodaysApprovedPayments(startOfDay));
+		queries.put("payments.findPageByStatus", () -> paymentRepository.findPageByStatus(Payment.PaymentStatus.PENDING, 0L, page));
+
+		queries.put("deliveries.findByOrderId", () -> deliveryRepository.findByOrderId(orderId));
+		queries.put("deliveries.findByDeliveryPersonId", () -> deliveryRepository.findByDeliveryPersonId(deliveryPersonId));
+		queries.put("deliveries.findByStatus", () -> deliveryRepository.findByStatus(Delivery.DeliveryStatus.EN_ROUTE));
+		queries.put("deliveries.findByDeliveryPersonIdAndStatus", () -> deliveryRepository.findByDeliveryPersonIdAndStatus(deliveryPersonId, Delivery.DeliveryStatus.EN_ROUTE));
+		queries.put("deliveries.findDeliveriesBetweenDates", () -> deliveryRepository.findDeliveriesBetweenDates(dayAgo, now));
+		queries.put("deliveries.findActiveDeliveries", deliveryRepository::findActiveDeliveries);
+		queries.put("deliveries.countByStatus", () -> deliveryRepository.countByStatus(Delivery.DeliveryStatus.WAITING_DELIVERY_PERSON));
+		queries.put("deliveries.findDeliveryPersonPerformance", () -> deliveryRepository.findDeliveryPersonPerformance(dayAgo, now));
+		queries.put("deliveries.sumDeliveryFeesByDateRange", () -> deliveryRepository.sumDeliveryFeesByDateRange(dayAgo, now));
+		queries.put("deliveries.countTodaysDeliveriesByPerson", () -> deliveryRepository.countTodaysDeliveriesByPerson(deliveryPersonId, startOfDay, endOfDay));
+		queries.put("deliveries.findTodaysDeliveries", () -> deliveryRepository.findTodaysDeliveries(startOfDay, endOfDay));
+
+		queries.put("addresses.findWithin", () -> addressLocationRepository.findWithin(new GeoPoint(-23.5505, -46.6333), 1, 100));
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		List<String> sequentialScans = new ArrayList<>();
+		queries.forEach((name, query) -> {
+			List<CapturedStatement> statements = new ArrayList<>();
+			CAPTURED.set(statements);
+			try {
+				readOnly.executeWithoutResult(status -> query.run());
+			} finally {
+				CAPTURED.remove();
+			}
+			assertThat(statements).as(name).isNotEmpty();
+			for (CapturedStatement statement : statements) {
+				for (String relation : sequentialScans(statement)) {
+					sequentialScans.add(name + ": Seq Scan on " + relation + "\n    " + statement.sql());
+				}
+			}
+		});
+
+		assertThat(sequentialScans).isEmpty();
+	}
+
+	private List<String> sequentialScans(CapturedStatement statement) {
+		if (!statement.sql().stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+			return List.of();
+		}
+		String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + statement.sql(), String.class,
+				statement.parameters().toArray());
+		List<String> relations = new ArrayList<>();
+		try {
+			collectSequentialScans(objectMapper.readTree(plan).get(0).get("Plan"), relations);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not read plan: " + plan, e);
+		}
+		relations.removeIf(relation -> !LARGE_TABLES.contains(relation) && jdbcTemplate.queryForObject(
+				"SELECT reltuples FROM pg_class WHERE oid = ?::regclass", Double.class, relation) < MIN_PARTITION_ROWS);
+		return relations;
+	}
+
+	private static void collectSequentialScans(JsonNode node, List<String> relations) {
+		String relation = node.path("Relation Name").asText();
+		if ("Seq Scan".equals(node.path("Node Type").asText()) && LARGE_TABLES.stream()
+				.anyMatch(table -> relation.equals(table) || relation.startsWith(table + "_"))) {
+			relations.add(relation);
+		}
+		for (JsonNode child : node.path("Plans")) {
+			collectSequentialScans(child, relations);
+		}
+	}
+
+	/**
+	 * Records the SQL and bind values of every prepared statement executed while the current
+	 * thread has a capture list.
+	 */
+	static final class CapturingDataSource extends DelegatingDataSource {
+
+		CapturingDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return capture(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return capture(super.getConnection(username, password));
+		}
+
+		private static Connection capture(Connection connection) {
+			return proxy(Connection.class, connection, (method, args, result) -> {
+				if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+					return capture((PreparedStatement) result, sql);
+				}
+				return result;
+			});
+		}
+
+		private static PreparedStatement capture(PreparedStatement statement, String sql) {
+			Map<Integer, Object> parameters = new TreeMap<>();
+			return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+				String name = method.getName();
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+					parameters.put(index, name.equals("setNull") ? null : args[1]);
+				} else if (name.equals("clearParameters")) {
+					parameters.clear();
+				} else if (name.startsWith("execute") && CAPTURED.get() != null) {
+					CAPTURED.get().add(new CapturedStatement(sql, new ArrayList<>(parameters.values())));
+				}
+				return result;
+			});
+		}
+
+		private interface AfterInvocation {
+			Object apply(Method method, Object[] args, Object result);
+		}
+
+		private static <T> T proxy(Class<T> type, T target, AfterInvocation after) {
+			InvocationHandler handler = (proxy, method, args) -> {
+				try {
+					return after.apply(method, args, method.invoke(target, args));
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			};
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+		}
+	}
+}
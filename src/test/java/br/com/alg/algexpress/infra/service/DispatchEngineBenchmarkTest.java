@@ -0,0 +1,187 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.delivery.DeliveryPerson;
+import br.com.alg.algexpress.infra.repository.delivery.DispatchRepository.WaitingDelivery;
+import br.com.alg.algexpress.infra.support.GeoPoint;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@link DispatchEngine} with a simulated evening: couriers of every vehicle type, orders
+ * clustered around neighbourhoods spread around the store arriving faster than single-order
+ * trips can absorb, and couriers freed as their estimated drops complete. Compares batched trips
+ * against one order per trip and measures how long a plan takes, including one with a thousand
+ * queued orders and five hundred idle couriers. Run it with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DispatchEngineBenchmarkTest {
+
+	private static final double STORE_LATITUDE = -23.5505;
+	private static final double STORE_LONGITUDE = -46.6333;
+	private static final double KM_PER_DEGREE = 111.32;
+	private static final int NEIGHBOURHOODS = 25;
+	private static final int COURIERS = 400;
+	private static final int MINUTES = 240;
+	private static final int ORDERS_PER_MINUTE = 30;
+	private static final long SEED = 42;
+	private static final int WARMUP = 200;
+	private static final int RUNS = 100;
+
+	@Test
+	void batchingShortensOrderToDoorTimeUnderLoad() {
+		Result batched = simulate(3);
+		Result single = simulate(1);
+		print("batched (up to 3 per trip)", batched);
+		print("one order per trip", single);
+
+		assertThat(batched.delivered()).isGreaterThan(single.delivered());
+		assertThat(batched.meanMinutes()).isLessThan(single.meanMinutes());
+		assertThat(batched.percentileMillis(99)).isLessThan(20);
+	}
+
+	@Test
+	void largePlanFinishesInMilliseconds() {
+		Random random = new Random(SEED);
+		List<GeoPoint> neighbourhoods = neighbourhoods(random);
+		long[] nanos = new long[RUNS];
+		int planned = 0;
+		for (int run = -WARMUP; run < RUNS; run++) {
+			DispatchEngine engine = new DispatchEngine(STORE_LATITUDE, STORE_LONGITUDE, 1.5, 3, 3, 60);
+			for (long courier = 1; courier <= 500; courier++) {
+				engine.updateCourier(courier, vehicle(random), true);
+				engine.reportPosition(courier, around(neighbourhoods.get(random.nextInt(NEIGHBOURHOODS)), 2, random));
+			}
+			LocalDateTime now = LocalDateTime.now();
+			for (long delivery = 1; delivery <= 1000; delivery++) {
+				engine.enqueue(new WaitingDelivery(delivery, delivery, destination(neighbourhoods, random),
+						now.minusSeconds(delivery)));
+			}
+			long start = System.nanoTime();
+			List<DispatchEngine.Trip> trips = engine.plan();
+			if (run >= 0) {
+				nanos[run] = System.nanoTime() - start;
+			}
+			planned = trips.stream().mapToInt(trip -> trip.stops().size()).sum();
+		}
+		Arrays.sort(nanos);
+		System.out.printf("plan with 1000 queued orders and 500 idle couriers: %d orders planned, p50 %.2f ms, max %.2f ms%n",
+				planned, nanos[nanos.length / 2] / 1_000_000.0, nanos[nanos.length - 1] / 1_000_000.0);
+		assertThat(planned).isGreaterThan(900);
+		assertThat(nanos[nanos.length / 2] / 1_000_000.0).isLessThan(20);
+	}
+
+	private Result simulate(int maxBatchSize) {
+		Random random = new Random(SEED);
+		List<GeoPoint> neighbourhoods = neighbourhoods(random);
+		DispatchEngine engine = new DispatchEngine(STORE_LATITUDE, STORE_LONGITUDE, 1.5, maxBatchSize, 3, 60);
+		for (long courier = 1; courier <= COURIERS; courier++) {
+			engine.updateCourier(courier, vehicle(random), true);
+		}
+
+		LocalDateTime opening = LocalDateTime.of(2026, 10, 16, 18, 0);
+		Map<Long, LocalDateTime> orderedAt = new HashMap<>();
+		Map<Integer, List<Long>> drops = new HashMap<>();
+		List<Double> orderToDoor = new ArrayList<>();
+		long[] planNanos = new long[MINUTES];
+		int maxQueued = 0;
+		long trips = 0;
+		long nextDelivery = 1;
+
+		for (int minute = 0; minute < MINUTES; minute++) {
+			LocalDateTime now = opening.plusMinutes(minute);
+			for (Long delivered : drops.getOrDefault(minute, List.of())) {
+				engine.closed(delivered);
+				orderToDoor.add((double) Duration.between(orderedAt.remove(delivered), now).toMinutes());
+			}
+			for (int i = 0; i < ORDERS_PER_MINUTE; i++) {
+				long delivery = nextDelivery++;
+				orderedAt.put(delivery, now);
+				engine.enqueue(new WaitingDelivery(delivery, delivery, destination(neighbourhoods, random), now));
+			}
+			maxQueued = Math.max(maxQueued, engine.stats().queued());
+
+			long start = System.nanoTime();
+			List<DispatchEngine.Trip> planned = engine.plan();
+			planNanos[minute] = System.nanoTime() - start;
+			for (DispatchEngine.Trip trip : planned) {
+				engine.confirm(trip, trip.deliveryIds());
+				for (DispatchEngine.Stop stop : trip.stops()) {
+					int at = minute + (int) Math.ceil(trip.pickupMinutes() + stop.minutes());
+					drops.computeIfAbsent(at, key -> new ArrayList<>()).add(stop.deliveryId());
+				}
+			}
+			trips += planned.size();
+		}
+		Arrays.sort(planNanos);
+		return new Result(orderToDoor.size(), trips, maxQueued,
+				orderToDoor.stream().mapToDouble(Double::doubleValue).average().orElse(0),
+				orderToDoor.stream().mapToDouble(Double::doubleValue).sorted().toArray(), planNanos);
+	}
+
+	private record Result(int delivered, long trips, int maxQueued, double meanMinutes, double[] sortedMinutes,
+	                      long[] sortedPlanNanos) {
+
+		double percentileMinutes(int percentile) {
+			return sortedMinutes[index(sortedMinutes.length, percentile)];
+		}
+
+		double percentileMillis(int percentile) {
+			return sortedPlanNanos[index(sortedPlanNanos.length, percentile)] / 1_000_000.0;
+		}
+
+		private static int index(int length, int percentile) {
+			return Math.max(0, Math.min(length - 1, (int) Math.ceil(percentile / 100.0 * length) - 1));
+		}
+	}
+
+	private static void print(String label, Result result) {
+		System.out.printf("%s: %,d delivered in %,d trips (%.2f per trip), max queue %d, order-to-door mean %.1f min, "
+						+ "p95 %.1f min; plan p50 %.2f ms, p99 %.2f ms%n",
+				label, result.delivered(), result.trips(), result.delivered() / (double) Math.max(1, result.trips()),
+				result.maxQueued(), result.meanMinutes(), result.percentileMinutes(95),
+				result.percentileMillis(50), result.percentileMillis(99));
+	}
+
+	private static List<GeoPoint> neighbourhoods(Random random) {
+		GeoPoint store = new GeoPoint(STORE_LATITUDE, STORE_LONGITUDE);
+		List<GeoPoint> neighbourhoods = new ArrayList<>(NEIGHBOURHOODS);
+		for (int i = 0; i < NEIGHBOURHOODS; i++) {
+			neighbourhoods.add(around(store, 3, random));
+		}
+		return neighbourhoods;
+	}
+
+	private static GeoPoint destination(List<GeoPoint> neighbourhoods, Random random) {
+		return around(neighbourhoods.get(random.nextInt(neighbourhoods.size())), 0.8, random);
+	}
+
+	// Normally distributed offset with the given standard deviation in km
+	private static GeoPoint around(GeoPoint center, double km, Random random) {
+		double latitude = center.latitude() + random.nextGaussian() * km / KM_PER_DEGREE;
+		double longitude = center.longitude()
+				+ random.nextGaussian() * km / (KM_PER_DEGREE * Math.cos(Math.toRadians(center.latitude())));
+		return new GeoPoint(latitude, longitude);
+	}
+
+	private static DeliveryPerson.VehicleType vehicle(Random random) {
+		int draw = random.nextInt(100);
+		if (draw < 70) {
+			return DeliveryPerson.VehicleType.MOTORCYCLE;
+		}
+		if (draw < 85) {
+			return DeliveryPerson.VehicleType.BICYCLE;
+		}
+		return draw < 95 ? DeliveryPerson.VehicleType.CAR : DeliveryPerson.VehicleType.ON_FOOT;
+	}
+}
@@ -0,0 +1,105 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.order.OrderArchiveRepository;
+import br.com.alg.algexpress.infra.support.ColumnarFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Segments stay invisible until published, survive a restart either way, and answer the
+ * date-range reads that are combined with the database's.
+ */
+class OrderArchiveTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 10, 0, 0);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void segmentIsOnlyReadOnceItIsPublished() {
+		OrderArchive archive = new OrderArchive(directory);
+		OrderArchive.Segment pending = archive.write(batch(1, 3));
+
+		assertThat(archive.countOrders(DAY, DAY.plusDays(1))).isZero();
+		assertThat(archive.hasCustomer(100)).isFalse();
+		assertThat(archive.pendingSegments()).extracting(OrderArchive.Segment::file).containsExactly(pending.file());
+		assertThat(archive.orderIds(pending)).containsExactly(1, 2, 3);
+
+		archive.publish(pending);
+
+		assertThat(archive.countOrders(DAY, DAY.plusDays(1))).isEqualTo(3);
+		assertThat(archive.hasCustomer(100)).isTrue();
+		assertThat(archive.pendingSegments()).isEmpty();
+		assertThat(new OrderArchive(directory).stats().orders()).isEqualTo(3);
+	}
+
+	@Test
+	void discardedSegmentIsGone() {
+		OrderArchive archive = new OrderArchive(directory);
+		archive.discard(archive.write(batch(1, 2)));
+
+		assertThat(archive.pendingSegments()).isEmpty();
+		assertThat(new OrderArchive(directory).stats().segments()).isZero();
+	}
+
+	@Test
+	void sumsPaymentsAndDeliveriesByTheirOwnDates() {
+		OrderArchive archive = new OrderArchive(directory);
+		archive.publish(archive.write(batch(1, 4)));
+
+		// Orders at 10:00..13:00, paid and delivered half an hour later; order 2 is cancelled
+		assertThat(archive.countOrders(DAY.plusHours(11), DAY.plusHours(12))).isEqualTo(2);
+		assertThat(archive.sumApprovedPayments(DAY, DAY.plusDays(1))).contains(new BigDecimal("150.00"));
+		assertThat(archive.sumApprovedPayments(DAY.plusHours(13), DAY.plusHours(14))).contains(new BigDecimal("50.00"));
+		assertThat(archive.sumDeliveryFees(DAY, DAY.plusDays(1))).contains(new BigDecimal("15.00"));
+		assertThat(archive.sumDeliveryFees(DAY.plusDays(1), DAY.plusDays(2))).isEmpty();
+	}
+
+	@Test
+	void reportsIndexedSegmentsItCannotRead() {
+		OrderArchive archive = new OrderArchive(directory);
+		OrderArchive.Segment pending = archive.write(batch(1, 2));
+		String name = archive.name(pending);
+
+		assertThat(name).doesNotEndWith(".pending").startsWith("2026-03/");
+		assertThat(archive.missing(List.of(name))).containsExactly(name);
+
+		assertThat(archive.name(archive.publish(pending))).isEqualTo(name);
+		assertThat(archive.missing(List.of(name))).isEmpty();
+		assertThat(archive.missing(List.of(name, "2026-04/written-elsewhere.oca"))).containsExactly("2026-04/written-elsewhere.oca");
+	}
+
+	// Orders first..last of customer 100, hourly from 10:00, 50.00 each with a 5.00 fee
+	private static List<ColumnarFile.Table> batch(long first, long last) {
+		List<Object[]> orders = new ArrayList<>();
+		List<Object[]> payments = new ArrayList<>();
+		List<Object[]> deliveries = new ArrayList<>();
+		for (long id = first; id <= last; id++) {
+			LocalDateTime at = DAY.plusHours(9 + id);
+			boolean cancelled = id == 2;
+			orders.add(new Object[]{id, 100L, "Archive Test", 1L, cancelled ? "CANCELLED" : "DELIVERED", "DELIVERY",
+					at, at.plusMinutes(40), at.plusMinutes(30), new BigDecimal("45.00"), new BigDecimal("5.00"),
+					BigDecimal.ZERO, new BigDecimal("50.00"), null, 40L});
+			payments.add(new Object[]{id, id, "PIX", cancelled ? "REFUNDED" : "APPROVED", new BigDecimal("50.00"),
+					new BigDecimal("50.00"), at.plusMinutes(30), "tx-" + id, null});
+			deliveries.add(new Object[]{id, id, 7L, cancelled ? "CANCELLED" : "DELIVERED", at.plusMinutes(10),
+					cancelled ? null : at.plusMinutes(30), new BigDecimal("2.5"), new BigDecimal("5.00"), 1L});
+		}
+		return List.of(
+				new ColumnarFile.Table("orders", OrderArchiveRepository.ORDER_COLUMNS, orders),
+				new ColumnarFile.Table("order_items", OrderArchiveRepository.ITEM_COLUMNS, List.of()),
+				new ColumnarFile.Table("order_item_additional_ingredients", OrderArchiveRepository.CUSTOMIZATION_COLUMNS, List.of()),
+				new ColumnarFile.Table("order_item_removed_ingredients", OrderArchiveRepository.CUSTOMIZATION_COLUMNS, List.of()),
+				new ColumnarFile.Table("payments", OrderArchiveRepository.PAYMENT_COLUMNS, payments),
+				new ColumnarFile.Table("deliveries", OrderArchiveRepository.DELIVERY_COLUMNS, deliveries));
+	}
+}
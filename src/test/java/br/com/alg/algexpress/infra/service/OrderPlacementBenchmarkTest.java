@@ -0,0 +1,135 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.menu.Pizza;
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.order.OrderDTO;
+import br.com.alg.algexpress.dto.order.OrderItemDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@link OrderPlacementService#placeOrder} for delivery orders while the number of
+ * customers, each with one address, grows from 1k to 1M: resolving the delivery address must
+ * stay an indexed lookup by id and owner whatever the size of the customer base. Seeding 1M
+ * customers takes a while: run it against a disposable database with
+ * {@code mvn test -Pbenchmark}; {@code -Dbenchmark.customers=1000,50000} picks other sizes.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"algexpress.outbox.relay.enabled=false", "algexpress.dispatch.enabled=false"})
+class OrderPlacementBenchmarkTest {
+
+	private static final String MARKER = "Placement Benchmark";
+	private static final int CHUNK = 100_000;
+	private static final int WARMUP = 200;
+	private static final int RUNS = 1_000;
+
+	@Autowired
+	private OrderPlacementService orderPlacementService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long pizzaId;
+
+	@BeforeEach
+	void createPizza() {
+		pizzaId = jdbcTemplate.queryForObject(
+				"INSERT INTO pizzas (name, price_medium, category) VALUES ('" + MARKER + "', 40.00, 'TRADITIONAL') RETURNING id",
+				Long.class);
+	}
+
+	@AfterEach
+	void deleteSeed() {
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id IN (SELECT id FROM customers WHERE name = ?)", MARKER);
+		jdbcTemplate.update("DELETE FROM customers WHERE name = ?", MARKER);
+		jdbcTemplate.update("DELETE FROM pizzas WHERE id = ?", pizzaId);
+	}
+
+	@Test
+	void createOrderLatencyDoesNotGrowWithCustomers() {
+		long[] sizes = Arrays.stream(System.getProperty("benchmark.customers", "1000,10000,100000,1000000").split(","))
+				.mapToLong(size -> Long.parseLong(size.trim()))
+				.sorted()
+				.toArray();
+		Random random = new Random(42);
+
+		long seeded = 0;
+		for (long size : sizes) {
+			while (seeded < size) {
+				long next = Math.min(size, seeded + CHUNK);
+				seedCustomers(next - seeded);
+				seeded = next;
+			}
+			jdbcTemplate.execute("ANALYZE customers");
+			jdbcTemplate.execute("ANALYZE addresses");
+			Map<String, Object> range = jdbcTemplate.queryForMap(
+					"SELECT MIN(id) AS first, MAX(id) AS last FROM customers WHERE name = ?", MARKER);
+			long first = ((Number) range.get("first")).longValue();
+			long last = ((Number) range.get("last")).longValue();
+
+			for (int i = 0; i < WARMUP; i++) {
+				orderPlacementService.placeOrder(deliveryOrder(randomCustomer(random, first, last)));
+			}
+			long[] nanos = new long[RUNS];
+			for (int i = 0; i < RUNS; i++) {
+				OrderDTO request = deliveryOrder(randomCustomer(random, first, last));
+				long start = System.nanoTime();
+				Order order = orderPlacementService.placeOrder(request);
+				nanos[i] = System.nanoTime() - start;
+				assertThat(order.getDeliveryAddress().getId()).isEqualTo(request.addressId());
+			}
+			Arrays.sort(nanos);
+			System.out.printf("placeOrder with %,d customers: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms%n",
+					size, percentile(nanos, 50), percentile(nanos, 95), percentile(nanos, 99));
+		}
+	}
+
+	// One address per customer, without coordinates so the address's own fee applies
+	private void seedCustomers(long count) {
+		jdbcTemplate.update("""
+				WITH created AS (
+				    INSERT INTO customers (name, phone)
+				    SELECT ?, '119' || lpad(g::text, 8, '0') FROM generate_series(1, ?) g
+				    RETURNING id
+				)
+				INSERT INTO addresses (customer_id, street, number, neighborhood, city, state, zip_code, delivery_fee)
+				SELECT id, 'Rua Benchmark', id::text, 'Centro', 'São Paulo', 'SP', '01000-000', 5.00 FROM created
+				""", MARKER, count);
+	}
+
+	// Customer ids of one seed are contiguous in practice; a gap is simply drawn again
+	private long[] randomCustomer(Random random, long first, long last) {
+		while (true) {
+			long customerId = first + (long) (random.nextDouble() * (last - first + 1));
+			List<Long> addressIds = jdbcTemplate.queryForList(
+					"SELECT id FROM addresses WHERE customer_id = ?", Long.class, customerId);
+			if (!addressIds.isEmpty()) {
+				return new long[]{customerId, addressIds.get(0)};
+			}
+		}
+	}
+
+	private OrderDTO deliveryOrder(long[] customerAndAddress) {
+		OrderItemDTO item = new OrderItemDTO(null, pizzaId, null, Pizza.PizzaSize.MEDIUM, 2, null, null,
+				List.of(), List.of(), null, null, null);
+		return new OrderDTO(null, customerAndAddress[0], null, Order.OrderType.DELIVERY, null, customerAndAddress[1],
+				null, null, null, null, null, null, null, List.of(item), null);
+	}
+
+	private static double percentile(long[] sortedNanos, int percentile) {
+		int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+		return sortedNanos[index] / 1_000_000.0;
+	}
+}
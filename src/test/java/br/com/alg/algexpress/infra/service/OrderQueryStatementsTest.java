@@ -0,0 +1,223 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import br.com.alg.algexpress.dto.common.CursorPage;
+import br.com.alg.algexpress.dto.order.KitchenOrderDTO;
+import br.com.alg.algexpress.dto.order.OrderDTO;
+import br.com.alg.algexpress.dto.order.OrderSummaryDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order read endpoints run a fixed number of statements whatever the number of orders, items
+ * and ingredients involved: every query is measured with a few orders and again with ten times
+ * as many, and both counts must match.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"algexpress.outbox.relay.enabled=false"
+})
+class OrderQueryStatementsTest {
+
+	private static final int FEW_ORDERS = 3;
+	private static final int MANY_ORDERS = 30;
+	private static final int ITEMS_PER_ORDER = 2;
+	private static final BigDecimal TOTAL = new BigDecimal("90.00");
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Long customerId;
+	private Long pizzaId;
+	private final List<Long> ingredientIds = new ArrayList<>();
+	private final List<Long> orderIds = new ArrayList<>();
+
+	@BeforeEach
+	void createOrders() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		customerId = jdbcTemplate.queryForObject(
+				"INSERT INTO customers (name, phone) VALUES ('Statistics Test', '11999990000') RETURNING id", Long.class);
+		pizzaId = jdbcTemplate.queryForObject(
+				"INSERT INTO pizzas (name, price_medium, category) VALUES ('Statistics Test', 40.00, 'TRADITIONAL') RETURNING id",
+				Long.class);
+		for (String name : List.of("Statistics Bacon", "Statistics Onion")) {
+			ingredientIds.add(jdbcTemplate.queryForObject(
+					"INSERT INTO ingredients (name, additional_price, category) VALUES (?, 5.00, 'OTHER') RETURNING id",
+					Long.class, name));
+		}
+		seedOrders(FEW_ORDERS);
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		for (Long orderId : orderIds) {
+			jdbcTemplate.update("DELETE FROM orders WHERE id = ?", orderId);
+		}
+		for (Long ingredientId : ingredientIds) {
+			jdbcTemplate.update("DELETE FROM ingredients WHERE id = ?", ingredientId);
+		}
+		jdbcTemplate.update("DELETE FROM pizzas WHERE id = ?", pizzaId);
+		jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+	}
+
+	@Test
+	void activeSummariesUseOneStatement() {
+		List<OrderSummaryDTO> summaries = measure(1, orderService::findActiveOrderSummaries);
+
+		assertThat(summaries).filteredOn(summary -> orderIds.contains(summary.id()))
+				.hasSize(MANY_ORDERS)
+				.allSatisfy(summary -> {
+					assertThat(summary.customerName()).isEqualTo("Statistics Test");
+					assertThat(summary.itemCount()).isEqualTo(ITEMS_PER_ORDER);
+				});
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void activeDeliverySummariesUseOneStatement() {
+		List<OrderSummaryDTO> summaries = measure(1, orderService::findActiveDeliveryOrderSummaries);
+
+		assertThat(summaries).filteredOn(summary -> orderIds.contains(summary.id()))
+				.hasSize(MANY_ORDERS / 2)
+				.allSatisfy(summary -> assertThat(summary.type()).isEqualTo(Order.OrderType.DELIVERY));
+	}
+
+	@Test
+	void todaysSummariesUseOneStatement() {
+		List<OrderSummaryDTO> summaries = measure(1, orderService::findTodaysOrderSummaries);
+
+		assertThat(summaries).filteredOn(summary -> orderIds.contains(summary.id())).hasSize(MANY_ORDERS);
+	}
+
+	@Test
+	void statusPageUsesOneStatement() {
+		measure(1, () -> orderService.findPageByStatus(Order.OrderStatus.CONFIRMED, null, CursorPage.MAX_SIZE));
+	}
+
+	@Test
+	void typePageUsesOneStatement() {
+		measure(1, () -> orderService.findPageByType(Order.OrderType.PICKUP, null, CursorPage.MAX_SIZE));
+	}
+
+	@Test
+	void dateRangePageUsesOneStatement() {
+		LocalDateTime now = LocalDateTime.now();
+
+		measure(1, () -> orderService.findPageBetweenDates(now.minusHours(1), now.plusHours(1), null, CursorPage.MAX_SIZE));
+	}
+
+	@Test
+	void totalRangePageUsesOneStatement() {
+		measure(1, () -> orderService.findPageByTotalBetween(TOTAL, TOTAL, null, CursorPage.MAX_SIZE));
+	}
+
+	@Test
+	void customerPageUsesOneStatement() {
+		CursorPage<OrderSummaryDTO> page = measure(1,
+				() -> orderService.findPageByCustomerId(customerId, null, CursorPage.MAX_SIZE));
+
+		assertThat(page.items()).hasSize(MANY_ORDERS);
+	}
+
+	@Test
+	void customerHistoryPageUsesOneStatement() {
+		CursorPage<OrderSummaryDTO> page = measure(1,
+				() -> orderService.findCustomerOrderHistoryPage(customerId, null, CursorPage.MAX_SIZE));
+
+		assertThat(page.items()).hasSize(MANY_ORDERS);
+	}
+
+	@Test
+	void customerStatusPageUsesOneStatement() {
+		CursorPage<OrderSummaryDTO> page = measure(1, () -> orderService.findPageByCustomerIdAndStatus(
+				customerId, Order.OrderStatus.CONFIRMED, null, CursorPage.MAX_SIZE));
+
+		assertThat(page.items()).hasSize(MANY_ORDERS);
+	}
+
+	@Test
+	void detailUsesOneStatementPerCollectionRole() {
+		// order + customer + items + pizzas, then customer addresses, additional ingredients,
+		// removed ingredients and pizza ingredients in one batch each
+		OrderDTO order = measure(5, () -> orderService.findDetailById(orderIds.get(0)).orElseThrow());
+
+		assertThat(order.items()).hasSize(ITEMS_PER_ORDER)
+				.allSatisfy(item -> {
+					assertThat(item.additionalIngredients()).hasSize(1);
+					assertThat(item.removedIngredients()).hasSize(1);
+				});
+	}
+
+	@Test
+	void kitchenViewIsIndependentOfOrderCount() {
+		// orders + items + pizzas, then additional and removed ingredients in one batch each
+		List<KitchenOrderDTO> orders = measure(3, orderService::findKitchenOrders);
+
+		assertThat(orders).filteredOn(order -> orderIds.contains(order.id()))
+				.hasSize(MANY_ORDERS)
+				.allSatisfy(order -> assertThat(order.items()).hasSize(ITEMS_PER_ORDER));
+	}
+
+	/**
+	 * Runs the query with FEW_ORDERS seeded and again after growing to MANY_ORDERS, expecting
+	 * the same number of statements both times; returns the second result.
+	 */
+	private <T> T measure(long statements, Supplier<T> query) {
+		statistics.clear();
+		query.get();
+		assertThat(statistics.getPrepareStatementCount()).as("statements with %d orders", FEW_ORDERS)
+				.isEqualTo(statements);
+
+		seedOrders(MANY_ORDERS - orderIds.size());
+		statistics.clear();
+		T result = query.get();
+		assertThat(statistics.getPrepareStatementCount()).as("statements with %d orders", MANY_ORDERS)
+				.isEqualTo(statements);
+		return result;
+	}
+
+	// Confirmed orders alternating between pickup and delivery, each with customized items
+	private void seedOrders(int count) {
+		for (int i = 0; i < count; i++) {
+			String type = orderIds.size() % 2 == 0 ? "PICKUP" : "DELIVERY";
+			Long orderId = jdbcTemplate.queryForObject(
+					"INSERT INTO orders (customer_id, type, status, subtotal, total) "
+							+ "VALUES (?, ?, 'CONFIRMED', ?, ?) RETURNING id",
+					Long.class, customerId, type, TOTAL, TOTAL);
+			orderIds.add(orderId);
+			for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+				Long itemId = jdbcTemplate.queryForObject(
+						"INSERT INTO order_items (order_id, order_date_time, pizza_id, size, quantity, unit_price, total_price) "
+								+ "SELECT id, order_date_time, ?, 'MEDIUM', 1, 45.00, 45.00 FROM orders WHERE id = ? RETURNING id",
+						Long.class, pizzaId, orderId);
+				jdbcTemplate.update("INSERT INTO order_item_additional_ingredients (order_item_id, ingredient_id) VALUES (?, ?)",
+						itemId, ingredientIds.get(0));
+				jdbcTemplate.update("INSERT INTO order_item_removed_ingredients (order_item_id, ingredient_id) VALUES (?, ?)",
+						itemId, ingredientIds.get(1));
+			}
+		}
+	}
+
+}
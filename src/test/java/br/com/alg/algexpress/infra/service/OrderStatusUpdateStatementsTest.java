@@ -0,0 +1,80 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A status change must not load the order's items: one select for the order, one for the
+ * customer name in the board event, one item count and the update itself. Outbox rows are
+ * written with JdbcTemplate and do not show up in the Hibernate statistics.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"algexpress.outbox.relay.enabled=false"
+})
+class OrderStatusUpdateStatementsTest {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Long customerId;
+	private Long pizzaId;
+	private Long orderId;
+
+	@BeforeEach
+	void createOrderWithItems() {
+		customerId = jdbcTemplate.queryForObject(
+				"INSERT INTO customers (name, phone) VALUES ('Statistics Test', '11999990000') RETURNING id", Long.class);
+		pizzaId = jdbcTemplate.queryForObject(
+				"INSERT INTO pizzas (name, price_medium, category) VALUES ('Statistics Test', 40.00, 'TRADITIONAL') RETURNING id",
+				Long.class);
+		orderId = jdbcTemplate.queryForObject(
+				"INSERT INTO orders (customer_id, type, subtotal, total) VALUES (?, 'PICKUP', 80.00, 80.00) RETURNING id",
+				Long.class, customerId);
+		for (int i = 0; i < 2; i++) {
+			jdbcTemplate.update("INSERT INTO order_items (order_id, order_date_time, pizza_id, size, quantity, unit_price, total_price) "
+					+ "SELECT id, order_date_time, ?, 'MEDIUM', 1, 40.00, 40.00 FROM orders WHERE id = ?", pizzaId, orderId);
+		}
+	}
+
+	@AfterEach
+	void deleteOrder() {
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id = ?", orderId);
+		jdbcTemplate.update("DELETE FROM orders WHERE id = ?", orderId);
+		jdbcTemplate.update("DELETE FROM pizzas WHERE id = ?", pizzaId);
+		jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+	}
+
+	@Test
+	void statusUpdateDoesNotLoadItems() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Order order = orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+
+		assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+		assertThat(statistics.getCollectionFetchCount()).isZero();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertThat(jdbcTemplate.queryForObject("SELECT total FROM orders WHERE id = ?", BigDecimal.class, orderId))
+				.isEqualByComparingTo("80.00");
+	}
+
+}
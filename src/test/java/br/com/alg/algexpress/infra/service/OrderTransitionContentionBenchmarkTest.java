@@ -0,0 +1,146 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.domain.order.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures status transitions per second when 64 writers race on the same few orders through
+ * {@link OrderService#updateOrderStatus}, i.e. through {@code OptimisticRetry}. Every round
+ * seeds fresh PENDING orders and each writer walks all of them, in its own shuffled order,
+ * through CONFIRMED, PREPARING, READY and DELIVERED; an order therefore changes four times per
+ * round however many writers try. Losers either replay after a version conflict, find the
+ * status already applied (a no-op) or find the order moved on (rejected by the state machine).
+ * Run it with {@code mvn test -Pbenchmark}; {@code -Dbenchmark.writers} and
+ * {@code -Dbenchmark.hot-orders} change the contention.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"algexpress.outbox.relay.enabled=false", "algexpress.dispatch.enabled=false"})
+class OrderTransitionContentionBenchmarkTest {
+
+	private static final String MARKER = "Contention Test";
+	private static final List<Order.OrderStatus> PATH = List.of(Order.OrderStatus.CONFIRMED,
+			Order.OrderStatus.PREPARING, Order.OrderStatus.READY, Order.OrderStatus.DELIVERED);
+	private static final int ROUNDS = 20;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long customerId;
+
+	@BeforeEach
+	void createCustomer() {
+		customerId = jdbcTemplate.queryForObject(
+				"INSERT INTO customers (name, phone) VALUES ('" + MARKER + "', '11999990000') RETURNING id", Long.class);
+	}
+
+	@AfterEach
+	void deleteOrders() {
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'ORDER' AND aggregate_id IN "
+				+ "(SELECT id FROM orders WHERE customer_id = ?)", customerId);
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customerId);
+		jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+		// The delivered orders went into today's rollups
+		salesRollupService.rebuild(LocalDate.now(), LocalDate.now());
+	}
+
+	@Test
+	void transitionsPerSecondUnderContention() throws Exception {
+		int writers = Integer.getInteger("benchmark.writers", 64);
+		int hotOrders = Integer.getInteger("benchmark.hot-orders", 8);
+		AtomicLong calls = new AtomicLong();
+		AtomicLong rejected = new AtomicLong();
+		AtomicLong exhausted = new AtomicLong();
+
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		long elapsed = 0;
+		try {
+			runRound(pool, writers, seedOrders(hotOrders), calls, rejected, exhausted);
+			calls.set(0);
+			rejected.set(0);
+			exhausted.set(0);
+
+			for (int round = 0; round < ROUNDS; round++) {
+				elapsed += runRound(pool, writers, seedOrders(hotOrders), calls, rejected, exhausted);
+				assertThat(jdbcTemplate.queryForList("SELECT DISTINCT status FROM orders WHERE customer_id = ?",
+						String.class, customerId))
+						.as("every order of round %d delivered", round)
+						.containsExactly(Order.OrderStatus.DELIVERED.name());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		long transitions = (long) ROUNDS * hotOrders * PATH.size();
+		double seconds = elapsed / 1e9;
+		System.out.printf("%d writers on %d orders: %,d transitions in %.2f s = %,.0f transitions/s; "
+						+ "%,d calls (%,.0f/s), %,d rejected as already moved on, %,d gave up after retries%n",
+				writers, hotOrders, transitions, seconds, transitions / seconds, calls.get(), calls.get() / seconds,
+				rejected.get(), exhausted.get());
+	}
+
+	private List<Long> seedOrders(int count) {
+		return jdbcTemplate.queryForList("""
+				INSERT INTO orders (customer_id, type, status, subtotal, total)
+				SELECT ?, 'PICKUP', 'PENDING', 50.00, 50.00 FROM generate_series(1, ?)
+				RETURNING id
+				""", Long.class, customerId, count);
+	}
+
+	private long runRound(ExecutorService pool, int writers, List<Long> orderIds, AtomicLong calls,
+						  AtomicLong rejected, AtomicLong exhausted) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> running = new ArrayList<>(writers);
+		for (int i = 0; i < writers; i++) {
+			running.add(pool.submit(() -> {
+				List<Long> mine = new ArrayList<>(orderIds);
+				Collections.shuffle(mine, ThreadLocalRandom.current());
+				start.await();
+				for (Order.OrderStatus status : PATH) {
+					for (Long orderId : mine) {
+						calls.incrementAndGet();
+						try {
+							orderService.updateOrderStatus(orderId, status);
+						} catch (IllegalStateException e) {
+							rejected.incrementAndGet();
+						} catch (OptimisticLockingFailureException e) {
+							exhausted.incrementAndGet();
+						}
+					}
+				}
+				return null;
+			}));
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Future<?> writer : running) {
+			writer.get();
+		}
+		return System.nanoTime() - begin;
+	}
+}
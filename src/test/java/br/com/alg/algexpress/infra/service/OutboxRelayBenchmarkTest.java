@@ -0,0 +1,139 @@
+package br.com.alg.algexpress.infra.service;
+
+import br.com.alg.algexpress.infra.repository.outbox.OutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a backlog of {@code outbox_events} and measures how fast one, two, four and eight
+ * {@link OutboxRelay}s draining it side by side get through it, as separate instances would.
+ * Events are spread over many aggregates, each relayed strictly in order; the benchmark handler
+ * checks that order. The relays also carry the application's own handlers, so unrelated events
+ * already in the table are relayed normally. Run it with {@code mvn test -Pbenchmark};
+ * {@code -Dbenchmark.events} and {@code -Dbenchmark.relays=1,4} pick other sizes.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "algexpress.outbox.relay.enabled=false")
+class OutboxRelayBenchmarkTest {
+
+	private static final String AGGREGATE_TYPE = "BENCHMARK";
+	private static final int AGGREGATES = 10_000;
+
+	@Autowired
+	private OutboxRepository outboxRepository;
+
+	@Autowired
+	private List<OutboxEventHandler> handlers;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${algexpress.outbox.relay.batch-size:200}")
+	private int batchSize;
+
+	@AfterEach
+	void deleteBacklog() {
+		jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = ?", AGGREGATE_TYPE);
+	}
+
+	@Test
+	void drainsBacklogWithSeveralRelays() throws Exception {
+		int events = Integer.getInteger("benchmark.events", 200_000);
+		int[] relayCounts = Arrays.stream(System.getProperty("benchmark.relays", "1,2,4,8").split(","))
+				.mapToInt(count -> Integer.parseInt(count.trim()))
+				.toArray();
+
+		for (int relays : relayCounts) {
+			seedBacklog(events);
+			OrderCheckingHandler handler = new OrderCheckingHandler();
+			List<OutboxEventHandler> relayHandlers = new ArrayList<>(handlers);
+			relayHandlers.add(handler);
+
+			ExecutorService pool = Executors.newFixedThreadPool(relays);
+			long elapsed;
+			try {
+				List<Future<?>> running = new ArrayList<>(relays);
+				long start = System.nanoTime();
+				for (int i = 0; i < relays; i++) {
+					OutboxRelay relay = new OutboxRelay(outboxRepository, relayHandlers, transactionManager, batchSize);
+					running.add(pool.submit(() -> {
+						// A short batch only means the other relays hold the remaining heads
+						while (pendingBenchmarkEvents() > 0) {
+							relay.drain();
+						}
+						return null;
+					}));
+				}
+				for (Future<?> relay : running) {
+					relay.get();
+				}
+				elapsed = System.nanoTime() - start;
+			} finally {
+				pool.shutdownNow();
+			}
+
+			assertThat(handler.handled.get()).isGreaterThanOrEqualTo(events);
+			assertThat(handler.outOfOrder.get()).as("events relayed out of aggregate order").isZero();
+			double seconds = elapsed / 1e9;
+			System.out.printf("%d relay(s), batches of %d: %,d events in %.2f s = %,.0f events/s%n",
+					relays, batchSize, events, seconds, events / seconds);
+		}
+	}
+
+	private void seedBacklog(int events) {
+		jdbcTemplate.update("""
+				INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+				SELECT ?, g % ?, 'BENCHMARK_EVENT', jsonb_build_object('sequence', g)
+				FROM generate_series(1, ?) g
+				""", AGGREGATE_TYPE, AGGREGATES, events);
+		jdbcTemplate.execute("ANALYZE outbox_events");
+	}
+
+	private long pendingBenchmarkEvents() {
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE aggregate_type = ?",
+				Long.class, AGGREGATE_TYPE);
+		return count != null ? count : 0;
+	}
+
+	private static final class OrderCheckingHandler implements OutboxEventHandler {
+
+		private final Map<Long, Long> lastIdByAggregate = new ConcurrentHashMap<>();
+		private final AtomicLong handled = new AtomicLong();
+		private final AtomicLong outOfOrder = new AtomicLong();
+
+		@Override
+		public boolean supports(String aggregateType) {
+			return AGGREGATE_TYPE.equals(aggregateType);
+		}
+
+		@Override
+		public void handle(OutboxRepository.OutboxEvent event) {
+			Long previous = lastIdByAggregate.put(event.aggregateId(), event.id());
+			if (previous != null && previous > event.id()) {
+				outOfOrder.incrementAndGet();
+			}
+			handled.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package br.com.alg.algexpress.infra.support;
+
+import br.com.alg.algexpress.infra.support.ColumnarFile.Column;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Table;
+import br.com.alg.algexpress.infra.support.ColumnarFile.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every column type survives a write and read unchanged, nulls included, whichever encoding
+ * the writer picks for it.
+ */
+class ColumnarFileTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripsEveryTypeWithNulls() {
+		List<Column> columns = List.of(
+				new Column("id", Type.LONG),
+				new Column("amount", Type.DECIMAL),
+				new Column("at", Type.TIMESTAMP),
+				new Column("note", Type.TEXT));
+		List<Object[]> rows = List.of(
+				new Object[]{1L, new BigDecimal("10.5"), LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_000), "plain"},
+				new Object[]{null, null, null, null},
+				new Object[]{-42L, new BigDecimal("-0.125"), LocalDateTime.of(1969, 12, 31, 23, 59, 59), "vírgula, \"aspas\""},
+				new Object[]{Long.MAX_VALUE, new BigDecimal("7"), LocalDateTime.of(2026, 1, 1, 0, 0), ""},
+				new Object[]{Long.MIN_VALUE + 1, null, LocalDateTime.of(2026, 1, 1, 0, 0), null});
+
+		Table read = roundTrip(new Table("values", columns, rows)).get(0);
+
+		assertThat(read.name()).isEqualTo("values");
+		assertThat(read.columns()).isEqualTo(columns);
+		assertThat(read.rows()).hasSize(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			Object[] expected = rows.get(i);
+			Object[] actual = read.rows().get(i);
+			assertThat(actual[0]).isEqualTo(expected[0]);
+			assertThat(actual[2]).isEqualTo(expected[2]);
+			assertThat(actual[3]).isEqualTo(expected[3]);
+			if (expected[1] == null) {
+				assertThat(actual[1]).isNull();
+			} else {
+				// One scale per column: the largest one written
+				assertThat((BigDecimal) actual[1]).isEqualByComparingTo((BigDecimal) expected[1]);
+				assertThat(((BigDecimal) actual[1]).scale()).isEqualTo(3);
+			}
+		}
+	}
+
+	@Test
+	void roundTripsTextWithAndWithoutDictionary() {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			// "status" repeats three values; "code" has more distinct values than a dictionary holds
+			rows.add(new Object[]{List.of("DELIVERED", "CANCELLED", "PENDING").get(i % 3), "code-" + (i % 5_000)});
+		}
+		List<Column> columns = List.of(new Column("status", Type.TEXT), new Column("code", Type.TEXT));
+
+		Table read = roundTrip(new Table("text", columns, rows)).get(0);
+
+		assertThat(read.rows()).hasSize(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			assertThat(read.rows().get(i)).containsExactly(rows.get(i));
+		}
+	}
+
+	@Test
+	void readsOnlyTheFirstTablesWhenAsked() throws IOException {
+		List<Column> columns = List.of(new Column("n", Type.LONG));
+		List<Table> tables = new ArrayList<>();
+		for (String name : List.of("first", "second", "third")) {
+			tables.add(new Table(name, columns, List.<Object[]>of(new Object[]{(long) name.length()})));
+		}
+		Path file = directory.resolve("tables.axcf");
+		ColumnarFile.write(file, tables);
+
+		List<Table> header = ColumnarFile.read(file, 2);
+
+		assertThat(header).extracting(Table::name).containsExactly("first", "second");
+		assertThat(header.get(1).rows().get(0)).containsExactly(6L);
+		assertThat(ColumnarFile.read(file)).extracting(Table::name).containsExactly("first", "second", "third");
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files).containsExactly(file);
+		}
+	}
+
+	private List<Table> roundTrip(Table table) {
+		Path file = directory.resolve(table.name() + ".axcf");
+		ColumnarFile.write(file, List.of(table));
+		return ColumnarFile.read(file);
+	}
+}
@@ -0,0 +1,82 @@
+package br.com.alg.algexpress.infra.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encoding matches the reference geohash, the nine cells of {@link Geohash#covering} contain
+ * every point of the circle and {@link Geohash#upperBound} closes exactly the prefix's key range.
+ */
+class GeohashTest {
+
+	private static final GeoPoint STORE = new GeoPoint(-23.5505, -46.6333);
+
+	@Test
+	void encodesReferencePoints() {
+		assertThat(Geohash.encode(new GeoPoint(57.64911, 10.40744), 11)).isEqualTo("u4pruydqqvj");
+		assertThat(Geohash.encode(new GeoPoint(42.6, -5.6), 5)).isEqualTo("ezs42");
+		assertThat(Geohash.encode(STORE, 6)).isEqualTo(Geohash.encode(STORE, Geohash.ADDRESS_PRECISION).substring(0, 6));
+	}
+
+	@Test
+	void decodesToThePointWithinHalfACell() {
+		String hash = Geohash.encode(STORE, Geohash.ADDRESS_PRECISION);
+		GeoPoint centre = Geohash.decode(hash);
+
+		assertThat(Math.abs(centre.latitude() - STORE.latitude()))
+				.isLessThanOrEqualTo(Geohash.cellHeightDegrees(Geohash.ADDRESS_PRECISION) / 2);
+		assertThat(Math.abs(centre.longitude() - STORE.longitude()))
+				.isLessThanOrEqualTo(Geohash.cellWidthDegrees(Geohash.ADDRESS_PRECISION) / 2);
+		assertThat(Geohash.encode(centre, Geohash.ADDRESS_PRECISION)).isEqualTo(hash);
+	}
+
+	@Test
+	void coveringContainsEveryPointOfTheCircle() {
+		Random random = new Random(7);
+		for (double radiusKm : new double[]{0.05, 0.5, 2, 5, 10, 40}) {
+			for (GeoPoint center : new GeoPoint[]{STORE, new GeoPoint(0.0001, 179.9999), new GeoPoint(60.17, 24.94)}) {
+				Set<String> cells = Geohash.covering(center, radiusKm);
+				assertThat(cells).hasSizeLessThanOrEqualTo(9);
+
+				for (int i = 0; i < 2_000; i++) {
+					GeoPoint point = pointAt(center, radiusKm * Math.sqrt(random.nextDouble()), random.nextDouble() * 360);
+					String hash = Geohash.encode(point, Geohash.ADDRESS_PRECISION);
+					assertThat(cells.stream().anyMatch(hash::startsWith))
+							.as("%s at %.3f km from %s in %s", point, center.distanceKm(point), center, cells)
+							.isTrue();
+				}
+			}
+		}
+	}
+
+	@Test
+	void upperBoundClosesThePrefixRange() {
+		String prefix = Geohash.encode(STORE, 6);
+		String upper = Geohash.upperBound(prefix);
+
+		for (String inside : new String[]{prefix, prefix + "0", prefix + "zzzzzz", Geohash.encode(STORE, 12)}) {
+			assertThat(inside.compareTo(prefix)).isGreaterThanOrEqualTo(0);
+			assertThat(inside.compareTo(upper)).as(inside).isLessThan(0);
+		}
+		String next = prefix.substring(0, 5) + (char) (prefix.charAt(5) + 1);
+		assertThat(next.compareTo(upper)).isGreaterThan(0);
+	}
+
+	// Destination point at distanceKm along the initial bearing, on the same sphere as distanceKm
+	private static GeoPoint pointAt(GeoPoint from, double distanceKm, double bearingDegrees) {
+		double angular = distanceKm / 6371.0088;
+		double bearing = Math.toRadians(bearingDegrees);
+		double lat1 = Math.toRadians(from.latitude());
+		double lon1 = Math.toRadians(from.longitude());
+		double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angular) + Math.cos(lat1) * Math.sin(angular) * Math.cos(bearing));
+		double lon2 = lon1 + Math.atan2(Math.sin(bearing) * Math.sin(angular) * Math.cos(lat1),
+				Math.cos(angular) - Math.sin(lat1) * Math.sin(lat2));
+		double longitude = Math.toDegrees(lon2);
+		longitude = longitude > 180 ? longitude - 360 : longitude < -180 ? longitude + 360 : longitude;
+		return new GeoPoint(Math.toDegrees(lat2), longitude);
+	}
+}
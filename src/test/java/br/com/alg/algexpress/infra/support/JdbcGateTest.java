@@ -0,0 +1,47 @@
+package br.com.alg.algexpress.infra.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The workload class reaches another thread only through {@link JdbcGate#propagate}, and a
+ * pooled thread goes back to whatever it had once the task is done.
+ */
+class JdbcGateTest {
+
+	@AfterEach
+	void clear() {
+		JdbcGate.clear();
+	}
+
+	@Test
+	void pooledThreadsDoNotKeepTheClassOfEarlierTasks() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			JdbcGate.bind(JdbcGate.WorkloadClass.REPORT);
+			assertThat(pool.submit(JdbcGate.propagate(JdbcGate::current)).get()).isEqualTo(JdbcGate.WorkloadClass.REPORT);
+
+			JdbcGate.bind(JdbcGate.WorkloadClass.WRITE);
+			assertThat(pool.submit(JdbcGate::current).get()).isEqualTo(JdbcGate.WorkloadClass.READ);
+			assertThat(pool.submit(JdbcGate.propagate(JdbcGate::current)).get()).isEqualTo(JdbcGate.WorkloadClass.WRITE);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void bindHandsBackThePreviousClass() {
+		JdbcGate.bind(JdbcGate.WorkloadClass.REPORT);
+		JdbcGate.WorkloadClass previous = JdbcGate.bind(JdbcGate.WorkloadClass.WRITE);
+		Runnable task = () -> assertThat(JdbcGate.current()).isEqualTo(JdbcGate.WorkloadClass.WRITE);
+		JdbcGate.propagate(task).run();
+		JdbcGate.restore(previous);
+
+		assertThat(JdbcGate.current()).isEqualTo(JdbcGate.WorkloadClass.REPORT);
+	}
+}
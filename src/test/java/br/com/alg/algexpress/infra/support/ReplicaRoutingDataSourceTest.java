@@ -0,0 +1,121 @@
+package br.com.alg.algexpress.infra.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Wired the way ReplicaRoutingConfig does it, behind a lazy proxy and a transaction manager,
+ * with stand-in primary and replica pools and no lag check ({@code max-lag=0s}).
+ */
+class ReplicaRoutingDataSourceTest {
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replica = mock(DataSource.class);
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection replicaConnection = mock(Connection.class);
+
+	private ReplicaRoutingDataSource routing;
+	private DataSource dataSource;
+	private TransactionTemplate transactions;
+
+	@BeforeEach
+	void wire() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+		when(replicaConnection.isValid(anyInt())).thenReturn(true);
+
+		routing = new ReplicaRoutingDataSource(primary, replica, Duration.ZERO);
+		LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+		proxy.setDefaultAutoCommit(true);
+		proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		dataSource = proxy;
+		transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@AfterEach
+	void clear() {
+		ReadYourWrites.clear();
+	}
+
+	@Test
+	void readOnlyTransactionGoesToTheReplica() throws SQLException {
+		runStatement(true);
+
+		verify(replica).getConnection();
+		verify(primary, never()).getConnection();
+	}
+
+	@Test
+	void writeTransactionStaysOnThePrimary() throws SQLException {
+		runStatement(false);
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void readInsideTheReadYourWritesWindowStaysOnThePrimary() throws SQLException {
+		ReadYourWrites.pinUntil(System.currentTimeMillis() + 60_000);
+		runStatement(true);
+
+		ReadYourWrites.pinUntil(System.currentTimeMillis() - 1);
+		runStatement(true);
+
+		verify(primary, times(1)).getConnection();
+		verify(replica, times(1)).getConnection();
+	}
+
+	@Test
+	void unhealthyReplicaFallsBackToThePrimaryUntilTheHealthCheckPasses() throws SQLException {
+		doThrow(new SQLException("replica down")).when(replica).getConnection();
+		runStatement(true);
+
+		assertThat(routing.isReplicaHealthy()).isFalse();
+		verify(primary, times(1)).getConnection();
+
+		// Not even tried while down
+		runStatement(true);
+		verify(primary, times(2)).getConnection();
+		verify(replica, times(1)).getConnection();
+
+		doReturn(replicaConnection).when(replica).getConnection();
+		routing.checkReplica();
+		runStatement(true);
+
+		assertThat(routing.isReplicaHealthy()).isTrue();
+		verify(primary, times(2)).getConnection();
+		verify(replica, times(3)).getConnection();
+	}
+
+	// The lazy proxy only fetches a target connection once a statement is created
+	private void runStatement(boolean readOnly) {
+		transactions.setReadOnly(readOnly);
+		transactions.executeWithoutResult(status -> {
+			try {
+				DataSourceUtils.getConnection(dataSource).createStatement();
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+}
@@ -0,0 +1,51 @@
+package br.com.alg.algexpress.infra.web;
+
+import br.com.alg.algexpress.infra.support.ReadYourWrites;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A write opens the window through its cookie, reads carrying a live cookie are pinned, and
+ * the pin never outlives the request.
+ */
+class ReadYourWritesFilterTest {
+
+	private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+	@Test
+	void writeIsPinnedAndOpensTheWindow() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(pinnedDuring(new MockHttpServletRequest("POST", "/api/orders"), response)).isTrue();
+		assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNotNull();
+		assertThat(Long.parseLong(response.getCookie(ReadYourWritesFilter.COOKIE_NAME).getValue()))
+				.isGreaterThan(System.currentTimeMillis());
+		assertThat(ReadYourWrites.isPinned()).isFalse();
+	}
+
+	@Test
+	void readIsPinnedOnlyInsideTheWindow() throws Exception {
+		assertThat(pinnedDuring(read(System.currentTimeMillis() + 5_000), new MockHttpServletResponse())).isTrue();
+		assertThat(pinnedDuring(read(System.currentTimeMillis() - 1), new MockHttpServletResponse())).isFalse();
+		assertThat(pinnedDuring(new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse())).isFalse();
+	}
+
+	private static MockHttpServletRequest read(long pinnedUntil) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+		request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(pinnedUntil)));
+		return request;
+	}
+
+	private boolean pinnedDuring(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+		AtomicBoolean pinned = new AtomicBoolean();
+		filter.doFilter(request, response, (req, res) -> pinned.set(ReadYourWrites.isPinned()));
+		return pinned.get();
+	}
+}